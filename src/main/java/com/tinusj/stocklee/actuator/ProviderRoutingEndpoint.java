@@ -0,0 +1,58 @@
+package com.tinusj.stocklee.actuator;
+
+import com.tinusj.stocklee.service.CompositeStockPriceProvider;
+import com.tinusj.stocklee.service.ProviderRouter;
+import com.tinusj.stocklee.service.ProviderStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint (/actuator/providers) showing the current provider order,
+ * circuit breaker states and per-provider statistics.
+ */
+@Component
+@Endpoint(id = "providers")
+@RequiredArgsConstructor
+public class ProviderRoutingEndpoint {
+
+    private final ProviderRouter providerRouter;
+    private final CompositeStockPriceProvider compositeStockPriceProvider;
+
+    @ReadOperation
+    public Map<String, Object> providers() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("route", providerRouter.peekRoute());
+        body.put("lastRouteChange", providerRouter.getLastRouteChange() == null
+                ? null : providerRouter.getLastRouteChange().toString());
+
+        Map<String, Map<String, Object>> providers = new LinkedHashMap<>();
+        for (ProviderRouter.ProviderStatus status : providerRouter.getStatus()) {
+            Map<String, Object> provider = new LinkedHashMap<>();
+            provider.put("state", status.getState());
+            provider.put("degraded", status.isDegraded());
+            provider.put("callsInWindow", status.getCallsInWindow());
+            provider.put("failureRate", status.getFailureRate());
+            provider.put("averageLatencyMs", status.getAverageLatency().toMillis());
+            provider.put("retryAt", status.getRetryAt() == null ? null : status.getRetryAt().toString());
+            providers.put(status.getProviderType().name(), provider);
+        }
+        for (ProviderStatistics.Snapshot snapshot : compositeStockPriceProvider.getProviderStatistics()) {
+            Map<String, Object> totals = new LinkedHashMap<>();
+            totals.put("calls", snapshot.getCalls());
+            totals.put("failures", snapshot.getFailures());
+            totals.put("symbolsRequested", snapshot.getSymbolsRequested());
+            totals.put("symbolsPriced", snapshot.getSymbolsPriced());
+            totals.put("successRate", snapshot.getSuccessRate());
+            totals.put("averageLatencyMs", snapshot.getAverageLatency().toMillis());
+            providers.computeIfAbsent(snapshot.getProviderType().name(), key -> new LinkedHashMap<>())
+                    .put("totals", totals);
+        }
+        body.put("providers", providers);
+        return body;
+    }
+}
@@ -1,8 +1,23 @@
 package com.tinusj.stocklee.config;
 
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.enums.PartitionInterval;
+import com.tinusj.stocklee.enums.ProviderType;
+import com.tinusj.stocklee.enums.RateLimitMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Application-specific configuration properties for the Stock Trading Application.
  */
@@ -12,10 +27,88 @@ public class ApplicationConfig {
 
     private final Scheduler scheduler = new Scheduler();
 
+    private final PriceFetch priceFetch = new PriceFetch();
+
+    private final HttpClient httpClient = new HttpClient();
+
+    private final QuoteCache quoteCache = new QuoteCache();
+
+    private final ProviderRouting providerRouting = new ProviderRouting();
+
+    private final RateLimit rateLimit = new RateLimit();
+
+    private final TradingCalendar tradingCalendar = new TradingCalendar();
+
+    private final PriceTicks priceTicks = new PriceTicks();
+
+    private final Persistence persistence = new Persistence();
+
+    private final Ticks ticks = new Ticks();
+
+    private final Bars bars = new Bars();
+
+    private final HistoryStore historyStore = new HistoryStore();
+
+    private final PortfolioValuation portfolioValuation = new PortfolioValuation();
+
+    private final WebSocket webSocket = new WebSocket();
+
     public Scheduler getScheduler() {
         return scheduler;
     }
 
+    public PriceFetch getPriceFetch() {
+        return priceFetch;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public QuoteCache getQuoteCache() {
+        return quoteCache;
+    }
+
+    public ProviderRouting getProviderRouting() {
+        return providerRouting;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public TradingCalendar getTradingCalendar() {
+        return tradingCalendar;
+    }
+
+    public PriceTicks getPriceTicks() {
+        return priceTicks;
+    }
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    public Ticks getTicks() {
+        return ticks;
+    }
+
+    public Bars getBars() {
+        return bars;
+    }
+
+    public HistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    public PortfolioValuation getPortfolioValuation() {
+        return portfolioValuation;
+    }
+
+    public WebSocket getWebSocket() {
+        return webSocket;
+    }
+
     public static class Scheduler {
         private String marketDataFetchCron = "0 */30 * * * *";
 
@@ -27,4 +120,766 @@ public class ApplicationConfig {
             this.marketDataFetchCron = marketDataFetchCron;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Settings for the parallel price fetch used by the portfolio update cycle.
+     */
+    public static class PriceFetch {
+        private int maxConcurrency = 16;
+        private Duration cycleTimeout = Duration.ofSeconds(8);
+        private int batchSize = 50;
+        private final Map<ProviderType, Integer> providerConcurrency = new EnumMap<>(Map.of(
+                ProviderType.YAHOO_FINANCE, 8,
+                ProviderType.ALPHA_VANTAGE, 2,
+                ProviderType.NASDAQ_API, 4
+        ));
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getCycleTimeout() {
+            return cycleTimeout;
+        }
+
+        public void setCycleTimeout(Duration cycleTimeout) {
+            this.cycleTimeout = cycleTimeout;
+        }
+
+        /**
+         * Symbols handed to the provider chain per task; each provider splits further to its own limit.
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Map<ProviderType, Integer> getProviderConcurrency() {
+            return providerConcurrency;
+        }
+
+        /**
+         * Maximum number of in-flight calls allowed against a single provider.
+         */
+        public int getProviderConcurrency(ProviderType providerType) {
+            return providerConcurrency.getOrDefault(providerType, maxConcurrency);
+        }
+    }
+
+    /**
+     * Settings for the shared, pooled HTTP client used by all stock price providers.
+     */
+    public static class HttpClient {
+        private int maxConnections = 100;
+        private int maxConnectionsPerHost = 20;
+        private final Map<String, Integer> hostMaxConnections = new HashMap<>();
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration idleEviction = Duration.ofMinutes(1);
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private boolean http2 = true;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerHost() {
+            return maxConnectionsPerHost;
+        }
+
+        public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+        }
+
+        /**
+         * Per-host overrides of the connection limit, keyed by base URL (e.g. https://www.alphavantage.co).
+         */
+        public Map<String, Integer> getHostMaxConnections() {
+            return hostMaxConnections;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public Duration getIdleEviction() {
+            return idleEviction;
+        }
+
+        public void setIdleEviction(Duration idleEviction) {
+            this.idleEviction = idleEviction;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+    }
+
+    /**
+     * Settings for the in-process quote cache in front of the provider chain.
+     */
+    public static class QuoteCache {
+        private Duration ttl = Duration.ofSeconds(5);
+        private Duration maxStale = Duration.ofSeconds(30);
+        private long maximumSize = 10_000;
+        private int refreshThreads = 4;
+
+        /**
+         * Age after which a quote is refreshed on the next read.
+         */
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        /**
+         * How long past the TTL a quote may still be served while its refresh runs in the background.
+         */
+        public Duration getMaxStale() {
+            return maxStale;
+        }
+
+        public void setMaxStale(Duration maxStale) {
+            this.maxStale = maxStale;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public int getRefreshThreads() {
+            return refreshThreads;
+        }
+
+        public void setRefreshThreads(int refreshThreads) {
+            this.refreshThreads = refreshThreads;
+        }
+    }
+
+    /**
+     * Settings for health-based provider ordering, circuit breaking and hedged requests.
+     */
+    public static class ProviderRouting {
+        private int windowSize = 50;
+        private Duration windowDuration = Duration.ofMinutes(1);
+        private int minimumCalls = 5;
+        private double failureRateThreshold = 0.5;
+        private double degradedFailureRate = 0.2;
+        private Duration slowCallThreshold = Duration.ofSeconds(2);
+        private Duration openDuration = Duration.ofSeconds(30);
+        private Duration hedgeAfter = Duration.ZERO;
+
+        /**
+         * Most recent calls kept per provider.
+         */
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        /**
+         * Calls older than this drop out of the window, so idle providers recover their standing.
+         */
+        public Duration getWindowDuration() {
+            return windowDuration;
+        }
+
+        public void setWindowDuration(Duration windowDuration) {
+            this.windowDuration = windowDuration;
+        }
+
+        /**
+         * Calls needed in the window before a provider can be demoted or its breaker opened.
+         */
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        /**
+         * Failure rate at which the breaker opens.
+         */
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        /**
+         * Failure rate at which a provider moves behind the healthy ones.
+         */
+        public double getDegradedFailureRate() {
+            return degradedFailureRate;
+        }
+
+        public void setDegradedFailureRate(double degradedFailureRate) {
+            this.degradedFailureRate = degradedFailureRate;
+        }
+
+        /**
+         * Average latency at which a provider moves behind the healthy ones.
+         */
+        public Duration getSlowCallThreshold() {
+            return slowCallThreshold;
+        }
+
+        public void setSlowCallThreshold(Duration slowCallThreshold) {
+            this.slowCallThreshold = slowCallThreshold;
+        }
+
+        /**
+         * Time an open breaker waits before letting a single probe call through.
+         */
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        /**
+         * Latency budget after which a single-symbol lookup also asks the next provider;
+         * zero disables hedging.
+         */
+        public Duration getHedgeAfter() {
+            return hedgeAfter;
+        }
+
+        public void setHedgeAfter(Duration hedgeAfter) {
+            this.hedgeAfter = hedgeAfter;
+        }
+    }
+
+    /**
+     * Client-side request budgets per provider. Providers without an entry are not limited.
+     */
+    public static class RateLimit {
+        private RateLimitMode mode = RateLimitMode.WAIT;
+        private Duration maxWait = Duration.ofSeconds(1);
+        private final Map<ProviderType, Bucket> providers = new EnumMap<>(Map.of(
+                ProviderType.YAHOO_FINANCE, new Bucket(20, 60, Duration.ofMinutes(1)),
+                ProviderType.ALPHA_VANTAGE, new Bucket(5, 5, Duration.ofMinutes(1))
+        ));
+
+        /**
+         * Behaviour of on-demand bulk lookups when a budget is used up. Single-symbol lookups are
+         * non-blocking and the scheduled refresh must not stall, so both always skip.
+         */
+        public RateLimitMode getMode() {
+            return mode;
+        }
+
+        public void setMode(RateLimitMode mode) {
+            this.mode = mode;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public Map<ProviderType, Bucket> getProviders() {
+            return providers;
+        }
+
+        /**
+         * Token bucket of one provider: up to {@code capacity} requests in a burst,
+         * refilled by {@code refillTokens} every {@code refillPeriod}.
+         */
+        public static class Bucket {
+            private int capacity;
+            private int refillTokens;
+            private Duration refillPeriod;
+
+            public Bucket() {
+                this(1, 1, Duration.ofSeconds(1));
+            }
+
+            public Bucket(int capacity, int refillTokens, Duration refillPeriod) {
+                this.capacity = capacity;
+                this.refillTokens = refillTokens;
+                this.refillPeriod = refillPeriod;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public int getRefillTokens() {
+                return refillTokens;
+            }
+
+            public void setRefillTokens(int refillTokens) {
+                this.refillTokens = refillTokens;
+            }
+
+            public Duration getRefillPeriod() {
+                return refillPeriod;
+            }
+
+            public void setRefillPeriod(Duration refillPeriod) {
+                this.refillPeriod = refillPeriod;
+            }
+        }
+    }
+
+    /**
+     * Exchange sessions and the price refresh cadence they drive.
+     */
+    public static class TradingCalendar {
+        private Duration openInterval = Duration.ofSeconds(10);
+        private Duration closedInterval = Duration.ofMinutes(30);
+        private Duration closeSnapshotDelay = Duration.ofMinutes(1);
+        private Stock.MarketType defaultMarket = Stock.MarketType.NYSE;
+        private final Map<Stock.MarketType, Session> sessions = new EnumMap<>(Map.of(
+                Stock.MarketType.NASDAQ, new Session(ZoneId.of("America/New_York"), LocalTime.of(9, 30), LocalTime.of(16, 0)),
+                Stock.MarketType.NYSE, new Session(ZoneId.of("America/New_York"), LocalTime.of(9, 30), LocalTime.of(16, 0)),
+                Stock.MarketType.LSE, new Session(ZoneId.of("Europe/London"), LocalTime.of(8, 0), LocalTime.of(16, 30))
+        ));
+
+        /**
+         * Time between refreshes while a market is in session.
+         */
+        public Duration getOpenInterval() {
+            return openInterval;
+        }
+
+        public void setOpenInterval(Duration openInterval) {
+            this.openInterval = openInterval;
+        }
+
+        /**
+         * Time between refreshes of a closed market; zero stops refreshing outside the session.
+         */
+        public Duration getClosedInterval() {
+            return closedInterval;
+        }
+
+        public void setClosedInterval(Duration closedInterval) {
+            this.closedInterval = closedInterval;
+        }
+
+        /**
+         * Wait after the session close before taking the closing snapshot, so providers report the final price.
+         */
+        public Duration getCloseSnapshotDelay() {
+            return closeSnapshotDelay;
+        }
+
+        public void setCloseSnapshotDelay(Duration closeSnapshotDelay) {
+            this.closeSnapshotDelay = closeSnapshotDelay;
+        }
+
+        /**
+         * Session used for stocks whose market has no session of its own (e.g. OTHER).
+         */
+        public Stock.MarketType getDefaultMarket() {
+            return defaultMarket;
+        }
+
+        public void setDefaultMarket(Stock.MarketType defaultMarket) {
+            this.defaultMarket = defaultMarket;
+        }
+
+        public Map<Stock.MarketType, Session> getSessions() {
+            return sessions;
+        }
+
+        /**
+         * Regular trading hours of one exchange, in its local time zone, with the weekdays it stays closed.
+         */
+        public static class Session {
+            private ZoneId zone;
+            private LocalTime open;
+            private LocalTime close;
+            private List<LocalDate> holidays = new ArrayList<>();
+
+            public Session() {
+                this(ZoneId.of("America/New_York"), LocalTime.of(9, 30), LocalTime.of(16, 0));
+            }
+
+            public Session(ZoneId zone, LocalTime open, LocalTime close) {
+                this.zone = zone;
+                this.open = open;
+                this.close = close;
+            }
+
+            public ZoneId getZone() {
+                return zone;
+            }
+
+            public void setZone(ZoneId zone) {
+                this.zone = zone;
+            }
+
+            public LocalTime getOpen() {
+                return open;
+            }
+
+            public void setOpen(LocalTime open) {
+                this.open = open;
+            }
+
+            public LocalTime getClose() {
+                return close;
+            }
+
+            public void setClose(LocalTime close) {
+                this.close = close;
+            }
+
+            public List<LocalDate> getHolidays() {
+                return holidays;
+            }
+
+            public void setHolidays(List<LocalDate> holidays) {
+                this.holidays = holidays;
+            }
+        }
+    }
+
+    /**
+     * Which refreshed prices count as a change worth storing and broadcasting.
+     * Symbols listed under {@code symbols} override the defaults for that symbol.
+     */
+    public static class PriceTicks {
+        private BigDecimal epsilon = BigDecimal.ZERO;
+        private Duration minInterval = Duration.ZERO;
+        private final Map<String, Rule> symbols = new HashMap<>();
+
+        /**
+         * Largest price move that is still treated as unchanged; zero applies every move.
+         */
+        public BigDecimal getEpsilon() {
+            return epsilon;
+        }
+
+        public void setEpsilon(BigDecimal epsilon) {
+            this.epsilon = epsilon;
+        }
+
+        /**
+         * Shortest time between two applied changes of one symbol; zero applies every change.
+         */
+        public Duration getMinInterval() {
+            return minInterval;
+        }
+
+        public void setMinInterval(Duration minInterval) {
+            this.minInterval = minInterval;
+        }
+
+        public Map<String, Rule> getSymbols() {
+            return symbols;
+        }
+
+        /**
+         * Per-symbol override; unset values fall back to the defaults.
+         */
+        public static class Rule {
+            private BigDecimal epsilon;
+            private Duration minInterval;
+
+            public BigDecimal getEpsilon() {
+                return epsilon;
+            }
+
+            public void setEpsilon(BigDecimal epsilon) {
+                this.epsilon = epsilon;
+            }
+
+            public Duration getMinInterval() {
+                return minInterval;
+            }
+
+            public void setMinInterval(Duration minInterval) {
+                this.minInterval = minInterval;
+            }
+        }
+    }
+
+    /**
+     * Bulk writes made by scheduled jobs.
+     */
+    public static class Persistence {
+        private int batchSize = 500;
+        private int chunkSize = 1000;
+
+        /**
+         * Rows sent to the database per JDBC batch.
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Rows written per transaction when a job applies its results in chunks.
+         */
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * Storage of intraday price ticks, kept apart from the daily bars.
+     * On PostgreSQL ticks live in a table partitioned by time, and expired ticks are removed by
+     * dropping whole partitions; elsewhere they are deleted.
+     */
+    public static class Ticks {
+        private Duration retention = Duration.ofDays(7);
+        private PartitionInterval partitionInterval = PartitionInterval.DAY;
+        private int partitionsAhead = 3;
+        private String maintenanceCron = "0 5 0 * * *";
+
+        /**
+         * How long ticks are kept. A partition is dropped once all of its ticks are older than this.
+         */
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        /**
+         * Time span of each tick partition.
+         */
+        public PartitionInterval getPartitionInterval() {
+            return partitionInterval;
+        }
+
+        public void setPartitionInterval(PartitionInterval partitionInterval) {
+            this.partitionInterval = partitionInterval;
+        }
+
+        /**
+         * Partitions created ahead of the current one, so inserts never wait on a missing partition.
+         */
+        public int getPartitionsAhead() {
+            return partitionsAhead;
+        }
+
+        public void setPartitionsAhead(int partitionsAhead) {
+            this.partitionsAhead = partitionsAhead;
+        }
+
+        /**
+         * When partitions are created and expired ticks removed.
+         */
+        public String getMaintenanceCron() {
+            return maintenanceCron;
+        }
+
+        public void setMaintenanceCron(String maintenanceCron) {
+            this.maintenanceCron = maintenanceCron;
+        }
+    }
+
+    /**
+     * OHLC bars rolled up from intraday ticks for charts.
+     */
+    public static class Bars {
+        private int maxBars = 500;
+
+        /**
+         * Most bars returned for a range when no resolution is requested; the finest resolution
+         * that stays within it is used.
+         */
+        public int getMaxBars() {
+            return maxBars;
+        }
+
+        public void setMaxBars(int maxBars) {
+            this.maxBars = maxBars;
+        }
+    }
+
+    /**
+     * In-memory columnar copy of the most recent daily bars of each symbol, which answers
+     * historical data requests without reading the database.
+     */
+    public static class HistoryStore {
+        private boolean enabled = true;
+        private int capacity = 1300;
+
+        /**
+         * Whether historical data requests are served from memory when it holds the requested range.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Most recent daily bars kept per symbol; older ranges are read from the database.
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    /**
+     * Per-user portfolio aggregates kept in memory and updated as trades fill and prices change.
+     */
+    public static class PortfolioValuation {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration maxAge = Duration.ofMinutes(15);
+
+        /**
+         * Whether valuations are kept between requests; when off, each summary reads the holdings once.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Portfolios kept before least-recently-used eviction.
+         */
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * Age after which a valuation is read again from the database, however often it was updated,
+         * which bounds the drift from holdings or prices changed outside this application.
+         */
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+    }
+
+    /**
+     * Sending of WebSocket frames to connected browsers.
+     */
+    public static class WebSocket {
+        private int sendBufferSizeLimit = 512 * 1024;
+        private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+        /**
+         * Bytes of frames queued for one session, after conflating price updates, before it is closed.
+         */
+        public int getSendBufferSizeLimit() {
+            return sendBufferSizeLimit;
+        }
+
+        public void setSendBufferSizeLimit(int sendBufferSizeLimit) {
+            this.sendBufferSizeLimit = sendBufferSizeLimit;
+        }
+
+        /**
+         * Time one frame may take to send before its session is closed.
+         */
+        public Duration getSendTimeLimit() {
+            return sendTimeLimit;
+        }
+
+        public void setSendTimeLimit(Duration sendTimeLimit) {
+            this.sendTimeLimit = sendTimeLimit;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.tinusj.stocklee.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * WebSocket session that queues its outgoing frames and sends them from an executor, so the broker
+ * thread handing a frame over never waits on a slow browser. Frames are sent in order, by one task at
+ * a time. A price frame for a subscription that still has one queued replaces it, keeping the latest
+ * update of each symbol in either, so a slow browser skips to the latest prices instead of falling
+ * behind. Other frames are queued as they come.
+ * <p>
+ * Sending on the broker thread under a lock, as Spring's {@code ConcurrentWebSocketSessionDecorator}
+ * does, would not conflate anything: that decorator wraps this session, so frames arriving during a
+ * slow send would wait in its buffer rather than this queue. The executor must therefore start each
+ * task without waiting for another session's to finish, as a cached thread pool does.
+ * <p>
+ * The queue is bounded: the session is closed, for the browser to reconnect, once its queued frames
+ * take more than the buffer size limit or a send has taken more than the time limit. The time limit is
+ * checked by {@link #checkSendTime()} as well as on each new frame, so a stuck send is caught even when
+ * no more frames come.
+ */
+@Slf4j
+final class ConflatingWebSocketSession extends WebSocketSessionDecorator {
+
+    private static final String MESSAGE_FRAME = "MESSAGE\n";
+    private static final String DESTINATION_HEADER = "\ndestination:";
+    private static final String SUBSCRIPTION_HEADER = "\nsubscription:";
+    private static final String CONTENT_LENGTH_HEADER = "\ncontent-length:";
+
+    private final Executor executor;
+    private final ObjectMapper objectMapper;
+    private final String conflatedPrefix;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimit;
+
+    /**
+     * Frames not sent yet, in order, keyed by subscription for conflated frames. Guarded by itself.
+     */
+    private final Map<Object, WebSocketMessage<?>> queued = new LinkedHashMap<>();
+    private int bufferSize;
+    private boolean sending;
+    private volatile long sendStartTime;
+    private volatile boolean closed;
+
+    /**
+     * @param conflatedPrefix Destinations whose frames are conflated; their payloads must be one price
+     *                        update or an array of them
+     * @param sendTimeLimit   Milliseconds
+     */
+    ConflatingWebSocketSession(WebSocketSession delegate, Executor executor, ObjectMapper objectMapper,
+                               String conflatedPrefix, int bufferSizeLimit, long sendTimeLimit) {
+        super(delegate);
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.conflatedPrefix = conflatedPrefix;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimit = sendTimeLimit;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        if (closed) {
+            return;
+        }
+        String subscription = conflatedSubscription(message);
+        boolean start = false;
+        boolean overflow;
+        synchronized (queued) {
+            Object key = subscription != null ? subscription : new Object();
+            WebSocketMessage<?> previous = queued.get(key);
+            WebSocketMessage<?> next = previous == null ? message : conflate(previous, message);
+            bufferSize += next.getPayloadLength() - (previous == null ? 0 : previous.getPayloadLength());
+            queued.put(key, next);
+            overflow = bufferSize > bufferSizeLimit;
+            if (!sending && !overflow) {
+                sending = true;
+                start = true;
+            }
+        }
+        if (overflow) {
+            limitExceeded("Buffer size " + bufferSize + " bytes exceeds the limit of " + bufferSizeLimit);
+        } else if (start) {
+            executor.execute(this::sendQueued);
+        } else {
+            checkSendTime();
+        }
+    }
+
+    /**
+     * Close the session if the frame it is sending has taken more than the time limit.
+     */
+    void checkSendTime() {
+        long started = sendStartTime;
+        if (started != 0 && System.currentTimeMillis() - started > sendTimeLimit) {
+            limitExceeded("Send has taken more than " + sendTimeLimit + " ms");
+        }
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        discard();
+        super.close(status);
+    }
+
+    int getBufferSize() {
+        synchronized (queued) {
+            return bufferSize;
+        }
+    }
+
+    private void sendQueued() {
+        while (true) {
+            WebSocketMessage<?> next;
+            synchronized (queued) {
+                Iterator<WebSocketMessage<?>> frames = queued.values().iterator();
+                if (closed || !frames.hasNext()) {
+                    sending = false;
+                    return;
+                }
+                next = frames.next();
+                frames.remove();
+                bufferSize -= next.getPayloadLength();
+            }
+            sendStartTime = System.currentTimeMillis();
+            try {
+                getDelegate().sendMessage(next);
+            } catch (Exception e) {
+                log.debug("Failed to send to WebSocket session {}: {}", getId(), e.getMessage());
+                discard();
+                synchronized (queued) {
+                    sending = false;
+                }
+                return;
+            } finally {
+                sendStartTime = 0;
+            }
+        }
+    }
+
+    private void limitExceeded(String reason) {
+        if (closed) {
+            return;
+        }
+        log.warn("Closing slow WebSocket session {}: {}", getId(), reason);
+        discard();
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception e) {
+            log.debug("Failed to close WebSocket session {}: {}", getId(), e.getMessage());
+        }
+    }
+
+    private void discard() {
+        closed = true;
+        synchronized (queued) {
+            queued.clear();
+            bufferSize = 0;
+        }
+    }
+
+    /**
+     * Subscription of a MESSAGE frame to a conflated destination, or null for any other frame.
+     */
+    private String conflatedSubscription(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text) || !text.getPayload().startsWith(MESSAGE_FRAME)) {
+            return null;
+        }
+        String frame = text.getPayload();
+        int headersEnd = frame.indexOf("\n\n");
+        if (headersEnd < 0) {
+            return null;
+        }
+        String destination = header(frame, DESTINATION_HEADER, headersEnd);
+        if (destination == null || !destination.startsWith(conflatedPrefix)) {
+            return null;
+        }
+        return header(frame, SUBSCRIPTION_HEADER, headersEnd);
+    }
+
+    /**
+     * Frame replacing a queued one for the same subscription: the newer frame, with the updates of
+     * symbols only the queued one holds added when both hold arrays of updates.
+     */
+    private WebSocketMessage<?> conflate(WebSocketMessage<?> queuedMessage, WebSocketMessage<?> message) {
+        String queuedFrame = ((TextMessage) queuedMessage).getPayload();
+        String frame = ((TextMessage) message).getPayload();
+        int headersEnd = frame.indexOf("\n\n");
+        try {
+            JsonNode queuedUpdates = objectMapper.readTree(body(queuedFrame, queuedFrame.indexOf("\n\n")));
+            JsonNode updates = objectMapper.readTree(body(frame, headersEnd));
+            if (!queuedUpdates.isArray() || !updates.isArray()) {
+                return message;
+            }
+            Map<String, JsonNode> bySymbol = new LinkedHashMap<>();
+            queuedUpdates.forEach(update -> bySymbol.put(update.path("symbol").asText(), update));
+            updates.forEach(update -> bySymbol.put(update.path("symbol").asText(), update));
+            if (bySymbol.size() == updates.size()) {
+                return message;
+            }
+            ArrayNode merged = objectMapper.createArrayNode().addAll(bySymbol.values());
+            return frame(frame.substring(0, headersEnd), objectMapper.writeValueAsString(merged));
+        } catch (IOException e) {
+            log.debug("Could not merge price frames for WebSocket session {}: {}", getId(), e.getMessage());
+            return message;
+        }
+    }
+
+    private static TextMessage frame(String headers, String body) {
+        int lengthStart = headers.indexOf(CONTENT_LENGTH_HEADER);
+        if (lengthStart >= 0) {
+            int valueStart = lengthStart + CONTENT_LENGTH_HEADER.length();
+            int valueEnd = headers.indexOf('\n', valueStart);
+            headers = headers.substring(0, valueStart) + body.getBytes(StandardCharsets.UTF_8).length
+                    + (valueEnd < 0 ? "" : headers.substring(valueEnd));
+        }
+        return new TextMessage(headers + "\n\n" + body + "\0");
+    }
+
+    private static String body(String frame, int headersEnd) {
+        int end = frame.endsWith("\0") ? frame.length() - 1 : frame.length();
+        return frame.substring(headersEnd + 2, end);
+    }
+
+    private static String header(String frame, String name, int headersEnd) {
+        int start = frame.indexOf(name);
+        if (start < 0 || start > headersEnd) {
+            return null;
+        }
+        int valueStart = start + name.length();
+        int end = frame.indexOf('\n', valueStart);
+        return frame.substring(valueStart, end < 0 ? frame.length() : end);
+    }
+}
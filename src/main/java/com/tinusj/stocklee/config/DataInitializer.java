@@ -86,6 +86,7 @@ public class DataInitializer implements CommandLineRunner {
         adminProfile.setUsername("Administrator");
         adminProfile.setEmail("admin@stocklee.com");
         adminProfile.setBalance(BigDecimal.valueOf(50000.00)); // Admin starts with $50,000
+        adminProfile.setAccount(adminUser);
         
         userProfileService.save(adminProfile);
         
@@ -116,6 +117,7 @@ public class DataInitializer implements CommandLineRunner {
         regularProfile.setUsername("RegularUser");
         regularProfile.setEmail("user@stocklee.com");
         regularProfile.setBalance(BigDecimal.valueOf(10000.00)); // User starts with $10,000
+        regularProfile.setAccount(regularUser);
         
         userProfileService.save(regularProfile);
         
@@ -0,0 +1,121 @@
+package com.tinusj.stocklee.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Shared HTTP client configuration for the stock price providers.
+ * A single connection pool keeps TCP/TLS connections alive between quote requests
+ * and negotiates HTTP/2 with hosts that support it.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Connection pool shared by every provider, with per-host limits.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager quoteConnectionManager(ApplicationConfig applicationConfig) {
+        ApplicationConfig.HttpClient settings = applicationConfig.getHttpClient();
+
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.getMaxConnections())
+                .setMaxConnPerRoute(settings.getMaxConnectionsPerHost())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(toTimeout(settings.getConnectTimeout()))
+                        .setSocketTimeout(toTimeout(settings.getResponseTimeout()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(settings.getTimeToLive().toMillis()))
+                        .build())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(settings.isHttp2() ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
+                        .build())
+                .setMessageMultiplexing(settings.isHttp2())
+                .build();
+
+        for (Map.Entry<String, Integer> entry : settings.getHostMaxConnections().entrySet()) {
+            connectionManager.setMaxPerRoute(toRoute(entry.getKey()), entry.getValue());
+        }
+        return connectionManager;
+    }
+
+    /**
+     * Started async client backed by the shared pool.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient quoteAsyncHttpClient(PoolingAsyncClientConnectionManager quoteConnectionManager,
+                                                    ApplicationConfig applicationConfig) {
+        ApplicationConfig.HttpClient settings = applicationConfig.getHttpClient();
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(quoteConnectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(toTimeout(settings.getResponseTimeout()))
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(toTimeout(settings.getConnectionRequestTimeout()))
+                        .setResponseTimeout(toTimeout(settings.getResponseTimeout()))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(settings.getKeepAlive().toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(settings.getIdleEviction().toMillis()))
+                .build();
+        client.start();
+        return client;
+    }
+
+    /**
+     * Publish pool usage (leased, pending, available, max) on the actuator metrics endpoint.
+     */
+    @Bean
+    public MeterBinder quoteConnectionPoolMetrics(PoolingAsyncClientConnectionManager quoteConnectionManager) {
+        return registry -> {
+            registerPoolGauge(registry, quoteConnectionManager, "leased", PoolStats::getLeased);
+            registerPoolGauge(registry, quoteConnectionManager, "pending", PoolStats::getPending);
+            registerPoolGauge(registry, quoteConnectionManager, "available", PoolStats::getAvailable);
+            registerPoolGauge(registry, quoteConnectionManager, "max", PoolStats::getMax);
+        };
+    }
+
+    private void registerPoolGauge(MeterRegistry registry,
+                                   PoolingAsyncClientConnectionManager connectionManager,
+                                   String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("stocklee.http.client.pool.connections", connectionManager,
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .tag("state", state)
+                .description("Connections in the shared quote HTTP pool")
+                .register(registry);
+    }
+
+    private static HttpRoute toRoute(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), null, secure);
+    }
+
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+}
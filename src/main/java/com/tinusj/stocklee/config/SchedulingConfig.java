@@ -0,0 +1,27 @@
+package com.tinusj.stocklee.config;
+
+import com.tinusj.stocklee.service.PortfolioUpdateScheduler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Scheduling configuration for the market-hours-aware price refresh.
+ * The refresh and closing snapshot run on triggers computed from the trading calendar
+ * rather than a fixed rate.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    private final PortfolioUpdateScheduler portfolioUpdateScheduler;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addTriggerTask(portfolioUpdateScheduler::updatePortfolio,
+                context -> portfolioUpdateScheduler.nextRefresh(context.lastCompletion()));
+        registrar.addTriggerTask(portfolioUpdateScheduler::snapshotClose,
+                context -> portfolioUpdateScheduler.nextCloseSnapshot());
+    }
+}
@@ -70,6 +70,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/history-logs/**").hasRole("ADMIN")
                 .requestMatchers("/api/stock-histories/**").hasRole("ADMIN")
                 .requestMatchers("/api/transaction-histories/**").hasRole("ADMIN")
+                .requestMatchers("/api/stock-transactions/export").hasRole("ADMIN")
                 // All other API endpoints require authentication
                 .requestMatchers("/api/**").authenticated()
                 // Allow public access to static resources, root, and actuator health
@@ -1,24 +1,64 @@
 package com.tinusj.stocklee.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * WebSocket configuration for real-time stock price updates.
+ * WebSocket configuration for real-time stock price and portfolio updates.
+ * Each session sends through a {@link ConflatingWebSocketSession}, so a slow browser gets the latest
+ * prices rather than every one, and cannot hold up the broker. Sends run on a cached thread pool, so a
+ * session stuck sending holds only its own thread, and a watchdog closes sessions whose send has
+ * taken more than the time limit.
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ApplicationConfig.WebSocket settings;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sendExecutor;
+    private final ScheduledExecutorService sendWatchdog;
+    private final Map<String, ConflatingWebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    public WebSocketConfig(ApplicationConfig applicationConfig, ObjectMapper objectMapper) {
+        this.settings = applicationConfig.getWebSocket();
+        this.objectMapper = objectMapper;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("websocket-send-");
+        threadFactory.setDaemon(true);
+        this.sendExecutor = Executors.newCachedThreadPool(threadFactory);
+        CustomizableThreadFactory watchdogThreadFactory = new CustomizableThreadFactory("websocket-send-watchdog-");
+        watchdogThreadFactory.setDaemon(true);
+        this.sendWatchdog = Executors.newSingleThreadScheduledExecutor(watchdogThreadFactory);
+        long checkInterval = Math.max(100, settings.getSendTimeLimit().toMillis() / 10);
+        sendWatchdog.scheduleWithFixedDelay(() -> sessions.values().forEach(ConflatingWebSocketSession::checkSendTime),
+                checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple memory-based message broker to carry messages back to the client
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic", "/queue");
         // Prefix for messages bound for @MessageMapping-annotated methods
         config.setApplicationDestinationPrefixes("/app");
+        // Prefix for destinations of one user's sessions, such as /user/queue/portfolio
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
@@ -27,4 +67,30 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .withSockJS(); // Enable SockJS fallback options
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        long sendTimeLimit = settings.getSendTimeLimit().toMillis();
+        registration.addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                ConflatingWebSocketSession conflating = new ConflatingWebSocketSession(session, sendExecutor, objectMapper,
+                        "/topic/stock-prices", settings.getSendBufferSizeLimit(), sendTimeLimit);
+                sessions.put(session.getId(), conflating);
+                super.afterConnectionEstablished(conflating);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendWatchdog.shutdownNow();
+        sendExecutor.shutdownNow();
+    }
+}
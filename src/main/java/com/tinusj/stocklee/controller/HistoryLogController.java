@@ -1,8 +1,11 @@
 package com.tinusj.stocklee.controller;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.HistoryLog;
+import com.tinusj.stocklee.service.KeysetCursor;
 import com.tinusj.stocklee.service.HistoryLogService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,12 +26,27 @@ public class HistoryLogController {
     private final HistoryLogService historyLogService;
 
     /**
-     * Get all history logs.
+     * Get one keyset page of history logs, newest first by default.
+     * The token for the next page is returned in the {@code X-Next-Cursor} header, which is absent on the last page.
      */
     @GetMapping
-    public ResponseEntity<List<HistoryLog>> getAllHistoryLogs() {
-        List<HistoryLog> historyLogs = historyLogService.findAll();
-        return ResponseEntity.ok(historyLogs);
+    public ResponseEntity<List<HistoryLog>> getAllHistoryLogs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) UUID userId) {
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        CursorPage<HistoryLog> page;
+        try {
+            page = historyLogService.findPage(userId, cursor, size, direction);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(KeysetCursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 
     /**
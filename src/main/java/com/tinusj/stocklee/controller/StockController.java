@@ -2,18 +2,27 @@ package com.tinusj.stocklee.controller;
 
 import com.tinusj.stocklee.dto.CurrentPriceDto;
 import com.tinusj.stocklee.dto.HistoricalStockDataDto;
+import com.tinusj.stocklee.dto.StockBarDto;
 import com.tinusj.stocklee.entity.Stock;
-import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.StockBar;
+import com.tinusj.stocklee.enums.BarResolution;
+import com.tinusj.stocklee.enums.ExportFormat;
+import com.tinusj.stocklee.service.ExportService;
 import com.tinusj.stocklee.service.StockService;
 import com.tinusj.stocklee.service.StockHistoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -28,6 +37,7 @@ public class StockController {
 
     private final StockService stockService;
     private final StockHistoryService stockHistoryService;
+    private final ExportService exportService;
 
     /**
      * Get all stocks.
@@ -149,10 +159,62 @@ public class StockController {
         
         String upperSymbol = symbol.toUpperCase();
         
-        List<StockHistory> historicalData = stockHistoryService.getHistoricalData(upperSymbol, fromDate, toDate);
+        return ResponseEntity.ok(stockHistoryService.getDailyBars(upperSymbol, fromDate, toDate));
+    }
+
+    /**
+     * Stream historical data for a stock within a date range as CSV or NDJSON, oldest first.
+     * NDJSON lines have the same fields as the historical data endpoint.
+     */
+    @GetMapping("/{symbol}/historical/export")
+    public ResponseEntity<StreamingResponseBody> exportHistoricalData(
+            @PathVariable String symbol,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(defaultValue = "csv") String format) {
+        
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String upperSymbol = symbol.toUpperCase();
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(upperSymbol + "-history." + exportFormat.getExtension()).build().toString())
+                .body(out -> exportService.exportDailyBars(upperSymbol, fromDate, toDate, exportFormat, out));
+    }
+
+    /**
+     * Get OHLC bars for a stock between two instants, oldest first.
+     * Without a resolution (1m, 5m, 1h or 1d) the finest one that keeps the range within the configured
+     * number of bars is used.
+     */
+    @GetMapping("/{symbol}/bars")
+    public ResponseEntity<List<StockBarDto>> getBars(
+            @PathVariable String symbol,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String resolution) {
+        
+        BarResolution barResolution = null;
+        try {
+            if (resolution != null) {
+                barResolution = BarResolution.fromLabel(resolution);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String upperSymbol = symbol.toUpperCase();
         
-        List<HistoricalStockDataDto> dtoList = historicalData.stream()
-                .map(this::convertToDto)
+        List<StockBarDto> dtoList = stockHistoryService.getHistoricalData(upperSymbol, from, to, barResolution).stream()
+                .map(bar -> convertToDto(upperSymbol, bar))
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(dtoList);
@@ -203,17 +265,18 @@ public class StockController {
     }
 
     /**
-     * Convert StockHistory entity to DTO.
+     * Convert StockBar entity to DTO.
      */
-    private HistoricalStockDataDto convertToDto(StockHistory stockHistory) {
-        return new HistoricalStockDataDto(
-                stockHistory.getStock().getSymbol(),
-                stockHistory.getDate(),
-                stockHistory.getOpenPrice(),
-                stockHistory.getHighPrice(),
-                stockHistory.getLowPrice(),
-                stockHistory.getClosePrice(),
-                stockHistory.getVolume()
+    private StockBarDto convertToDto(String symbol, StockBar bar) {
+        return new StockBarDto(
+                symbol,
+                bar.getResolution().getLabel(),
+                bar.getBucketStart(),
+                bar.getOpenPrice(),
+                bar.getHighPrice(),
+                bar.getLowPrice(),
+                bar.getClosePrice(),
+                bar.getVolume()
         );
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,24 @@
 package com.tinusj.stocklee.controller;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.enums.ExportFormat;
+import com.tinusj.stocklee.service.ExportService;
+import com.tinusj.stocklee.service.KeysetCursor;
 import com.tinusj.stocklee.service.StockHistoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,14 +32,56 @@ import java.util.UUID;
 public class StockHistoryController {
 
     private final StockHistoryService stockHistoryService;
+    private final ExportService exportService;
 
     /**
-     * Get all stock histories.
+     * Get one keyset page of stock histories, newest first by default.
+     * The token for the next page is returned in the {@code X-Next-Cursor} header, which is absent on the last page.
      */
     @GetMapping
-    public ResponseEntity<List<StockHistory>> getAllStockHistories() {
-        List<StockHistory> stockHistories = stockHistoryService.findAll();
-        return ResponseEntity.ok(stockHistories);
+    public ResponseEntity<List<StockHistory>> getAllStockHistories(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) UUID stockId) {
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        CursorPage<StockHistory> page;
+        try {
+            page = stockHistoryService.findPage(stockId, cursor, size, direction);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(KeysetCursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
+
+    /**
+     * Stream daily bars as CSV or NDJSON, by symbol and then oldest first.
+     * Without a symbol every stock is exported; without dates the whole history is.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStockHistories(
+            @RequestParam(required = false) String symbol,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String upperSymbol = symbol != null && !symbol.isBlank() ? symbol.trim().toUpperCase() : null;
+        LocalDate from = fromDate != null ? fromDate : LocalDate.EPOCH;
+        LocalDate to = toDate != null ? toDate : LocalDate.now();
+        String filename = (upperSymbol != null ? upperSymbol : "stock") + "-history." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> exportService.exportDailyBars(upperSymbol, from, to, exportFormat, out));
     }
 
     /**
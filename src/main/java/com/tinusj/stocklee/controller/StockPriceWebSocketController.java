@@ -1,13 +1,24 @@
 package com.tinusj.stocklee.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinusj.stocklee.dto.PortfolioUpdateDto;
 import com.tinusj.stocklee.dto.StockPriceUpdateDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * WebSocket controller for broadcasting real-time stock price updates.
+ * WebSocket controller for broadcasting real-time stock price updates and sending portfolio updates
+ * to their users.
  */
 @Controller
 @RequiredArgsConstructor
@@ -15,25 +26,58 @@ import org.springframework.stereotype.Controller;
 public class StockPriceWebSocketController {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Broadcast stock price update to all connected clients.
+     * Broadcast one cycle's stock price updates to all connected clients: every update in one frame to
+     * /topic/stock-prices, and each symbol's update to its own topic. A symbol updated more than once
+     * is sent at its latest price only. Each payload is serialized once; the broker hands the same bytes
+     * to every subscribed session.
      */
-    public void broadcastStockPriceUpdate(StockPriceUpdateDto priceUpdate) {
+    public void broadcastStockPriceUpdates(Collection<StockPriceUpdateDto> priceUpdates) {
+        if (priceUpdates.isEmpty()) {
+            return;
+        }
+        Map<String, StockPriceUpdateDto> latest = new LinkedHashMap<>();
+        for (StockPriceUpdateDto priceUpdate : priceUpdates) {
+            latest.put(priceUpdate.getSymbol(), priceUpdate);
+        }
         try {
-            log.debug("Broadcasting price update for {}: {} -> {}", 
-                    priceUpdate.getSymbol(), 
-                    priceUpdate.getPreviousPrice(), 
-                    priceUpdate.getCurrentPrice());
-            
+            log.debug("Broadcasting price updates for {} stocks", latest.size());
+
             // Broadcast to all clients subscribed to /topic/stock-prices
-            messagingTemplate.convertAndSend("/topic/stock-prices", priceUpdate);
-            
-            // Also broadcast to symbol-specific topic for targeted updates
-            messagingTemplate.convertAndSend("/topic/stock-prices/" + priceUpdate.getSymbol().toLowerCase(), priceUpdate);
-            
+            send("/topic/stock-prices", latest.values());
+
+            // Also broadcast to symbol-specific topics for targeted updates
+            for (StockPriceUpdateDto priceUpdate : latest.values()) {
+                send("/topic/stock-prices/" + priceUpdate.getSymbol().toLowerCase(), priceUpdate);
+            }
+        } catch (Exception e) {
+            log.error("Error broadcasting price updates for {}: {}", latest.keySet(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Send a portfolio update to the sessions of one user, subscribed to /user/queue/portfolio.
+     *
+     * @param username Name the user's sessions are authenticated as, their email
+     */
+    public void sendPortfolioUpdate(String username, PortfolioUpdateDto portfolioUpdate) {
+        try {
+            messagingTemplate.convertAndSendToUser(username, "/queue/portfolio", portfolioUpdate);
         } catch (Exception e) {
-            log.error("Error broadcasting stock price update for {}: {}", priceUpdate.getSymbol(), e.getMessage(), e);
+            log.error("Error sending portfolio update to {}: {}", username, e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Send a payload as JSON serialized up front, so the broker does not convert it again.
+     */
+    private void send(String destination, Object payload) throws JsonProcessingException {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(destination,
+                MessageBuilder.createMessage(objectMapper.writeValueAsBytes(payload), headers.getMessageHeaders()));
+    }
+}
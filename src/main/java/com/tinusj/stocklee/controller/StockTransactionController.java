@@ -1,11 +1,20 @@
 package com.tinusj.stocklee.controller;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.StockTransaction;
+import com.tinusj.stocklee.enums.ExportFormat;
+import com.tinusj.stocklee.service.ExportService;
+import com.tinusj.stocklee.service.KeysetCursor;
 import com.tinusj.stocklee.service.StockTransactionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -19,14 +28,51 @@ import java.util.UUID;
 public class StockTransactionController {
 
     private final StockTransactionService stockTransactionService;
+    private final ExportService exportService;
 
     /**
-     * Get all stock transactions.
+     * Get one keyset page of stock transactions, newest first by default.
+     * The token for the next page is returned in the {@code X-Next-Cursor} header, which is absent on the last page.
      */
     @GetMapping
-    public ResponseEntity<List<StockTransaction>> getAllStockTransactions() {
-        List<StockTransaction> transactions = stockTransactionService.findAll();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<StockTransaction>> getAllStockTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) StockTransaction.TransactionType transactionType) {
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        CursorPage<StockTransaction> page;
+        try {
+            page = stockTransactionService.findPage(userId, transactionType, cursor, size, direction);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(KeysetCursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
+
+    /**
+     * Stream stock transactions as CSV or NDJSON, oldest first, optionally for one user.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStockTransactions(
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("stock-transactions." + exportFormat.getExtension()).build().toString())
+                .body(out -> exportService.exportTransactions(userId, exportFormat, out));
     }
 
     /**
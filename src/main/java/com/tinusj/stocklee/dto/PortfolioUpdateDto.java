@@ -0,0 +1,31 @@
+package com.tinusj.stocklee.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for a real-time portfolio update sent to one user via WebSocket: the new portfolio totals and
+ * the holdings repriced since the last update.
+ */
+@Data
+@NoArgsConstructor
+public class PortfolioUpdateDto {
+
+    private BigDecimal totalInvestment;
+    private BigDecimal currentValue;
+    private BigDecimal profitLoss;
+    private List<OwnedStockDto> changedStocks;
+    private LocalDateTime timestamp;
+
+    public BigDecimal getProfitLossPercentage() {
+        if (totalInvestment == null || totalInvestment.compareTo(BigDecimal.ZERO) == 0) {
+            return BigDecimal.ZERO;
+        }
+        return profitLoss.divide(totalInvestment, 4, java.math.RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100));
+    }
+}
@@ -0,0 +1,25 @@
+package com.tinusj.stocklee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for an OHLC bar at one resolution.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBarDto {
+    private String symbol;
+    private String resolution;
+    private LocalDateTime start;
+    private BigDecimal openPrice;
+    private BigDecimal highPrice;
+    private BigDecimal lowPrice;
+    private BigDecimal closePrice;
+    private Long volume;
+}
@@ -11,6 +11,10 @@ import java.util.UUID;
  * Represents a detailed log of user activities.
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_history_log_user_timestamp", columnList = "user_id, timestamp"),
+    @Index(name = "idx_history_log_timestamp", columnList = "timestamp")
+})
 @Data
 @NoArgsConstructor
 public class HistoryLog {
@@ -11,6 +11,10 @@ import java.util.UUID;
  * Tracks stocks currently owned by a user.
  */
 @Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_owned_stock_user_stock", columnNames = {"user_id", "stock_id"}),
+    indexes = @Index(name = "idx_owned_stock_stock", columnList = "stock_id")
+)
 @Data
 @NoArgsConstructor
 public class OwnedStock {
@@ -27,7 +31,7 @@ public class OwnedStock {
     @JoinColumn(nullable = false)
     private Stock stock;
 
-    @Column(nullable = false, scale = 4)
+    @Column(nullable = false, precision = 38, scale = 4)
     private BigDecimal quantity;
 
     @Column(nullable = false, scale = 2)
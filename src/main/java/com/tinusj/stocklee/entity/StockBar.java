@@ -0,0 +1,76 @@
+package com.tinusj.stocklee.entity;
+
+import com.tinusj.stocklee.enums.BarResolution;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An OHLC bar of a stock at one {@link BarResolution}, rolled up from its intraday ticks as they are written.
+ * Bars are unique per stock, resolution and start, and are kept after the ticks they summarise expire.
+ * Quotes carry no traded volume, so rolled-up bars count ticks instead and leave the volume empty.
+ */
+@Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_bar_stock_resolution_start",
+            columnNames = {"stock_id", "resolution", "bucket_start"})
+)
+@Data
+@NoArgsConstructor
+public class StockBar {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(nullable = false)
+    private Stock stock;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BarResolution resolution;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, scale = 2)
+    private BigDecimal openPrice;
+
+    @Column(nullable = false, scale = 2)
+    private BigDecimal highPrice;
+
+    @Column(nullable = false, scale = 2)
+    private BigDecimal lowPrice;
+
+    @Column(nullable = false, scale = 2)
+    private BigDecimal closePrice;
+
+    private Long volume;
+
+    @Column(nullable = false)
+    private int tickCount;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * Bar for a daily row of {@link StockHistory}, used where provider bars stand in for rolled-up ones.
+     * The result is not meant to be persisted.
+     */
+    public static StockBar fromDailyBar(StockHistory dailyBar) {
+        StockBar bar = new StockBar();
+        bar.setStock(dailyBar.getStock());
+        bar.setResolution(BarResolution.DAY_1);
+        bar.setBucketStart(dailyBar.getDate().atStartOfDay());
+        bar.setOpenPrice(dailyBar.getOpenPrice());
+        bar.setHighPrice(dailyBar.getHighPrice());
+        bar.setLowPrice(dailyBar.getLowPrice());
+        bar.setClosePrice(dailyBar.getClosePrice());
+        bar.setVolume(dailyBar.getVolume());
+        return bar;
+    }
+}
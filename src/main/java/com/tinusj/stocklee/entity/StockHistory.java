@@ -11,8 +11,17 @@ import java.util.UUID;
 
 /**
  * Tracks the historical price changes of a stock with OHLCV data.
+ * Daily bars carry a date and are unique per stock and date. Intraday price updates are stored as
+ * {@link StockTick}s; rows without a date are only left by older imports.
  */
 @Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_stock_history_stock_date", columnNames = {"stock_id", "date"}),
+    indexes = {
+        @Index(name = "idx_stock_history_stock_timestamp", columnList = "stock_id, timestamp"),
+        @Index(name = "idx_stock_history_timestamp", columnList = "timestamp")
+    }
+)
 @Data
 @NoArgsConstructor
 public class StockHistory {
@@ -43,7 +52,7 @@ public class StockHistory {
 
     private Long volume;
 
-    // Date for daily historical data (separate from timestamp for intraday updates)
+    // Date for daily historical data; null for intraday updates, which only have a timestamp
     private LocalDate date;
 
     private LocalDateTime timestamp;
@@ -51,13 +60,10 @@ public class StockHistory {
     @PrePersist
     public void prePersist() {
         this.timestamp = LocalDateTime.now();
-        if (this.date == null) {
-            this.date = LocalDate.now();
-        }
     }
 
     /**
-     * Constructor for simple price updates (backward compatibility).
+     * Constructor for intraday price updates (backward compatibility).
      */
     public StockHistory(Stock stock, BigDecimal price) {
         this.stock = stock;
@@ -0,0 +1,50 @@
+package com.tinusj.stocklee.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An intraday price update of a stock, stored apart from the daily bars in {@link StockHistory}.
+ * On PostgreSQL the table is partitioned by timestamp, so queries should always bound the timestamp
+ * to let the planner skip partitions outside the range.
+ */
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_stock_tick_stock_timestamp", columnList = "stock_id, timestamp"),
+    @Index(name = "idx_stock_tick_timestamp", columnList = "timestamp")
+})
+@Data
+@NoArgsConstructor
+public class StockTick {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(nullable = false)
+    private Stock stock;
+
+    @Column(nullable = false, scale = 2)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @PrePersist
+    public void prePersist() {
+        if (this.timestamp == null) {
+            this.timestamp = LocalDateTime.now();
+        }
+    }
+
+    public StockTick(Stock stock, BigDecimal price) {
+        this.stock = stock;
+        this.price = price;
+    }
+}
@@ -12,6 +12,11 @@ import java.util.UUID;
  * Represents a transaction (buy/sell) for a stock.
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_stock_transaction_user_timestamp", columnList = "user_id, timestamp"),
+    @Index(name = "idx_stock_transaction_stock", columnList = "stock_id"),
+    @Index(name = "idx_stock_transaction_timestamp", columnList = "timestamp")
+})
 @Data
 @NoArgsConstructor
 public class StockTransaction {
@@ -32,7 +37,7 @@ public class StockTransaction {
     @Column(nullable = false)
     private TransactionType transactionType;
 
-    @Column(nullable = false, scale = 4)
+    @Column(nullable = false, precision = 38, scale = 4)
     private BigDecimal quantity;
 
     @Column(nullable = false, scale = 2)
@@ -11,6 +11,10 @@ import java.util.UUID;
  * Tracks the history of updates to a transaction.
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_transaction_history_transaction", columnList = "transaction_id"),
+    @Index(name = "idx_transaction_history_timestamp", columnList = "timestamp")
+})
 @Data
 @NoArgsConstructor
 public class TransactionHistory {
@@ -2,7 +2,9 @@ package com.tinusj.stocklee.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -30,6 +32,15 @@ public class UserProfile {
     @Column(nullable = true, scale = 2)
     private BigDecimal balance;
 
+    /**
+     * Login this profile belongs to, if any. Users sign in with its email, which editing the profile does not change.
+     */
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(unique = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User account;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StockTransaction> transactions;
 
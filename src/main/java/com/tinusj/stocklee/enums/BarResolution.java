@@ -0,0 +1,71 @@
+package com.tinusj.stocklee.enums;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Time span of one OHLC bar rolled up from intraday ticks, finest first.
+ */
+public enum BarResolution {
+    MINUTE_1("1m", Duration.ofMinutes(1)),
+    MINUTE_5("5m", Duration.ofMinutes(5)),
+    HOUR_1("1h", Duration.ofHours(1)),
+    DAY_1("1d", Duration.ofDays(1));
+
+    private final String label;
+    private final Duration duration;
+
+    BarResolution(String label, Duration duration) {
+        this.label = label;
+        this.duration = duration;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Start of the bar that holds {@code timestamp}.
+     */
+    public LocalDateTime start(LocalDateTime timestamp) {
+        return switch (this) {
+            case MINUTE_1 -> timestamp.truncatedTo(ChronoUnit.MINUTES);
+            case MINUTE_5 -> timestamp.truncatedTo(ChronoUnit.MINUTES).withMinute(timestamp.getMinute() / 5 * 5);
+            case HOUR_1 -> timestamp.truncatedTo(ChronoUnit.HOURS);
+            case DAY_1 -> timestamp.truncatedTo(ChronoUnit.DAYS);
+        };
+    }
+
+    /**
+     * Finest resolution whose bars over the range fit in {@code maxBars}, a range of exactly
+     * {@code maxBars} bars included, or {@link #DAY_1} when none of them do.
+     */
+    public static BarResolution forRange(LocalDateTime from, LocalDateTime to, int maxBars) {
+        Duration range = Duration.between(from, to);
+        for (BarResolution resolution : values()) {
+            if (range.dividedBy(resolution.duration) <= maxBars) {
+                return resolution;
+            }
+        }
+        return DAY_1;
+    }
+
+    /**
+     * Resolution by label, such as {@code 5m}, or by name, ignoring case.
+     *
+     * @throws IllegalArgumentException if no resolution has that label or name
+     */
+    public static BarResolution fromLabel(String label) {
+        return Arrays.stream(values())
+                .filter(resolution -> resolution.label.equalsIgnoreCase(label.trim())
+                        || resolution.name().equalsIgnoreCase(label.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported bar resolution: " + label));
+    }
+}
@@ -0,0 +1,41 @@
+package com.tinusj.stocklee.enums;
+
+import java.util.Arrays;
+
+/**
+ * File formats for streamed exports.
+ */
+public enum ExportFormat {
+    /** Comma-separated values with a header row. */
+    CSV("text/csv", "csv"),
+    /** One JSON object per line. */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Format by name, ignoring case.
+     *
+     * @throws IllegalArgumentException if no format has that name
+     */
+    public static ExportFormat fromName(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equalsIgnoreCase(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported export format: " + name));
+    }
+}
@@ -0,0 +1,41 @@
+package com.tinusj.stocklee.enums;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Time span covered by one partition of a time-partitioned table.
+ */
+public enum PartitionInterval {
+    /** One partition per calendar day, named with a {@code yyyyMMdd} suffix. */
+    DAY(DateTimeFormatter.BASIC_ISO_DATE),
+    /** One partition per calendar month, named with a {@code yyyyMM} suffix. */
+    MONTH(DateTimeFormatter.ofPattern("yyyyMM"));
+
+    private final DateTimeFormatter suffix;
+
+    PartitionInterval(DateTimeFormatter suffix) {
+        this.suffix = suffix;
+    }
+
+    /**
+     * First day of the partition that holds {@code date}.
+     */
+    public LocalDate start(LocalDate date) {
+        return this == DAY ? date : date.withDayOfMonth(1);
+    }
+
+    /**
+     * First day after the partition starting on {@code start}.
+     */
+    public LocalDate next(LocalDate start) {
+        return this == DAY ? start.plusDays(1) : start.plusMonths(1);
+    }
+
+    /**
+     * Partition name suffix for the partition starting on {@code start}.
+     */
+    public String suffix(LocalDate start) {
+        return suffix.format(start);
+    }
+}
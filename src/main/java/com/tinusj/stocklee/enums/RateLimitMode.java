@@ -0,0 +1,11 @@
+package com.tinusj.stocklee.enums;
+
+/**
+ * What a caller does when a provider's request budget is used up.
+ */
+public enum RateLimitMode {
+    /** Wait (up to the configured maximum) for the budget to refill. */
+    WAIT,
+    /** Give up on the provider immediately and move on. */
+    SKIP
+}
@@ -0,0 +1,88 @@
+package com.tinusj.stocklee.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Scaled {@code long} arithmetic shared by {@link Money} and {@link Quantity}.
+ * Every operation rounds exactly as {@link BigDecimal} does with the same {@link RoundingMode}; the rare
+ * operation whose intermediate product overflows a {@code long} is done with {@link BigDecimal} instead.
+ */
+final class FixedPoint {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Unscaled value of {@code value} rounded to {@code scale} decimal places.
+     *
+     * @throws ArithmeticException if the rounded value does not fit in a {@code long}
+     */
+    static long unscaled(BigDecimal value, int scale, RoundingMode mode) {
+        return value.setScale(scale, mode).movePointRight(scale).longValueExact();
+    }
+
+    /**
+     * {@code a * b}, with {@code shift} decimal places of the product rounded away.
+     */
+    static long multiply(long a, long b, int shift, RoundingMode mode) {
+        long product = a * b;
+        if (Math.multiplyHigh(a, b) != (product >> 63)) {
+            return BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b))
+                    .movePointLeft(shift).setScale(0, mode).longValueExact();
+        }
+        return divide(product, POWERS_OF_TEN[shift], mode);
+    }
+
+    /**
+     * {@code dividend / divisor}, with {@code shift} more decimal places than the dividend has.
+     */
+    static long divide(long dividend, int shift, long divisor, RoundingMode mode) {
+        long scaled = dividend * POWERS_OF_TEN[shift];
+        if (Math.multiplyHigh(dividend, POWERS_OF_TEN[shift]) != (scaled >> 63)) {
+            if (divisor == 0) {
+                throw new ArithmeticException("Division by zero");
+            }
+            return new BigDecimal(BigInteger.valueOf(dividend).multiply(BigInteger.TEN.pow(shift)))
+                    .divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+        }
+        return divide(scaled, divisor, mode);
+    }
+
+    /**
+     * {@code dividend / divisor} rounded to a whole number.
+     */
+    static long divide(long dividend, long divisor, RoundingMode mode) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (dividend == Long.MIN_VALUE && divisor == -1) {
+            throw new ArithmeticException("Overflow");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = (dividend ^ divisor) < 0 ? -1 : 1;
+        // |remainder| against the distance to the next whole quotient, without doubling into an overflow
+        long absRemainder = Math.abs(remainder);
+        int half = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+        boolean awayFromZero = switch (mode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || (half == 0 && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return awayFromZero ? quotient + sign : quotient;
+    }
+}
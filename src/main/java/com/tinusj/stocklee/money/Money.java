@@ -0,0 +1,106 @@
+package com.tinusj.stocklee.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of cash held as a whole number of cents, the scale of every cash column.
+ * Arithmetic is on {@code long}s and rounds exactly as the same {@link BigDecimal} operation rounded
+ * to {@link #SCALE} places with {@link RoundingMode#HALF_UP}, as the database rounds on insert.
+ * Serialized to JSON as a plain decimal number.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Amount rounded half up to whole cents, or null for null.
+     *
+     * @throws ArithmeticException if the amount does not fit in a {@code long} of cents
+     */
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return amount == null ? null : ofCents(FixedPoint.unscaled(amount, SCALE, RoundingMode.HALF_UP));
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Value of {@code quantity} at this price per share, rounded half up to whole cents.
+     */
+    public Money times(Quantity quantity) {
+        return ofCents(FixedPoint.multiply(cents, quantity.units(), Quantity.SCALE, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Price per share of {@code quantity} worth this amount, rounded half up to whole cents.
+     *
+     * @throws ArithmeticException if the quantity is zero
+     */
+    public Money dividedBy(Quantity quantity) {
+        return ofCents(FixedPoint.divide(cents, Quantity.SCALE, quantity.units(), RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Shares this amount buys at {@code price} per share, rounded down so they never cost more than it.
+     *
+     * @throws ArithmeticException if the price is zero
+     */
+    public Quantity sharesAt(Money price) {
+        return Quantity.ofUnits(FixedPoint.divide(cents, Quantity.SCALE, price.cents, RoundingMode.DOWN));
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.tinusj.stocklee.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Number of shares held as a whole number of ten-thousandths, the scale of every quantity column.
+ * Arithmetic is on {@code long}s; see {@link Money} for prices and values of a quantity.
+ * Serialized to JSON as a plain decimal number.
+ */
+public final class Quantity implements Comparable<Quantity> {
+
+    public static final int SCALE = 4;
+
+    public static final Quantity ZERO = new Quantity(0);
+
+    private final long units;
+
+    private Quantity(long units) {
+        this.units = units;
+    }
+
+    public static Quantity ofUnits(long units) {
+        return units == 0 ? ZERO : new Quantity(units);
+    }
+
+    /**
+     * Quantity rounded half up to whole units, or null for null.
+     *
+     * @throws ArithmeticException if the quantity does not fit in a {@code long} of units
+     */
+    @JsonCreator
+    public static Quantity of(BigDecimal quantity) {
+        return quantity == null ? null : ofUnits(FixedPoint.unscaled(quantity, SCALE, RoundingMode.HALF_UP));
+    }
+
+    public long units() {
+        return units;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    public Quantity plus(Quantity other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Quantity minus(Quantity other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    @Override
+    public int compareTo(Quantity other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Quantity quantity && quantity.units == units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.dto.HistoricalStockDataDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable columnar series of the daily bars of one symbol, oldest first.
+ * Dates are held as epoch days and prices as cents in parallel primitive arrays, so a series of
+ * a thousand bars is a handful of arrays rather than a thousand entities; missing values are
+ * {@link #NONE}. Changes return a new series, so readers never see one half-written.
+ */
+final class DailyBarSeries {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final int PRICE_SCALE = 2;
+
+    /**
+     * Day before which bars may be missing, or {@link #NONE} if the series holds every stored bar.
+     */
+    private final long completeFrom;
+    private final int size;
+    private final long[] days;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+
+    private DailyBarSeries(long completeFrom, int size, long[] days, long[] open, long[] high, long[] low,
+                           long[] close, long[] volume) {
+        this.completeFrom = completeFrom;
+        this.size = size;
+        this.days = days;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    /**
+     * Empty series for a symbol with no stored bars.
+     */
+    static DailyBarSeries empty() {
+        return new DailyBarSeries(NONE, 0, new long[0], new long[0], new long[0], new long[0], new long[0], new long[0]);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Whether every stored bar from {@code from} onwards is in the series.
+     */
+    boolean covers(LocalDate from) {
+        return completeFrom == NONE || from.toEpochDay() >= completeFrom;
+    }
+
+    /**
+     * Bars from {@code from} to {@code to} inclusive, newest first.
+     */
+    List<HistoricalStockDataDto> range(String symbol, LocalDate from, LocalDate to) {
+        int first = indexOf(from.toEpochDay());
+        int last = indexOf(to.toEpochDay() + 1);
+        List<HistoricalStockDataDto> bars = new ArrayList<>(Math.max(0, last - first));
+        for (int i = last - 1; i >= first; i--) {
+            bars.add(new HistoricalStockDataDto(symbol, LocalDate.ofEpochDay(days[i]), price(open[i]), price(high[i]),
+                    price(low[i]), price(close[i]), volume[i] == NONE ? null : volume[i]));
+        }
+        return bars;
+    }
+
+    /**
+     * Series with the given bars added, oldest first, keeping at most {@code capacity} of the newest.
+     * A bar for a day the series already holds only fills in the values missing from it, as the daily bar
+     * upsert does; a bar older than the days the series is complete for is ignored.
+     */
+    DailyBarSeries merge(List<Bar> bars, int capacity) {
+        Bar[] sorted = bars.stream()
+                .filter(bar -> completeFrom == NONE || bar.day >= completeFrom)
+                .sorted((a, b) -> Long.compare(a.day, b.day))
+                .toArray(Bar[]::new);
+        if (sorted.length == 0) {
+            return this;
+        }
+
+        int length = size + sorted.length;
+        long[] newDays = new long[length];
+        long[] newOpen = new long[length];
+        long[] newHigh = new long[length];
+        long[] newLow = new long[length];
+        long[] newClose = new long[length];
+        long[] newVolume = new long[length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < sorted.length) {
+            if (j == sorted.length || (i < size && days[i] <= sorted[j].day)) {
+                newDays[count] = days[i];
+                newOpen[count] = open[i];
+                newHigh[count] = high[i];
+                newLow[count] = low[i];
+                newClose[count] = close[i];
+                newVolume[count] = volume[i];
+                i++;
+            } else {
+                Bar bar = sorted[j++];
+                if (count > 0 && newDays[count - 1] == bar.day) {
+                    newOpen[count - 1] = orElse(newOpen[count - 1], bar.open);
+                    newHigh[count - 1] = orElse(newHigh[count - 1], bar.high);
+                    newLow[count - 1] = orElse(newLow[count - 1], bar.low);
+                    newClose[count - 1] = orElse(newClose[count - 1], bar.close);
+                    newVolume[count - 1] = orElse(newVolume[count - 1], bar.volume);
+                    continue;
+                }
+                newDays[count] = bar.day;
+                newOpen[count] = bar.open;
+                newHigh[count] = bar.high;
+                newLow[count] = bar.low;
+                newClose[count] = bar.close;
+                newVolume[count] = bar.volume;
+            }
+            count++;
+        }
+
+        int dropped = Math.max(0, count - Math.max(1, capacity));
+        long newCompleteFrom = dropped > 0 ? newDays[dropped] : completeFrom;
+        return new DailyBarSeries(newCompleteFrom, count - dropped,
+                Arrays.copyOfRange(newDays, dropped, count), Arrays.copyOfRange(newOpen, dropped, count),
+                Arrays.copyOfRange(newHigh, dropped, count), Arrays.copyOfRange(newLow, dropped, count),
+                Arrays.copyOfRange(newClose, dropped, count), Arrays.copyOfRange(newVolume, dropped, count));
+    }
+
+    /**
+     * Series loaded from the newest stored bars, oldest first.
+     *
+     * @param complete Whether these are all the stored bars, rather than the newest of more
+     */
+    static DailyBarSeries of(List<Bar> bars, boolean complete) {
+        DailyBarSeries series = empty().merge(bars, Integer.MAX_VALUE);
+        if (complete || series.size == 0) {
+            return series;
+        }
+        return new DailyBarSeries(series.days[0], series.size, series.days, series.open, series.high, series.low,
+                series.close, series.volume);
+    }
+
+    /**
+     * First index whose day is on or after {@code day}.
+     */
+    private int indexOf(long day) {
+        int index = Arrays.binarySearch(days, 0, size, day);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long orElse(long value, long other) {
+        return value == NONE ? other : value;
+    }
+
+    static long cents(BigDecimal price) {
+        return price == null ? NONE : price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal price(long cents) {
+        return cents == NONE ? null : BigDecimal.valueOf(cents, PRICE_SCALE);
+    }
+
+    /**
+     * One daily bar in the series' units.
+     */
+    record Bar(long day, long open, long high, long low, long close, long volume) {
+
+        static Bar of(LocalDate date, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close, Long volume) {
+            return new Bar(date.toEpochDay(), cents(open), cents(high), cents(low), cents(close),
+                    volume == null ? NONE : volume);
+        }
+    }
+}
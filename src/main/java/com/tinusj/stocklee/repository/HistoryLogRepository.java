@@ -1,6 +1,11 @@
 package com.tinusj.stocklee.repository;
 
 import com.tinusj.stocklee.entity.HistoryLog;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -27,4 +32,16 @@ public interface HistoryLogRepository extends JpaRepository<HistoryLog, UUID> {
      */
     @Query("SELECT hl FROM HistoryLog hl JOIN FETCH hl.user WHERE hl.id = :id")
     Optional<HistoryLog> findByIdWithUser(@Param("id") UUID id);
-}
\ No newline at end of file
+
+    /**
+     * Page through all history logs by keyset, with the user of each log.
+     */
+    @EntityGraph(attributePaths = "user")
+    Window<HistoryLog> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Page through the history logs of one user by keyset, seeking on the user and timestamp index.
+     */
+    @EntityGraph(attributePaths = "user")
+    Window<HistoryLog> findByUserId(UUID userId, ScrollPosition position, Limit limit, Sort sort);
+}
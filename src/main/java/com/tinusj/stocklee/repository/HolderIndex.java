@@ -0,0 +1,179 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.money.Quantity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory reverse index from each stock symbol to the users holding it and how many shares they hold,
+ * so a price change reaches the portfolios it moves without reading or scanning every holding.
+ * The index is built with one streaming query once the application context has started, before it
+ * takes requests, and then kept up to date with every position recorded through the
+ * {@link com.tinusj.stocklee.service.OwnedStockService}, and every symbol renamed through the
+ * {@link com.tinusj.stocklee.service.StockService}, once its transaction commits.
+ * Each symbol's positions are a {@link PositionTable} of primitive arrays.
+ */
+@Repository
+@Slf4j
+public class HolderIndex implements SmartInitializingSingleton {
+
+    private static final String SELECT_POSITIONS =
+            "SELECT s.symbol, os.user_id, os.quantity FROM owned_stock os JOIN stock s ON s.id = os.stock_id";
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Map<String, PositionTable> positions = new ConcurrentHashMap<>();
+
+    public HolderIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Replace the index with every stored position. Positions recorded while it runs may be lost,
+     * so it is only run before the application takes requests.
+     *
+     * @return Positions indexed
+     */
+    public int rebuild() {
+        Map<String, PositionTable> rebuilt = new ConcurrentHashMap<>();
+        // Inside a transaction so the PostgreSQL driver streams the rows by the fetch size
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_POSITIONS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            long units = Quantity.of(rs.getBigDecimal(3)).units();
+            rebuilt.computeIfAbsent(rs.getString(1), symbol -> new PositionTable(0))
+                    .put(rs.getObject(2, UUID.class), units);
+        }));
+        positions = rebuilt;
+        int count = rebuilt.values().stream().mapToInt(PositionTable::size).sum();
+        log.info("Indexed {} positions in {} symbols", count, rebuilt.size());
+        return count;
+    }
+
+    /**
+     * Set how many shares of a symbol a user holds, once the current transaction commits.
+     * A zero quantity removes the position.
+     */
+    public void recordPosition(String symbol, UUID userId, Quantity quantity) {
+        afterCommit(() -> put(symbol, userId, quantity.units()));
+    }
+
+    /**
+     * Move the positions of a stock whose symbol changed to its new symbol, once the current transaction
+     * commits.
+     */
+    public void renameSymbol(String from, String to) {
+        afterCommit(() -> {
+            PositionTable table = positions.remove(from);
+            if (table != null) {
+                // Symbols are unique, so nobody holds the new one yet
+                positions.put(to, table);
+            }
+        });
+    }
+
+    /**
+     * Visit every holder of a symbol. The consumer runs while the symbol's positions are locked,
+     * so it must not record positions itself.
+     *
+     * @return Holders visited
+     */
+    public int forEachHolder(String symbol, PositionConsumer consumer) {
+        PositionTable table = positions.get(symbol);
+        if (table == null) {
+            return 0;
+        }
+        synchronized (table) {
+            table.forEach(consumer);
+            return table.size();
+        }
+    }
+
+    /**
+     * Shares of a symbol a user holds, in {@link Quantity} units.
+     */
+    public long quantity(String symbol, UUID userId) {
+        PositionTable table = positions.get(symbol);
+        if (table == null) {
+            return 0;
+        }
+        synchronized (table) {
+            return table.get(userId);
+        }
+    }
+
+    public int holders(String symbol) {
+        PositionTable table = positions.get(symbol);
+        if (table == null) {
+            return 0;
+        }
+        synchronized (table) {
+            return table.size();
+        }
+    }
+
+    private void put(String symbol, UUID userId, long units) {
+        positions.compute(symbol, (key, table) -> {
+            if (table == null) {
+                if (units == 0) {
+                    return null;
+                }
+                table = new PositionTable(0);
+            }
+            synchronized (table) {
+                table.put(userId, units);
+                // Symbols nobody holds any more take no memory
+                return table.size() == 0 ? null : table;
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Receives one position of a symbol.
+     */
+    @FunctionalInterface
+    public interface PositionConsumer {
+
+        /**
+         * @param quantityUnits Shares held, in {@link Quantity} units
+         */
+        void accept(UUID userId, long quantityUnits);
+    }
+}
@@ -0,0 +1,144 @@
+package com.tinusj.stocklee.repository;
+
+import java.util.UUID;
+
+/**
+ * Open-addressing hash table from user ID to the quantity of one stock they hold.
+ * IDs and quantities are held in parallel primitive arrays, with linear probing and deletion by
+ * shifting later entries back, so a position takes three longs rather than a map entry, a boxed
+ * quantity and a {@link UUID}. Quantities are in {@link com.tinusj.stocklee.money.Quantity} units
+ * and never zero; a zero in {@code units} marks a free slot. Not thread-safe.
+ */
+final class PositionTable {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] mostSignificant;
+    private long[] leastSignificant;
+    private long[] units;
+    private int size;
+
+    PositionTable(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Quantity held by the user, or zero if they hold none.
+     */
+    long get(UUID userId) {
+        int slot = find(userId.getMostSignificantBits(), userId.getLeastSignificantBits());
+        return slot < 0 ? 0 : units[slot];
+    }
+
+    /**
+     * Set the quantity held by the user, removing the position if it is zero.
+     */
+    void put(UUID userId, long quantityUnits) {
+        if (quantityUnits == 0) {
+            remove(userId);
+            return;
+        }
+        long msb = userId.getMostSignificantBits();
+        long lsb = userId.getLeastSignificantBits();
+        int mask = units.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (units[slot] != 0) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                units[slot] = quantityUnits;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mostSignificant[slot] = msb;
+        leastSignificant[slot] = lsb;
+        units[slot] = quantityUnits;
+        if (++size > units.length * 3L / 4) {
+            resize(units.length * 2);
+        }
+    }
+
+    void remove(UUID userId) {
+        int slot = find(userId.getMostSignificantBits(), userId.getLeastSignificantBits());
+        if (slot < 0) {
+            return;
+        }
+        int mask = units.length - 1;
+        // Shift back every later entry of the probe run that the freed slot would otherwise hide
+        int free = slot;
+        int next = (free + 1) & mask;
+        while (units[next] != 0) {
+            int home = hash(mostSignificant[next], leastSignificant[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                mostSignificant[free] = mostSignificant[next];
+                leastSignificant[free] = leastSignificant[next];
+                units[free] = units[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        units[free] = 0;
+        size--;
+    }
+
+    void forEach(HolderIndex.PositionConsumer consumer) {
+        for (int slot = 0; slot < units.length; slot++) {
+            if (units[slot] != 0) {
+                consumer.accept(new UUID(mostSignificant[slot], leastSignificant[slot]), units[slot]);
+            }
+        }
+    }
+
+    private int find(long msb, long lsb) {
+        int mask = units.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (units[slot] != 0) {
+            if (mostSignificant[slot] == msb && leastSignificant[slot] == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldMostSignificant = mostSignificant;
+        long[] oldLeastSignificant = leastSignificant;
+        long[] oldUnits = units;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldUnits.length; i++) {
+            if (oldUnits[i] != 0) {
+                int slot = hash(oldMostSignificant[i], oldLeastSignificant[i]) & mask;
+                while (units[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                mostSignificant[slot] = oldMostSignificant[i];
+                leastSignificant[slot] = oldLeastSignificant[i];
+                units[slot] = oldUnits[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostSignificant = new long[capacity];
+        leastSignificant = new long[capacity];
+        units = new long[capacity];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L / 4 < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,150 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.dto.HistoricalStockDataDto;
+import com.tinusj.stocklee.entity.StockHistory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory columnar store of the most recent daily bars of each symbol.
+ * A symbol's bars are loaded straight from JDBC into a {@link DailyBarSeries} the first time they are
+ * asked for, and kept up to date with every daily bar written through the {@link StockPriceWriter} once
+ * its transaction commits. Range queries are answered by binary search over the series; ranges older
+ * than the series holds are left to the database.
+ */
+@Repository
+@Slf4j
+public class PriceSeriesStore {
+
+    private static final String SELECT_RECENT_BARS =
+            "SELECT sh.date, sh.open_price, sh.high_price, sh.low_price, sh.close_price, sh.volume "
+                    + "FROM stock_history sh JOIN stock s ON s.id = sh.stock_id "
+                    + "WHERE s.symbol = ? AND sh.date IS NOT NULL ORDER BY sh.date DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationConfig.HistoryStore settings;
+    private final Map<String, DailyBarSeries> series = new ConcurrentHashMap<>();
+    /**
+     * Bumped before every merge of written bars and every clear, so a load racing one of them is not kept.
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    public PriceSeriesStore(JdbcTemplate jdbcTemplate, ApplicationConfig applicationConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = applicationConfig.getHistoryStore();
+    }
+
+    /**
+     * Daily bars of a symbol from {@code fromDate} to {@code toDate} inclusive, newest first.
+     *
+     * @return The bars, or empty if the store is disabled or does not hold the whole range
+     */
+    public Optional<List<HistoricalStockDataDto>> findDailyBars(String symbol, LocalDate fromDate, LocalDate toDate) {
+        if (!settings.isEnabled()) {
+            return Optional.empty();
+        }
+        DailyBarSeries bars = series.get(symbol);
+        if (bars == null) {
+            bars = loadAndKeep(symbol);
+        }
+        if (!bars.covers(fromDate)) {
+            return Optional.empty();
+        }
+        return Optional.of(bars.range(symbol, fromDate, toDate));
+    }
+
+    /**
+     * Add daily bars to the series already loaded, once the current transaction commits.
+     * Symbols not loaded yet read the bars from the database when they are first asked for.
+     * Bars must have their stock set.
+     */
+    public void record(Collection<StockHistory> bars) {
+        if (!settings.isEnabled() || bars.isEmpty()) {
+            return;
+        }
+        Map<String, List<DailyBarSeries.Bar>> bySymbol = bars.stream()
+                .filter(bar -> bar.getDate() != null)
+                .collect(Collectors.groupingBy(bar -> bar.getStock().getSymbol(),
+                        Collectors.mapping(PriceSeriesStore::toBar, Collectors.toList())));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge(bySymbol);
+                }
+            });
+        } else {
+            merge(bySymbol);
+        }
+    }
+
+    /**
+     * Drop every loaded series, after bars were changed other than through the {@link StockPriceWriter}.
+     */
+    public void clear() {
+        changes.incrementAndGet();
+        series.clear();
+    }
+
+    private void merge(Map<String, List<DailyBarSeries.Bar>> bySymbol) {
+        int capacity = settings.getCapacity();
+        changes.incrementAndGet();
+        bySymbol.forEach((symbol, bars) -> series.computeIfPresent(symbol, (key, current) -> current.merge(bars, capacity)));
+    }
+
+    /**
+     * Load a symbol's series outside the map, so the query holds no lock other readers wait on, and keep it
+     * unless bars were written or the store was cleared while it loaded, as it may then miss them.
+     */
+    private DailyBarSeries loadAndKeep(String symbol) {
+        long changesBefore = changes.get();
+        DailyBarSeries loaded = load(symbol);
+        DailyBarSeries kept = series.putIfAbsent(symbol, loaded);
+        if (kept != null) {
+            return kept;
+        }
+        if (changes.get() != changesBefore) {
+            series.remove(symbol, loaded);
+        }
+        return loaded;
+    }
+
+    private DailyBarSeries load(String symbol) {
+        int capacity = Math.max(1, settings.getCapacity());
+        List<DailyBarSeries.Bar> bars = new ArrayList<>();
+        jdbcTemplate.query(SELECT_RECENT_BARS, rs -> {
+            long volume = rs.getLong(6);
+            if (rs.wasNull()) {
+                volume = DailyBarSeries.NONE;
+            }
+            bars.add(new DailyBarSeries.Bar(rs.getObject(1, LocalDate.class).toEpochDay(),
+                    DailyBarSeries.cents(rs.getBigDecimal(2)), DailyBarSeries.cents(rs.getBigDecimal(3)),
+                    DailyBarSeries.cents(rs.getBigDecimal(4)), DailyBarSeries.cents(rs.getBigDecimal(5)), volume));
+        }, symbol, capacity);
+        if (bars.isEmpty()) {
+            // Kept as well, so asking again for a symbol without bars does not query the database again
+            return DailyBarSeries.empty();
+        }
+        log.debug("Loaded {} daily bars of {} into the history store", bars.size(), symbol);
+        return DailyBarSeries.of(bars, bars.size() < capacity);
+    }
+
+    private static DailyBarSeries.Bar toBar(StockHistory bar) {
+        return DailyBarSeries.Bar.of(bar.getDate(), bar.getOpenPrice(), bar.getHighPrice(), bar.getLowPrice(),
+                bar.getClosePrice(), bar.getVolume());
+    }
+}
@@ -0,0 +1,30 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.entity.StockBar;
+import com.tinusj.stocklee.enums.BarResolution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for StockBar entity.
+ */
+@Repository
+public interface StockBarRepository extends JpaRepository<StockBar, UUID> {
+
+    /**
+     * Find the bars of a stock at one resolution that start from {@code from} (inclusive) to {@code to} (exclusive),
+     * oldest first.
+     */
+    @Query("SELECT b FROM StockBar b JOIN FETCH b.stock s WHERE s.symbol = :symbol AND b.resolution = :resolution "
+            + "AND b.bucketStart >= :from AND b.bucketStart < :to ORDER BY b.bucketStart")
+    List<StockBar> findBySymbolInRange(@Param("symbol") String symbol,
+                                       @Param("resolution") BarResolution resolution,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+}
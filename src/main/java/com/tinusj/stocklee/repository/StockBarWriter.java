@@ -0,0 +1,146 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.StockTick;
+import com.tinusj.stocklee.enums.BarResolution;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Incremental rollup of intraday ticks into OHLC bars at every {@link BarResolution}.
+ * Each batch of ticks is first folded into one partial bar per stock, resolution and start, and the
+ * partial bars are then merged into the stored ones with a set-based upsert: the open is kept, the high
+ * and low are widened, the close is replaced and the tick counts are added. Ticks are expected to arrive
+ * in time order, as the scheduled refresh writes them, so the close is always the latest price.
+ */
+@Repository
+public class StockBarWriter {
+
+    private static final String UPSERT_BAR_POSTGRESQL =
+            "INSERT INTO stock_bar (id, stock_id, resolution, bucket_start, open_price, high_price, low_price, close_price, "
+                    + "tick_count, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (stock_id, resolution, bucket_start) DO UPDATE SET "
+                    + "high_price = GREATEST(stock_bar.high_price, EXCLUDED.high_price), "
+                    + "low_price = LEAST(stock_bar.low_price, EXCLUDED.low_price), "
+                    + "close_price = EXCLUDED.close_price, "
+                    + "tick_count = stock_bar.tick_count + EXCLUDED.tick_count, "
+                    + "updated_at = EXCLUDED.updated_at";
+
+    private static final String UPSERT_BAR_H2 =
+            "MERGE INTO stock_bar t USING (SELECT CAST(? AS UUID) id, CAST(? AS UUID) stock_id, "
+                    + "CAST(? AS VARCHAR(255)) resolution, CAST(? AS TIMESTAMP(6)) bucket_start, "
+                    + "CAST(? AS NUMERIC(38,2)) open_price, CAST(? AS NUMERIC(38,2)) high_price, "
+                    + "CAST(? AS NUMERIC(38,2)) low_price, CAST(? AS NUMERIC(38,2)) close_price, "
+                    + "CAST(? AS INTEGER) tick_count, CAST(? AS TIMESTAMP(6)) updated_at) s "
+                    + "ON t.stock_id = s.stock_id AND t.resolution = s.resolution AND t.bucket_start = s.bucket_start "
+                    + "WHEN MATCHED THEN UPDATE SET high_price = GREATEST(t.high_price, s.high_price), "
+                    + "low_price = LEAST(t.low_price, s.low_price), close_price = s.close_price, "
+                    + "tick_count = t.tick_count + s.tick_count, updated_at = s.updated_at "
+                    + "WHEN NOT MATCHED THEN INSERT (id, stock_id, resolution, bucket_start, open_price, high_price, low_price, "
+                    + "close_price, tick_count, updated_at) VALUES (s.id, s.stock_id, s.resolution, s.bucket_start, "
+                    + "s.open_price, s.high_price, s.low_price, s.close_price, s.tick_count, s.updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private volatile String upsertBar;
+
+    public StockBarWriter(JdbcTemplate jdbcTemplate, ApplicationConfig applicationConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, applicationConfig.getPersistence().getBatchSize());
+    }
+
+    /**
+     * Merge ticks into the bars that hold them. Ticks must have their stock and timestamp set.
+     *
+     * @return Bars inserted or updated
+     */
+    @Transactional
+    public int rollup(Collection<StockTick> ticks) {
+        if (ticks.isEmpty()) {
+            return 0;
+        }
+        Map<BarKey, PartialBar> bars = new LinkedHashMap<>();
+        ticks.stream()
+                .sorted(Comparator.comparing(StockTick::getTimestamp))
+                .forEach(tick -> {
+                    for (BarResolution resolution : BarResolution.values()) {
+                        BarKey key = new BarKey(tick.getStock().getId(), resolution, resolution.start(tick.getTimestamp()));
+                        bars.computeIfAbsent(key, k -> new PartialBar(tick.getPrice())).add(tick.getPrice());
+                    }
+                });
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Map.Entry<BarKey, PartialBar>> rows = List.copyOf(bars.entrySet());
+        jdbcTemplate.batchUpdate(upsertBarSql(), rows, batchSize, (ps, row) -> {
+            BarKey key = row.getKey();
+            PartialBar bar = row.getValue();
+            ps.setObject(1, UUID.randomUUID());
+            ps.setObject(2, key.stockId());
+            ps.setString(3, key.resolution().name());
+            ps.setObject(4, key.start());
+            ps.setBigDecimal(5, bar.open);
+            ps.setBigDecimal(6, bar.high);
+            ps.setBigDecimal(7, bar.low);
+            ps.setBigDecimal(8, bar.close);
+            ps.setInt(9, bar.count);
+            ps.setObject(10, now);
+        });
+        return rows.size();
+    }
+
+    /**
+     * Set-based upsert for the connected database: {@code ON CONFLICT DO UPDATE} on PostgreSQL, {@code MERGE} on H2.
+     */
+    private String upsertBarSql() {
+        String sql = upsertBar;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if ("PostgreSQL".equals(product)) {
+                sql = UPSERT_BAR_POSTGRESQL;
+            } else if ("H2".equals(product)) {
+                sql = UPSERT_BAR_H2;
+            } else {
+                throw new IllegalStateException("Bar upsert is not supported on " + product);
+            }
+            upsertBar = sql;
+        }
+        return sql;
+    }
+
+    private record BarKey(UUID stockId, BarResolution resolution, LocalDateTime start) {
+    }
+
+    private static final class PartialBar {
+        private final BigDecimal open;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal close;
+        private int count;
+
+        private PartialBar(BigDecimal open) {
+            this.open = open;
+            this.high = open;
+            this.low = open;
+        }
+
+        private PartialBar add(BigDecimal price) {
+            high = high.max(price);
+            low = low.min(price);
+            close = price;
+            count++;
+            return this;
+        }
+    }
+}
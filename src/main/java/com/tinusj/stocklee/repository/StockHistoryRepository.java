@@ -2,8 +2,16 @@ package com.tinusj.stocklee.repository;
 
 import com.tinusj.stocklee.entity.Stock;
 import com.tinusj.stocklee.entity.StockHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,12 +19,18 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for StockHistory entity.
  */
 @Repository
 public interface StockHistoryRepository extends JpaRepository<StockHistory, UUID> {
+
+    /**
+     * Rows fetched per round-trip by the export streams.
+     */
+    String EXPORT_FETCH_SIZE = "500";
     
     /**
      * Find all stock history with their associated stock entities.
@@ -57,4 +71,42 @@ public interface StockHistoryRepository extends JpaRepository<StockHistory, UUID
      */
     @Query("SELECT sh FROM StockHistory sh WHERE sh.stock = :stock AND sh.date = :date")
     List<StockHistory> findByStockAndDate(@Param("stock") Stock stock, @Param("date") LocalDate date);
-}
\ No newline at end of file
+
+    /**
+     * Page through all stock history by keyset, with the stock of each row.
+     */
+    @EntityGraph(attributePaths = "stock")
+    Window<StockHistory> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Page through the history of one stock by keyset, seeking on the stock and timestamp index.
+     */
+    @EntityGraph(attributePaths = "stock")
+    Window<StockHistory> findByStockId(UUID stockId, ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Stream the daily bars of one symbol in a date range, oldest first.
+     * Rows are fetched from the database in batches as the stream is consumed, so the stream must be
+     * read and closed inside a transaction.
+     */
+    @Query("SELECT sh FROM StockHistory sh JOIN FETCH sh.stock s WHERE s.symbol = :symbol AND sh.date BETWEEN :fromDate AND :toDate ORDER BY sh.date")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<StockHistory> streamDailyBarsBySymbol(@Param("symbol") String symbol,
+                                                 @Param("fromDate") LocalDate fromDate,
+                                                 @Param("toDate") LocalDate toDate);
+
+    /**
+     * Stream the daily bars of every symbol in a date range, by symbol and then oldest first.
+     * Rows are fetched from the database in batches as the stream is consumed, so the stream must be
+     * read and closed inside a transaction.
+     */
+    @Query("SELECT sh FROM StockHistory sh JOIN FETCH sh.stock s WHERE sh.date BETWEEN :fromDate AND :toDate ORDER BY s.symbol, sh.date")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<StockHistory> streamDailyBars(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
@@ -0,0 +1,255 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.StockTick;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk write paths for scheduled jobs: price updates, intraday ticks and daily bars are sent as JDBC
+ * batches in one transaction instead of one {@code save} round-trip per row.
+ * Daily bars are upserted against the unique stock and date: a bar for a stored day only fills in
+ * the values the stored row is missing, such as the open, high and low of a row that only holds the
+ * scheduler's closing price, and is a no-op once the row is complete. Ticks are rolled up into intraday bars by the
+ * {@link StockBarWriter} in the same transaction, and daily bars are passed on to the
+ * {@link PriceSeriesStore} once it commits.
+ * Writes bypass the persistence context, so entity callbacks are applied here and callers should
+ * pass detached entities.
+ */
+@Repository
+public class StockPriceWriter {
+
+    private static final String UPDATE_PRICE =
+            "UPDATE stock SET previous_price = ?, current_price = ?, updated_at = ? WHERE id = ?";
+
+    private static final String INSERT_TICK =
+            "INSERT INTO stock_tick (id, stock_id, price, timestamp) VALUES (?, ?, ?, ?)";
+
+    /**
+     * One statement per chunk of bars, sent as one array per column: its update count is the number of rows
+     * written, whereas a JDBC batch rewritten by {@code reWriteBatchedInserts} reports no counts.
+     */
+    private static final String UPSERT_DAILY_BARS_POSTGRESQL =
+            "INSERT INTO stock_history (id, stock_id, price, open_price, high_price, low_price, close_price, volume, date, timestamp) "
+                    + "SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::numeric[], ?::numeric[], ?::numeric[], ?::numeric[], "
+                    + "?::numeric[], ?::bigint[], ?::date[], ?::timestamp[]) "
+                    + "ON CONFLICT (stock_id, date) DO UPDATE SET "
+                    + "price = COALESCE(stock_history.price, EXCLUDED.price), "
+                    + "open_price = COALESCE(stock_history.open_price, EXCLUDED.open_price), "
+                    + "high_price = COALESCE(stock_history.high_price, EXCLUDED.high_price), "
+                    + "low_price = COALESCE(stock_history.low_price, EXCLUDED.low_price), "
+                    + "close_price = COALESCE(stock_history.close_price, EXCLUDED.close_price), "
+                    + "volume = COALESCE(stock_history.volume, EXCLUDED.volume), timestamp = EXCLUDED.timestamp "
+                    + "WHERE (stock_history.open_price IS NULL AND EXCLUDED.open_price IS NOT NULL) "
+                    + "OR (stock_history.high_price IS NULL AND EXCLUDED.high_price IS NOT NULL) "
+                    + "OR (stock_history.low_price IS NULL AND EXCLUDED.low_price IS NOT NULL) "
+                    + "OR (stock_history.close_price IS NULL AND EXCLUDED.close_price IS NOT NULL) "
+                    + "OR (stock_history.volume IS NULL AND EXCLUDED.volume IS NOT NULL)";
+
+    private static final String UPSERT_DAILY_BAR_H2 =
+            "MERGE INTO stock_history t USING (SELECT CAST(? AS UUID) id, CAST(? AS UUID) stock_id, "
+                    + "CAST(? AS NUMERIC(38,2)) price, CAST(? AS NUMERIC(38,2)) open_price, CAST(? AS NUMERIC(38,2)) high_price, "
+                    + "CAST(? AS NUMERIC(38,2)) low_price, CAST(? AS NUMERIC(38,2)) close_price, CAST(? AS BIGINT) volume, "
+                    + "CAST(? AS DATE) date, CAST(? AS TIMESTAMP(6)) timestamp) s "
+                    + "ON t.stock_id = s.stock_id AND t.date = s.date "
+                    + "WHEN MATCHED AND ((t.open_price IS NULL AND s.open_price IS NOT NULL) "
+                    + "OR (t.high_price IS NULL AND s.high_price IS NOT NULL) OR (t.low_price IS NULL AND s.low_price IS NOT NULL) "
+                    + "OR (t.close_price IS NULL AND s.close_price IS NOT NULL) OR (t.volume IS NULL AND s.volume IS NOT NULL)) "
+                    + "THEN UPDATE SET price = COALESCE(t.price, s.price), open_price = COALESCE(t.open_price, s.open_price), "
+                    + "high_price = COALESCE(t.high_price, s.high_price), low_price = COALESCE(t.low_price, s.low_price), "
+                    + "close_price = COALESCE(t.close_price, s.close_price), volume = COALESCE(t.volume, s.volume), "
+                    + "timestamp = s.timestamp "
+                    + "WHEN NOT MATCHED THEN INSERT (id, stock_id, price, open_price, high_price, low_price, close_price, volume, date, timestamp) "
+                    + "VALUES (s.id, s.stock_id, s.price, s.open_price, s.high_price, s.low_price, s.close_price, s.volume, s.date, s.timestamp)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockBarWriter stockBarWriter;
+    private final PriceSeriesStore priceSeriesStore;
+    private final int batchSize;
+    private volatile String databaseProduct;
+
+    public StockPriceWriter(JdbcTemplate jdbcTemplate, StockBarWriter stockBarWriter, PriceSeriesStore priceSeriesStore,
+                            ApplicationConfig applicationConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stockBarWriter = stockBarWriter;
+        this.priceSeriesStore = priceSeriesStore;
+        this.batchSize = Math.max(1, applicationConfig.getPersistence().getBatchSize());
+    }
+
+    /**
+     * Store the current and previous price of each stock, insert and roll up the intraday ticks and upsert the daily bars.
+     * Ticks and bars without an id are given one, and all of them are stamped with the time of the write.
+     */
+    @Transactional
+    public void write(Collection<Stock> stocks, Collection<StockTick> ticks, Collection<StockHistory> bars) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!stocks.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PRICE, stocks, batchSize, (ps, stock) -> {
+                stock.setUpdatedAt(now);
+                ps.setBigDecimal(1, stock.getPreviousPrice());
+                ps.setBigDecimal(2, stock.getCurrentPrice());
+                ps.setObject(3, now);
+                ps.setObject(4, stock.getId());
+            });
+        }
+        if (!ticks.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TICK, ticks, batchSize, (ps, tick) -> {
+                if (tick.getId() == null) {
+                    tick.setId(UUID.randomUUID());
+                }
+                tick.setTimestamp(now);
+                ps.setObject(1, tick.getId());
+                ps.setObject(2, tick.getStock().getId());
+                ps.setBigDecimal(3, tick.getPrice());
+                ps.setObject(4, now);
+            });
+            stockBarWriter.rollup(ticks);
+        }
+        upsertDailyBars(bars, now);
+    }
+
+    /**
+     * Insert daily bars, or fill in the missing values of the ones already stored.
+     *
+     * @return Bars inserted or completed
+     */
+    @Transactional
+    public int upsertDailyBars(Collection<StockHistory> bars) {
+        return upsertDailyBars(bars, LocalDateTime.now());
+    }
+
+    private int upsertDailyBars(Collection<StockHistory> bars, LocalDateTime now) {
+        if (bars.isEmpty()) {
+            return 0;
+        }
+        int written = 0;
+        String product = databaseProduct();
+        if ("PostgreSQL".equals(product)) {
+            for (List<StockHistory> chunk : chunksWithoutRepeatedDays(bars)) {
+                written += jdbcTemplate.update(UPSERT_DAILY_BARS_POSTGRESQL, ps -> setDailyBars(ps, chunk, now));
+            }
+        } else if ("H2".equals(product)) {
+            for (int[] counts : jdbcTemplate.batchUpdate(UPSERT_DAILY_BAR_H2, bars, batchSize, (ps, row) -> setDailyBar(ps, row, now))) {
+                for (int count : counts) {
+                    written += Math.max(0, count);
+                }
+            }
+        } else {
+            throw new IllegalStateException("Daily bar upsert is not supported on " + product);
+        }
+        priceSeriesStore.record(bars);
+        return written;
+    }
+
+    /**
+     * Split bars into chunks of at most the batch size, starting a new chunk whenever a stock and date comes
+     * up again, since one statement cannot upsert the same row twice.
+     */
+    private List<List<StockHistory>> chunksWithoutRepeatedDays(Collection<StockHistory> bars) {
+        List<List<StockHistory>> chunks = new ArrayList<>();
+        List<StockHistory> chunk = new ArrayList<>();
+        Set<List<Object>> days = new HashSet<>();
+        for (StockHistory bar : bars) {
+            List<Object> day = List.of(bar.getStock().getId(), bar.getDate());
+            if (chunk.size() == batchSize || !days.add(day)) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                days.clear();
+                days.add(day);
+            }
+            chunk.add(bar);
+        }
+        chunks.add(chunk);
+        return chunks;
+    }
+
+    private static void setDailyBars(PreparedStatement ps, List<StockHistory> rows, LocalDateTime now) throws SQLException {
+        int size = rows.size();
+        String[] ids = new String[size];
+        String[] stockIds = new String[size];
+        BigDecimal[] prices = new BigDecimal[size];
+        BigDecimal[] opens = new BigDecimal[size];
+        BigDecimal[] highs = new BigDecimal[size];
+        BigDecimal[] lows = new BigDecimal[size];
+        BigDecimal[] closes = new BigDecimal[size];
+        Long[] volumes = new Long[size];
+        String[] dates = new String[size];
+        String[] timestamps = new String[size];
+        for (int i = 0; i < size; i++) {
+            StockHistory row = rows.get(i);
+            if (row.getId() == null) {
+                row.setId(UUID.randomUUID());
+            }
+            row.setTimestamp(now);
+            ids[i] = row.getId().toString();
+            stockIds[i] = row.getStock().getId().toString();
+            prices[i] = row.getPrice();
+            opens[i] = row.getOpenPrice();
+            highs[i] = row.getHighPrice();
+            lows[i] = row.getLowPrice();
+            closes[i] = row.getClosePrice();
+            volumes[i] = row.getVolume();
+            dates[i] = row.getDate() == null ? null : row.getDate().toString();
+            timestamps[i] = now.toString();
+        }
+        Connection connection = ps.getConnection();
+        ps.setArray(1, connection.createArrayOf("varchar", ids));
+        ps.setArray(2, connection.createArrayOf("varchar", stockIds));
+        ps.setArray(3, connection.createArrayOf("numeric", prices));
+        ps.setArray(4, connection.createArrayOf("numeric", opens));
+        ps.setArray(5, connection.createArrayOf("numeric", highs));
+        ps.setArray(6, connection.createArrayOf("numeric", lows));
+        ps.setArray(7, connection.createArrayOf("numeric", closes));
+        ps.setArray(8, connection.createArrayOf("int8", volumes));
+        ps.setArray(9, connection.createArrayOf("varchar", dates));
+        ps.setArray(10, connection.createArrayOf("varchar", timestamps));
+    }
+
+    private static void setDailyBar(PreparedStatement ps, StockHistory row, LocalDateTime now) throws SQLException {
+        if (row.getId() == null) {
+            row.setId(UUID.randomUUID());
+        }
+        row.setTimestamp(now);
+        ps.setObject(1, row.getId());
+        ps.setObject(2, row.getStock().getId());
+        ps.setBigDecimal(3, row.getPrice());
+        ps.setBigDecimal(4, row.getOpenPrice());
+        ps.setBigDecimal(5, row.getHighPrice());
+        ps.setBigDecimal(6, row.getLowPrice());
+        ps.setBigDecimal(7, row.getClosePrice());
+        ps.setObject(8, row.getVolume(), Types.BIGINT);
+        ps.setObject(9, row.getDate(), Types.DATE);
+        ps.setObject(10, row.getTimestamp());
+    }
+
+    /**
+     * Name of the connected database, which picks the set-based upsert: {@code ON CONFLICT DO UPDATE} over
+     * column arrays on PostgreSQL, a batched {@code MERGE} on H2.
+     */
+    private String databaseProduct() {
+        String product = databaseProduct;
+        if (product == null) {
+            product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            databaseProduct = product;
+        }
+        return product;
+    }
+}
@@ -0,0 +1,137 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.enums.PartitionInterval;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Partition maintenance for the {@code stock_tick} table.
+ * On PostgreSQL, where the table is partitioned by range of timestamp, partitions are created ahead of
+ * time and expired ticks are removed by dropping whole partitions, which is instant and leaves no dead rows.
+ * On databases without the partitioned table, expired ticks are deleted instead.
+ */
+@Repository
+@Slf4j
+public class StockTickPartitions {
+
+    static final String PARTITION_PREFIX = "stock_tick_p";
+
+    private static final String FIND_PARTITIONED =
+            "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid "
+                    + "WHERE c.relname = 'stock_tick' AND pg_table_is_visible(c.oid)";
+
+    private static final String FIND_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = 'stock_tick' AND pg_table_is_visible(p.oid)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationConfig.Ticks settings;
+    private volatile Boolean partitioned;
+
+    public StockTickPartitions(JdbcTemplate jdbcTemplate, ApplicationConfig applicationConfig) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = applicationConfig.getTicks();
+    }
+
+    /**
+     * Create the partition holding {@code today} and the configured number after it, where missing.
+     *
+     * @return Partitions created; zero when the table is not partitioned
+     */
+    public int ensurePartitions(LocalDate today) {
+        if (!isPartitioned()) {
+            return 0;
+        }
+        PartitionInterval interval = settings.getPartitionInterval();
+        List<String> existing = partitionNames();
+        int created = 0;
+        LocalDate start = interval.start(today);
+        for (int i = 0; i <= Math.max(0, settings.getPartitionsAhead()); i++) {
+            LocalDate end = interval.next(start);
+            String name = PARTITION_PREFIX + interval.suffix(start);
+            if (!existing.contains(name)) {
+                try {
+                    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF stock_tick "
+                            + "FOR VALUES FROM ('" + start + "') TO ('" + end + "')");
+                    created++;
+                } catch (DataAccessException e) {
+                    // Usually a partition of the other interval already covers part of the range
+                    log.warn("Could not create tick partition {}: {}", name, e.getMessage());
+                }
+            }
+            start = end;
+        }
+        return created;
+    }
+
+    /**
+     * Remove ticks older than {@code cutoff}. On the partitioned table only partitions that end on or
+     * before the cutoff are dropped, so a partition that straddles it is kept until it has fully expired.
+     *
+     * @return Partitions dropped, or rows deleted when the table is not partitioned
+     */
+    public int expire(LocalDateTime cutoff) {
+        if (!isPartitioned()) {
+            return jdbcTemplate.update("DELETE FROM stock_tick WHERE timestamp < ?", cutoff);
+        }
+        int dropped = 0;
+        for (String name : partitionNames()) {
+            LocalDate end = partitionEnd(name);
+            if (end != null && !end.atStartOfDay().isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Exclusive upper bound of a partition, read from its name.
+     *
+     * @return The end date, or null if the name is not one this class creates
+     */
+    static LocalDate partitionEnd(String name) {
+        if (!name.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        String suffix = name.substring(PARTITION_PREFIX.length());
+        try {
+            if (suffix.length() == 8) {
+                return PartitionInterval.DAY.next(LocalDate.parse(suffix, DateTimeFormatter.BASIC_ISO_DATE));
+            }
+            if (suffix.length() == 6) {
+                return PartitionInterval.MONTH.next(YearMonth.parse(suffix, DateTimeFormatter.ofPattern("yyyyMM")).atDay(1));
+            }
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private List<String> partitionNames() {
+        return jdbcTemplate.queryForList(FIND_PARTITIONS, String.class);
+    }
+
+    private boolean isPartitioned() {
+        Boolean value = partitioned;
+        if (value == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            Integer count = "PostgreSQL".equals(product) ? jdbcTemplate.queryForObject(FIND_PARTITIONED, Integer.class) : null;
+            value = count != null && count > 0;
+            partitioned = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,27 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.entity.StockTick;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for StockTick entity.
+ * Every query bounds the timestamp so PostgreSQL only scans the partitions in range.
+ */
+@Repository
+public interface StockTickRepository extends JpaRepository<StockTick, UUID> {
+
+    /**
+     * Find the ticks of a stock from {@code from} (inclusive) to {@code to} (exclusive), oldest first.
+     */
+    @Query("SELECT t FROM StockTick t WHERE t.stock.id = :stockId AND t.timestamp >= :from AND t.timestamp < :to ORDER BY t.timestamp")
+    List<StockTick> findByStockIdInRange(@Param("stockId") UUID stockId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+}
@@ -1,14 +1,24 @@
 package com.tinusj.stocklee.repository;
 
 import com.tinusj.stocklee.entity.StockTransaction;
+import com.tinusj.stocklee.entity.StockTransaction.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for StockTransaction entity.
@@ -33,4 +43,52 @@ public interface StockTransactionRepository extends JpaRepository<StockTransacti
      */
     @Query("SELECT st FROM StockTransaction st JOIN FETCH st.stock WHERE st.user = :user ORDER BY st.timestamp DESC")
     List<StockTransaction> findByUserWithStockDetails(@Param("user") com.tinusj.stocklee.entity.UserProfile user);
-}
\ No newline at end of file
+
+    /**
+     * Page through all stock transactions by keyset, with the user and stock of each transaction.
+     */
+    @EntityGraph(attributePaths = {"user", "stock"})
+    Window<StockTransaction> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Page through the transactions of one user by keyset, seeking on the user and timestamp index.
+     */
+    @EntityGraph(attributePaths = {"user", "stock"})
+    Window<StockTransaction> findByUserId(UUID userId, ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Page through transactions of one type by keyset.
+     */
+    @EntityGraph(attributePaths = {"user", "stock"})
+    Window<StockTransaction> findByTransactionType(TransactionType transactionType,
+                                                   ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Page through the transactions of one type for one user by keyset.
+     */
+    @EntityGraph(attributePaths = {"user", "stock"})
+    Window<StockTransaction> findByUserIdAndTransactionType(UUID userId, TransactionType transactionType,
+                                                            ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Stream all transactions, oldest first, with their user and stock.
+     * Rows are fetched from the database in batches as the stream is consumed, so the stream must be
+     * read and closed inside a transaction.
+     */
+    @Query("SELECT st FROM StockTransaction st JOIN FETCH st.user JOIN FETCH st.stock ORDER BY st.timestamp, st.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StockHistoryRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<StockTransaction> streamAll();
+
+    /**
+     * Stream the transactions of one user, oldest first, with their user and stock.
+     */
+    @Query("SELECT st FROM StockTransaction st JOIN FETCH st.user u JOIN FETCH st.stock WHERE u.id = :userId ORDER BY st.timestamp, st.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StockHistoryRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<StockTransaction> streamByUserId(@Param("userId") UUID userId);
+}
@@ -22,6 +22,11 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, UUID>
      * Find user profile by email.
      */
     Optional<UserProfile> findByEmail(String email);
+
+    /**
+     * Find the user profile of the login with this email.
+     */
+    Optional<UserProfile> findByAccountEmail(String email);
     
     /**
      * Check if a user with the given username exists.
@@ -1,21 +1,23 @@
 package com.tinusj.stocklee.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ClassicHttpResponse;
-import org.apache.hc.core5.http.HttpEntity;
-import org.apache.hc.core5.http.io.HttpClientResponseHandler;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service to fetch stock prices from AlphaVantage API.
@@ -27,12 +29,18 @@ import java.util.Optional;
 public class AlphaVantageService implements StockPriceProvider {
 
     private final ObjectMapper objectMapper;
+    private final QuoteHttpClient quoteHttpClient;
     
     @Value("${alphavantage.api.key:demo}")
     private String apiKey;
     
     private static final String BASE_URL = "https://www.alphavantage.co/query";
 
+    /**
+     * Symbols per request to the realtime bulk quotes endpoint.
+     */
+    static final int MAX_BATCH_SIZE = 100;
+
     @Override
     public Optional<BigDecimal> getPrice(String symbol) {
         try {
@@ -41,29 +49,7 @@ public class AlphaVantageService implements StockPriceProvider {
                 return Optional.empty();
             }
 
-            String url = String.format("%s?function=GLOBAL_QUOTE&symbol=%s&apikey=%s", 
-                BASE_URL, symbol.toUpperCase(), apiKey);
-
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpGet request = new HttpGet(url);
-                request.setHeader("User-Agent", "Stocklee/1.0");
-
-                HttpClientResponseHandler<String> responseHandler = response -> {
-                    int status = response.getCode();
-                    if (status >= 200 && status < 300) {
-                        HttpEntity entity = response.getEntity();
-                        return entity != null ? EntityUtils.toString(entity) : null;
-                    } else {
-                        log.warn("AlphaVantage API returned status: {}", status);
-                        return null;
-                    }
-                };
-
-                String responseBody = httpClient.execute(request, responseHandler);
-                if (responseBody != null) {
-                    return parsePrice(responseBody);
-                }
-            }
+            return quoteHttpClient.get(globalQuoteUrl(symbol), "Stocklee/1.0", "AlphaVantage", this::parsePrice);
         } catch (Exception e) {
             log.error("Error fetching price from AlphaVantage for symbol: {}", symbol, e);
         }
@@ -71,6 +57,48 @@ public class AlphaVantageService implements StockPriceProvider {
         return Optional.empty();
     }
 
+    /**
+     * Fetch current stock price without blocking the caller.
+     * Request failures complete the future exceptionally, so callers can tell them from a missing quote.
+     */
+    @Override
+    public CompletableFuture<Optional<BigDecimal>> getPriceAsync(String symbol) {
+        if (!isValidSymbol(symbol)) {
+            log.warn("Invalid symbol: {}", symbol);
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return quoteHttpClient.getAsync(globalQuoteUrl(symbol), "Stocklee/1.0", "AlphaVantage", this::parsePrice);
+    }
+
+    private String globalQuoteUrl(String symbol) {
+        return String.format("%s?function=GLOBAL_QUOTE&symbol=%s&apikey=%s",
+            BASE_URL, symbol.toUpperCase(), apiKey);
+    }
+
+    /**
+     * Fetch current prices for several symbols using the realtime bulk quotes endpoint.
+     * Symbols are sent in chunks of {@link #MAX_BATCH_SIZE}, all chunks in flight at once.
+     */
+    @Override
+    public Map<String, BigDecimal> getPrices(Collection<String> symbols) {
+        Map<String, String> requested = QuoteBatches.indexBySymbol(symbols, this::isValidSymbol);
+
+        List<CompletableFuture<Map<String, BigDecimal>>> chunks = new ArrayList<>();
+        for (List<String> chunk : QuoteBatches.partition(new ArrayList<>(requested.keySet()), MAX_BATCH_SIZE)) {
+            String url = String.format("%s?function=REALTIME_BULK_QUOTES&symbol=%s&apikey=%s",
+                BASE_URL, String.join(",", chunk), apiKey);
+            chunks.add(quoteHttpClient.getAsync(url, "Stocklee/1.0", "AlphaVantage",
+                            body -> Optional.of(parseBatchPrices(body)))
+                    .thenApply(prices -> prices.orElseGet(Map::of)));
+        }
+        return QuoteBatches.collect(chunks, requested, "AlphaVantage");
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
     @Override
     public boolean isValidSymbol(String symbol) {
         if (symbol == null || symbol.trim().isEmpty()) {
@@ -84,37 +112,103 @@ public class AlphaVantageService implements StockPriceProvider {
     }
 
     /**
-     * Parse price from AlphaVantage API response.
+     * Parse a global quote response, reading "Global Quote"."05. price" token by token.
+     * Error, rate limit and premium notices are logged and yield no price.
      */
-    private Optional<BigDecimal> parsePrice(String responseBody) {
-        try {
-            JsonNode root = objectMapper.readTree(responseBody);
-            
-            // Check for error in response
-            if (root.has("Error Message")) {
-                log.warn("AlphaVantage API error: {}", root.get("Error Message").asText());
-                return Optional.empty();
+    Optional<BigDecimal> parsePrice(InputStream responseBody) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    switch (field) {
+                        case "Error Message" -> {
+                            log.warn("AlphaVantage API error: {}", parser.getText());
+                            return Optional.empty();
+                        }
+                        case "Note" -> {
+                            log.warn("AlphaVantage API rate limit: {}", parser.getText());
+                            return Optional.empty();
+                        }
+                        case "Information" -> {
+                            log.warn("AlphaVantage API notice: {}", parser.getText());
+                            return Optional.empty();
+                        }
+                        case "Global Quote" -> {
+                            if (value == JsonToken.START_OBJECT && StreamingJson.seekField(parser, "05. price")) {
+                                BigDecimal price = StreamingJson.decimalValue(parser);
+                                if (price != null) {
+                                    return Optional.of(price);
+                                }
+                            }
+                            log.warn("Invalid response format from AlphaVantage API");
+                            return Optional.empty();
+                        }
+                        default -> parser.skipChildren();
+                    }
+                }
             }
-            
-            // Check for rate limit
-            if (root.has("Note")) {
-                log.warn("AlphaVantage API rate limit: {}", root.get("Note").asText());
-                return Optional.empty();
+            log.warn("Invalid response format from AlphaVantage API");
+        } catch (IOException e) {
+            log.error("Error parsing AlphaVantage response", e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Parse a realtime bulk quotes response, reading data[].symbol and close token by token.
+     * Error, rate limit and premium notices are logged and yield no prices.
+     *
+     * @return Prices keyed by upper-case symbol
+     */
+    Map<String, BigDecimal> parseBatchPrices(InputStream responseBody) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.warn("Invalid response format from AlphaVantage bulk quotes API");
+                return prices;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "Error Message" -> log.warn("AlphaVantage API error: {}", parser.getText());
+                    case "Note" -> log.warn("AlphaVantage API rate limit: {}", parser.getText());
+                    case "Information" -> log.warn("AlphaVantage API notice: {}", parser.getText());
+                    case "data" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                readQuote(parser, prices);
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
             }
-            
-            // Parse global quote
-            JsonNode globalQuote = root.get("Global Quote");
-            if (globalQuote != null && globalQuote.has("05. price")) {
-                String priceStr = globalQuote.get("05. price").asText();
-                return Optional.of(new BigDecimal(priceStr));
+        } catch (IOException | NumberFormatException e) {
+            log.error("Error parsing AlphaVantage bulk quotes response", e);
+        }
+        return prices;
+    }
+
+    private void readQuote(JsonParser parser, Map<String, BigDecimal> prices) throws IOException {
+        String symbol = null;
+        String close = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("symbol".equals(field) && value == JsonToken.VALUE_STRING) {
+                symbol = parser.getText().toUpperCase();
+            } else if ("close".equals(field) && value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+                close = parser.getText();
             } else {
-                log.warn("Invalid response format from AlphaVantage API");
-                return Optional.empty();
+                parser.skipChildren();
             }
-            
-        } catch (Exception e) {
-            log.error("Error parsing AlphaVantage response", e);
-            return Optional.empty();
+        }
+        if (symbol != null && close != null && !close.isBlank()) {
+            prices.put(symbol, new BigDecimal(close.trim()));
         }
     }
-}
\ No newline at end of file
+}
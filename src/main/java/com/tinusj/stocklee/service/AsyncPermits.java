@@ -0,0 +1,129 @@
+package com.tinusj.stocklee.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Fair counting semaphore that can be waited on either by blocking or through a future.
+ * Permits are handed to waiters in arrival order, whichever way they wait; a waiter for several
+ * permits gets them all at once, so two of them never hold part of what each needs.
+ */
+class AsyncPermits {
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final int capacity;
+    private int available;
+
+    AsyncPermits(int permits) {
+        this.capacity = Math.max(1, permits);
+        this.available = capacity;
+    }
+
+    /**
+     * Permits in total, taken or not.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Take a permit once one is free. Cancelling the returned future before it completes
+     * withdraws from the queue; after it completes, the permit must be released.
+     */
+    CompletableFuture<Void> acquireAsync() {
+        return acquireAsync(1);
+    }
+
+    /**
+     * Take {@code permits} permits at once, once they are free.
+     *
+     * @throws IllegalArgumentException if more permits are asked for than there are
+     */
+    CompletableFuture<Void> acquireAsync(int permits) {
+        if (permits < 1 || permits > capacity) {
+            throw new IllegalArgumentException("Cannot take " + permits + " of " + capacity + " permits");
+        }
+        synchronized (this) {
+            if (available >= permits && waiters.isEmpty()) {
+                available -= permits;
+                return CompletableFuture.completedFuture(null);
+            }
+            Waiter waiter = new Waiter(new CompletableFuture<>(), permits);
+            waiters.add(waiter);
+            return waiter.future();
+        }
+    }
+
+    /**
+     * Take a permit, blocking until one is free.
+     */
+    void acquire() throws InterruptedException {
+        acquire(1);
+    }
+
+    /**
+     * Take {@code permits} permits at once, blocking until they are free.
+     */
+    void acquire(int permits) throws InterruptedException {
+        CompletableFuture<Void> waiter = acquireAsync(permits);
+        try {
+            waiter.get();
+        } catch (InterruptedException e) {
+            if (!waiter.cancel(false)) {
+                // The permits arrived while we were being interrupted; pass them on
+                release(permits);
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Return a permit, handing it straight to the longest waiter if there is one.
+     * The waiter's dependent stages run on the releasing thread.
+     */
+    void release() {
+        release(1);
+    }
+
+    /**
+     * Return {@code permits} permits, handing them to the longest waiters that they cover.
+     */
+    void release(int permits) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            available += permits;
+            Waiter next;
+            while ((next = waiters.peek()) != null) {
+                if (next.future().isDone()) {
+                    // Cancelled while queued
+                    waiters.poll();
+                } else if (next.permits() <= available) {
+                    waiters.poll();
+                    available -= next.permits();
+                    granted.add(next);
+                } else {
+                    break;
+                }
+            }
+        }
+        for (Waiter waiter : granted) {
+            if (!waiter.future().complete(null)) {
+                // Cancelled after it was granted; offer its permits to the next waiters
+                release(waiter.permits());
+            }
+        }
+    }
+
+    synchronized int availablePermits() {
+        return available;
+    }
+
+    private record Waiter(CompletableFuture<Void> future, int permits) {
+    }
+}
@@ -1,64 +1,393 @@
 package com.tinusj.stocklee.service;
 
+import com.tinusj.stocklee.config.ApplicationConfig;
 import com.tinusj.stocklee.enums.ProviderType;
-import lombok.RequiredArgsConstructor;
+import com.tinusj.stocklee.enums.RateLimitMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Composite stock price provider that uses multiple APIs with fallback logic.
- * First attempts Yahoo Finance, then falls back to AlphaVantage, and finally to Nasdaq API.
+ * Providers are tried in the order chosen by the {@link ProviderRouter} (normally Yahoo Finance,
+ * then AlphaVantage, then Nasdaq API), skipping any whose circuit breaker is open.
+ * Each provider is guarded by its own concurrency limit so parallel callers cannot flood a single API,
+ * and by the shared {@link ProviderRateLimiter} request budget.
+ * Reads are served from a {@link QuoteCache}; only cache misses and refreshes reach the provider chain.
+ * Single-symbol lookups walk the chain without blocking: each fallback is chained onto the previous
+ * provider's future, and the synchronous {@link #getPrice(String)} simply waits for the result.
  */
 @Service
 @Primary
-@RequiredArgsConstructor
 @Slf4j
 public class CompositeStockPriceProvider implements StockPriceProvider {
 
     private final YahooFinanceService yahooFinanceService;
-    private final AlphaVantageService alphaVantageService;
-    private final NasdaqApiService nasdaqApiService;
+    private final Map<ProviderType, StockPriceProvider> providers = new EnumMap<>(ProviderType.class);
+    private final Map<ProviderType, AsyncPermits> providerPermits = new EnumMap<>(ProviderType.class);
+    private final ProviderRouter providerRouter;
+    private final ProviderRateLimiter providerRateLimiter;
+    private final RateLimitMode readMode;
+    private final ProviderStatistics providerStatistics;
+    private final QuoteCache quoteCache;
+    private final Duration hedgeAfter;
+    private final Counter hedgeCounter;
 
+    public CompositeStockPriceProvider(YahooFinanceService yahooFinanceService,
+                                       AlphaVantageService alphaVantageService,
+                                       NasdaqApiService nasdaqApiService,
+                                       ProviderRouter providerRouter,
+                                       ProviderRateLimiter providerRateLimiter,
+                                       ApplicationConfig applicationConfig,
+                                       MeterRegistry meterRegistry) {
+        this.yahooFinanceService = yahooFinanceService;
+        this.providerRouter = providerRouter;
+        this.providerRateLimiter = providerRateLimiter;
+        this.readMode = applicationConfig.getRateLimit().getMode();
+        // Default fallback order follows the ProviderType declaration order
+        providers.put(ProviderType.YAHOO_FINANCE, yahooFinanceService);
+        providers.put(ProviderType.ALPHA_VANTAGE, alphaVantageService);
+        providers.put(ProviderType.NASDAQ_API, nasdaqApiService);
+        for (ProviderType providerType : ProviderType.values()) {
+            int limit = applicationConfig.getPriceFetch().getProviderConcurrency(providerType);
+            providerPermits.put(providerType, new AsyncPermits(limit));
+        }
+        this.providerStatistics = new ProviderStatistics(meterRegistry);
+        this.quoteCache = new QuoteCache(applicationConfig.getQuoteCache(),
+                this::fetchQuoteAsync, symbols -> fetchQuotes(symbols, readMode), meterRegistry);
+
+        this.hedgeAfter = applicationConfig.getProviderRouting().getHedgeAfter();
+        this.hedgeCounter = Counter.builder("stocklee.provider.hedged")
+                .description("Single-symbol lookups that also asked the next provider after the hedge delay")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the price for a symbol, served from the quote cache when fresh enough.
+     */
     @Override
     public Optional<BigDecimal> getPrice(String symbol) {
+        return getQuote(symbol).map(Quote::getPrice);
+    }
+
+    /**
+     * Get the price for a symbol without blocking the caller, served from the quote cache when fresh enough.
+     */
+    @Override
+    public CompletableFuture<Optional<BigDecimal>> getPriceAsync(String symbol) {
+        return getQuoteAsync(symbol).thenApply(quote -> quote.map(Quote::getPrice));
+    }
+
+    /**
+     * Get prices for several symbols, served from the quote cache where possible.
+     * Symbols missing from the cache are loaded together in one pass through the provider chain.
+     */
+    @Override
+    public Map<String, BigDecimal> getPrices(Collection<String> symbols) {
+        return toPrices(getQuotes(symbols));
+    }
+
+    /**
+     * Get the quote for a symbol, including which provider supplied it and when.
+     */
+    public Optional<Quote> getQuote(String symbol) {
         if (!isValidSymbol(symbol)) {
             log.warn("Invalid symbol: {}", symbol);
             return Optional.empty();
         }
+        return quoteCache.get(normalize(symbol));
+    }
+
+    /**
+     * Get the quote for a symbol without blocking the caller.
+     */
+    public CompletableFuture<Optional<Quote>> getQuoteAsync(String symbol) {
+        if (!isValidSymbol(symbol)) {
+            log.warn("Invalid symbol: {}", symbol);
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return quoteCache.getAsync(normalize(symbol));
+    }
+
+    /**
+     * Get quotes for several symbols, keyed by the requested symbol.
+     */
+    public Map<String, Quote> getQuotes(Collection<String> symbols) {
+        Map<String, String> requested = QuoteBatches.indexBySymbol(symbols, this::isValidSymbol);
+        return toRequested(quoteCache.getAll(requested.keySet()), requested);
+    }
+
+    /**
+     * Fetch prices for several symbols from the provider chain, bypassing cached values,
+     * and store the results in the quote cache. Used by the scheduled refresh so every cycle
+     * sees live prices and keeps the cache warm for other readers.
+     * Never waits for request budget; symbols beyond it are left for the next provider.
+     */
+    public Map<String, BigDecimal> refreshPrices(Collection<String> symbols) {
+        Map<String, String> requested = QuoteBatches.indexBySymbol(symbols, this::isValidSymbol);
+        Map<String, Quote> fetched = fetchQuotes(requested.keySet(), RateLimitMode.SKIP);
+        quoteCache.putAll(fetched);
+        return toPrices(toRequested(fetched, requested));
+    }
+
+    /**
+     * Number of symbols the current request budgets allow a refresh to price, summed over the
+     * providers in route order, or {@link Integer#MAX_VALUE} if any routed provider is not limited.
+     */
+    public int getRefreshBudget() {
+        long budget = 0;
+        for (ProviderType providerType : providerRouter.route()) {
+            int requests = providerRateLimiter.availableRequests(providerType);
+            if (requests == Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE;
+            }
+            budget += (long) requests * providers.get(providerType).getMaxBatchSize();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, budget);
+    }
+
+    private static Map<String, Quote> toRequested(Map<String, Quote> quotes, Map<String, String> requested) {
+        Map<String, Quote> result = new LinkedHashMap<>();
+        requested.forEach((symbol, requestedSymbol) -> {
+            Quote quote = quotes.get(symbol);
+            if (quote != null) {
+                result.put(requestedSymbol, quote);
+            }
+        });
+        return result;
+    }
+
+    private static Map<String, BigDecimal> toPrices(Map<String, Quote> quotes) {
+        Map<String, BigDecimal> prices = new LinkedHashMap<>();
+        quotes.forEach((symbol, quote) -> prices.put(symbol, quote.getPrice()));
+        return prices;
+    }
+
+    private static String normalize(String symbol) {
+        return symbol.toUpperCase().trim();
+    }
+
+    /**
+     * Walk the provider chain for a single symbol, stopping at the first provider with a price.
+     */
+    private CompletableFuture<Optional<Quote>> fetchQuoteAsync(String symbol) {
+        List<ProviderType> route = providerRouter.route();
+        return fetchChainAsync(symbol, route, 0).whenComplete((quote, error) -> {
+            if (quote != null && quote.isPresent()) {
+                log.debug("Successfully fetched price for {} from {}: {}",
+                        symbol, quote.get().getProvider(), quote.get().getPrice());
+            } else {
+                log.warn("Failed to fetch price for {} from all providers {}", symbol, route);
+            }
+        });
+    }
+
+    /**
+     * Ask the provider at {@code index} and fall back to the rest of the route if it has no price.
+     * With hedging enabled, a provider that has not answered within the hedge delay does not hold up
+     * the rest of the route: it is asked as well and whichever price arrives first wins.
+     */
+    private CompletableFuture<Optional<Quote>> fetchChainAsync(String symbol, List<ProviderType> route, int index) {
+        if (index >= route.size()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        ProviderType providerType = route.get(index);
+        log.debug("Attempting to fetch price for {} from {}", symbol, providerType);
+        CompletableFuture<Optional<Quote>> current = fetchFromAsync(providerType, symbol);
+        if (hedgeAfter.isZero() || hedgeAfter.isNegative() || index + 1 >= route.size()) {
+            return current.thenCompose(quote -> quote.isPresent()
+                    ? CompletableFuture.completedFuture(quote)
+                    : fetchChainAsync(symbol, route, index + 1));
+        }
 
-        // First try Yahoo Finance
-        log.debug("Attempting to fetch price for {} from Yahoo Finance", symbol);
-        Optional<BigDecimal> yahooPrice = yahooFinanceService.getPrice(symbol);
-        
-        if (yahooPrice.isPresent()) {
-            log.debug("Successfully fetched price for {} from Yahoo Finance: {}", symbol, yahooPrice.get());
-            return yahooPrice;
+        CompletableFuture<Optional<Quote>> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<Optional<Quote>>> rest = new AtomicReference<>();
+        Supplier<CompletableFuture<Optional<Quote>>> startRest = () -> {
+            CompletableFuture<Optional<Quote>> started = new CompletableFuture<>();
+            if (!rest.compareAndSet(null, started)) {
+                return rest.get();
+            }
+            fetchChainAsync(symbol, route, index + 1).thenAccept(started::complete);
+            return started;
+        };
+        current.thenAccept(quote -> {
+            if (quote.isPresent()) {
+                result.complete(quote);
+            } else {
+                startRest.get().thenAccept(result::complete);
+            }
+        });
+        CompletableFuture.delayedExecutor(hedgeAfter.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (!current.isDone() && rest.get() == null) {
+                log.debug("No answer for {} from {} within {} ms, hedging to {}",
+                        symbol, providerType, hedgeAfter.toMillis(), route.get(index + 1));
+                hedgeCounter.increment();
+                startRest.get().thenAccept(quote -> quote.ifPresent(found -> result.complete(quote)));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Walk the provider chain for several symbols with one batch call per provider.
+     * Only the symbols a provider could not price are passed on to the next provider in the chain.
+     */
+    private Map<String, Quote> fetchQuotes(Collection<String> symbols, RateLimitMode mode) {
+        Set<String> remaining = new LinkedHashSet<>(symbols);
+        Map<String, Quote> quotes = new LinkedHashMap<>();
+        List<ProviderType> route = providerRouter.route();
+        for (ProviderType providerType : route) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            fetchBatchFrom(providerType, providers.get(providerType), remaining, quotes, mode);
         }
 
-        // Fallback to AlphaVantage
-        log.debug("Yahoo Finance failed for {}, trying AlphaVantage", symbol);
-        Optional<BigDecimal> alphaPrice = alphaVantageService.getPrice(symbol);
-        
-        if (alphaPrice.isPresent()) {
-            log.debug("Successfully fetched price for {} from AlphaVantage: {}", symbol, alphaPrice.get());
-            return alphaPrice;
+        if (!remaining.isEmpty()) {
+            log.warn("Failed to fetch prices for {} from all providers {}", remaining, route);
         }
+        return quotes;
+    }
 
-        // Final fallback to Nasdaq API
-        log.debug("AlphaVantage failed for {}, trying Nasdaq API", symbol);
-        Optional<BigDecimal> nasdaqPrice = nasdaqApiService.getPrice(symbol);
-        
-        if (nasdaqPrice.isPresent()) {
-            log.debug("Successfully fetched price for {} from Nasdaq API: {}", symbol, nasdaqPrice.get());
-            return nasdaqPrice;
+    /**
+     * Ask one provider for the symbols still missing, holding a permit for each request the provider
+     * sends. Batches needing more requests than the provider has permits are asked for in rounds, so
+     * the provider's concurrency bound holds however large the batch.
+     * When the request budget only covers part of the batch, the rest is left for the next provider.
+     * Symbols it prices are moved from {@code remaining} into {@code quotes}.
+     */
+    private void fetchBatchFrom(ProviderType providerType, StockPriceProvider provider,
+                                Set<String> remaining, Map<String, Quote> quotes, RateLimitMode mode) {
+        if (!providerRouter.tryAcquire(providerType)) {
+            log.debug("Circuit breaker for {} is open, skipping {} symbols", providerType, remaining.size());
+            return;
         }
+        int batchSize = Math.max(1, provider.getMaxBatchSize());
+        int requests = (remaining.size() + batchSize - 1) / batchSize;
+        int granted = providerRateLimiter.acquire(providerType, requests, mode);
+        if (granted == 0) {
+            providerRouter.onAbandoned(providerType);
+            log.debug("Request budget for {} used up, skipping {} symbols", providerType, remaining.size());
+            return;
+        }
+        List<String> batch = remaining.stream().limit((long) granted * batchSize).toList();
 
-        log.warn("Failed to fetch price for {} from all providers (Yahoo Finance, AlphaVantage, Nasdaq API)", symbol);
-        return Optional.empty();
+        AsyncPermits permits = providerPermits.get(providerType);
+        for (List<String> round : QuoteBatches.partition(batch, batchSize * permits.capacity())) {
+            if (!fetchRoundFrom(providerType, provider, permits, round, batchSize, remaining, quotes)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ask one provider for at most as many requests' worth of symbols as it has permits.
+     *
+     * @return Whether the provider answered
+     */
+    private boolean fetchRoundFrom(ProviderType providerType, StockPriceProvider provider, AsyncPermits permits,
+                                   List<String> round, int batchSize, Set<String> remaining,
+                                   Map<String, Quote> quotes) {
+        int requested = round.size();
+        int chunks = (requested + batchSize - 1) / batchSize;
+        try {
+            permits.acquire(chunks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            providerRouter.onAbandoned(providerType);
+            log.debug("Interrupted while waiting for {} {} permits for {} symbols", chunks, providerType, requested);
+            return false;
+        }
+        long start = System.nanoTime();
+        Map<String, BigDecimal> found;
+        try {
+            log.debug("Fetching {} prices from {}", requested, providerType);
+            found = provider.getPrices(round);
+        } catch (RuntimeException e) {
+            log.error("Error fetching batch prices from {}: {}", providerType, e.getMessage());
+            recordOutcome(providerType, requested, 0, true, start);
+            return false;
+        } finally {
+            permits.release(chunks);
+        }
+        Duration latency = recordOutcome(providerType, requested, found.size(), false, start);
+
+        Instant asOf = Instant.now();
+        found.forEach((symbol, price) -> quotes.put(symbol, new Quote(symbol, price, providerType, latency, asOf)));
+        remaining.removeAll(found.keySet());
+        return true;
+    }
+
+    /**
+     * Call a single provider once one of its concurrency permits is free, without blocking.
+     * Lookups never wait for request budget: a provider without budget is passed over for the next one.
+     */
+    private CompletableFuture<Optional<Quote>> fetchFromAsync(ProviderType providerType, String symbol) {
+        if (!providerRouter.tryAcquire(providerType)) {
+            log.debug("Circuit breaker for {} is open, skipping {}", providerType, symbol);
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        if (providerRateLimiter.acquire(providerType, 1, RateLimitMode.SKIP) == 0) {
+            providerRouter.onAbandoned(providerType);
+            log.debug("Request budget for {} used up, skipping {}", providerType, symbol);
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        StockPriceProvider provider = providers.get(providerType);
+        AsyncPermits permits = providerPermits.get(providerType);
+        return permits.acquireAsync().thenCompose(permit -> {
+            long start = System.nanoTime();
+            CompletableFuture<Optional<BigDecimal>> price;
+            try {
+                price = provider.getPriceAsync(symbol);
+            } catch (RuntimeException e) {
+                price = CompletableFuture.failedFuture(e);
+            }
+            return price.handle((value, error) -> {
+                permits.release();
+                if (error != null) {
+                    log.error("Error fetching price for {} from {}: {}", symbol, providerType, error.getMessage());
+                    recordOutcome(providerType, 1, 0, true, start);
+                    return Optional.<Quote>empty();
+                }
+                Duration latency = recordOutcome(providerType, 1, value.isPresent() ? 1 : 0, false, start);
+                return value.map(found -> new Quote(symbol, found, providerType, latency, Instant.now()));
+            });
+        });
+    }
+
+    /**
+     * Feed one finished provider call into the statistics and the router.
+     * Only errors and timeouts count against the provider: an answer without prices is still a success.
+     * Calls cut short by an interrupt (e.g. a fetch cycle hitting its deadline) give the router no verdict.
+     */
+    private Duration recordOutcome(ProviderType providerType, int requested, int priced, boolean failed, long start) {
+        Duration latency = Duration.ofNanos(System.nanoTime() - start);
+        providerStatistics.record(providerType, requested, priced, failed, latency);
+        if (Thread.currentThread().isInterrupted()) {
+            providerRouter.onAbandoned(providerType);
+        } else {
+            providerRouter.onResult(providerType, !failed, latency);
+        }
+        return latency;
     }
 
     @Override
@@ -68,24 +397,37 @@ public class CompositeStockPriceProvider implements StockPriceProvider {
     }
 
     /**
-     * Get stock information, preferring Yahoo Finance.
+     * Get stock information, using Yahoo Finance details and the cached price.
      */
     public Optional<YahooFinanceService.StockInfo> getStockInfo(String symbol) {
-        // Yahoo Finance provides more comprehensive stock info
-        return yahooFinanceService.getStockInfo(symbol);
+        return getPrice(symbol)
+                .map(price -> yahooFinanceService.createStockInfo(normalize(symbol), price));
     }
 
     /**
-     * Get the provider type that successfully returned a price.
+     * Get the provider that supplied the cached quote for the symbol.
+     * Reads provenance from the quote cache and never calls a provider.
+     *
+     * @return Provider type or null if no quote is cached for the symbol
      */
     public ProviderType getActiveProvider(String symbol) {
-        if (yahooFinanceService.getPrice(symbol).isPresent()) {
-            return ProviderType.YAHOO_FINANCE;
-        } else if (alphaVantageService.getPrice(symbol).isPresent()) {
-            return ProviderType.ALPHA_VANTAGE;
-        } else if (nasdaqApiService.getPrice(symbol).isPresent()) {
-            return ProviderType.NASDAQ_API;
+        if (!isValidSymbol(symbol)) {
+            return null;
         }
-        return null;
+        return quoteCache.getIfPresent(normalize(symbol))
+                .map(Quote::getProvider)
+                .orElse(null);
+    }
+
+    /**
+     * Success-rate and latency statistics for every provider.
+     */
+    public List<ProviderStatistics.Snapshot> getProviderStatistics() {
+        return providerStatistics.snapshots();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        quoteCache.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package com.tinusj.stocklee.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tinusj.stocklee.dto.HistoricalStockDataDto;
+import com.tinusj.stocklee.dto.StockTransactionDto;
+import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.StockTransaction;
+import com.tinusj.stocklee.enums.ExportFormat;
+import com.tinusj.stocklee.repository.StockHistoryRepository;
+import com.tinusj.stocklee.repository.StockTransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams history and transaction exports straight from a database cursor to an output stream.
+ * Each row is written and detached from the persistence context before the next is read, so memory
+ * use stays flat however many rows are exported.
+ * NDJSON rows are serialised from the same DTOs as the JSON endpoints; CSV columns follow the DTO fields.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final List<String> DAILY_BAR_COLUMNS =
+            List.of("symbol", "date", "openPrice", "highPrice", "lowPrice", "closePrice", "volume");
+
+    private static final List<String> TRANSACTION_COLUMNS =
+            List.of("id", "stockId", "userId", "transactionType", "quantity", "price", "totalValue", "timestamp",
+                    "stockSymbol", "stockName", "username");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final StockHistoryRepository stockHistoryRepository;
+    private final StockTransactionRepository stockTransactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Export daily bars in a date range, for one symbol or for all of them.
+     *
+     * @param symbol Symbol to export, or null for every symbol
+     */
+    @Transactional(readOnly = true)
+    public void exportDailyBars(String symbol, LocalDate fromDate, LocalDate toDate,
+                                ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<StockHistory> rows = symbol != null
+                ? stockHistoryRepository.streamDailyBarsBySymbol(symbol, fromDate, toDate)
+                : stockHistoryRepository.streamDailyBars(fromDate, toDate)) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(rows, DAILY_BAR_COLUMNS, ExportService::dailyBarValues, out);
+            } else {
+                writeNdjson(rows, ExportService::toHistoricalDto, out);
+            }
+        }
+    }
+
+    /**
+     * Export stock transactions, for one user or for all of them.
+     *
+     * @param userId User to export, or null for every user
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactions(UUID userId, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<StockTransaction> rows = userId != null
+                ? stockTransactionRepository.streamByUserId(userId)
+                : stockTransactionRepository.streamAll()) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(rows, TRANSACTION_COLUMNS, ExportService::transactionValues, out);
+            } else {
+                writeNdjson(rows, ExportService::toTransactionDto, out);
+            }
+        }
+    }
+
+    private <T> void writeCsv(Stream<T> rows, List<String> columns, Function<T, List<Object>> values,
+                              OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(String.join(",", columns));
+        writer.write('\n');
+        try {
+            rows.forEach(row -> {
+                String line = values.apply(row).stream()
+                        .map(ExportService::csvField)
+                        .collect(Collectors.joining(","));
+                entityManager.detach(row);
+                try {
+                    writer.write(line);
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private <T> void writeNdjson(Stream<T> rows, Function<T, Object> toDto, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            rows.forEach(row -> {
+                Object dto = toDto.apply(row);
+                entityManager.detach(row);
+                try {
+                    writer.writeValue(generator, dto);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.close();
+    }
+
+    private static List<Object> dailyBarValues(StockHistory row) {
+        return Arrays.asList(row.getStock().getSymbol(), row.getDate(),
+                plain(row.getOpenPrice()), plain(row.getHighPrice()), plain(row.getLowPrice()),
+                plain(row.getClosePrice()), row.getVolume());
+    }
+
+    private static List<Object> transactionValues(StockTransaction row) {
+        return Arrays.asList(row.getId(), row.getStock().getId(), row.getUser().getId(), row.getTransactionType(),
+                plain(row.getQuantity()), plain(row.getPrice()), plain(row.getTotalValue()),
+                row.getTimestamp(), row.getStock().getSymbol(), row.getStock().getName(),
+                row.getUser().getUsername());
+    }
+
+    private static HistoricalStockDataDto toHistoricalDto(StockHistory row) {
+        return new HistoricalStockDataDto(row.getStock().getSymbol(), row.getDate(), row.getOpenPrice(),
+                row.getHighPrice(), row.getLowPrice(), row.getClosePrice(), row.getVolume());
+    }
+
+    private static StockTransactionDto toTransactionDto(StockTransaction row) {
+        StockTransactionDto dto = new StockTransactionDto();
+        dto.setId(row.getId());
+        dto.setStockId(row.getStock().getId());
+        dto.setUserId(row.getUser().getId());
+        dto.setTransactionType(row.getTransactionType());
+        dto.setQuantity(row.getQuantity());
+        dto.setPrice(row.getPrice());
+        dto.setTotalValue(row.getTotalValue());
+        dto.setTimestamp(row.getTimestamp());
+        dto.setStockSymbol(row.getStock().getSymbol());
+        dto.setStockName(row.getStock().getName());
+        dto.setUsername(row.getUser().getUsername());
+        return dto;
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? null : value.toPlainString();
+    }
+
+    /**
+     * Quote a field if it holds a separator, quote or line break, doubling any quotes inside it.
+     * Nulls are written as empty fields.
+     */
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
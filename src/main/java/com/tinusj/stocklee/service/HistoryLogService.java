@@ -1,8 +1,12 @@
 package com.tinusj.stocklee.service;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.HistoryLog;
 import com.tinusj.stocklee.repository.HistoryLogRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,6 +29,21 @@ public class HistoryLogService {
         return historyLogRepository.findAllWithUser();
     }
 
+    /**
+     * Find one page of history logs, optionally for one user.
+     *
+     * @param cursor Token from the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public CursorPage<HistoryLog> findPage(UUID userId, String cursor, int size, Sort.Direction direction) {
+        ScrollPosition position = KeysetCursor.decode(cursor);
+        Sort sort = KeysetCursor.sort(direction);
+        Window<HistoryLog> window = userId != null
+                ? historyLogRepository.findByUserId(userId, position, KeysetCursor.limit(size), sort)
+                : historyLogRepository.findAllBy(position, KeysetCursor.limit(size), sort);
+        return KeysetCursor.page(window, HistoryLog::getTimestamp, HistoryLog::getId);
+    }
+
     /**
      * Find history log by ID.
      */
@@ -0,0 +1,75 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Short transactions for the write phase of scheduled jobs. Jobs fetch from the providers first,
+ * without a database connection, and then apply the results here, so a connection is only held
+ * while rows are actually written.
+ * The time each transaction holds its connection is recorded per job as
+ * {@code stocklee.job.transaction}.
+ */
+@Component
+@Slf4j
+public class JobTransactions {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+
+    public JobTransactions(PlatformTransactionManager transactionManager,
+                           ApplicationConfig applicationConfig,
+                           MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, applicationConfig.getPersistence().getChunkSize());
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run {@code action} in one transaction, timed under {@code job}.
+     */
+    public void execute(String job, Runnable action) {
+        holdTimer(job).record(() -> transactionTemplate.executeWithoutResult(status -> action.run()));
+    }
+
+    /**
+     * Apply {@code items} in chunks, each in a transaction of its own. A failed chunk is rolled back
+     * and logged; the chunks after it are still applied.
+     *
+     * @param apply Writes one chunk and returns how many of its items were stored
+     * @return Items stored across all committed chunks
+     */
+    public <T> int executeInChunks(String job, List<T> items, ToIntFunction<List<T>> apply) {
+        int stored = 0;
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            List<T> chunk = items.subList(from, Math.min(items.size(), from + chunkSize));
+            try {
+                Integer chunkStored = holdTimer(job).record(
+                        () -> transactionTemplate.execute(status -> apply.applyAsInt(chunk)));
+                stored += chunkStored == null ? 0 : chunkStored;
+            } catch (Exception e) {
+                log.error("Error applying {} items for job {}: {}", chunk.size(), job, e.getMessage());
+            }
+        }
+        return stored;
+    }
+
+    private Timer holdTimer(String job) {
+        return holdTimers.computeIfAbsent(job, name -> Timer.builder("stocklee.job.transaction")
+                .description("Time a scheduled job held a database connection for one transaction")
+                .tag("job", name)
+                .register(meterRegistry));
+    }
+}
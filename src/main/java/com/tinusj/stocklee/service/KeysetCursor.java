@@ -0,0 +1,88 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.dto.CursorPage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cursor tokens for keyset-paginated listings ordered by timestamp and id.
+ * A token holds the timestamp and id of the last row of a page; the next page is read by seeking
+ * past that row on the timestamp index, so a page costs the same however deep into the table it is.
+ * Tokens are opaque to clients and only valid for the sort direction they were issued with.
+ */
+public final class KeysetCursor {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Response header carrying the token for the next page of a REST listing.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Newest or oldest first, with the id breaking ties between rows written in the same instant.
+     */
+    public static Sort sort(Sort.Direction direction) {
+        return Sort.by(direction, "timestamp", "id");
+    }
+
+    /**
+     * Page size clamped to between 1 and {@link #MAX_PAGE_SIZE}.
+     */
+    public static Limit limit(int size) {
+        return Limit.of(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Scroll position for a token; a missing or blank token starts at the first page.
+     *
+     * @throws IllegalArgumentException if the token was not issued by {@link #encode}
+     */
+    public static ScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(',');
+            LocalDateTime timestamp = LocalDateTime.parse(value.substring(0, separator));
+            UUID id = UUID.fromString(value.substring(separator + 1));
+            return ScrollPosition.forward(Map.of("timestamp", timestamp, "id", id));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Token for the page after the row with this timestamp and id.
+     */
+    public static String encode(LocalDateTime timestamp, UUID id) {
+        String value = timestamp + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Page of a window, with a token for the next page if there is one.
+     */
+    public static <T> CursorPage<T> page(Window<T> window, Function<T, LocalDateTime> timestamp, Function<T, UUID> id) {
+        String next = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            T last = window.getContent().get(window.size() - 1);
+            next = encode(timestamp.apply(last), id.apply(last));
+        }
+        return new CursorPage<>(window.getContent(), next);
+    }
+}
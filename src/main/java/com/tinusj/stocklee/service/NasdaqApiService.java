@@ -1,23 +1,20 @@
 package com.tinusj.stocklee.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.HttpEntity;
-import org.apache.hc.core5.http.io.HttpClientResponseHandler;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service to fetch stock prices and historical data from Nasdaq API.
@@ -28,6 +25,7 @@ import java.util.ArrayList;
 public class NasdaqApiService implements StockPriceProvider {
 
     private final ObjectMapper objectMapper;
+    private final QuoteHttpClient quoteHttpClient;
     
     @Value("${nasdaq.api.key:demo}")
     private String apiKey;
@@ -43,41 +41,39 @@ public class NasdaqApiService implements StockPriceProvider {
                 return Optional.empty();
             }
 
-            // For demo purposes, we'll simulate Nasdaq API response since we don't have a real API key
-            // In production, you would replace this with actual Nasdaq API endpoints
-            String url = String.format("%s/api/quote/%s/info?assetclass=stocks", 
-                baseUrl, symbol.toUpperCase());
-
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpGet request = new HttpGet(url);
-                request.setHeader("User-Agent", "Stocklee/1.0");
-                
-                // In production, add API key header:
-                // request.setHeader("X-API-KEY", apiKey);
-
-                HttpClientResponseHandler<String> responseHandler = response -> {
-                    int status = response.getCode();
-                    if (status >= 200 && status < 300) {
-                        HttpEntity entity = response.getEntity();
-                        return entity != null ? EntityUtils.toString(entity) : null;
-                    } else {
-                        log.warn("Nasdaq API returned status: {}", status);
-                        return null;
-                    }
-                };
-
-                String responseBody = httpClient.execute(request, responseHandler);
-                if (responseBody != null) {
-                    return parsePrice(responseBody, symbol);
-                }
-            }
+            // In production, send the API key as an X-API-KEY header
+            return quoteHttpClient.get(quoteUrl(symbol), "Stocklee/1.0", "Nasdaq", body -> parsePrice(body, symbol));
         } catch (Exception e) {
             log.debug("Nasdaq API not available (expected in demo mode), falling back to mock data for symbol: {}", symbol);
             // Return mock data for demo purposes
             return getMockPrice(symbol);
         }
-        
-        return Optional.empty();
+    }
+
+    /**
+     * Fetch current stock price without blocking the caller.
+     * Falls back to mock data on request failures, as {@link #getPrice(String)} does.
+     */
+    @Override
+    public CompletableFuture<Optional<BigDecimal>> getPriceAsync(String symbol) {
+        if (!isValidSymbol(symbol)) {
+            log.warn("Invalid symbol: {}", symbol);
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return quoteHttpClient.getAsync(quoteUrl(symbol), "Stocklee/1.0", "Nasdaq", body -> parsePrice(body, symbol))
+                .exceptionally(e -> {
+                    log.debug("Nasdaq API not available (expected in demo mode), falling back to mock data for symbol: {}", symbol);
+                    return getMockPrice(symbol);
+                });
+    }
+
+    /**
+     * For demo purposes, we'll simulate Nasdaq API response since we don't have a real API key.
+     * In production, you would replace this with actual Nasdaq API endpoints.
+     */
+    private String quoteUrl(String symbol) {
+        return String.format("%s/api/quote/%s/info?assetclass=stocks",
+            baseUrl, symbol.toUpperCase());
     }
 
     @Override
@@ -115,31 +111,38 @@ public class NasdaqApiService implements StockPriceProvider {
     }
 
     /**
-     * Parse price from Nasdaq API response.
+     * Parse price from Nasdaq API response, reading data.primaryData.lastSalePrice token by token.
      */
-    private Optional<BigDecimal> parsePrice(String responseBody, String symbol) {
-        try {
-            JsonNode root = objectMapper.readTree(responseBody);
-            
-            // Check for error in response
-            if (root.has("Error")) {
-                log.warn("Nasdaq API error: {}", root.get("Error").asText());
-                return Optional.empty();
+    Optional<BigDecimal> parsePrice(InputStream responseBody, String symbol) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return getMockPrice(symbol);
             }
-            
-            // Parse price from response - this is a placeholder structure
-            // In production, adjust based on actual Nasdaq API response format
-            if (root.has("data") && root.get("data").has("primaryData")) {
-                JsonNode primaryData = root.get("data").get("primaryData");
-                if (primaryData.has("lastSalePrice")) {
-                    String priceStr = primaryData.get("lastSalePrice").asText().replace("$", "");
-                    return Optional.of(new BigDecimal(priceStr));
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                // Check for error in response
+                if ("Error".equals(field)) {
+                    log.warn("Nasdaq API error: {}", parser.getText());
+                    return Optional.empty();
                 }
+                // Parse price from response - this is a placeholder structure
+                // In production, adjust based on actual Nasdaq API response format
+                if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    if (StreamingJson.seekPath(parser, "primaryData", "lastSalePrice")) {
+                        BigDecimal price = StreamingJson.decimalValue(parser);
+                        if (price != null) {
+                            return Optional.of(price);
+                        }
+                    }
+                    break;
+                }
+                parser.skipChildren();
             }
-            
+
             // If parsing fails, return mock data for demo
             return getMockPrice(symbol);
-            
+
         } catch (Exception e) {
             log.debug("Error parsing Nasdaq response, using mock data: {}", e.getMessage());
             return getMockPrice(symbol);
@@ -3,11 +3,15 @@ package com.tinusj.stocklee.service;
 import com.tinusj.stocklee.entity.OwnedStock;
 import com.tinusj.stocklee.entity.Stock;
 import com.tinusj.stocklee.entity.UserProfile;
+import com.tinusj.stocklee.money.Money;
+import com.tinusj.stocklee.money.Quantity;
+import com.tinusj.stocklee.repository.HolderIndex;
 import com.tinusj.stocklee.repository.OwnedStockRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,6 +24,8 @@ import java.util.UUID;
 public class OwnedStockService {
 
     private final OwnedStockRepository ownedStockRepository;
+    private final PortfolioValuationEngine portfolioValuationEngine;
+    private final HolderIndex holderIndex;
 
     /**
      * Find all owned stocks.
@@ -37,15 +43,33 @@ public class OwnedStockService {
 
     /**
      * Save or update an owned stock.
+     * The holder index and portfolio valuations are corrected from the stored holding, which may have moved
+     * to another user or stock.
      */
     public OwnedStock save(OwnedStock ownedStock) {
-        return ownedStockRepository.save(ownedStock);
+        Optional<OwnedStock> previous = ownedStock.getId() == null
+                ? Optional.empty()
+                : ownedStockRepository.findByIdWithUserAndStock(ownedStock.getId());
+        OwnedStock saved = ownedStockRepository.save(ownedStock);
+        previous.ifPresent(owned -> {
+            recordPosition(owned, Quantity.ZERO);
+            portfolioValuationEngine.invalidate(owned.getUser().getId());
+        });
+        ownedStockRepository.findByIdWithUserAndStock(saved.getId()).ifPresent(owned -> {
+            recordPosition(owned, Quantity.of(owned.getQuantity()));
+            portfolioValuationEngine.invalidate(owned.getUser().getId());
+        });
+        return saved;
     }
 
     /**
      * Delete owned stock by ID.
      */
     public void deleteById(UUID id) {
+        ownedStockRepository.findByIdWithUserAndStock(id).ifPresent(owned -> {
+            recordPosition(owned, Quantity.ZERO);
+            portfolioValuationEngine.invalidate(owned.getUser().getId());
+        });
         ownedStockRepository.deleteById(id);
     }
 
@@ -79,35 +103,38 @@ public class OwnedStockService {
 
     /**
      * Add shares to user's portfolio or create new holding.
+     * The average price is the combined cost over the combined quantity, rounded half up to cents.
      */
     public OwnedStock addShares(UserProfile user, Stock stock, BigDecimal quantity, BigDecimal pricePerShare) {
         Optional<OwnedStock> existingOwned = findByUserAndStock(user, stock);
+        Quantity bought = Quantity.of(quantity);
+        Money price = Money.of(pricePerShare);
         
         if (existingOwned.isPresent()) {
             // Update existing holding
             OwnedStock owned = existingOwned.get();
-            BigDecimal currentTotal = owned.getAveragePrice().multiply(owned.getQuantity());
-            BigDecimal newTotal = pricePerShare.multiply(quantity);
-            BigDecimal combinedTotal = currentTotal.add(newTotal);
+            Quantity held = Quantity.of(owned.getQuantity());
+            Money currentTotal = Money.of(owned.getAveragePrice()).times(held);
+            Money combinedTotal = currentTotal.plus(price.times(bought));
             
-            BigDecimal newQuantity = owned.getQuantity().add(quantity);
-            BigDecimal newAveragePrice = combinedTotal.divide(newQuantity, 4, java.math.RoundingMode.HALF_UP);
+            Quantity newQuantity = held.plus(bought);
+            Money newAveragePrice = combinedTotal.dividedBy(newQuantity);
             
-            owned.setQuantity(newQuantity);
-            owned.setAveragePrice(newAveragePrice);
-            owned.setTotalValue(combinedTotal);
+            owned.setQuantity(newQuantity.toBigDecimal());
+            owned.setAveragePrice(newAveragePrice.toBigDecimal());
+            owned.setTotalValue(combinedTotal.toBigDecimal());
             
-            return save(owned);
+            return saveHolding(owned);
         } else {
             // Create new holding
             OwnedStock newOwned = new OwnedStock();
             newOwned.setUser(user);
             newOwned.setStock(stock);
-            newOwned.setQuantity(quantity);
-            newOwned.setAveragePrice(pricePerShare);
-            newOwned.setTotalValue(pricePerShare.multiply(quantity));
+            newOwned.setQuantity(bought.toBigDecimal());
+            newOwned.setAveragePrice(price.toBigDecimal());
+            newOwned.setTotalValue(price.times(bought).toBigDecimal());
             
-            return save(newOwned);
+            return saveHolding(newOwned);
         }
     }
 
@@ -122,52 +149,85 @@ public class OwnedStockService {
         }
         
         OwnedStock owned = existingOwned.get();
-        if (owned.getQuantity().compareTo(quantity) < 0) {
+        Quantity held = Quantity.of(owned.getQuantity());
+        Quantity sold = Quantity.of(quantity);
+        if (held.compareTo(sold) < 0) {
             return false; // Not enough shares to sell
         }
         
-        if (owned.getQuantity().compareTo(quantity) == 0) {
+        if (held.compareTo(sold) == 0) {
             // Selling all shares - delete the record
-            deleteById(owned.getId());
+            ownedStockRepository.delete(owned);
+            recordPosition(owned, Quantity.ZERO);
+            portfolioValuationEngine.holdingRemoved(user, owned.getId());
         } else {
             // Selling partial shares - update the record
-            BigDecimal newQuantity = owned.getQuantity().subtract(quantity);
-            BigDecimal newTotalValue = owned.getAveragePrice().multiply(newQuantity);
+            Quantity newQuantity = held.minus(sold);
+            Money newTotalValue = Money.of(owned.getAveragePrice()).times(newQuantity);
             
-            owned.setQuantity(newQuantity);
-            owned.setTotalValue(newTotalValue);
-            save(owned);
+            owned.setQuantity(newQuantity.toBigDecimal());
+            owned.setTotalValue(newTotalValue.toBigDecimal());
+            saveHolding(owned);
         }
         
         return true;
     }
 
+    /**
+     * Store a holding changed by a fill and apply it to the holder index and the user's portfolio valuation.
+     */
+    private OwnedStock saveHolding(OwnedStock ownedStock) {
+        OwnedStock saved = ownedStockRepository.save(ownedStock);
+        recordPosition(saved, Quantity.of(saved.getQuantity()));
+        portfolioValuationEngine.holdingChanged(saved);
+        return saved;
+    }
+
+    private void recordPosition(OwnedStock ownedStock, Quantity quantity) {
+        holderIndex.recordPosition(ownedStock.getStock().getSymbol(), ownedStock.getUser().getId(), quantity);
+    }
+
     /**
      * Calculate total portfolio value for a user at current prices.
      */
     public BigDecimal calculateTotalPortfolioValue(UserProfile user) {
-        List<OwnedStock> ownedStocks = findByUser(user);
-        return ownedStocks.stream()
-                .map(owned -> owned.getStock().getCurrentPrice().multiply(owned.getQuantity()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return marketValue(findByUser(user)).toBigDecimal();
     }
 
     /**
      * Calculate total investment cost for a user.
      */
     public BigDecimal calculateTotalInvestment(UserProfile user) {
-        List<OwnedStock> ownedStocks = findByUser(user);
-        return ownedStocks.stream()
-                .map(OwnedStock::getTotalValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return costBasis(findByUser(user)).toBigDecimal();
     }
 
     /**
      * Calculate profit/loss for a user.
      */
     public BigDecimal calculateProfitLoss(UserProfile user) {
-        BigDecimal currentValue = calculateTotalPortfolioValue(user);
-        BigDecimal investment = calculateTotalInvestment(user);
-        return currentValue.subtract(investment);
+        List<OwnedStock> ownedStocks = findByUser(user);
+        return marketValue(ownedStocks).minus(costBasis(ownedStocks)).toBigDecimal();
+    }
+
+    /**
+     * Sum of each holding's quantity at its stock's current price, each rounded to cents.
+     */
+    static Money marketValue(Collection<OwnedStock> ownedStocks) {
+        Money total = Money.ZERO;
+        for (OwnedStock owned : ownedStocks) {
+            total = total.plus(Money.of(owned.getStock().getCurrentPrice()).times(Quantity.of(owned.getQuantity())));
+        }
+        return total;
+    }
+
+    /**
+     * Sum of what each holding cost.
+     */
+    static Money costBasis(Collection<OwnedStock> ownedStocks) {
+        Money total = Money.ZERO;
+        for (OwnedStock owned : ownedStocks) {
+            total = total.plus(Money.of(owned.getTotalValue()));
+        }
+        return total;
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.tinusj.stocklee.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the WebSocket sessions subscribed to {@code /user/queue/portfolio}, so the
+ * {@link PortfolioValuationEngine} sends portfolio updates to their users only while one is listening.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PortfolioStreamSubscriptions {
+
+    static final String PORTFOLIO_DESTINATION = "/user/queue/portfolio";
+
+    private final UserProfileService userProfileService;
+    private final PortfolioValuationEngine portfolioValuationEngine;
+    private final Map<String, String> subscriptionIds = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Principal principal = event.getUser();
+        if (!PORTFOLIO_DESTINATION.equals(headers.getDestination()) || principal == null) {
+            return;
+        }
+        // Sessions authenticate with the login's email, which the profile's own email may no longer match
+        userProfileService.findByAccountEmail(principal.getName()).ifPresentOrElse(
+                user -> {
+                    subscriptionIds.put(headers.getSessionId(), headers.getSubscriptionId());
+                    portfolioValuationEngine.subscribe(headers.getSessionId(), principal.getName(), user);
+                },
+                () -> log.debug("No user profile for portfolio subscriber {}", principal.getName()));
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        // Unsubscribe frames name the subscription only, which may be one to another destination
+        if (subscriptionIds.remove(headers.getSessionId(), headers.getSubscriptionId())) {
+            portfolioValuationEngine.unsubscribe(headers.getSessionId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        subscriptionIds.remove(event.getSessionId());
+        portfolioValuationEngine.unsubscribe(event.getSessionId());
+    }
+}
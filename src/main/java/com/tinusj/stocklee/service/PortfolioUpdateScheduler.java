@@ -1,24 +1,40 @@
 package com.tinusj.stocklee.service;
 
+import com.tinusj.stocklee.config.ApplicationConfig;
 import com.tinusj.stocklee.controller.StockPriceWebSocketController;
 import com.tinusj.stocklee.dto.StockPriceUpdateDto;
 import com.tinusj.stocklee.entity.Stock;
 import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.StockTick;
+import com.tinusj.stocklee.repository.StockPriceWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for scheduled portfolio updates.
- * Updates stock prices every 10 seconds using the composite API provider setup.
+ * Refreshes stock prices using the parallel price fetch engine at a cadence set by the
+ * {@link TradingCalendar}: every few seconds while a stock's market is in session, rarely or never
+ * outside it, plus one closing snapshot per market at the end of each session.
+ * Prices that the {@link PriceTickFilter} does not count as a change are neither stored nor broadcast;
+ * stored ones reprice the portfolios held by the {@link PortfolioValuationEngine}.
  * Also handles periodic historical data updates.
+ * No job holds a database connection while waiting on a provider: each fetches first and then writes
+ * in short transactions through {@link JobTransactions}.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,67 +42,246 @@ import java.util.Optional;
 public class PortfolioUpdateScheduler {
 
     private final StockService stockService;
-    private final CompositeStockPriceProvider compositeStockPriceProvider;
+    private final PriceFetchEngine priceFetchEngine;
     private final StockHistoryService stockHistoryService;
     private final StockPriceWebSocketController webSocketController;
+    private final TradingCalendar tradingCalendar;
+    private final PriceTickFilter priceTickFilter;
+    private final StockPriceWriter stockPriceWriter;
+    private final JobTransactions jobTransactions;
+    private final PortfolioValuationEngine portfolioValuationEngine;
+    private final ApplicationConfig applicationConfig;
+    private final Map<Stock.MarketType, Instant> lastRefreshed = new ConcurrentHashMap<>();
+    private final Map<Stock.MarketType, LocalDate> lastCloseSnapshot = new ConcurrentHashMap<>();
 
     /**
-     * Scheduled task to update portfolio every 10 seconds.
-     * Fetches live stock prices and updates currentPrice and previousPrice fields.
+     * Refresh the prices of every stock whose market is due: markets in session on every run,
+     * closed markets once per closed interval. Only in-session updates are written as
+     * intraday ticks; the session's closing price is recorded by {@link #snapshotClose()}.
+     * The cycle's updates are stored together in one batch by the {@link StockPriceWriter}.
+     * Scheduled with {@link #nextRefresh(Instant)} as its trigger.
      */
-    @Scheduled(fixedRate = 10000) // 10 seconds
-    @Transactional
     public void updatePortfolio() {
-        log.debug("Starting portfolio update...");
+        Instant now = tradingCalendar.now();
+        Set<Stock.MarketType> due = marketsDueForRefresh(now);
+        if (due.isEmpty()) {
+            log.debug("No market due for a price refresh");
+            return;
+        }
+        log.debug("Starting portfolio update for {}...", due);
         
-        List<Stock> stocks = stockService.findAll();
-        int successCount = 0;
+        List<Stock> stocks = stockService.findAll().stream()
+                .filter(stock -> due.contains(tradingCalendar.resolve(stock.getMarket())))
+                .toList();
+        
+        // Fetch phase: all provider calls run concurrently, bounded by the cycle deadline
+        PriceFetchEngine.FetchResult fetchResult = priceFetchEngine.fetchPrices(
+                stocks.stream().map(Stock::getSymbol).toList());
+        due.forEach(market -> lastRefreshed.put(market, now));
+        
+        // Write phase: apply whatever arrived in one batch
+        List<Stock> updated = new ArrayList<>();
+        List<StockTick> ticks = new ArrayList<>();
+        int unchangedCount = 0;
         int failureCount = 0;
+        Set<String> deferred = new HashSet<>(fetchResult.getDeferredSymbols());
         
         for (Stock stock : stocks) {
-            try {
-                // Fetch new price from API
-                Optional<BigDecimal> newPriceOpt = compositeStockPriceProvider.getPrice(stock.getSymbol());
-                
-                if (newPriceOpt.isPresent()) {
-                    BigDecimal newPrice = newPriceOpt.get();
-                    
-                    // Store current price as previous price
-                    stock.setPreviousPrice(stock.getCurrentPrice());
-                    
-                    // Update current price with new price
-                    stock.setCurrentPrice(newPrice);
-                    
-                    // Save updated stock
-                    stockService.save(stock);
-                    
-                    // Store price update in history (for intraday tracking)
-                    StockHistory history = new StockHistory(stock, newPrice);
-                    stockHistoryService.save(history);
-                    
-                    // Broadcast real-time update via WebSocket
-                    StockPriceUpdateDto priceUpdate = new StockPriceUpdateDto(
-                            stock.getSymbol(),
-                            stock.getName(),
-                            stock.getCurrentPrice(),
-                            stock.getPreviousPrice()
-                    );
-                    webSocketController.broadcastStockPriceUpdate(priceUpdate);
-                    
-                    successCount++;
-                    log.debug("Updated price for {}: {} -> {}", 
-                            stock.getSymbol(), stock.getPreviousPrice(), stock.getCurrentPrice());
-                } else {
-                    failureCount++;
-                    log.warn("Failed to fetch price for stock: {}", stock.getSymbol());
-                }
-            } catch (Exception e) {
+            BigDecimal newPrice = fetchResult.getPrices().get(stock.getSymbol());
+            if (newPrice == null && deferred.contains(stock.getSymbol())) {
+                // Left for a later cycle to stay within the providers' request budgets
+                continue;
+            }
+            if (newPrice == null) {
                 failureCount++;
-                log.error("Error updating price for stock {}: {}", stock.getSymbol(), e.getMessage());
+                log.warn("Failed to fetch price for stock: {}", stock.getSymbol());
+                continue;
+            }
+            if (!priceTickFilter.accept(stock, newPrice, now)) {
+                // Nothing to store or broadcast
+                unchangedCount++;
+                continue;
+            }
+            
+            stock.setPreviousPrice(stock.getCurrentPrice());
+            stock.setCurrentPrice(newPrice);
+            updated.add(stock);
+            
+            // Store the price update as an intraday tick only while the market trades
+            if (tradingCalendar.isOpen(stock.getMarket(), now)) {
+                ticks.add(new StockTick(stock, newPrice));
+            }
+        }
+        
+        int successCount = 0;
+        if (writeAndBroadcast("price-refresh", updated, ticks, List.of())) {
+            successCount = updated.size();
+            updated.forEach(stock -> priceTickFilter.applied(stock.getSymbol(), now));
+        } else {
+            failureCount += updated.size();
+        }
+        log.info("Portfolio update completed in {} ms. Updated: {}, Unchanged: {}, Failed: {}, Deferred: {}", 
+                fetchResult.getElapsed().toMillis(), successCount, unchangedCount, failureCount, deferred.size());
+    }
+
+    /**
+     * Record the closing price of every market whose session ended today and has no snapshot yet.
+     * Each stock gets one history row dated with the session date, even if its price has not changed;
+     * the stock itself is only updated and broadcast when the closing price differs from its current price.
+     * Scheduled with {@link #nextCloseSnapshot()} as its trigger.
+     */
+    public void snapshotClose() {
+        Instant now = tradingCalendar.now();
+        Map<Stock.MarketType, LocalDate> closed = new HashMap<>();
+        for (Stock.MarketType market : tradingCalendar.getMarkets()) {
+            LocalDate sessionDate = tradingCalendar.sessionDate(market, now);
+            if (tradingCalendar.isTradingDay(market, sessionDate)
+                    && !now.isBefore(tradingCalendar.sessionClose(market, sessionDate))
+                    && !sessionDate.equals(lastCloseSnapshot.get(market))) {
+                closed.put(market, sessionDate);
+            }
+        }
+        if (closed.isEmpty()) {
+            return;
+        }
+        log.info("Taking closing snapshot for {}", closed);
+
+        List<Stock> stocks = stockService.findAll().stream()
+                .filter(stock -> closed.containsKey(tradingCalendar.resolve(stock.getMarket())))
+                .toList();
+        PriceFetchEngine.FetchResult fetchResult = priceFetchEngine.fetchPrices(
+                stocks.stream().map(Stock::getSymbol).toList());
+        closed.forEach(lastCloseSnapshot::put);
+
+        List<Stock> updated = new ArrayList<>();
+        List<StockHistory> history = new ArrayList<>();
+        for (Stock stock : stocks) {
+            BigDecimal closePrice = fetchResult.getPrices().get(stock.getSymbol());
+            if (closePrice == null) {
+                log.warn("No closing price for stock: {}", stock.getSymbol());
+                continue;
+            }
+            LocalDate sessionDate = closed.get(tradingCalendar.resolve(stock.getMarket()));
+            history.add(new StockHistory(stock, sessionDate, null, null, null, closePrice, null));
+            if (stock.getCurrentPrice() == null || closePrice.compareTo(stock.getCurrentPrice()) != 0) {
+                stock.setPreviousPrice(stock.getCurrentPrice());
+                stock.setCurrentPrice(closePrice);
+                updated.add(stock);
+            }
+        }
+        int recorded = writeAndBroadcast("close-snapshot", updated, List.of(), history) ? history.size() : 0;
+        log.info("Closing snapshot completed. Recorded: {} of {}", recorded, stocks.size());
+    }
+
+    /**
+     * Next time {@link #updatePortfolio()} should run: one open interval after the last run while any
+     * market is in session, otherwise the next session open or the next closed-market refresh,
+     * whichever comes first.
+     *
+     * @param lastCompletion End of the previous run, or null before the first run
+     */
+    public Instant nextRefresh(Instant lastCompletion) {
+        Instant now = tradingCalendar.now();
+        if (lastCompletion == null) {
+            return now;
+        }
+        ApplicationConfig.TradingCalendar settings = applicationConfig.getTradingCalendar();
+        Instant earliest = lastCompletion.plus(settings.getOpenInterval());
+        Instant next = null;
+        for (Stock.MarketType market : tradingCalendar.getMarkets()) {
+            Instant candidate;
+            if (tradingCalendar.isOpen(market, now)) {
+                candidate = earliest;
+            } else {
+                candidate = tradingCalendar.nextOpen(market, now);
+                if (isRefreshingClosedMarkets()) {
+                    Instant last = lastRefreshed.get(market);
+                    Instant closedRefresh = last == null ? now : last.plus(settings.getClosedInterval());
+                    if (closedRefresh.isBefore(candidate)) {
+                        candidate = closedRefresh;
+                    }
+                }
+            }
+            if (next == null || candidate.isBefore(next)) {
+                next = candidate;
+            }
+        }
+        // Never run back to back, even if a refresh keeps failing to bring a market up to date
+        return next == null || next.isBefore(earliest) ? earliest : next;
+    }
+
+    /**
+     * Next time {@link #snapshotClose()} should run: the delay after the next session close of any market.
+     */
+    public Instant nextCloseSnapshot() {
+        Duration delay = applicationConfig.getTradingCalendar().getCloseSnapshotDelay();
+        Instant after = tradingCalendar.now().minus(delay);
+        Instant next = null;
+        for (Stock.MarketType market : tradingCalendar.getMarkets()) {
+            Instant close = tradingCalendar.nextClose(market, after);
+            if (next == null || close.isBefore(next)) {
+                next = close;
+            }
+        }
+        return next == null ? null : next.plus(delay);
+    }
+
+    private Set<Stock.MarketType> marketsDueForRefresh(Instant now) {
+        Duration closedInterval = applicationConfig.getTradingCalendar().getClosedInterval();
+        Set<Stock.MarketType> due = EnumSet.noneOf(Stock.MarketType.class);
+        for (Stock.MarketType market : tradingCalendar.getMarkets()) {
+            Instant last = lastRefreshed.get(market);
+            if (tradingCalendar.isOpen(market, now)
+                    || (isRefreshingClosedMarkets() && (last == null || !last.plus(closedInterval).isAfter(now)))) {
+                due.add(market);
             }
         }
+        return due;
+    }
+
+    private boolean isRefreshingClosedMarkets() {
+        Duration closedInterval = applicationConfig.getTradingCalendar().getClosedInterval();
+        return !closedInterval.isZero() && !closedInterval.isNegative();
+    }
+
+    /**
+     * Store the price updates, ticks and daily bars in one batch, then reprice the portfolios holding the
+     * updated stocks and broadcast them.
+     *
+     * @param job Name the transaction's connection hold time is recorded under
+     *
+     * @return Whether the batch was stored
+     */
+    private boolean writeAndBroadcast(String job, List<Stock> updated, List<StockTick> ticks, List<StockHistory> bars) {
+        if (updated.isEmpty() && ticks.isEmpty() && bars.isEmpty()) {
+            return true;
+        }
+        try {
+            jobTransactions.execute(job, () -> stockPriceWriter.write(updated, ticks, bars));
+        } catch (Exception e) {
+            log.error("Error storing {} price updates, {} ticks and {} daily bars: {}", 
+                    updated.size(), ticks.size(), bars.size(), e.getMessage());
+            return false;
+        }
+        portfolioValuationEngine.pricesChanged(updated);
         
-        log.info("Portfolio update completed. Updated: {}, Failed: {}", successCount, failureCount);
+        // Broadcast real-time updates via WebSocket, in one batch for the cycle
+        List<StockPriceUpdateDto> priceUpdates = new ArrayList<>(updated.size());
+        for (Stock stock : updated) {
+            priceUpdates.add(new StockPriceUpdateDto(
+                    stock.getSymbol(),
+                    stock.getName(),
+                    stock.getCurrentPrice(),
+                    stock.getPreviousPrice()
+            ));
+            
+            log.debug("Updated price for {}: {} -> {}", 
+                    stock.getSymbol(), stock.getPreviousPrice(), stock.getCurrentPrice());
+        }
+        if (!priceUpdates.isEmpty()) {
+            webSocketController.broadcastStockPriceUpdates(priceUpdates);
+        }
+        return true;
     }
 
     /**
@@ -94,30 +289,14 @@ public class PortfolioUpdateScheduler {
      * Runs daily to ensure we have complete historical data.
      */
     @Scheduled(cron = "${stocklee.scheduler.market-data-fetch-cron:0 0 18 * * MON-FRI}") // 6 PM on weekdays
-    @Transactional
     public void updateHistoricalData() {
         log.info("Starting daily historical data update...");
         
-        List<Stock> stocks = stockService.findAll();
         LocalDate today = LocalDate.now();
         LocalDate yesterday = today.minusDays(1);
         
-        int successCount = 0;
-        int failureCount = 0;
-        
-        for (Stock stock : stocks) {
-            try {
-                // Fetch historical data for the last few days to ensure we don't miss any
-                stockHistoryService.fetchAndStoreHistoricalData(stock, yesterday.minusDays(2), today);
-                successCount++;
-                log.debug("Updated historical data for {}", stock.getSymbol());
-            } catch (Exception e) {
-                failureCount++;
-                log.error("Error updating historical data for stock {}: {}", stock.getSymbol(), e.getMessage());
-            }
-        }
-        
-        log.info("Historical data update completed. Updated: {}, Failed: {}", successCount, failureCount);
+        // Fetch historical data for the last few days to ensure we don't miss any
+        refreshHistoricalData("historical-daily", yesterday.minusDays(2), today);
     }
 
     /**
@@ -125,29 +304,41 @@ public class PortfolioUpdateScheduler {
      * Runs on Sunday to prepare data for the upcoming week.
      */
     @Scheduled(cron = "0 0 20 * * SUN") // 8 PM on Sundays
-    @Transactional
     public void updateWeeklyHistoricalData() {
         log.info("Starting weekly historical data update...");
         
-        List<Stock> stocks = stockService.findAll();
         LocalDate today = LocalDate.now();
         LocalDate thirtyDaysAgo = today.minusDays(30);
         
+        // Fetch last 30 days of historical data
+        refreshHistoricalData("historical-weekly", thirtyDaysAgo, today);
+    }
+
+    /**
+     * Fetch the bars of every stock first, holding no database connection while the provider answers,
+     * then store them in short chunked transactions.
+     */
+    private void refreshHistoricalData(String job, LocalDate fromDate, LocalDate toDate) {
+        List<Stock> stocks = stockService.findAll();
+        
+        List<StockHistory> bars = new ArrayList<>();
         int successCount = 0;
         int failureCount = 0;
         
         for (Stock stock : stocks) {
             try {
-                // Fetch last 30 days of historical data
-                stockHistoryService.fetchAndStoreHistoricalData(stock, thirtyDaysAgo, today);
+                bars.addAll(stockHistoryService.fetchHistoricalData(stock, fromDate, toDate));
                 successCount++;
-                log.debug("Updated 30-day historical data for {}", stock.getSymbol());
+                log.debug("Fetched historical data for {}", stock.getSymbol());
             } catch (Exception e) {
                 failureCount++;
-                log.error("Error updating weekly historical data for stock {}: {}", stock.getSymbol(), e.getMessage());
+                log.error("Error fetching historical data for stock {}: {}", stock.getSymbol(), e.getMessage());
             }
         }
         
-        log.info("Weekly historical data update completed. Updated: {}, Failed: {}", successCount, failureCount);
+        int inserted = jobTransactions.executeInChunks(job, bars, stockHistoryService::storeHistoricalData);
+        
+        log.info("Historical data update ({}) completed. Updated: {}, Failed: {}, Bars inserted or completed: {}, skipped: {}", 
+                job, successCount, failureCount, inserted, bars.size() - inserted);
     }
-}
\ No newline at end of file
+}
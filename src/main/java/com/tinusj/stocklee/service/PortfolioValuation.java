@@ -0,0 +1,181 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.dto.OwnedStockDto;
+import com.tinusj.stocklee.entity.OwnedStock;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.money.Money;
+import com.tinusj.stocklee.money.Quantity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable valuation of one user's portfolio: its holdings at their latest known prices and the
+ * cost basis and market value they add up to. Changes return a new valuation whose totals are
+ * adjusted by the changed holdings only, so applying a price or a fill does not re-sum the portfolio.
+ * Every change sets a holding's state rather than adjusting it, so applying one twice is harmless.
+ */
+public final class PortfolioValuation {
+
+    private final List<Holding> holdings;
+    private final Money costBasis;
+    private final Money marketValue;
+    private final long loadedAt;
+
+    private PortfolioValuation(List<Holding> holdings, Money costBasis, Money marketValue, long loadedAt) {
+        this.holdings = holdings;
+        this.costBasis = costBasis;
+        this.marketValue = marketValue;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * Valuation of holdings read with their stocks.
+     *
+     * @param loadedAt {@link System#nanoTime()} at which the holdings were read
+     */
+    static PortfolioValuation of(Collection<OwnedStock> ownedStocks, long loadedAt) {
+        List<Holding> holdings = new ArrayList<>(ownedStocks.size());
+        Money costBasis = Money.ZERO;
+        Money marketValue = Money.ZERO;
+        for (OwnedStock ownedStock : ownedStocks) {
+            Holding holding = Holding.of(ownedStock);
+            holdings.add(holding);
+            costBasis = costBasis.plus(holding.totalValue());
+            marketValue = marketValue.plus(holding.currentValue());
+        }
+        return new PortfolioValuation(List.copyOf(holdings), costBasis, marketValue, loadedAt);
+    }
+
+    public List<Holding> holdings() {
+        return holdings;
+    }
+
+    /**
+     * What the holdings cost.
+     */
+    public Money costBasis() {
+        return costBasis;
+    }
+
+    /**
+     * What the holdings are worth at their latest prices.
+     */
+    public Money marketValue() {
+        return marketValue;
+    }
+
+    public Money profitLoss() {
+        return marketValue.minus(costBasis);
+    }
+
+    long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Valuation with the holding of the given symbol repriced, or this one if it holds none or the
+     * price is unchanged.
+     */
+    PortfolioValuation withPrice(String symbol, Money price) {
+        for (int i = 0; i < holdings.size(); i++) {
+            Holding holding = holdings.get(i);
+            if (holding.symbol().equals(symbol) && !price.equals(holding.currentPrice())) {
+                Holding updated = holding.withCurrentPrice(price);
+                List<Holding> repriced = new ArrayList<>(holdings);
+                repriced.set(i, updated);
+                Money newMarketValue = marketValue.minus(holding.currentValue()).plus(updated.currentValue());
+                return new PortfolioValuation(List.copyOf(repriced), costBasis, newMarketValue, loadedAt);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Valuation with a holding added, or replaced by its new state after a fill.
+     */
+    PortfolioValuation withHolding(Holding holding) {
+        List<Holding> updated = new ArrayList<>(holdings.size() + 1);
+        Money newCostBasis = costBasis.plus(holding.totalValue());
+        Money newMarketValue = marketValue.plus(holding.currentValue());
+        boolean replaced = false;
+        for (Holding existing : holdings) {
+            if (existing.id().equals(holding.id())) {
+                newCostBasis = newCostBasis.minus(existing.totalValue());
+                newMarketValue = newMarketValue.minus(existing.currentValue());
+                updated.add(holding);
+                replaced = true;
+            } else {
+                updated.add(existing);
+            }
+        }
+        if (!replaced) {
+            updated.add(holding);
+        }
+        return new PortfolioValuation(List.copyOf(updated), newCostBasis, newMarketValue, loadedAt);
+    }
+
+    /**
+     * Valuation without the holding with this ID, after it was sold in full.
+     */
+    PortfolioValuation withoutHolding(UUID id) {
+        List<Holding> remaining = new ArrayList<>(holdings.size());
+        Money newCostBasis = costBasis;
+        Money newMarketValue = marketValue;
+        for (Holding existing : holdings) {
+            if (existing.id().equals(id)) {
+                newCostBasis = newCostBasis.minus(existing.totalValue());
+                newMarketValue = newMarketValue.minus(existing.currentValue());
+            } else {
+                remaining.add(existing);
+            }
+        }
+        return new PortfolioValuation(List.copyOf(remaining), newCostBasis, newMarketValue, loadedAt);
+    }
+
+    /**
+     * One holding at its stock's latest known price.
+     */
+    public record Holding(UUID id, String symbol, String name, Quantity quantity, Money averagePrice,
+                          Money totalValue, Money currentPrice) {
+
+        /**
+         * Holding read with its stock; a stock without a price is valued at zero.
+         */
+        static Holding of(OwnedStock ownedStock) {
+            Stock stock = ownedStock.getStock();
+            Money price = Money.of(stock.getCurrentPrice());
+            return new Holding(ownedStock.getId(), stock.getSymbol(), stock.getName(),
+                    Quantity.of(ownedStock.getQuantity()), Money.of(ownedStock.getAveragePrice()),
+                    Money.of(ownedStock.getTotalValue()), price == null ? Money.ZERO : price);
+        }
+
+        public Money currentValue() {
+            return currentPrice.times(quantity);
+        }
+
+        public Money profitLoss() {
+            return currentValue().minus(totalValue);
+        }
+
+        public OwnedStockDto toDto() {
+            OwnedStockDto dto = new OwnedStockDto();
+            dto.setId(id);
+            dto.setQuantity(quantity.toBigDecimal());
+            dto.setAveragePrice(averagePrice.toBigDecimal());
+            dto.setTotalValue(totalValue.toBigDecimal());
+            dto.setStockSymbol(symbol);
+            dto.setStockName(name);
+            dto.setCurrentPrice(currentPrice.toBigDecimal());
+            dto.setCurrentValue(currentValue().toBigDecimal());
+            dto.setProfitLoss(profitLoss().toBigDecimal());
+            return dto;
+        }
+
+        Holding withCurrentPrice(Money price) {
+            return new Holding(id, symbol, name, quantity, averagePrice, totalValue, price);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.tinusj.stocklee.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.controller.StockPriceWebSocketController;
+import com.tinusj.stocklee.dto.PortfolioUpdateDto;
+import com.tinusj.stocklee.entity.OwnedStock;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.UserProfile;
+import com.tinusj.stocklee.money.Money;
+import com.tinusj.stocklee.repository.HolderIndex;
+import com.tinusj.stocklee.repository.OwnedStockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link PortfolioValuation} per user in memory, so a portfolio summary is served without
+ * reading the holdings again. A user's holdings are read with one query the first time they are asked
+ * for, and the valuation is then kept up to date as events arrive: each fill replaces the holding it
+ * changed, and each price change reprices the holdings of that symbol, visiting only its holders as
+ * found in the {@link HolderIndex}. Events apply once their
+ * transaction commits. Valuations are read again after the configured max age, however often they were
+ * updated, and a user's is read again after their holdings are edited directly.
+ * <p>
+ * Users with a session subscribed to {@code /user/queue/portfolio} are sent one update per price change
+ * batch, holding their new totals and every holding the batch repriced. A subscriber whose valuation is
+ * no longer held has it read again for the update.
+ * <p>
+ * Hits and misses are recorded as the {@code portfolios} cache metrics; the time since a served valuation
+ * was read from the database as {@code stocklee.portfolio.valuation.age}.
+ */
+@Service
+public class PortfolioValuationEngine {
+
+    private final OwnedStockRepository ownedStockRepository;
+    private final HolderIndex holderIndex;
+    private final StockPriceWebSocketController webSocketController;
+    private final TransactionTemplate readTransaction;
+    private final ApplicationConfig.PortfolioValuation settings;
+    private final Ticker ticker;
+    private final Cache<UUID, PortfolioValuation> valuations;
+    private final Timer ageTimer;
+    private final Counter priceUpdateCounter;
+    private final Counter tradeUpdateCounter;
+    private final Map<String, Subscriber> subscribedSessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PortfolioValuationEngine(OwnedStockRepository ownedStockRepository, HolderIndex holderIndex,
+                                    StockPriceWebSocketController webSocketController,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationConfig applicationConfig, MeterRegistry meterRegistry) {
+        this(ownedStockRepository, holderIndex, webSocketController, transactionManager, applicationConfig,
+                meterRegistry, Ticker.systemTicker());
+    }
+
+    PortfolioValuationEngine(OwnedStockRepository ownedStockRepository, HolderIndex holderIndex,
+                             StockPriceWebSocketController webSocketController,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationConfig applicationConfig, MeterRegistry meterRegistry, Ticker ticker) {
+        this.ownedStockRepository = ownedStockRepository;
+        this.holderIndex = holderIndex;
+        this.webSocketController = webSocketController;
+        // Subscribers are read again after the price change commits, so in a transaction of their own
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.settings = applicationConfig.getPortfolioValuation();
+        this.ticker = ticker;
+        long maxAge = settings.getMaxAge().toNanos();
+        this.valuations = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfter(new Expiry<UUID, PortfolioValuation>() {
+                    @Override
+                    public long expireAfterCreate(UUID userId, PortfolioValuation valuation, long currentTime) {
+                        return maxAge;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID userId, PortfolioValuation valuation, long currentTime,
+                                                  long currentDuration) {
+                        // Updates keep the age of the read they were applied to
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID userId, PortfolioValuation valuation, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, valuations, "portfolios");
+        this.ageTimer = Timer.builder("stocklee.portfolio.valuation.age")
+                .description("Time since a served portfolio valuation was read from the database")
+                .register(meterRegistry);
+        this.priceUpdateCounter = updateCounter(meterRegistry, "price");
+        this.tradeUpdateCounter = updateCounter(meterRegistry, "trade");
+    }
+
+    /**
+     * Valuation of the user's portfolio, reading the holdings with one query if it is not held.
+     */
+    public PortfolioValuation valuation(UserProfile user) {
+        if (!settings.isEnabled()) {
+            return load(user);
+        }
+        PortfolioValuation valuation = valuations.get(user.getId(), userId -> load(user));
+        ageTimer.record(ticker.read() - valuation.loadedAt(), TimeUnit.NANOSECONDS);
+        return valuation;
+    }
+
+    /**
+     * Reprice the held stocks among these at their current prices, once the current transaction commits.
+     * Takes time in the number of holders of the stocks, whatever the number of portfolios held.
+     */
+    public void pricesChanged(Collection<Stock> stocks) {
+        Map<String, Money> prices = new HashMap<>();
+        for (Stock stock : stocks) {
+            if (stock.getCurrentPrice() != null) {
+                prices.put(stock.getSymbol(), Money.of(stock.getCurrentPrice()));
+            }
+        }
+        if (prices.isEmpty() || !settings.isEnabled()) {
+            return;
+        }
+        afterCommit(() -> reprice(prices));
+    }
+
+    /**
+     * Apply the new state of a holding after a fill, once the current transaction commits.
+     * The holding must have its user and stock set.
+     */
+    public void holdingChanged(OwnedStock ownedStock) {
+        UUID userId = ownedStock.getUser().getId();
+        PortfolioValuation.Holding holding = PortfolioValuation.Holding.of(ownedStock);
+        afterCommit(() -> {
+            if (valuations.asMap().computeIfPresent(userId, (key, current) -> current.withHolding(holding)) != null) {
+                tradeUpdateCounter.increment();
+            }
+        });
+    }
+
+    /**
+     * Drop a holding sold in full, once the current transaction commits.
+     */
+    public void holdingRemoved(UserProfile user, UUID ownedStockId) {
+        afterCommit(() -> {
+            if (valuations.asMap().computeIfPresent(user.getId(),
+                    (key, current) -> current.withoutHolding(ownedStockId)) != null) {
+                tradeUpdateCounter.increment();
+            }
+        });
+    }
+
+    /**
+     * Drop the user's valuation once the current transaction commits, after their holdings were changed
+     * other than by a fill.
+     */
+    public void invalidate(UUID userId) {
+        afterCommit(() -> valuations.invalidate(userId));
+    }
+
+    /**
+     * Drop the valuations of every holder of a symbol once the current transaction commits, after the
+     * stock was renamed to it, as they still hold it under its old symbol.
+     */
+    public void invalidateHolders(String symbol) {
+        afterCommit(() -> holderIndex.forEachHolder(symbol, (userId, quantityUnits) -> valuations.invalidate(userId)));
+    }
+
+    /**
+     * Send the user portfolio updates while this session is subscribed to them.
+     *
+     * @param username Name the session's user is authenticated with, which updates are addressed to
+     */
+    public void subscribe(String sessionId, String username, UserProfile user) {
+        subscribedSessions.put(sessionId, new Subscriber(username, user));
+    }
+
+    /**
+     * Stop sending portfolio updates to this session.
+     */
+    public void unsubscribe(String sessionId) {
+        subscribedSessions.remove(sessionId);
+    }
+
+    /**
+     * Apply a batch of prices to the held valuations of their holders, then send each subscribed holder
+     * one update for the whole batch.
+     */
+    private void reprice(Map<String, Money> prices) {
+        Map<UUID, Subscriber> subscribers = new HashMap<>();
+        subscribedSessions.values().forEach(subscriber -> subscribers.putIfAbsent(subscriber.user().getId(), subscriber));
+        Map<UUID, Set<String>> repriced = new HashMap<>();
+        prices.forEach((symbol, price) -> holderIndex.forEachHolder(symbol, (userId, quantityUnits) -> {
+            PortfolioValuation[] previous = new PortfolioValuation[1];
+            PortfolioValuation updated = valuations.asMap().computeIfPresent(userId, (key, current) -> {
+                previous[0] = current;
+                return current.withPrice(symbol, price);
+            });
+            if (updated != null) {
+                priceUpdateCounter.increment();
+            }
+            if (subscribers.containsKey(userId) && (updated == null || updated != previous[0])) {
+                repriced.computeIfAbsent(userId, key -> new HashSet<>()).add(symbol);
+            }
+        }));
+        // Sent once every symbol is applied, so each update holds the totals of the whole batch
+        repriced.forEach((userId, symbols) -> send(subscribers.get(userId), symbols));
+    }
+
+    private void send(Subscriber subscriber, Set<String> symbols) {
+        UserProfile user = subscriber.user();
+        PortfolioValuation valuation = valuations.getIfPresent(user.getId());
+        if (valuation == null) {
+            // Read after the prices were stored, so already at the new prices
+            valuation = valuations.get(user.getId(), userId -> readTransaction.execute(status -> load(user)));
+        }
+        List<PortfolioValuation.Holding> holdings = valuation.holdings().stream()
+                .filter(holding -> symbols.contains(holding.symbol()))
+                .toList();
+        if (holdings.isEmpty()) {
+            return;
+        }
+        PortfolioUpdateDto update = new PortfolioUpdateDto();
+        update.setTotalInvestment(valuation.costBasis().toBigDecimal());
+        update.setCurrentValue(valuation.marketValue().toBigDecimal());
+        update.setProfitLoss(valuation.profitLoss().toBigDecimal());
+        update.setChangedStocks(holdings.stream().map(PortfolioValuation.Holding::toDto).toList());
+        update.setTimestamp(LocalDateTime.now());
+        webSocketController.sendPortfolioUpdate(subscriber.username(), update);
+    }
+
+    private PortfolioValuation load(UserProfile user) {
+        long loadedAt = ticker.read();
+        return PortfolioValuation.of(ownedStockRepository.findByUserWithStockDetails(user), loadedAt);
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static Counter updateCounter(MeterRegistry meterRegistry, String event) {
+        return Counter.builder("stocklee.portfolio.valuation.updates")
+                .description("Held portfolio valuations updated in place instead of read again")
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+
+    private record Subscriber(String username, UserProfile user) {
+    }
+}
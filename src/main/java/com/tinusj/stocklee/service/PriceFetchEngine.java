@@ -0,0 +1,196 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans out batched price lookups for a refresh cycle on a bounded thread pool.
+ * Every cycle is capped by a deadline; symbols that have not answered by then are reported as missed
+ * so the caller can apply whatever arrived in a single write phase.
+ * When the providers' request budgets cannot cover every symbol, the least recently refreshed
+ * symbols are fetched and the rest are deferred to a later cycle.
+ */
+@Service
+@Slf4j
+public class PriceFetchEngine {
+
+    private final CompositeStockPriceProvider compositeStockPriceProvider;
+    private final Duration cycleTimeout;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final Timer cycleTimer;
+    private final Counter missedCounter;
+    private final Counter deferredCounter;
+    private final Map<String, Long> lastPlannedCycle = new ConcurrentHashMap<>();
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicInteger lastCycleMissed = new AtomicInteger();
+
+    public PriceFetchEngine(CompositeStockPriceProvider compositeStockPriceProvider,
+                            ApplicationConfig applicationConfig,
+                            MeterRegistry meterRegistry) {
+        this.compositeStockPriceProvider = compositeStockPriceProvider;
+        this.cycleTimeout = applicationConfig.getPriceFetch().getCycleTimeout();
+        this.batchSize = applicationConfig.getPriceFetch().getBatchSize();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("price-fetch-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, applicationConfig.getPriceFetch().getMaxConcurrency()), threadFactory);
+
+        this.cycleTimer = Timer.builder("stocklee.price.fetch.cycle")
+                .description("Duration of a price fetch cycle")
+                .register(meterRegistry);
+        this.missedCounter = Counter.builder("stocklee.price.fetch.missed")
+                .description("Symbols that returned no price within the cycle deadline")
+                .register(meterRegistry);
+        this.deferredCounter = Counter.builder("stocklee.price.fetch.deferred")
+                .description("Symbols left for a later cycle because of provider request budgets")
+                .register(meterRegistry);
+        Gauge.builder("stocklee.price.fetch.last.missed", lastCycleMissed, AtomicInteger::get)
+                .description("Symbols missed by the most recent fetch cycle")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fetch prices for all given symbols concurrently, waiting at most the configured cycle timeout.
+     * Symbols are grouped into batches so each provider sees one multi-symbol request per batch.
+     */
+    public FetchResult fetchPrices(Collection<String> symbols) {
+        Set<String> uniqueSymbols = new LinkedHashSet<>(symbols);
+        long start = System.nanoTime();
+
+        List<String> planned = planRefresh(uniqueSymbols);
+        List<String> deferred = new ArrayList<>(uniqueSymbols);
+        deferred.removeAll(new HashSet<>(planned));
+
+        List<List<String>> batches = QuoteBatches.partition(planned, batchSize);
+        List<Callable<Map<String, BigDecimal>>> tasks = new ArrayList<>(batches.size());
+        for (List<String> batch : batches) {
+            tasks.add(() -> compositeStockPriceProvider.refreshPrices(batch));
+        }
+
+        Map<String, BigDecimal> prices = new LinkedHashMap<>();
+        List<String> missed = new ArrayList<>();
+        try {
+            List<Future<Map<String, BigDecimal>>> futures =
+                    executor.invokeAll(tasks, cycleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            for (int i = 0; i < futures.size(); i++) {
+                List<String> batch = batches.get(i);
+                Map<String, BigDecimal> batchPrices = resolve(batch, futures.get(i));
+                for (String symbol : batch) {
+                    BigDecimal price = batchPrices.get(symbol);
+                    if (price != null) {
+                        prices.put(symbol, price);
+                    } else {
+                        missed.add(symbol);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Price fetch cycle interrupted");
+            missed.addAll(planned);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        cycleTimer.record(elapsed);
+        missedCounter.increment(missed.size());
+        lastCycleMissed.set(missed.size());
+        deferredCounter.increment(deferred.size());
+
+        log.debug("Price fetch cycle finished in {} ms: {} fetched, {} missed, {} deferred in {} batches",
+                elapsed.toMillis(), prices.size(), missed.size(), deferred.size(), batches.size());
+        return new FetchResult(prices, missed, deferred, elapsed);
+    }
+
+    /**
+     * Pick the symbols the current request budget can cover, least recently planned first,
+     * so a budget smaller than the symbol list rotates through it over successive cycles.
+     */
+    private List<String> planRefresh(Set<String> symbols) {
+        long cycle = cycles.incrementAndGet();
+        List<String> planned = new ArrayList<>(symbols);
+        int budget = compositeStockPriceProvider.getRefreshBudget();
+        if (budget < planned.size()) {
+            planned.sort(Comparator.comparingLong(symbol -> lastPlannedCycle.getOrDefault(symbol, 0L)));
+            planned = new ArrayList<>(planned.subList(0, Math.max(0, budget)));
+            log.info("Request budget covers {} of {} symbols this cycle", planned.size(), symbols.size());
+        }
+        for (String symbol : planned) {
+            lastPlannedCycle.put(symbol, cycle);
+        }
+        return planned;
+    }
+
+    private Map<String, BigDecimal> resolve(List<String> batch, Future<Map<String, BigDecimal>> future) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            log.warn("Price fetch for {} did not finish within {} ms", batch, cycleTimeout.toMillis());
+        } catch (ExecutionException e) {
+            log.error("Error fetching prices for {}: {}", batch, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Map.of();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Outcome of one fetch cycle.
+     */
+    public static class FetchResult {
+        private final Map<String, BigDecimal> prices;
+        private final List<String> missedSymbols;
+        private final List<String> deferredSymbols;
+        private final Duration elapsed;
+
+        public FetchResult(Map<String, BigDecimal> prices, List<String> missedSymbols,
+                           List<String> deferredSymbols, Duration elapsed) {
+            this.prices = Collections.unmodifiableMap(prices);
+            this.missedSymbols = Collections.unmodifiableList(missedSymbols);
+            this.deferredSymbols = Collections.unmodifiableList(deferredSymbols);
+            this.elapsed = elapsed;
+        }
+
+        public Map<String, BigDecimal> getPrices() { return prices; }
+        public List<String> getMissedSymbols() { return missedSymbols; }
+        /** Symbols not attempted this cycle because the request budget was exhausted. */
+        public List<String> getDeferredSymbols() { return deferredSymbols; }
+        public Duration getElapsed() { return elapsed; }
+    }
+}
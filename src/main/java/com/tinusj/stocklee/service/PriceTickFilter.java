@@ -0,0 +1,100 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which refreshed prices are real changes. A tick that does not move a stock's stored price
+ * by more than the epsilon, or arrives within the minimum interval of the symbol's last applied change,
+ * is suppressed: the caller skips the stock update, the history row and the broadcast.
+ * Ticks are compared with the stored price rather than the previous tick, so small moves still
+ * add up to an applied change once they exceed the epsilon.
+ */
+@Component
+public class PriceTickFilter {
+
+    private final ApplicationConfig.PriceTicks settings;
+    private final Map<String, ApplicationConfig.PriceTicks.Rule> rules = new HashMap<>();
+    private final Map<String, Instant> lastApplied = new ConcurrentHashMap<>();
+    private final Counter appliedCounter;
+    private final Counter unchangedCounter;
+    private final Counter withinEpsilonCounter;
+    private final Counter withinIntervalCounter;
+
+    public PriceTickFilter(ApplicationConfig applicationConfig, MeterRegistry meterRegistry) {
+        this.settings = applicationConfig.getPriceTicks();
+        settings.getSymbols().forEach((symbol, rule) -> rules.put(symbol.toUpperCase(), rule));
+        this.appliedCounter = Counter.builder("stocklee.price.ticks.applied")
+                .description("Price ticks stored and broadcast as a change")
+                .register(meterRegistry);
+        this.unchangedCounter = suppressedCounter(meterRegistry, "unchanged");
+        this.withinEpsilonCounter = suppressedCounter(meterRegistry, "epsilon");
+        this.withinIntervalCounter = suppressedCounter(meterRegistry, "interval");
+    }
+
+    /**
+     * Judge a new price for a stock, counting the ticks it suppresses. An accepted tick only starts the
+     * symbol's minimum interval once it is reported {@link #applied(String, Instant) applied}.
+     *
+     * @param at Time of the tick, used for the symbol's minimum interval
+     * @return Whether the tick should be applied
+     */
+    public boolean accept(Stock stock, BigDecimal newPrice, Instant at) {
+        BigDecimal currentPrice = stock.getCurrentPrice();
+        if (currentPrice != null) {
+            BigDecimal move = newPrice.subtract(currentPrice).abs();
+            if (move.signum() == 0) {
+                unchangedCounter.increment();
+                return false;
+            }
+            if (move.compareTo(epsilon(stock.getSymbol())) <= 0) {
+                withinEpsilonCounter.increment();
+                return false;
+            }
+            Instant last = lastApplied.get(stock.getSymbol());
+            Duration minInterval = minInterval(stock.getSymbol());
+            if (last != null && at.isBefore(last.plus(minInterval))) {
+                withinIntervalCounter.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record that an accepted tick was stored, so the symbol's next change waits for its minimum interval.
+     *
+     * @param at Time of the tick, as passed to {@link #accept(Stock, BigDecimal, Instant)}
+     */
+    public void applied(String symbol, Instant at) {
+        lastApplied.put(symbol, at);
+        appliedCounter.increment();
+    }
+
+    private BigDecimal epsilon(String symbol) {
+        ApplicationConfig.PriceTicks.Rule rule = rules.get(symbol.toUpperCase());
+        return rule != null && rule.getEpsilon() != null ? rule.getEpsilon() : settings.getEpsilon();
+    }
+
+    private Duration minInterval(String symbol) {
+        ApplicationConfig.PriceTicks.Rule rule = rules.get(symbol.toUpperCase());
+        return rule != null && rule.getMinInterval() != null ? rule.getMinInterval() : settings.getMinInterval();
+    }
+
+    private static Counter suppressedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("stocklee.price.ticks.suppressed")
+                .description("Price ticks skipped because they were not a change worth storing")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
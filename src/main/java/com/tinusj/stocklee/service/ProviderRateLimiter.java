@@ -0,0 +1,107 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.enums.ProviderType;
+import com.tinusj.stocklee.enums.RateLimitMode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side request budget per price provider, shared by every caller in the application.
+ * One token is one upstream request, so a batch call for many symbols costs a single token
+ * per chunk the provider sends.
+ */
+@Component
+@Slf4j
+public class ProviderRateLimiter {
+
+    private final Map<ProviderType, TokenBucket> buckets = new EnumMap<>(ProviderType.class);
+    private final Map<ProviderType, Counter> grantedCounters = new EnumMap<>(ProviderType.class);
+    private final Map<ProviderType, Counter> rejectedCounters = new EnumMap<>(ProviderType.class);
+    private final Map<ProviderType, Timer> waitTimers = new EnumMap<>(ProviderType.class);
+    private final Duration maxWait;
+
+    @Autowired
+    public ProviderRateLimiter(ApplicationConfig applicationConfig, MeterRegistry meterRegistry) {
+        this(applicationConfig, meterRegistry, System::nanoTime);
+    }
+
+    ProviderRateLimiter(ApplicationConfig applicationConfig, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        ApplicationConfig.RateLimit settings = applicationConfig.getRateLimit();
+        this.maxWait = settings.getMaxWait();
+        settings.getProviders().forEach((providerType, bucket) -> {
+            TokenBucket tokenBucket = new TokenBucket(bucket.getCapacity(), bucket.getRefillTokens(),
+                    bucket.getRefillPeriod(), nanoTime);
+            buckets.put(providerType, tokenBucket);
+            String provider = providerType.name();
+            Gauge.builder("stocklee.ratelimit.tokens.available", tokenBucket, TokenBucket::availableTokens)
+                    .description("Requests a provider's budget currently allows")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            grantedCounters.put(providerType, Counter.builder("stocklee.ratelimit.granted")
+                    .description("Requests admitted by a provider's budget")
+                    .tag("provider", provider)
+                    .register(meterRegistry));
+            rejectedCounters.put(providerType, Counter.builder("stocklee.ratelimit.rejected")
+                    .description("Requests refused because a provider's budget was used up")
+                    .tag("provider", provider)
+                    .register(meterRegistry));
+            waitTimers.put(providerType, Timer.builder("stocklee.ratelimit.wait")
+                    .description("Time callers waited for a provider's budget")
+                    .tag("provider", provider)
+                    .register(meterRegistry));
+        });
+    }
+
+    /**
+     * Take budget for up to {@code requests} upstream requests to the provider.
+     *
+     * @param mode {@link RateLimitMode#WAIT} waits up to the configured maximum for the budget
+     *             to refill; {@link RateLimitMode#SKIP} takes only what is available now
+     * @return Requests the caller may make, possibly zero
+     */
+    public int acquire(ProviderType providerType, int requests, RateLimitMode mode) {
+        TokenBucket bucket = buckets.get(providerType);
+        if (bucket == null || requests <= 0) {
+            return requests;
+        }
+        int granted;
+        if (mode == RateLimitMode.SKIP || maxWait.isZero()) {
+            granted = bucket.tryAcquireUpTo(requests);
+        } else {
+            long start = System.nanoTime();
+            try {
+                granted = bucket.acquireUpTo(requests, maxWait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                granted = 0;
+            }
+            waitTimers.get(providerType).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        grantedCounters.get(providerType).increment(granted);
+        if (granted < requests) {
+            rejectedCounters.get(providerType).increment(requests - granted);
+            log.debug("{} budget admitted {} of {} requests", providerType, granted, requests);
+        }
+        return granted;
+    }
+
+    /**
+     * Requests the provider's budget allows right now, or {@link Integer#MAX_VALUE} if it is not limited.
+     */
+    public int availableRequests(ProviderType providerType) {
+        TokenBucket bucket = buckets.get(providerType);
+        return bucket == null ? Integer.MAX_VALUE : (int) Math.floor(bucket.availableTokens());
+    }
+}
@@ -0,0 +1,344 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.enums.ProviderType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders the price providers by observed health and guards each one with a circuit breaker.
+ * <p>
+ * Every provider keeps a rolling window of its recent calls (bounded by count and age).
+ * Healthy providers keep their declared order; providers whose failure rate or average latency
+ * crosses the degraded thresholds move behind them, and providers whose failure rate crosses the
+ * breaker threshold are skipped until a single half-open probe succeeds.
+ */
+@Component
+@Slf4j
+public class ProviderRouter {
+
+    /**
+     * Circuit breaker state of a provider.
+     */
+    public enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final ApplicationConfig.ProviderRouting settings;
+    private final Clock clock;
+    private final Map<ProviderType, ProviderHealth> health = new EnumMap<>(ProviderType.class);
+    private final Counter routeChangeCounter;
+    private volatile List<ProviderType> lastRoute = List.of(ProviderType.values());
+    private volatile Instant lastRouteChange;
+
+    @Autowired
+    public ProviderRouter(ApplicationConfig applicationConfig, MeterRegistry meterRegistry) {
+        this(applicationConfig, meterRegistry, Clock.systemUTC());
+    }
+
+    ProviderRouter(ApplicationConfig applicationConfig, MeterRegistry meterRegistry, Clock clock) {
+        this.settings = applicationConfig.getProviderRouting();
+        this.clock = clock;
+        for (ProviderType providerType : ProviderType.values()) {
+            ProviderHealth providerHealth = new ProviderHealth(providerType, Math.max(1, settings.getWindowSize()));
+            health.put(providerType, providerHealth);
+            Gauge.builder("stocklee.provider.circuit.state", providerHealth, h -> h.peekState(clock.instant()).ordinal())
+                    .description("Circuit breaker state per provider (0 closed, 1 open, 2 half-open)")
+                    .tag("provider", providerType.name())
+                    .register(meterRegistry);
+            providerHealth.openedCounter = Counter.builder("stocklee.provider.circuit.opened")
+                    .description("Times a provider's circuit breaker opened")
+                    .tag("provider", providerType.name())
+                    .register(meterRegistry);
+        }
+        this.routeChangeCounter = Counter.builder("stocklee.provider.route.changes")
+                .description("Times the provider order changed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Providers to try, best first. Providers with an open breaker are left out.
+     * A route differing from the previous one is logged and counted as a route change.
+     */
+    public List<ProviderType> route() {
+        Instant now = clock.instant();
+        List<ProviderType> route = computeRoute(now);
+        if (!route.equals(lastRoute)) {
+            log.info("Provider route changed from {} to {}", lastRoute, route);
+            lastRoute = List.copyOf(route);
+            lastRouteChange = now;
+            routeChangeCounter.increment();
+        }
+        return route;
+    }
+
+    /**
+     * The route {@link #route()} would return now, without recording it as a route change.
+     */
+    public List<ProviderType> peekRoute() {
+        return computeRoute(clock.instant());
+    }
+
+    private List<ProviderType> computeRoute(Instant now) {
+        List<ProviderType> healthy = new ArrayList<>();
+        List<ProviderType> degraded = new ArrayList<>();
+        for (ProviderHealth providerHealth : health.values()) {
+            synchronized (providerHealth) {
+                CircuitState state = providerHealth.peekState(now);
+                if (state == CircuitState.OPEN) {
+                    continue;
+                }
+                if (state == CircuitState.HALF_OPEN || providerHealth.isDegraded(now)) {
+                    degraded.add(providerHealth.providerType);
+                } else {
+                    healthy.add(providerHealth.providerType);
+                }
+            }
+        }
+        List<ProviderType> route = new ArrayList<>(healthy);
+        route.addAll(degraded);
+        return route;
+    }
+
+    /**
+     * Ask the breaker for permission to call the provider.
+     * An open breaker whose wait has elapsed lets exactly one probe through.
+     */
+    public boolean tryAcquire(ProviderType providerType) {
+        ProviderHealth providerHealth = health.get(providerType);
+        synchronized (providerHealth) {
+            Instant now = clock.instant();
+            CircuitState state = providerHealth.peekState(now);
+            if (state == CircuitState.CLOSED) {
+                return true;
+            }
+            if (state == CircuitState.HALF_OPEN && !providerHealth.probeInFlight) {
+                providerHealth.state = CircuitState.HALF_OPEN;
+                providerHealth.probeInFlight = true;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Record the outcome of a permitted call.
+     *
+     * @param success Whether the provider answered without failing; an answer without prices still counts
+     */
+    public void onResult(ProviderType providerType, boolean success, Duration latency) {
+        ProviderHealth providerHealth = health.get(providerType);
+        synchronized (providerHealth) {
+            Instant now = clock.instant();
+            if (providerHealth.state == CircuitState.HALF_OPEN) {
+                providerHealth.probeInFlight = false;
+                if (success) {
+                    log.info("Circuit breaker for {} closed after a successful probe", providerType);
+                    providerHealth.state = CircuitState.CLOSED;
+                    providerHealth.clear();
+                    providerHealth.record(now, true, latency);
+                } else {
+                    open(providerHealth, now);
+                }
+                return;
+            }
+            providerHealth.record(now, success, latency);
+            if (providerHealth.state == CircuitState.CLOSED
+                    && providerHealth.callsInWindow(now) >= settings.getMinimumCalls()
+                    && providerHealth.failureRate(now) >= settings.getFailureRateThreshold()) {
+                open(providerHealth, now);
+            }
+        }
+    }
+
+    /**
+     * Release a permitted call that ended without a verdict, e.g. a cancelled hedge.
+     */
+    public void onAbandoned(ProviderType providerType) {
+        ProviderHealth providerHealth = health.get(providerType);
+        synchronized (providerHealth) {
+            providerHealth.probeInFlight = false;
+        }
+    }
+
+    private void open(ProviderHealth providerHealth, Instant now) {
+        log.warn("Circuit breaker for {} opened (failure rate {})",
+                providerHealth.providerType, providerHealth.failureRate(now));
+        providerHealth.state = CircuitState.OPEN;
+        providerHealth.openUntil = now.plus(settings.getOpenDuration());
+        providerHealth.openedCounter.increment();
+    }
+
+    public List<ProviderType> getLastRoute() {
+        return lastRoute;
+    }
+
+    /**
+     * Time of the most recent change in provider order, or null if it never changed.
+     */
+    public Instant getLastRouteChange() {
+        return lastRouteChange;
+    }
+
+    /**
+     * Current breaker state and window statistics for every provider.
+     */
+    public List<ProviderStatus> getStatus() {
+        Instant now = clock.instant();
+        List<ProviderStatus> statuses = new ArrayList<>();
+        for (ProviderHealth providerHealth : health.values()) {
+            synchronized (providerHealth) {
+                CircuitState state = providerHealth.peekState(now);
+                statuses.add(new ProviderStatus(providerHealth.providerType, state,
+                        providerHealth.callsInWindow(now), providerHealth.failureRate(now),
+                        providerHealth.averageLatency(now), providerHealth.isDegraded(now),
+                        state == CircuitState.OPEN ? providerHealth.openUntil : null));
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Rolling window and breaker state for one provider. Guarded by its own monitor.
+     */
+    private class ProviderHealth {
+        private final ProviderType providerType;
+        private final long[] timestamps;
+        private final long[] latencies;
+        private final boolean[] failures;
+        private int next;
+        private int size;
+        private CircuitState state = CircuitState.CLOSED;
+        private Instant openUntil;
+        private boolean probeInFlight;
+        private Counter openedCounter;
+
+        ProviderHealth(ProviderType providerType, int windowSize) {
+            this.providerType = providerType;
+            this.timestamps = new long[windowSize];
+            this.latencies = new long[windowSize];
+            this.failures = new boolean[windowSize];
+        }
+
+        /**
+         * State as seen at {@code now}: an open breaker past its wait reads as half-open.
+         */
+        CircuitState peekState(Instant now) {
+            if (state == CircuitState.OPEN && !now.isBefore(openUntil)) {
+                return CircuitState.HALF_OPEN;
+            }
+            return state;
+        }
+
+        void record(Instant now, boolean success, Duration latency) {
+            timestamps[next] = now.toEpochMilli();
+            latencies[next] = latency.toNanos();
+            failures[next] = !success;
+            next = (next + 1) % timestamps.length;
+            size = Math.min(size + 1, timestamps.length);
+        }
+
+        void clear() {
+            next = 0;
+            size = 0;
+        }
+
+        private long cutoff(Instant now) {
+            return now.minus(settings.getWindowDuration()).toEpochMilli();
+        }
+
+        int callsInWindow(Instant now) {
+            long cutoff = cutoff(now);
+            int calls = 0;
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] >= cutoff) {
+                    calls++;
+                }
+            }
+            return calls;
+        }
+
+        double failureRate(Instant now) {
+            long cutoff = cutoff(now);
+            int calls = 0;
+            int failed = 0;
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] >= cutoff) {
+                    calls++;
+                    if (failures[i]) {
+                        failed++;
+                    }
+                }
+            }
+            return calls == 0 ? 0.0 : (double) failed / calls;
+        }
+
+        Duration averageLatency(Instant now) {
+            long cutoff = cutoff(now);
+            int calls = 0;
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] >= cutoff) {
+                    calls++;
+                    total += latencies[i];
+                }
+            }
+            return calls == 0 ? Duration.ZERO : Duration.ofNanos(total / calls);
+        }
+
+        boolean isDegraded(Instant now) {
+            if (callsInWindow(now) < settings.getMinimumCalls()) {
+                return false;
+            }
+            return failureRate(now) >= settings.getDegradedFailureRate()
+                    || averageLatency(now).compareTo(settings.getSlowCallThreshold()) >= 0;
+        }
+    }
+
+    /**
+     * Point-in-time routing view of one provider.
+     */
+    public static class ProviderStatus {
+        private final ProviderType providerType;
+        private final CircuitState state;
+        private final int callsInWindow;
+        private final double failureRate;
+        private final Duration averageLatency;
+        private final boolean degraded;
+        private final Instant retryAt;
+
+        public ProviderStatus(ProviderType providerType, CircuitState state, int callsInWindow, double failureRate,
+                              Duration averageLatency, boolean degraded, Instant retryAt) {
+            this.providerType = providerType;
+            this.state = state;
+            this.callsInWindow = callsInWindow;
+            this.failureRate = failureRate;
+            this.averageLatency = averageLatency;
+            this.degraded = degraded;
+            this.retryAt = retryAt;
+        }
+
+        public ProviderType getProviderType() { return providerType; }
+        public CircuitState getState() { return state; }
+        public int getCallsInWindow() { return callsInWindow; }
+        public double getFailureRate() { return failureRate; }
+        public Duration getAverageLatency() { return averageLatency; }
+        public boolean isDegraded() { return degraded; }
+        /** When an open breaker will admit its next probe; null unless open. */
+        public Instant getRetryAt() { return retryAt; }
+    }
+}
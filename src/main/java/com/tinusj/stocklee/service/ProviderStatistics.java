@@ -0,0 +1,137 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.enums.ProviderType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running success-rate and latency statistics for each price provider,
+ * recorded from the calls the composite provider already makes.
+ */
+public class ProviderStatistics {
+
+    private final Map<ProviderType, ProviderCounters> counters = new EnumMap<>(ProviderType.class);
+
+    public ProviderStatistics(MeterRegistry meterRegistry) {
+        for (ProviderType providerType : ProviderType.values()) {
+            counters.put(providerType, new ProviderCounters(providerType, meterRegistry));
+        }
+    }
+
+    /**
+     * Record one provider call.
+     *
+     * @param requested Symbols sent to the provider
+     * @param priced    Symbols the provider returned a price for
+     * @param failed    Whether the call ended with an exception
+     */
+    public void record(ProviderType providerType, int requested, int priced, boolean failed, Duration latency) {
+        counters.get(providerType).record(requested, priced, failed, latency);
+    }
+
+    public Snapshot snapshot(ProviderType providerType) {
+        return counters.get(providerType).snapshot();
+    }
+
+    public List<Snapshot> snapshots() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (ProviderCounters providerCounters : counters.values()) {
+            snapshots.add(providerCounters.snapshot());
+        }
+        return snapshots;
+    }
+
+    private static class ProviderCounters {
+        private final ProviderType providerType;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder symbolsRequested = new LongAdder();
+        private final LongAdder symbolsPriced = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final Timer latencyTimer;
+        private final Counter requestedCounter;
+        private final Counter pricedCounter;
+
+        ProviderCounters(ProviderType providerType, MeterRegistry meterRegistry) {
+            this.providerType = providerType;
+            String provider = providerType.name();
+            this.latencyTimer = Timer.builder("stocklee.provider.latency")
+                    .description("Duration of calls to a stock price provider")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            this.requestedCounter = Counter.builder("stocklee.provider.symbols.requested")
+                    .description("Symbols sent to a stock price provider")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+            this.pricedCounter = Counter.builder("stocklee.provider.symbols.priced")
+                    .description("Symbols a stock price provider returned a price for")
+                    .tag("provider", provider)
+                    .register(meterRegistry);
+        }
+
+        void record(int requested, int priced, boolean failed, Duration latency) {
+            calls.increment();
+            if (failed) {
+                failures.increment();
+            }
+            symbolsRequested.add(requested);
+            symbolsPriced.add(priced);
+            latencyNanos.add(latency.toNanos());
+            latencyTimer.record(latency.toNanos(), TimeUnit.NANOSECONDS);
+            requestedCounter.increment(requested);
+            pricedCounter.increment(priced);
+        }
+
+        Snapshot snapshot() {
+            long callCount = calls.sum();
+            long requested = symbolsRequested.sum();
+            return new Snapshot(providerType, callCount, failures.sum(), requested, symbolsPriced.sum(),
+                    callCount == 0 ? Duration.ZERO : Duration.ofNanos(latencyNanos.sum() / callCount));
+        }
+    }
+
+    /**
+     * Point-in-time view of one provider's statistics.
+     */
+    public static class Snapshot {
+        private final ProviderType providerType;
+        private final long calls;
+        private final long failures;
+        private final long symbolsRequested;
+        private final long symbolsPriced;
+        private final Duration averageLatency;
+
+        public Snapshot(ProviderType providerType, long calls, long failures,
+                        long symbolsRequested, long symbolsPriced, Duration averageLatency) {
+            this.providerType = providerType;
+            this.calls = calls;
+            this.failures = failures;
+            this.symbolsRequested = symbolsRequested;
+            this.symbolsPriced = symbolsPriced;
+            this.averageLatency = averageLatency;
+        }
+
+        public ProviderType getProviderType() { return providerType; }
+        public long getCalls() { return calls; }
+        public long getFailures() { return failures; }
+        public long getSymbolsRequested() { return symbolsRequested; }
+        public long getSymbolsPriced() { return symbolsPriced; }
+        public Duration getAverageLatency() { return averageLatency; }
+
+        /**
+         * Share of requested symbols the provider priced, or 0 before the first call.
+         */
+        public double getSuccessRate() {
+            return symbolsRequested == 0 ? 0.0 : (double) symbolsPriced / symbolsRequested;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.enums.ProviderType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A price together with where and when it was fetched.
+ */
+public class Quote {
+    private final String symbol;
+    private final BigDecimal price;
+    private final ProviderType provider;
+    private final Duration latency;
+    private final Instant asOf;
+
+    public Quote(String symbol, BigDecimal price, ProviderType provider, Duration latency, Instant asOf) {
+        this.symbol = symbol;
+        this.price = price;
+        this.provider = provider;
+        this.latency = latency;
+        this.asOf = asOf;
+    }
+
+    public String getSymbol() { return symbol; }
+    public BigDecimal getPrice() { return price; }
+    public ProviderType getProvider() { return provider; }
+    /** Time the provider call took; shared by every quote from the same batch request. */
+    public Duration getLatency() { return latency; }
+    public Instant getAsOf() { return asOf; }
+}
@@ -0,0 +1,91 @@
+package com.tinusj.stocklee.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Helpers shared by the providers that implement multi-symbol quote requests.
+ */
+@Slf4j
+final class QuoteBatches {
+
+    private QuoteBatches() {
+    }
+
+    /**
+     * Index the valid symbols by their upper-case form, remembering how each was requested.
+     */
+    static Map<String, String> indexBySymbol(Collection<String> symbols, Predicate<String> isValidSymbol) {
+        Map<String, String> requested = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            if (isValidSymbol.test(symbol)) {
+                requested.putIfAbsent(symbol.toUpperCase().trim(), symbol);
+            } else {
+                log.warn("Invalid symbol: {}", symbol);
+            }
+        }
+        return requested;
+    }
+
+    /**
+     * Split the items into consecutive chunks of at most {@code size} elements.
+     */
+    static <T> List<List<T>> partition(List<T> items, int size) {
+        int chunkSize = Math.max(1, size);
+        List<List<T>> chunks = new ArrayList<>((items.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + chunkSize)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Wait for every in-flight chunk and merge the prices back onto the requested symbols.
+     * Failed chunks are skipped as long as one chunk answered; an interrupted wait cancels the chunks
+     * still running.
+     *
+     * @param chunks    Chunk responses keyed by upper-case symbol
+     * @param requested Upper-case symbol to requested symbol, as built by {@link #indexBySymbol}
+     * @throws UncheckedIOException If every chunk failed, so the provider did not answer at all
+     */
+    static Map<String, BigDecimal> collect(List<CompletableFuture<Map<String, BigDecimal>>> chunks,
+                                           Map<String, String> requested, String apiName) {
+        Map<String, BigDecimal> prices = new LinkedHashMap<>();
+        Throwable lastFailure = null;
+        int failed = 0;
+        for (CompletableFuture<Map<String, BigDecimal>> chunk : chunks) {
+            try {
+                chunk.get().forEach((symbol, price) -> {
+                    String requestedSymbol = requested.get(symbol);
+                    if (requestedSymbol != null) {
+                        prices.put(requestedSymbol, price);
+                    }
+                });
+            } catch (InterruptedException e) {
+                chunks.forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Error fetching batch quotes from {}: {}", apiName, e.getCause().getMessage());
+                lastFailure = e.getCause();
+                failed++;
+            }
+        }
+        if (!chunks.isEmpty() && failed == chunks.size()) {
+            throw new UncheckedIOException(apiName + " failed every batch quote request",
+                    lastFailure instanceof IOException io ? io : new IOException(lastFailure));
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,123 @@
+package com.tinusj.stocklee.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tinusj.stocklee.config.ApplicationConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of the latest {@link Quote} per symbol.
+ * Concurrent misses for one symbol share a single upstream load, and quotes past their TTL
+ * keep being served (up to the max-stale window) while a background refresh replaces them.
+ * Single-symbol loads are asynchronous, so neither readers nor refreshes hold a thread while
+ * a provider answers. Symbols the loader cannot price are not cached.
+ */
+class QuoteCache {
+
+    private final AsyncLoadingCache<String, Quote> cache;
+    private final ExecutorService refreshExecutor;
+    private final Counter coalescedCounter;
+
+    /**
+     * @param loader     Loads one symbol without blocking
+     * @param bulkLoader Loads several symbols on the calling thread
+     */
+    QuoteCache(ApplicationConfig.QuoteCache settings,
+               Function<String, CompletableFuture<Optional<Quote>>> loader,
+               Function<Collection<String>, Map<String, Quote>> bulkLoader,
+               MeterRegistry meterRegistry) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("quote-refresh-");
+        threadFactory.setDaemon(true);
+        this.refreshExecutor = Executors.newFixedThreadPool(Math.max(1, settings.getRefreshThreads()), threadFactory);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .refreshAfterWrite(settings.getTtl())
+                .expireAfterWrite(settings.getTtl().plus(settings.getMaxStale()))
+                .executor(refreshExecutor)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<Quote> asyncLoad(String symbol, Executor executor) {
+                        return loader.apply(symbol).thenApply(quote -> quote.orElse(null));
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<String, Quote>> asyncLoadAll(Set<? extends String> symbols,
+                                                                              Executor executor) {
+                        return CompletableFuture.completedFuture(
+                                bulkLoader.apply(Collections.unmodifiableSet(symbols)));
+                    }
+                });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "quotes");
+        this.coalescedCounter = Counter.builder("stocklee.quote.cache.coalesced")
+                .description("Quote reads that joined an upstream load already in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached quote for the symbol, loading it if absent. Blocks until the load completes.
+     */
+    Optional<Quote> get(String symbol) {
+        countIfLoading(symbol);
+        return Optional.ofNullable(cache.synchronous().get(symbol));
+    }
+
+    /**
+     * Cached quote for the symbol, loading it asynchronously if absent.
+     */
+    CompletableFuture<Optional<Quote>> getAsync(String symbol) {
+        countIfLoading(symbol);
+        return cache.get(symbol).thenApply(Optional::ofNullable);
+    }
+
+    /**
+     * Cached quotes for the symbols, loading all absent ones in one bulk call.
+     */
+    Map<String, Quote> getAll(Collection<String> symbols) {
+        symbols.forEach(this::countIfLoading);
+        return cache.synchronous().getAll(symbols);
+    }
+
+    /**
+     * Cached quote without triggering a load.
+     */
+    Optional<Quote> getIfPresent(String symbol) {
+        return Optional.ofNullable(cache.synchronous().getIfPresent(symbol));
+    }
+
+    /**
+     * Store freshly fetched quotes, resetting their age.
+     */
+    void putAll(Map<String, Quote> quotes) {
+        cache.synchronous().putAll(quotes);
+    }
+
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void countIfLoading(String symbol) {
+        // Read through the map view so the probe does not count as a cache hit or miss
+        CompletableFuture<Quote> pending = cache.asMap().get(symbol);
+        if (pending != null && !pending.isDone()) {
+            coalescedCounter.increment();
+        }
+    }
+}
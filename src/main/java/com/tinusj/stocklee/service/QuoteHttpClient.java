@@ -0,0 +1,129 @@
+package com.tinusj.stocklee.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Thin wrapper over the shared pooled HTTP client used by the stock price providers.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuoteHttpClient {
+
+    private final CloseableHttpAsyncClient quoteAsyncHttpClient;
+
+    /**
+     * Reads the parts of a response body a caller needs.
+     *
+     * @param <T> Value extracted from the body
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+
+        /**
+         * @param body Raw response bytes; closed by the client once the reader returns
+         * @return The extracted value, or empty if the body did not contain it
+         */
+        Optional<T> read(InputStream body) throws IOException;
+    }
+
+    /**
+     * Perform a GET request and read the body of a 2xx response.
+     * Blocks the calling thread until the response arrives or the configured timeouts expire;
+     * an interrupted wait cancels the request.
+     *
+     * @param url       Absolute request URL
+     * @param userAgent User-Agent header value
+     * @param apiName   Provider name used in log messages
+     * @param reader    Extracts the value from the response body
+     * @return Value read from the body, or empty if the provider has no quote for the request (404)
+     * @throws IOException If the request failed or the provider answered with any other non-2xx status
+     */
+    public <T> Optional<T> get(String url, String userAgent, String apiName, BodyReader<T> reader) throws IOException {
+        CompletableFuture<Optional<T>> future = getAsync(url, userAgent, apiName, reader);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Start a GET request without blocking. The returned future completes with the value read from
+     * the body of a 2xx response, empty for a 404, or exceptionally on I/O failure, timeout or any other
+     * non-2xx status.
+     * The body is handed to {@code reader} as raw bytes, so it is never decoded into a string.
+     * Cancelling the future aborts the underlying request.
+     */
+    public <T> CompletableFuture<Optional<T>> getAsync(String url, String userAgent, String apiName,
+                                                       BodyReader<T> reader) {
+        CompletableFuture<Optional<T>> result = new CompletableFuture<>();
+        Future<SimpleHttpResponse> request = quoteAsyncHttpClient.execute(
+                SimpleRequestBuilder.get(url)
+                        .setHeader(HttpHeaders.USER_AGENT, userAgent)
+                        .build(),
+                new FutureCallback<>() {
+                    @Override
+                    public void completed(SimpleHttpResponse response) {
+                        int status = response.getCode();
+                        if (status == HttpStatus.SC_NOT_FOUND) {
+                            log.debug("{} API returned status: {}", apiName, status);
+                            result.complete(Optional.empty());
+                            return;
+                        }
+                        if (status < 200 || status >= 300) {
+                            log.warn("{} API returned status: {}", apiName, status);
+                            result.completeExceptionally(new IOException(apiName + " API returned status: " + status));
+                            return;
+                        }
+                        byte[] body = response.getBodyBytes();
+                        if (body == null) {
+                            result.complete(Optional.empty());
+                            return;
+                        }
+                        try (InputStream in = new ByteArrayInputStream(body)) {
+                            result.complete(reader.read(in));
+                        } catch (IOException | RuntimeException e) {
+                            result.completeExceptionally(e);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        result.completeExceptionally(ex);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.completeExceptionally(new CancellationException("Request to " + apiName + " cancelled"));
+                    }
+                });
+        result.whenComplete((body, error) -> {
+            if (result.isCancelled()) {
+                request.cancel(true);
+            }
+        });
+        return result;
+    }
+}
@@ -1,17 +1,32 @@
 package com.tinusj.stocklee.service;
 
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.dto.CursorPage;
+import com.tinusj.stocklee.dto.HistoricalStockDataDto;
 import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockBar;
 import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.enums.BarResolution;
+import com.tinusj.stocklee.repository.StockBarRepository;
 import com.tinusj.stocklee.repository.StockHistoryRepository;
+import com.tinusj.stocklee.repository.PriceSeriesStore;
+import com.tinusj.stocklee.repository.StockPriceWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
@@ -23,6 +38,10 @@ import java.util.UUID;
 public class StockHistoryService {
 
     private final StockHistoryRepository stockHistoryRepository;
+    private final StockBarRepository stockBarRepository;
+    private final StockPriceWriter stockPriceWriter;
+    private final PriceSeriesStore priceSeriesStore;
+    private final ApplicationConfig applicationConfig;
     
     @Autowired
     @Lazy
@@ -35,6 +54,21 @@ public class StockHistoryService {
         return stockHistoryRepository.findAllWithStock();
     }
 
+    /**
+     * Find one page of stock history, optionally for one stock.
+     *
+     * @param cursor Token from the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public CursorPage<StockHistory> findPage(UUID stockId, String cursor, int size, Sort.Direction direction) {
+        ScrollPosition position = KeysetCursor.decode(cursor);
+        Sort sort = KeysetCursor.sort(direction);
+        Window<StockHistory> window = stockId != null
+                ? stockHistoryRepository.findByStockId(stockId, position, KeysetCursor.limit(size), sort)
+                : stockHistoryRepository.findAllBy(position, KeysetCursor.limit(size), sort);
+        return KeysetCursor.page(window, StockHistory::getTimestamp, StockHistory::getId);
+    }
+
     /**
      * Find stock history by ID.
      */
@@ -46,7 +80,9 @@ public class StockHistoryService {
      * Save or update a stock history.
      */
     public StockHistory save(StockHistory stockHistory) {
-        return stockHistoryRepository.save(stockHistory);
+        StockHistory saved = stockHistoryRepository.save(stockHistory);
+        priceSeriesStore.clear();
+        return saved;
     }
 
     /**
@@ -54,6 +90,7 @@ public class StockHistoryService {
      */
     public void deleteById(UUID id) {
         stockHistoryRepository.deleteById(id);
+        priceSeriesStore.clear();
     }
 
     /**
@@ -77,6 +114,17 @@ public class StockHistoryService {
         return stockHistoryRepository.findByStockSymbolAndDateBetween(symbol, fromDate, toDate);
     }
 
+    /**
+     * Get the daily bars of a stock within a date range, newest first.
+     * Served from the in-memory {@link PriceSeriesStore} when it holds the range, otherwise from the database.
+     */
+    public List<HistoricalStockDataDto> getDailyBars(String symbol, LocalDate fromDate, LocalDate toDate) {
+        return priceSeriesStore.findDailyBars(symbol, fromDate, toDate)
+                .orElseGet(() -> getHistoricalData(symbol, fromDate, toDate).stream()
+                        .map(StockHistoryService::toHistoricalDto)
+                        .toList());
+    }
+
     /**
      * Get historical data for a stock within a date range.
      */
@@ -84,6 +132,35 @@ public class StockHistoryService {
         return stockHistoryRepository.findByStockAndDateBetween(stock, fromDate, toDate);
     }
 
+    /**
+     * Get OHLC bars for a stock that start from {@code from} (inclusive) to {@code to} (exclusive), oldest first.
+     * Without a resolution the finest one whose bars over the range fit in the configured maximum is used,
+     * so a chart reads a few hundred rows however long the range is.
+     * Daily bars come from the stored daily history where it has a full bar, and from the rolled-up ticks otherwise.
+     *
+     * @param resolution Bar resolution, or null to pick one for the range
+     */
+    public List<StockBar> getHistoricalData(String symbol, LocalDateTime from, LocalDateTime to, BarResolution resolution) {
+        BarResolution selected = resolution != null
+                ? resolution
+                : BarResolution.forRange(from, to, applicationConfig.getBars().getMaxBars());
+        List<StockBar> bars = stockBarRepository.findBySymbolInRange(symbol, selected, from, to);
+        if (selected != BarResolution.DAY_1) {
+            return bars;
+        }
+        
+        Map<LocalDateTime, StockBar> byStart = new TreeMap<>();
+        bars.forEach(bar -> byStart.put(bar.getBucketStart(), bar));
+        for (StockHistory daily : stockHistoryRepository.findByStockSymbolAndDateBetween(symbol, from.toLocalDate(), to.toLocalDate())) {
+            LocalDateTime start = daily.getDate().atStartOfDay();
+            // A row without open, high and low, such as the scheduler's closing price, leaves the rolled-up bar
+            if (!start.isBefore(from) && start.isBefore(to) && hasFullOhlc(daily)) {
+                byStart.put(start, StockBar.fromDailyBar(daily));
+            }
+        }
+        return new ArrayList<>(byStart.values());
+    }
+
     /**
      * Get latest historical data for a stock.
      */
@@ -96,44 +173,71 @@ public class StockHistoryService {
      */
     public void fetchAndStoreHistoricalData(Stock stock, LocalDate fromDate, LocalDate toDate) {
         try {
-            if (nasdaqApiService == null) {
-                log.warn("NasdaqApiService not available, skipping historical data fetch for {}", stock.getSymbol());
-                return;
-            }
-            
-            log.info("Fetching historical data for {} from {} to {}", stock.getSymbol(), fromDate, toDate);
+            List<StockHistory> historicalData = fetchHistoricalData(stock, fromDate, toDate);
+            int inserted = storeHistoricalData(historicalData);
             
-            List<NasdaqApiService.HistoricalStockData> historicalData = 
-                nasdaqApiService.getHistoricalData(stock.getSymbol(), fromDate, toDate);
-            
-            for (NasdaqApiService.HistoricalStockData data : historicalData) {
-                // Check if we already have data for this date
-                List<StockHistory> existingData = stockHistoryRepository.findByStockAndDate(stock, data.getDate());
-                
-                if (existingData.isEmpty()) {
-                    StockHistory stockHistory = new StockHistory(
-                        stock,
-                        data.getDate(),
-                        data.getOpenPrice(),
-                        data.getHighPrice(),
-                        data.getLowPrice(),
-                        data.getClosePrice(),
-                        data.getVolume()
-                    );
-                    
-                    stockHistoryRepository.save(stockHistory);
-                    log.debug("Stored historical data for {} on {}: Close ${}", 
-                        stock.getSymbol(), data.getDate(), data.getClosePrice());
-                } else {
-                    log.debug("Historical data already exists for {} on {}", stock.getSymbol(), data.getDate());
-                }
-            }
-            
-            log.info("Completed storing historical data for {}: {} records processed", 
-                stock.getSymbol(), historicalData.size());
+            log.info("Completed storing historical data for {}: {} records processed, {} inserted or completed, {} skipped", 
+                stock.getSymbol(), historicalData.size(), inserted, historicalData.size() - inserted);
             
         } catch (Exception e) {
             log.error("Error fetching and storing historical data for stock {}: {}", stock.getSymbol(), e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Fetch daily bars from Nasdaq API without touching the database.
+     *
+     * @return Unsaved history rows, empty if the Nasdaq API is not available
+     */
+    public List<StockHistory> fetchHistoricalData(Stock stock, LocalDate fromDate, LocalDate toDate) {
+        if (nasdaqApiService == null) {
+            log.warn("NasdaqApiService not available, skipping historical data fetch for {}", stock.getSymbol());
+            return List.of();
+        }
+        
+        log.info("Fetching historical data for {} from {} to {}", stock.getSymbol(), fromDate, toDate);
+        
+        List<StockHistory> bars = new ArrayList<>();
+        for (NasdaqApiService.HistoricalStockData data : nasdaqApiService.getHistoricalData(stock.getSymbol(), fromDate, toDate)) {
+            bars.add(new StockHistory(
+                stock,
+                data.getDate(),
+                data.getOpenPrice(),
+                data.getHighPrice(),
+                data.getLowPrice(),
+                data.getClosePrice(),
+                data.getVolume()
+            ));
+        }
+        return bars;
+    }
+
+    /**
+     * Store daily bars in one set-based upsert; a stock and date that already has data only gets the
+     * values it is missing.
+     *
+     * @return Number of bars inserted or completed
+     */
+    public int storeHistoricalData(List<StockHistory> bars) {
+        int inserted = stockPriceWriter.upsertDailyBars(bars);
+        log.debug("Stored {} of {} historical bars", inserted, bars.size());
+        return inserted;
+    }
+
+    private static boolean hasFullOhlc(StockHistory daily) {
+        return daily.getOpenPrice() != null && daily.getHighPrice() != null
+                && daily.getLowPrice() != null && daily.getClosePrice() != null;
+    }
+
+    private static HistoricalStockDataDto toHistoricalDto(StockHistory stockHistory) {
+        return new HistoricalStockDataDto(
+            stockHistory.getStock().getSymbol(),
+            stockHistory.getDate(),
+            stockHistory.getOpenPrice(),
+            stockHistory.getHighPrice(),
+            stockHistory.getLowPrice(),
+            stockHistory.getClosePrice(),
+            stockHistory.getVolume()
+        );
+    }
+}
@@ -1,7 +1,11 @@
 package com.tinusj.stocklee.service;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for stock price providers.
@@ -16,6 +20,43 @@ public interface StockPriceProvider {
      * @return Current price or empty if not available
      */
     Optional<BigDecimal> getPrice(String symbol);
+
+    /**
+     * Get current stock price for the given symbol without blocking the caller.
+     * Providers backed by the async HTTP client override this; the default computes the price
+     * on the calling thread and returns it already completed.
+     *
+     * @param symbol Stock symbol (e.g., "AAPL", "MSFT")
+     * @return Future completing with the current price, empty if the provider has no price for the
+     *         symbol, or exceptionally if the provider could not be reached or answered with an error
+     */
+    default CompletableFuture<Optional<BigDecimal>> getPriceAsync(String symbol) {
+        return CompletableFuture.completedFuture(getPrice(symbol));
+    }
+
+    /**
+     * Get current stock prices for several symbols.
+     * Providers with a multi-symbol endpoint override this; the default looks each symbol up in turn.
+     * 
+     * @param symbols Stock symbols
+     * @return Prices keyed by the requested symbol; symbols without a price are absent
+     * @throws RuntimeException If the provider could not be reached or answered with an error
+     */
+    default Map<String, BigDecimal> getPrices(Collection<String> symbols) {
+        Map<String, BigDecimal> prices = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            getPrice(symbol).ifPresent(price -> prices.put(symbol, price));
+        }
+        return prices;
+    }
+
+    /**
+     * Number of symbols a single upstream request in {@link #getPrices(Collection)} can carry.
+     * Providers that look symbols up one at a time keep the default of 1.
+     */
+    default int getMaxBatchSize() {
+        return 1;
+    }
     
     /**
      * Check if the given stock symbol is valid.
@@ -1,6 +1,7 @@
 package com.tinusj.stocklee.service;
 
 import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.repository.HolderIndex;
 import com.tinusj.stocklee.repository.StockRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,8 @@ public class StockService {
 
     private final StockRepository stockRepository;
     private final CompositeStockPriceProvider compositeStockPriceProvider;
+    private final PortfolioValuationEngine portfolioValuationEngine;
+    private final HolderIndex holderIndex;
 
     /**
      * Find all stocks.
@@ -50,9 +53,19 @@ public class StockService {
 
     /**
      * Save or update a stock.
+     * A changed symbol is carried over to the holder index and the valuations of the stock's holders.
      */
     public Stock save(Stock stock) {
-        return stockRepository.save(stock);
+        String previousSymbol = stock.getId() == null
+                ? null
+                : stockRepository.findById(stock.getId()).map(Stock::getSymbol).orElse(null);
+        Stock saved = stockRepository.save(stock);
+        if (previousSymbol != null && !previousSymbol.equals(saved.getSymbol())) {
+            holderIndex.renameSymbol(previousSymbol, saved.getSymbol());
+            portfolioValuationEngine.invalidateHolders(saved.getSymbol());
+        }
+        portfolioValuationEngine.pricesChanged(List.of(saved));
+        return saved;
     }
 
     /**
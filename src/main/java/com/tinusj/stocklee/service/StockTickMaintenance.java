@@ -0,0 +1,46 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.repository.StockTickPartitions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the intraday tick storage within its retention: creates the upcoming tick partitions and
+ * removes ticks older than {@code stocklee.ticks.retention}. Runs at startup, so the current partition
+ * exists before the first refresh, and then daily.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockTickMaintenance {
+
+    private final StockTickPartitions stockTickPartitions;
+    private final ApplicationConfig applicationConfig;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareOnStartup() {
+        maintain();
+    }
+
+    /**
+     * Create missing partitions, then expire old ticks. A failure is logged and retried on the next run.
+     */
+    @Scheduled(cron = "${stocklee.ticks.maintenance-cron:0 5 0 * * *}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int created = stockTickPartitions.ensurePartitions(now.toLocalDate());
+            int expired = stockTickPartitions.expire(now.minus(applicationConfig.getTicks().getRetention()));
+            log.info("Tick maintenance completed. Partitions created: {}, expired: {}", created, expired);
+        } catch (Exception e) {
+            log.error("Error maintaining tick storage: {}", e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.tinusj.stocklee.service;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.StockTransaction;
+import com.tinusj.stocklee.entity.StockTransaction.TransactionType;
 import com.tinusj.stocklee.entity.UserProfile;
 import com.tinusj.stocklee.repository.StockTransactionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -26,6 +32,30 @@ public class StockTransactionService {
         return stockTransactionRepository.findAllWithUserAndStock();
     }
 
+    /**
+     * Find one page of stock transactions, optionally for one user and of one type.
+     *
+     * @param cursor Token from the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public CursorPage<StockTransaction> findPage(UUID userId, TransactionType transactionType,
+                                                 String cursor, int size, Sort.Direction direction) {
+        ScrollPosition position = KeysetCursor.decode(cursor);
+        Limit limit = KeysetCursor.limit(size);
+        Sort sort = KeysetCursor.sort(direction);
+        Window<StockTransaction> window;
+        if (userId != null && transactionType != null) {
+            window = stockTransactionRepository.findByUserIdAndTransactionType(userId, transactionType, position, limit, sort);
+        } else if (userId != null) {
+            window = stockTransactionRepository.findByUserId(userId, position, limit, sort);
+        } else if (transactionType != null) {
+            window = stockTransactionRepository.findByTransactionType(transactionType, position, limit, sort);
+        } else {
+            window = stockTransactionRepository.findAllBy(position, limit, sort);
+        }
+        return KeysetCursor.page(window, StockTransaction::getTimestamp, StockTransaction::getId);
+    }
+
     /**
      * Find stock transaction by ID.
      */
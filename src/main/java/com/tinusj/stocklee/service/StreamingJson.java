@@ -0,0 +1,77 @@
+package com.tinusj.stocklee.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Helpers for reading provider responses token by token with Jackson's {@link JsonParser}.
+ * Only the fields a caller asks for are read; everything else is skipped without being materialised.
+ */
+final class StreamingJson {
+
+    private StreamingJson() {
+    }
+
+    /**
+     * Advance through the fields of the current object until {@code name} is found.
+     * The parser must be on the object's start or on a field value inside it.
+     *
+     * @return True with the parser on the field's value, or false with the parser on the object's end
+     */
+    static boolean seekField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (name.equals(field)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Descend through nested objects by field name.
+     *
+     * @return True with the parser on the value of the last field in {@code path}
+     */
+    static boolean seekPath(JsonParser parser, String... path) throws IOException {
+        for (int i = 0; i < path.length; i++) {
+            if (i > 0 && !parser.hasToken(JsonToken.START_OBJECT)) {
+                return false;
+            }
+            if (!seekField(parser, path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the current value as a decimal. Numbers are taken as-is; strings may carry a
+     * currency sign or thousands separators, e.g. {@code "$1,250.10"}.
+     *
+     * @return The value, or null if it is not a number or numeric string
+     */
+    static BigDecimal decimalValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != null && token.isNumeric()) {
+            return parser.getDecimalValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().replace("$", "").replace(",", "").trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
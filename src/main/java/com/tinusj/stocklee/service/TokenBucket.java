@@ -0,0 +1,78 @@
+package com.tinusj.stocklee.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe token bucket: holds up to {@code capacity} tokens and refills continuously
+ * at {@code refillTokens} per {@code refillPeriod}.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, int refillTokens, Duration refillPeriod, LongSupplier nanoTime) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerNano = (double) Math.max(1, refillTokens) / Math.max(1, refillPeriod.toNanos());
+        this.nanoTime = nanoTime;
+        this.tokens = this.capacity;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    /**
+     * Take up to {@code requested} whole tokens without waiting.
+     *
+     * @return Tokens taken, possibly zero
+     */
+    synchronized int tryAcquireUpTo(int requested) {
+        refill();
+        int granted = (int) Math.min(requested, Math.floor(tokens));
+        tokens -= granted;
+        return granted;
+    }
+
+    /**
+     * Take {@code requested} tokens, waiting up to {@code maxWait} for them to refill.
+     * If the full amount is not available in time, whatever is available at the deadline is taken.
+     *
+     * @return Tokens taken, possibly fewer than requested
+     */
+    int acquireUpTo(int requested, Duration maxWait) throws InterruptedException {
+        long deadline = nanoTime.getAsLong() + maxWait.toNanos();
+        int wanted = (int) Math.min(requested, capacity);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= wanted) {
+                    tokens -= wanted;
+                    return wanted;
+                }
+                long remaining = deadline - nanoTime.getAsLong();
+                waitNanos = (long) Math.ceil((wanted - tokens) / tokensPerNano);
+                if (waitNanos > remaining) {
+                    int granted = (int) Math.floor(tokens);
+                    tokens -= granted;
+                    return granted;
+                }
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(1, waitNanos));
+        }
+    }
+
+    synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
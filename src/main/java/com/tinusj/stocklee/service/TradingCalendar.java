@@ -0,0 +1,134 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Regular trading sessions per exchange: opening hours in the exchange's own time zone,
+ * closed on weekends and configured holidays.
+ * Stocks on a market without a configured session follow the default market's session.
+ */
+@Component
+public class TradingCalendar {
+
+    /**
+     * Days searched for the next session; covers any run of weekends and holidays.
+     */
+    private static final int MAX_DAYS_AHEAD = 14;
+
+    private final Map<Stock.MarketType, ApplicationConfig.TradingCalendar.Session> sessions;
+    private final Map<Stock.MarketType, Set<LocalDate>> holidays;
+    private final Stock.MarketType defaultMarket;
+    private final Clock clock;
+
+    @Autowired
+    public TradingCalendar(ApplicationConfig applicationConfig) {
+        this(applicationConfig, Clock.systemUTC());
+    }
+
+    TradingCalendar(ApplicationConfig applicationConfig, Clock clock) {
+        ApplicationConfig.TradingCalendar settings = applicationConfig.getTradingCalendar();
+        this.sessions = settings.getSessions();
+        this.holidays = new EnumMap<>(Stock.MarketType.class);
+        sessions.forEach((market, session) -> holidays.put(market, new HashSet<>(session.getHolidays())));
+        this.defaultMarket = settings.getDefaultMarket();
+        this.clock = clock;
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    /**
+     * Markets with a session of their own.
+     */
+    public Set<Stock.MarketType> getMarkets() {
+        return sessions.keySet();
+    }
+
+    /**
+     * Market whose session applies to a stock listed on {@code market}.
+     */
+    public Stock.MarketType resolve(Stock.MarketType market) {
+        return market != null && sessions.containsKey(market) ? market : defaultMarket;
+    }
+
+    public boolean isOpen(Stock.MarketType market) {
+        return isOpen(market, now());
+    }
+
+    public boolean isOpen(Stock.MarketType market, Instant at) {
+        LocalDate date = sessionDate(market, at);
+        return isTradingDay(market, date)
+                && !at.isBefore(sessionOpen(market, date))
+                && at.isBefore(sessionClose(market, date));
+    }
+
+    public boolean isTradingDay(Stock.MarketType market, LocalDate date) {
+        Stock.MarketType resolved = resolve(market);
+        DayOfWeek day = date.getDayOfWeek();
+        return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY
+                && !holidays.get(resolved).contains(date);
+    }
+
+    /**
+     * Calendar date at the exchange at the given instant.
+     */
+    public LocalDate sessionDate(Stock.MarketType market, Instant at) {
+        return LocalDate.ofInstant(at, session(market).getZone());
+    }
+
+    public Instant sessionOpen(Stock.MarketType market, LocalDate date) {
+        return at(market, date, session(market).getOpen());
+    }
+
+    public Instant sessionClose(Stock.MarketType market, LocalDate date) {
+        return at(market, date, session(market).getClose());
+    }
+
+    /**
+     * First session open strictly after {@code after}.
+     */
+    public Instant nextOpen(Stock.MarketType market, Instant after) {
+        LocalDate date = sessionDate(market, after);
+        for (int i = 0; i <= MAX_DAYS_AHEAD; i++, date = date.plusDays(1)) {
+            if (isTradingDay(market, date) && sessionOpen(market, date).isAfter(after)) {
+                return sessionOpen(market, date);
+            }
+        }
+        throw new IllegalStateException("No " + resolve(market) + " session within " + MAX_DAYS_AHEAD + " days of " + after);
+    }
+
+    /**
+     * First session close strictly after {@code after}.
+     */
+    public Instant nextClose(Stock.MarketType market, Instant after) {
+        LocalDate date = sessionDate(market, after);
+        for (int i = 0; i <= MAX_DAYS_AHEAD; i++, date = date.plusDays(1)) {
+            if (isTradingDay(market, date) && sessionClose(market, date).isAfter(after)) {
+                return sessionClose(market, date);
+            }
+        }
+        throw new IllegalStateException("No " + resolve(market) + " session within " + MAX_DAYS_AHEAD + " days of " + after);
+    }
+
+    private ApplicationConfig.TradingCalendar.Session session(Stock.MarketType market) {
+        return sessions.get(resolve(market));
+    }
+
+    private Instant at(Stock.MarketType market, LocalDate date, LocalTime time) {
+        return date.atTime(time).atZone(session(market).getZone()).toInstant();
+    }
+}
@@ -4,6 +4,8 @@ import com.tinusj.stocklee.dto.BuyStockDto;
 import com.tinusj.stocklee.dto.PortfolioSummaryDto;
 import com.tinusj.stocklee.dto.SellStockDto;
 import com.tinusj.stocklee.entity.*;
+import com.tinusj.stocklee.money.Money;
+import com.tinusj.stocklee.money.Quantity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,6 +29,7 @@ public class TradingService {
     private final StockTransactionService stockTransactionService;
     private final HistoryLogService historyLogService;
     private final CompositeStockPriceProvider compositeStockPriceProvider;
+    private final PortfolioValuationEngine portfolioValuationEngine;
 
     /**
      * Buy stocks for a user.
@@ -34,10 +37,11 @@ public class TradingService {
     public String buyStock(UserProfile user, BuyStockDto buyStockDto) {
         try {
             // Calculate current balance if null
-            BigDecimal availableBalance = calculateUserBalance(user);
+            Money availableBalance = Money.of(calculateUserBalance(user));
+            Money investment = Money.of(buyStockDto.getInvestmentAmount());
             
             // Validate user has sufficient balance
-            if (availableBalance.compareTo(buyStockDto.getInvestmentAmount()) < 0) {
+            if (availableBalance.compareTo(investment) < 0) {
                 return "Insufficient balance. Available: $" + availableBalance;
             }
 
@@ -51,42 +55,49 @@ public class TradingService {
 
             // Calculate number of shares (allow fractional)
             // Use purchasePrice if provided, otherwise use current market price
-            BigDecimal priceToUse = buyStockDto.getPurchasePrice() != null 
+            Money priceToUse = Money.of(buyStockDto.getPurchasePrice() != null 
                     ? buyStockDto.getPurchasePrice() 
-                    : stock.getCurrentPrice();
-            
-            BigDecimal shares = buyStockDto.getInvestmentAmount().divide(priceToUse, 4, java.math.RoundingMode.DOWN);
+                    : stock.getCurrentPrice());
+
+            // A quote below half a cent rounds to zero and cannot be divided by
+            if (priceToUse.signum() <= 0) {
+                return "Invalid price for " + stock.getSymbol() + ": $" + priceToUse;
+            }
+
+            Quantity shares = investment.sharesAt(priceToUse);
             
-            if (shares.compareTo(BigDecimal.valueOf(0.0001)) < 0) {
-                return "Investment amount too small. Minimum required: $" + priceToUse.multiply(BigDecimal.valueOf(0.0001));
+            if (shares.signum() <= 0) {
+                return "Investment amount too small. Minimum required: $"
+                        + priceToUse.toBigDecimal().multiply(new BigDecimal("0.0001"));
             }
 
-            BigDecimal actualCost = priceToUse.multiply(shares);
+            Money actualCost = priceToUse.times(shares);
 
             // Update user balance
-            BigDecimal newBalance = availableBalance.subtract(actualCost);
-            user.setBalance(newBalance);
+            Money newBalance = availableBalance.minus(actualCost);
+            user.setBalance(newBalance.toBigDecimal());
             userProfileService.save(user);
 
             // Add shares to portfolio
-            ownedStockService.addShares(user, stock, shares, priceToUse);
+            ownedStockService.addShares(user, stock, shares.toBigDecimal(), priceToUse.toBigDecimal());
 
             // Record transaction
             StockTransaction transaction = new StockTransaction();
             transaction.setUser(user);
             transaction.setStock(stock);
             transaction.setTransactionType(StockTransaction.TransactionType.BUY);
-            transaction.setQuantity(shares);
-            transaction.setPrice(priceToUse);
-            transaction.setTotalValue(actualCost);
+            transaction.setQuantity(shares.toBigDecimal());
+            transaction.setPrice(priceToUse.toBigDecimal());
+            transaction.setTotalValue(actualCost.toBigDecimal());
             stockTransactionService.save(transaction);
 
             // Log activity
             String logMessage = String.format("Bought %.4f shares of %s at $%.2f per share (Total: $%.2f)", 
-                    shares, stock.getSymbol(), priceToUse, actualCost);
+                    shares.toBigDecimal(), stock.getSymbol(), priceToUse.toBigDecimal(), actualCost.toBigDecimal());
             logActivity(user, logMessage);
 
-            return String.format("Successfully bought %.4f shares of %s for $%.2f", shares, stock.getSymbol(), actualCost);
+            return String.format("Successfully bought %.4f shares of %s for $%.2f", 
+                    shares.toBigDecimal(), stock.getSymbol(), actualCost.toBigDecimal());
 
         } catch (Exception e) {
             log.error("Error buying stock for user {}: {}", user.getUsername(), e.getMessage(), e);
@@ -109,39 +120,40 @@ public class TradingService {
                 return "You don't own this stock";
             }
 
-            if (ownedStock.getQuantity().compareTo(sellStockDto.getQuantity()) < 0) {
+            Quantity quantity = Quantity.of(sellStockDto.getQuantity());
+            if (Quantity.of(ownedStock.getQuantity()).compareTo(quantity) < 0) {
                 return "Insufficient shares. You own: " + ownedStock.getQuantity();
             }
 
             Stock stock = ownedStock.getStock();
-            BigDecimal currentPrice = stock.getCurrentPrice();
-            BigDecimal sellValue = currentPrice.multiply(sellStockDto.getQuantity());
+            Money currentPrice = Money.of(stock.getCurrentPrice());
+            Money sellValue = currentPrice.times(quantity);
 
             // Update user balance
-            BigDecimal currentBalance = calculateUserBalance(user);
-            user.setBalance(currentBalance.add(sellValue));
+            Money currentBalance = Money.of(calculateUserBalance(user));
+            user.setBalance(currentBalance.plus(sellValue).toBigDecimal());
             userProfileService.save(user);
 
             // Remove shares from portfolio
-            ownedStockService.removeShares(user, stock, sellStockDto.getQuantity());
+            ownedStockService.removeShares(user, stock, quantity.toBigDecimal());
 
             // Record transaction
             StockTransaction transaction = new StockTransaction();
             transaction.setUser(user);
             transaction.setStock(stock);
             transaction.setTransactionType(StockTransaction.TransactionType.SELL);
-            transaction.setQuantity(sellStockDto.getQuantity());
-            transaction.setPrice(currentPrice);
-            transaction.setTotalValue(sellValue);
+            transaction.setQuantity(quantity.toBigDecimal());
+            transaction.setPrice(currentPrice.toBigDecimal());
+            transaction.setTotalValue(sellValue.toBigDecimal());
             stockTransactionService.save(transaction);
 
             // Log activity
             String logMessage = String.format("Sold %.4f shares of %s at $%.2f per share (Total: $%.2f)", 
-                    sellStockDto.getQuantity(), stock.getSymbol(), currentPrice, sellValue);
+                    quantity.toBigDecimal(), stock.getSymbol(), currentPrice.toBigDecimal(), sellValue.toBigDecimal());
             logActivity(user, logMessage);
 
             return String.format("Successfully sold %.4f shares of %s for $%.2f", 
-                    sellStockDto.getQuantity(), stock.getSymbol(), sellValue);
+                    quantity.toBigDecimal(), stock.getSymbol(), sellValue.toBigDecimal());
 
         } catch (Exception e) {
             log.error("Error selling stock for user {}: {}", user.getUsername(), e.getMessage(), e);
@@ -151,18 +163,21 @@ public class TradingService {
 
     /**
      * Get portfolio summary for a user.
+     * Served from the {@link PortfolioValuationEngine}, so it reads the holdings at most once.
      */
+    @Transactional(readOnly = true)
     public PortfolioSummaryDto getPortfolioSummary(UserProfile user) {
+        PortfolioValuation valuation = portfolioValuationEngine.valuation(user);
         PortfolioSummaryDto summary = new PortfolioSummaryDto();
         summary.setAvailableBalance(calculateUserBalance(user));
-        summary.setTotalInvestment(ownedStockService.calculateTotalInvestment(user));
-        summary.setCurrentValue(ownedStockService.calculateTotalPortfolioValue(user));
-        summary.setProfitLoss(ownedStockService.calculateProfitLoss(user));
+        summary.setTotalInvestment(valuation.costBasis().toBigDecimal());
+        summary.setCurrentValue(valuation.marketValue().toBigDecimal());
+        summary.setProfitLoss(valuation.profitLoss().toBigDecimal());
         
-        // Convert owned stocks to DTOs
+        // Convert holdings to DTOs
         summary.setOwnedStocks(
-            ownedStockService.findByUser(user).stream()
-                .map(this::convertOwnedStockToDto)
+            valuation.holdings().stream()
+                .map(PortfolioValuation.Holding::toDto)
                 .toList()
         );
         
@@ -211,25 +226,4 @@ public class TradingService {
         log.setAction(message);
         historyLogService.save(log);
     }
-
-    private com.tinusj.stocklee.dto.OwnedStockDto convertOwnedStockToDto(OwnedStock ownedStock) {
-        com.tinusj.stocklee.dto.OwnedStockDto dto = new com.tinusj.stocklee.dto.OwnedStockDto();
-        dto.setId(ownedStock.getId());
-        dto.setQuantity(ownedStock.getQuantity());
-        dto.setAveragePrice(ownedStock.getAveragePrice());
-        dto.setTotalValue(ownedStock.getTotalValue());
-        
-        // Add stock details
-        Stock stock = ownedStock.getStock();
-        dto.setStockSymbol(stock.getSymbol());
-        dto.setStockName(stock.getName());
-        dto.setCurrentPrice(stock.getCurrentPrice());
-        
-        // Calculate current value and profit/loss
-        BigDecimal currentValue = stock.getCurrentPrice().multiply(ownedStock.getQuantity());
-        dto.setCurrentValue(currentValue);
-        dto.setProfitLoss(currentValue.subtract(ownedStock.getTotalValue()));
-        
-        return dto;
-    }
 }
\ No newline at end of file
@@ -79,6 +79,13 @@ public class UserProfileService {
         return userProfileRepository.findByEmail(email);
     }
 
+    /**
+     * Find the user profile of the login with this email, the name an authenticated user goes by.
+     */
+    public Optional<UserProfile> findByAccountEmail(String email) {
+        return userProfileRepository.findByAccountEmail(email);
+    }
+
     /**
      * Check if a user with the given username exists.
      */
@@ -3,18 +3,21 @@ package com.tinusj.stocklee.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ClassicHttpResponse;
-import org.apache.hc.core5.http.HttpEntity;
-import org.apache.hc.core5.http.io.HttpClientResponseHandler;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service to fetch stock prices from Yahoo Finance API.
@@ -24,7 +27,16 @@ import java.util.Optional;
 @Slf4j
 public class YahooFinanceService implements StockPriceProvider {
 
+    /**
+     * Symbols per request to the v7 quote endpoint.
+     */
+    static final int MAX_BATCH_SIZE = 50;
+
+    private static final String CHART_URL = "https://query1.finance.yahoo.com/v8/finance/chart/%s";
+    private static final String QUOTE_URL = "https://query1.finance.yahoo.com/v7/finance/quote?symbols=%s";
+
     private final ObjectMapper objectMapper;
+    private final QuoteHttpClient quoteHttpClient;
 
     /**
      * Fetch current stock price for given symbol from Yahoo Finance API.
@@ -37,29 +49,9 @@ public class YahooFinanceService implements StockPriceProvider {
                 return Optional.empty();
             }
 
-            String url = String.format("https://query1.finance.yahoo.com/v8/finance/chart/%s", 
-                symbol.toUpperCase());
-
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpGet request = new HttpGet(url);
-                request.setHeader("User-Agent", "Mozilla/5.0");
-
-                HttpClientResponseHandler<String> responseHandler = response -> {
-                    int status = response.getCode();
-                    if (status >= 200 && status < 300) {
-                        HttpEntity entity = response.getEntity();
-                        return entity != null ? EntityUtils.toString(entity) : null;
-                    } else {
-                        log.warn("Yahoo Finance API returned status: {}", status);
-                        return null;
-                    }
-                };
-
-                String responseBody = httpClient.execute(request, responseHandler);
-                if (responseBody != null) {
-                    return parsePrice(responseBody);
-                }
-            }
+            String url = String.format(CHART_URL, symbol.toUpperCase());
+
+            return quoteHttpClient.get(url, "Mozilla/5.0", "Yahoo Finance", this::parsePrice);
         } catch (Exception e) {
             log.error("Error fetching price from Yahoo Finance for symbol: {}", symbol, e);
         }
@@ -67,6 +59,43 @@ public class YahooFinanceService implements StockPriceProvider {
         return Optional.empty();
     }
 
+    /**
+     * Fetch current stock price without blocking the caller.
+     * Request failures complete the future exceptionally, so callers can tell them from a missing quote.
+     */
+    @Override
+    public CompletableFuture<Optional<BigDecimal>> getPriceAsync(String symbol) {
+        if (!isValidSymbol(symbol)) {
+            log.warn("Invalid symbol: {}", symbol);
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        String url = String.format(CHART_URL, symbol.toUpperCase());
+        return quoteHttpClient.getAsync(url, "Mozilla/5.0", "Yahoo Finance", this::parsePrice);
+    }
+
+    /**
+     * Fetch current prices for several symbols using the multi-symbol quote endpoint.
+     * Symbols are sent in chunks of {@link #MAX_BATCH_SIZE}, all chunks in flight at once.
+     */
+    @Override
+    public Map<String, BigDecimal> getPrices(Collection<String> symbols) {
+        Map<String, String> requested = QuoteBatches.indexBySymbol(symbols, this::isValidSymbol);
+
+        List<CompletableFuture<Map<String, BigDecimal>>> chunks = new ArrayList<>();
+        for (List<String> chunk : QuoteBatches.partition(new ArrayList<>(requested.keySet()), MAX_BATCH_SIZE)) {
+            String url = String.format(QUOTE_URL, String.join(",", chunk));
+            chunks.add(quoteHttpClient.getAsync(url, "Mozilla/5.0", "Yahoo Finance",
+                            body -> Optional.of(parseBatchPrices(body)))
+                    .thenApply(prices -> prices.orElseGet(Map::of)));
+        }
+        return QuoteBatches.collect(chunks, requested, "Yahoo Finance");
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+
     /**
      * Fetch current stock price for given symbol.
      * This method provides backward compatibility and delegates to getPrice().
@@ -91,11 +120,7 @@ public class YahooFinanceService implements StockPriceProvider {
                 return Optional.empty();
             }
             
-            BigDecimal price = priceOpt.get();
-            String name = generateStockName(upperSymbol);
-            String description = "Stock information for " + upperSymbol;
-            
-            return Optional.of(new StockInfo(upperSymbol, name, price, description));
+            return Optional.of(createStockInfo(upperSymbol, priceOpt.get()));
         } catch (Exception e) {
             log.error("Error fetching stock info for symbol: {}", symbol, e);
             return Optional.empty();
@@ -103,32 +128,79 @@ public class YahooFinanceService implements StockPriceProvider {
     }
 
     /**
-     * Parse price from Yahoo Finance API response.
+     * Build stock information for a symbol whose price is already known.
      */
-    private Optional<BigDecimal> parsePrice(String responseBody) {
-        try {
-            JsonNode root = objectMapper.readTree(responseBody);
-            
-            JsonNode chart = root.get("chart");
-            if (chart == null || !chart.has("result") || chart.get("result").isEmpty()) {
+    public StockInfo createStockInfo(String symbol, BigDecimal price) {
+        String upperSymbol = symbol.toUpperCase();
+        String name = generateStockName(upperSymbol);
+        String description = "Stock information for " + upperSymbol;
+        return new StockInfo(upperSymbol, name, price, description);
+    }
+
+    /**
+     * Parse a v8 chart response, reading chart.result[0].meta.regularMarketPrice token by token.
+     * The meta block precedes the timestamp and indicator arrays, so parsing stops before reaching them.
+     */
+    Optional<BigDecimal> parsePrice(InputStream responseBody) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT
+                    || !StreamingJson.seekPath(parser, "chart", "result")
+                    || parser.currentToken() != JsonToken.START_ARRAY
+                    || parser.nextToken() != JsonToken.START_OBJECT) {
                 log.warn("Invalid response format from Yahoo Finance API");
                 return Optional.empty();
             }
-            
-            JsonNode result = chart.get("result").get(0);
-            JsonNode meta = result.get("meta");
-            
-            if (meta != null && meta.has("regularMarketPrice")) {
-                double price = meta.get("regularMarketPrice").asDouble();
-                return Optional.of(BigDecimal.valueOf(price).setScale(2, java.math.RoundingMode.HALF_UP));
-            } else {
-                log.warn("No price data found in Yahoo Finance response");
-                return Optional.empty();
+            if (StreamingJson.seekPath(parser, "meta", "regularMarketPrice") && parser.currentToken().isNumeric()) {
+                return Optional.of(parser.getDecimalValue().setScale(2, RoundingMode.HALF_UP));
             }
-            
-        } catch (Exception e) {
+            log.warn("No price data found in Yahoo Finance response");
+        } catch (IOException e) {
             log.error("Error parsing Yahoo Finance response", e);
-            return Optional.empty();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Parse a v7 quote response, reading quoteResponse.result[].symbol and regularMarketPrice
+     * token by token without building a tree.
+     *
+     * @return Prices keyed by upper-case symbol
+     */
+    Map<String, BigDecimal> parseBatchPrices(InputStream responseBody) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.warn("Invalid response format from Yahoo Finance quote API");
+                return prices;
+            }
+            if (StreamingJson.seekPath(parser, "quoteResponse", "result")
+                    && parser.currentToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readQuote(parser, prices);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error parsing Yahoo Finance quote response", e);
+        }
+        return prices;
+    }
+
+    private void readQuote(JsonParser parser, Map<String, BigDecimal> prices) throws IOException {
+        String symbol = null;
+        BigDecimal price = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("symbol".equals(field) && value == JsonToken.VALUE_STRING) {
+                symbol = parser.getText().toUpperCase();
+            } else if ("regularMarketPrice".equals(field) && value.isNumeric()) {
+                price = parser.getDecimalValue().setScale(2, RoundingMode.HALF_UP);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (symbol != null && price != null) {
+            prices.put(symbol, price);
         }
     }
 
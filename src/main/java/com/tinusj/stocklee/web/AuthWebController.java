@@ -104,6 +104,7 @@ public class AuthWebController {
             userProfile.setUsername(signupRequest.getFullName());
             userProfile.setEmail(signupRequest.getEmail());
             userProfile.setBalance(BigDecimal.valueOf(10000.00)); // Starting balance of $10,000
+            userProfile.setAccount(user);
             
             userProfileService.save(userProfile);
             
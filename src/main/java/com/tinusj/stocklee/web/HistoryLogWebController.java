@@ -1,12 +1,11 @@
 package com.tinusj.stocklee.web;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.HistoryLog;
 import com.tinusj.stocklee.entity.UserProfile;
 import com.tinusj.stocklee.service.HistoryLogService;
 import com.tinusj.stocklee.service.UserProfileService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -28,49 +27,27 @@ public class HistoryLogWebController {
     private final UserProfileService userProfileService;
 
     /**
-     * List all history logs with pagination and filtering.
+     * List history logs with filtering by user, one keyset page at a time.
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public String listHistoryLogs(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "timestamp") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
             @RequestParam(required = false) UUID userId,
             Model model) {
         
-        // Create pageable with sorting
         Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        
-        // Get all history logs
-        List<HistoryLog> historyLogs = historyLogService.findAll();
-        
-        // Filter by user if specified
-        if (userId != null) {
-            historyLogs = historyLogs.stream()
-                .filter(log -> log.getUser().getId().equals(userId))
-                .toList();
-        }
-        
-        // Sort manually for now (we can improve this with repository methods later)
-        historyLogs.sort((log1, log2) -> {
-            if (sortBy.equals("timestamp")) {
-                int result = log1.getTimestamp().compareTo(log2.getTimestamp());
-                return direction == Sort.Direction.DESC ? -result : result;
-            }
-            return 0;
-        });
+        CursorPage<HistoryLog> historyLogs = historyLogService.findPage(userId, cursor, size, direction);
         
         // Get all users for filter dropdown
         List<UserProfile> users = userProfileService.findAll();
         
-        model.addAttribute("historyLogs", historyLogs);
+        model.addAttribute("historyLogs", historyLogs.getContent());
+        model.addAttribute("nextCursor", historyLogs.getNextCursor());
         model.addAttribute("users", users);
-        model.addAttribute("currentPage", page);
         model.addAttribute("pageSize", size);
-        model.addAttribute("sortBy", sortBy);
         model.addAttribute("sortDir", sortDir);
         model.addAttribute("selectedUserId", userId);
         model.addAttribute("pageTitle", "History Logs");
@@ -1,21 +1,20 @@
 package com.tinusj.stocklee.web;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.Stock;
 import com.tinusj.stocklee.entity.StockHistory;
 import com.tinusj.stocklee.service.StockHistoryService;
 import com.tinusj.stocklee.service.StockService;
 import com.tinusj.stocklee.service.StockPriceProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -31,57 +30,40 @@ public class StockHistoryWebController {
     private final StockPriceProvider stockPriceProvider;
 
     /**
-     * List stock history with filtering by stock symbol.
+     * List stock history with filtering by stock symbol, one keyset page at a time.
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public String listStockHistory(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "50") int size,
-            @RequestParam(defaultValue = "timestamp") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
             @RequestParam(required = false) UUID stockId,
             @RequestParam(required = false) String symbol,
             Model model) {
         
-        // Create pageable with sorting
         Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
         
-        // Get all stock history
-        List<StockHistory> stockHistories = new ArrayList<>(stockHistoryService.findAll());
-        
-        // Filter by stock if specified
-        if (stockId != null) {
-            stockHistories = new ArrayList<>(stockHistories.stream()
-                .filter(history -> history.getStock().getId().equals(stockId))
-                .toList());
-        } else if (symbol != null && !symbol.trim().isEmpty()) {
-            stockHistories = new ArrayList<>(stockHistories.stream()
-                .filter(history -> history.getStock().getSymbol().equalsIgnoreCase(symbol.trim()))
-                .toList());
+        // Resolve a symbol filter to its stock so the page is read from the stock and timestamp index
+        UUID filterStockId = stockId;
+        boolean unknownSymbol = false;
+        if (filterStockId == null && symbol != null && !symbol.trim().isEmpty()) {
+            Optional<Stock> stock = stockService.findBySymbol(symbol.trim().toUpperCase());
+            filterStockId = stock.map(Stock::getId).orElse(null);
+            unknownSymbol = stock.isEmpty();
         }
         
-        // Sort manually for now
-        stockHistories.sort((h1, h2) -> {
-            if (sortBy.equals("timestamp")) {
-                int result = h1.getTimestamp().compareTo(h2.getTimestamp());
-                return direction == Sort.Direction.DESC ? -result : result;
-            } else if (sortBy.equals("price")) {
-                int result = h1.getPrice().compareTo(h2.getPrice());
-                return direction == Sort.Direction.DESC ? -result : result;
-            }
-            return 0;
-        });
+        CursorPage<StockHistory> stockHistories = unknownSymbol
+                ? new CursorPage<>(List.of(), null)
+                : stockHistoryService.findPage(filterStockId, cursor, size, direction);
         
         // Get all stocks for filter dropdown
         List<Stock> stocks = stockService.findAll();
         
-        model.addAttribute("stockHistories", stockHistories);
+        model.addAttribute("stockHistories", stockHistories.getContent());
+        model.addAttribute("nextCursor", stockHistories.getNextCursor());
         model.addAttribute("stocks", stocks);
-        model.addAttribute("currentPage", page);
         model.addAttribute("pageSize", size);
-        model.addAttribute("sortBy", sortBy);
         model.addAttribute("sortDir", sortDir);
         model.addAttribute("selectedStockId", stockId);
         model.addAttribute("selectedSymbol", symbol);
@@ -95,21 +77,22 @@ public class StockHistoryWebController {
      */
     @GetMapping("/stock/{stockId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public String showStockHistory(@PathVariable UUID stockId, Model model) {
+    public String showStockHistory(@PathVariable UUID stockId,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "100") int size,
+                                   Model model) {
         Stock stock = stockService.findById(stockId)
                 .orElseThrow(() -> new RuntimeException("Stock not found with id: " + stockId));
         
-        // Get history for this stock
-        List<StockHistory> stockHistories = new ArrayList<>(stockHistoryService.findAll().stream()
-            .filter(history -> history.getStock().getId().equals(stockId))
-            .sorted((h1, h2) -> h2.getTimestamp().compareTo(h1.getTimestamp())) // Latest first
-            .toList());
+        // Get history for this stock, latest first
+        CursorPage<StockHistory> stockHistories = stockHistoryService.findPage(stockId, cursor, size, Sort.Direction.DESC);
         
         // Get current price
         var currentPrice = stockPriceProvider.getPrice(stock.getSymbol());
         
         model.addAttribute("stock", stock);
-        model.addAttribute("stockHistories", stockHistories);
+        model.addAttribute("stockHistories", stockHistories.getContent());
+        model.addAttribute("nextCursor", stockHistories.getNextCursor());
         model.addAttribute("currentPrice", currentPrice.orElse(null));
         model.addAttribute("pageTitle", "Stock History - " + stock.getSymbol());
         
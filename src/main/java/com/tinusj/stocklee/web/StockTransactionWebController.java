@@ -1,13 +1,11 @@
 package com.tinusj.stocklee.web;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.StockTransaction;
 import com.tinusj.stocklee.entity.UserProfile;
 import com.tinusj.stocklee.service.StockTransactionService;
 import com.tinusj.stocklee.service.UserProfileService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -15,6 +13,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,15 +30,14 @@ public class StockTransactionWebController {
     private final UserProfileService userProfileService;
 
     /**
-     * List all stock transactions with pagination and filtering.
+     * List stock transactions with filtering, one keyset page at a time.
      * Regular users see only their own transactions, admins see all.
      */
     @GetMapping
     public String listTransactions(
             Authentication authentication,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "timestamp") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
             @RequestParam(required = false) UUID userId,
             @RequestParam(required = false) String transactionType,
@@ -57,39 +55,37 @@ public class StockTransactionWebController {
         boolean isAdmin = authentication.getAuthorities().stream()
                 .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
         
-        List<StockTransaction> transactions;
-        
+        UUID filterUserId;
         if (isAdmin) {
             // Admins can see all transactions or filter by user
-            if (userId != null) {
-                Optional<UserProfile> selectedUserOpt = userProfileService.findById(userId);
-                if (selectedUserOpt.isPresent()) {
-                    transactions = stockTransactionService.findByUser(selectedUserOpt.get());
-                } else {
-                    transactions = stockTransactionService.findAll();
-                }
-            } else {
-                transactions = stockTransactionService.findAll();
-            }
+            filterUserId = userId != null && userProfileService.findById(userId).isPresent() ? userId : null;
             // Get all users for admin filter dropdown
             List<UserProfile> users = userProfileService.findAll();
             model.addAttribute("users", users);
         } else {
             // Regular users see only their own transactions
-            transactions = stockTransactionService.findByUser(currentUser);
+            filterUserId = currentUser.getId();
         }
         
-        // Filter by transaction type if specified
+        // Filter by transaction type if specified; an unknown type matches nothing
+        StockTransaction.TransactionType type = null;
+        boolean unknownType = false;
         if (transactionType != null && !transactionType.isEmpty()) {
-            transactions = transactions.stream()
-                .filter(t -> t.getTransactionType().name().equalsIgnoreCase(transactionType))
-                .toList();
+            type = Arrays.stream(StockTransaction.TransactionType.values())
+                .filter(t -> t.name().equalsIgnoreCase(transactionType))
+                .findFirst()
+                .orElse(null);
+            unknownType = type == null;
         }
         
-        model.addAttribute("transactions", transactions);
-        model.addAttribute("currentPage", page);
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        CursorPage<StockTransaction> transactions = unknownType
+                ? new CursorPage<>(List.of(), null)
+                : stockTransactionService.findPage(filterUserId, type, cursor, size, direction);
+        
+        model.addAttribute("transactions", transactions.getContent());
+        model.addAttribute("nextCursor", transactions.getNextCursor());
         model.addAttribute("pageSize", size);
-        model.addAttribute("sortBy", sortBy);
         model.addAttribute("sortDir", sortDir);
         model.addAttribute("selectedUserId", userId);
         model.addAttribute("selectedTransactionType", transactionType);
@@ -0,0 +1,126 @@
+-- Baseline schema, matching the JPA entities, with indexes for the repositories' access paths.
+
+create table role (
+    id uuid not null,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table users (
+    id uuid not null,
+    username varchar(255) not null unique,
+    email varchar(255) not null unique,
+    password varchar(255) not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table user_roles (
+    user_id uuid not null,
+    role_id uuid not null,
+    primary key (role_id, user_id),
+    constraint fk_user_roles_user foreign key (user_id) references users (id),
+    constraint fk_user_roles_role foreign key (role_id) references role (id)
+);
+
+create table user_profile (
+    id uuid not null,
+    username varchar(255) not null unique,
+    email varchar(255) not null unique,
+    balance numeric(38,2),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table stock (
+    id uuid not null,
+    symbol varchar(255) not null unique,
+    name varchar(255) not null,
+    current_price numeric(38,2) not null,
+    previous_price numeric(38,2),
+    description varchar(500),
+    market varchar(255) not null check (market in ('NASDAQ','NYSE','LSE','OTHER')),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+-- Daily bars have a date and are unique per stock; intraday updates have only a timestamp
+create table stock_history (
+    id uuid not null,
+    stock_id uuid not null,
+    price numeric(38,2) not null,
+    open_price numeric(38,2),
+    high_price numeric(38,2),
+    low_price numeric(38,2),
+    close_price numeric(38,2),
+    volume bigint,
+    date date,
+    timestamp timestamp(6),
+    primary key (id),
+    constraint uk_stock_history_stock_date unique (stock_id, date),
+    constraint fk_stock_history_stock foreign key (stock_id) references stock (id)
+);
+
+-- Range scans by stock and date use uk_stock_history_stock_date
+create index idx_stock_history_stock_timestamp on stock_history (stock_id, timestamp);
+create index idx_stock_history_timestamp on stock_history (timestamp);
+
+create table owned_stock (
+    id uuid not null,
+    user_id uuid not null,
+    stock_id uuid not null,
+    quantity numeric(38,2) not null,
+    average_price numeric(38,2) not null,
+    total_value numeric(38,2) not null,
+    primary key (id),
+    constraint uk_owned_stock_user_stock unique (user_id, stock_id),
+    constraint fk_owned_stock_user foreign key (user_id) references user_profile (id),
+    constraint fk_owned_stock_stock foreign key (stock_id) references stock (id)
+);
+
+create index idx_owned_stock_stock on owned_stock (stock_id);
+
+create table stock_transaction (
+    id uuid not null,
+    stock_id uuid not null,
+    user_id uuid not null,
+    transaction_type varchar(255) not null check (transaction_type in ('BUY','SELL')),
+    quantity numeric(38,2) not null,
+    price numeric(38,2) not null,
+    total_value numeric(38,2) not null,
+    timestamp timestamp(6),
+    primary key (id),
+    constraint fk_stock_transaction_stock foreign key (stock_id) references stock (id),
+    constraint fk_stock_transaction_user foreign key (user_id) references user_profile (id)
+);
+
+create index idx_stock_transaction_user_timestamp on stock_transaction (user_id, timestamp);
+create index idx_stock_transaction_stock on stock_transaction (stock_id);
+create index idx_stock_transaction_timestamp on stock_transaction (timestamp);
+
+create table transaction_history (
+    id uuid not null,
+    transaction_id uuid not null,
+    status varchar(255) not null check (status in ('PENDING','COMPLETED','CANCELLED')),
+    timestamp timestamp(6),
+    primary key (id),
+    constraint fk_transaction_history_transaction foreign key (transaction_id) references stock_transaction (id)
+);
+
+create index idx_transaction_history_transaction on transaction_history (transaction_id);
+create index idx_transaction_history_timestamp on transaction_history (timestamp);
+
+create table history_log (
+    id uuid not null,
+    user_id uuid not null,
+    action varchar(500) not null,
+    timestamp timestamp(6),
+    primary key (id),
+    constraint fk_history_log_user foreign key (user_id) references user_profile (id)
+);
+
+create index idx_history_log_user_timestamp on history_log (user_id, timestamp);
+create index idx_history_log_timestamp on history_log (timestamp);
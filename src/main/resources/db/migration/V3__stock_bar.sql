@@ -0,0 +1,19 @@
+-- OHLC bars rolled up from stock_tick at 1m, 5m, 1h and 1d, upserted as ticks are written.
+-- Bars are kept after the ticks they summarise expire; rollups start with the first ticks written after this migration.
+
+create table stock_bar (
+    id uuid not null,
+    stock_id uuid not null,
+    resolution varchar(255) not null check (resolution in ('MINUTE_1','MINUTE_5','HOUR_1','DAY_1')),
+    bucket_start timestamp(6) not null,
+    open_price numeric(38,2) not null,
+    high_price numeric(38,2) not null,
+    low_price numeric(38,2) not null,
+    close_price numeric(38,2) not null,
+    volume bigint,
+    tick_count integer not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_stock_bar_stock_resolution_start unique (stock_id, resolution, bucket_start),
+    constraint fk_stock_bar_stock foreign key (stock_id) references stock (id)
+);
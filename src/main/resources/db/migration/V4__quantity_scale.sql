@@ -0,0 +1,5 @@
+-- Share quantities are fractional to four places; the baseline declared them with two, rounding every holding.
+
+alter table owned_stock alter column quantity set data type numeric(38,4);
+
+alter table stock_transaction alter column quantity set data type numeric(38,4);
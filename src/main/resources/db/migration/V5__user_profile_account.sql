@@ -0,0 +1,10 @@
+-- Links each profile to the login it belongs to, so an authenticated user is found by the email they sign in
+-- with rather than by the profile's own, editable, email.
+
+alter table user_profile add column account_id uuid;
+
+alter table user_profile add constraint uk_user_profile_account unique (account_id);
+
+alter table user_profile add constraint fk_user_profile_account foreign key (account_id) references users (id);
+
+update user_profile set account_id = (select u.id from users u where u.email = user_profile.email);
@@ -211,10 +211,16 @@ function connectWebSocket() {
             console.log('Connected to WebSocket: ' + frame);
             updateWebSocketStatus('connected');
             
-            // Subscribe to general stock price updates
-            stompClient.subscribe('/topic/stock-prices', function (priceUpdate) {
-                const update = JSON.parse(priceUpdate.body);
-                updateStockPriceInUI(update);
+            // Subscribe to general stock price updates, sent as one batch per refresh
+            stompClient.subscribe('/topic/stock-prices', function (priceUpdates) {
+                const updates = JSON.parse(priceUpdates.body);
+                updates.forEach(updateStockPriceInUI);
+            });
+
+            // Subscribe to this user's portfolio updates, valued by the server
+            stompClient.subscribe('/user/queue/portfolio', function (portfolioUpdate) {
+                const update = JSON.parse(portfolioUpdate.body);
+                updatePortfolioInUI(update);
             });
         };
 
@@ -252,12 +258,11 @@ function updateWebSocketStatus(status) {
  */
 function updateStockPriceInUI(priceUpdate) {
     try {
-        // Update current price in portfolio table
+        // Update current price in portfolio table; values and totals arrive with the portfolio update
         const portfolioRows = document.querySelectorAll('tbody tr');
         portfolioRows.forEach(row => {
             const symbolElement = row.querySelector('strong');
             if (symbolElement && symbolElement.textContent === priceUpdate.symbol) {
-                // Update current price
                 const currentPriceCell = row.cells[3]; // Current Price column
                 if (currentPriceCell) {
                     currentPriceCell.textContent = '$' + parseFloat(priceUpdate.currentPrice).toFixed(2);
@@ -269,15 +274,9 @@ function updateStockPriceInUI(priceUpdate) {
                     } else if (priceUpdate.priceChange < 0) {
                         currentPriceCell.classList.add('text-danger', 'price-change');
                     }
-                    
-                    // Update current value and profit/loss calculations
-                    updateRowCalculations(row, priceUpdate.currentPrice);
                 }
             }
         });
-
-        // Update portfolio summary totals
-        updatePortfolioSummary();
         
         console.log('Updated price for ' + priceUpdate.symbol + ': $' + priceUpdate.currentPrice);
     } catch (error) {
@@ -286,65 +285,60 @@ function updateStockPriceInUI(priceUpdate) {
 }
 
 /**
- * Update row calculations for current value and profit/loss
+ * Apply a portfolio update: the repriced holdings and the new totals
+ */
+function updatePortfolioInUI(portfolioUpdate) {
+    try {
+        (portfolioUpdate.changedStocks || []).forEach(stock => {
+            const row = document.querySelector(`tbody tr[data-owned-stock-id="${stock.id}"]`);
+            if (row) {
+                updateRowValues(row, stock);
+            }
+        });
+        updatePortfolioSummary(portfolioUpdate);
+    } catch (error) {
+        console.error('Error updating portfolio in UI:', error);
+    }
+}
+
+/**
+ * Update a holding's row with its current price, value and profit/loss
  */
-function updateRowCalculations(row, currentPrice) {
+function updateRowValues(row, stock) {
     try {
-        const quantityText = row.cells[1].textContent;
-        const quantity = parseFloat(quantityText);
-        const newCurrentValue = quantity * currentPrice;
+        const currentPriceCell = row.cells[3]; // Current Price column
+        if (currentPriceCell) {
+            currentPriceCell.textContent = '$' + parseFloat(stock.currentPrice).toFixed(2);
+        }
+        
         const currentValueCell = row.cells[5]; // Current Value column
         if (currentValueCell) {
-            currentValueCell.textContent = '$' + newCurrentValue.toFixed(2);
+            currentValueCell.textContent = '$' + parseFloat(stock.currentValue).toFixed(2);
         }
         
-        // Update profit/loss
-        const investmentText = row.cells[4].textContent.replace('$', '');
-        const investment = parseFloat(investmentText);
-        const profitLoss = newCurrentValue - investment;
-        const profitLossPercentage = investment > 0 ? (profitLoss / investment) * 100 : 0;
-        
         const profitLossCell = row.cells[6]; // Profit/Loss column
         if (profitLossCell) {
-            profitLossCell.innerHTML = `
-                <span class="${profitLoss >= 0 ? 'text-success' : 'text-danger'}">
-                    ${profitLoss >= 0 ? '+' : '-'}$${Math.abs(profitLoss).toFixed(2)}
-                    <br>
-                    <small>(${profitLossPercentage.toFixed(2)}%)</small>
-                </span>
-            `;
+            profitLossCell.innerHTML = formatProfitLoss(parseFloat(stock.profitLoss), parseFloat(stock.profitLossPercentage));
         }
     } catch (error) {
-        console.error('Error updating row calculations:', error);
+        console.error('Error updating row values:', error);
     }
 }
 
 /**
- * Update portfolio summary totals
+ * Update portfolio summary cards with the totals of a portfolio update
  */
-function updatePortfolioSummary() {
+function updatePortfolioSummary(portfolioUpdate) {
     try {
-        // Recalculate portfolio totals
-        let totalCurrentValue = 0;
-        let totalInvestment = 0;
-        
-        const portfolioRows = document.querySelectorAll('tbody tr');
-        portfolioRows.forEach(row => {
-            const currentValueText = row.cells[5].textContent.replace('$', '');
-            const investmentText = row.cells[4].textContent.replace('$', '');
-            totalCurrentValue += parseFloat(currentValueText) || 0;
-            totalInvestment += parseFloat(investmentText) || 0;
-        });
-        
         // Update Current Value card
         const currentValueCard = document.querySelector('.bg-secondary .card-body h4');
         if (currentValueCard) {
-            currentValueCard.textContent = '$' + totalCurrentValue.toFixed(2);
+            currentValueCard.textContent = '$' + parseFloat(portfolioUpdate.currentValue).toFixed(2);
         }
         
         // Update Profit/Loss card
-        const profitLoss = totalCurrentValue - totalInvestment;
-        const profitLossPercentage = totalInvestment > 0 ? (profitLoss / totalInvestment) * 100 : 0;
+        const profitLoss = parseFloat(portfolioUpdate.profitLoss);
+        const profitLossPercentage = parseFloat(portfolioUpdate.profitLossPercentage);
         
         const profitLossCard = document.querySelector('.bg-success .card-body, .bg-danger .card-body');
         if (profitLossCard) {
@@ -373,6 +367,19 @@ function updatePortfolioSummary() {
     }
 }
 
+/**
+ * Format a profit/loss amount and percentage as shown in the portfolio table
+ */
+function formatProfitLoss(profitLoss, profitLossPercentage) {
+    return `
+        <span class="${profitLoss >= 0 ? 'text-success' : 'text-danger'}">
+            ${profitLoss >= 0 ? '+' : '-'}$${Math.abs(profitLoss).toFixed(2)}
+            <br>
+            <small>(${profitLossPercentage.toFixed(2)}%)</small>
+        </span>
+    `;
+}
+
 /**
  * Show error message to user
  */
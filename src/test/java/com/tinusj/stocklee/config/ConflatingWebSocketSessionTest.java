@@ -0,0 +1,175 @@
+package com.tinusj.stocklee.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for ConflatingWebSocketSession.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConflatingWebSocketSessionTest {
+
+    @Mock
+    private WebSocketSession delegate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private ConflatingWebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        session = new ConflatingWebSocketSession(delegate, tasks::add, objectMapper, "/topic/stock-prices",
+                4096, 10_000);
+    }
+
+    @Test
+    void testSendMessage_QueuedPriceFrames_ConflatedToLatestPerSymbol() throws Exception {
+        // Given
+        session.sendMessage(frame("/topic/stock-prices", "sub-0",
+                "[" + update("AAPL", "150.00") + "," + update("MSFT", "300.00") + "]"));
+        session.sendMessage(frame("/user/queue/portfolio", "sub-1", "{\"currentValue\":750.00}"));
+        session.sendMessage(frame("/topic/stock-prices", "sub-0", "[" + update("AAPL", "151.00") + "]"));
+        session.sendMessage(frame("/topic/stock-prices/aapl", "sub-2", update("AAPL", "151.00")));
+        session.sendMessage(frame("/topic/stock-prices/aapl", "sub-2", update("AAPL", "152.00")));
+
+        // When
+        runTasks();
+
+        // Then
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(delegate, times(3)).sendMessage(sent.capture());
+        List<Message<byte[]>> frames = sent.getAllValues().stream()
+                .map(this::decode)
+                .toList();
+        assertThat(frames).extracting(frame -> StompHeaderAccessor.wrap(frame).getDestination())
+                .containsExactly("/topic/stock-prices", "/user/queue/portfolio", "/topic/stock-prices/aapl");
+        assertThat(objectMapper.readTree(frames.get(0).getPayload()))
+                .isEqualTo(objectMapper.readTree("[" + update("AAPL", "151.00") + "," + update("MSFT", "300.00") + "]"));
+        assertThat(objectMapper.readTree(frames.get(2).getPayload()))
+                .isEqualTo(objectMapper.readTree(update("AAPL", "152.00")));
+        assertThat(session.getBufferSize()).isZero();
+    }
+
+    @Test
+    void testSendMessage_BufferSizeLimitExceeded_ClosesSession() throws Exception {
+        // Given
+        String portfolio = "{\"currentValue\":750.00,\"padding\":\"" + "x".repeat(1000) + "\"}";
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            session.sendMessage(frame("/user/queue/portfolio", "sub-1", portfolio));
+        }
+        runTasks();
+
+        // Then
+        verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+        verify(delegate, never()).sendMessage(any());
+        assertThat(session.getBufferSize()).isZero();
+    }
+
+    @Test
+    void testSendMessage_BlockedSession_DoesNotHoldUpOthersAndIsClosedOnceOverTimeLimit() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        WebSocketSession fastDelegate = mock(WebSocketSession.class);
+        CountDownLatch fastSent = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            unblock.await();
+            return null;
+        }).when(delegate).sendMessage(any());
+        doAnswer(invocation -> {
+            fastSent.countDown();
+            return null;
+        }).when(fastDelegate).sendMessage(any());
+        ConflatingWebSocketSession slow = new ConflatingWebSocketSession(delegate, executor, objectMapper,
+                "/topic/stock-prices", 4096, 50);
+        ConflatingWebSocketSession fast = new ConflatingWebSocketSession(fastDelegate, executor, objectMapper,
+                "/topic/stock-prices", 4096, 50);
+
+        try {
+            // When
+            slow.sendMessage(frame("/topic/stock-prices", "sub-0", "[" + update("AAPL", "150.00") + "]"));
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+            fast.sendMessage(frame("/topic/stock-prices", "sub-0", "[" + update("AAPL", "150.00") + "]"));
+
+            // Then
+            assertThat(fastSent.await(5, TimeUnit.SECONDS)).isTrue();
+            verify(delegate, never()).close(any());
+
+            // When - no further frame arrives for the blocked session
+            Thread.sleep(100);
+            slow.checkSendTime();
+
+            // Then
+            verify(delegate).close(CloseStatus.SESSION_NOT_RELIABLE);
+            verify(fastDelegate, never()).close(any());
+        } finally {
+            unblock.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static String update(String symbol, String price) {
+        return "{\"symbol\":\"" + symbol + "\",\"currentPrice\":" + price + "}";
+    }
+
+    private static TextMessage frame(String destination, String subscription, String body) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        headers.setDestination(destination);
+        headers.setSubscriptionId(subscription);
+        headers.setMessageId("1");
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        byte[] frame = new StompEncoder().encode(
+                MessageBuilder.createMessage(body.getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders()));
+        return new TextMessage(frame);
+    }
+
+    private Message<byte[]> decode(WebSocketMessage<?> message) {
+        ByteBuffer frame = ByteBuffer.wrap(((TextMessage) message).asBytes());
+        return new StompDecoder().decode(frame).get(0);
+    }
+}
@@ -1,8 +1,12 @@
 package com.tinusj.stocklee.controller;
 
 import com.tinusj.stocklee.dto.HistoricalStockDataDto;
+import com.tinusj.stocklee.dto.StockBarDto;
 import com.tinusj.stocklee.entity.Stock;
-import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.StockBar;
+import com.tinusj.stocklee.enums.BarResolution;
+import com.tinusj.stocklee.enums.ExportFormat;
+import com.tinusj.stocklee.service.ExportService;
 import com.tinusj.stocklee.service.StockHistoryService;
 import com.tinusj.stocklee.service.StockService;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +15,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -37,11 +46,14 @@ class StockControllerHistoricalTest {
     @Mock
     private StockHistoryService stockHistoryService;
 
+    @Mock
+    private ExportService exportService;
+
     @InjectMocks
     private StockController stockController;
 
     private Stock testStock;
-    private List<StockHistory> testHistoricalData;
+    private List<HistoricalStockDataDto> testHistoricalData;
 
     @BeforeEach
     void setUp() {
@@ -52,8 +64,8 @@ class StockControllerHistoricalTest {
         testStock.setMarket(Stock.MarketType.NASDAQ);
 
         testHistoricalData = Arrays.asList(
-            createStockHistory(testStock, LocalDate.now().minusDays(1)),
-            createStockHistory(testStock, LocalDate.now().minusDays(2))
+            createDailyBar(LocalDate.now().minusDays(1)),
+            createDailyBar(LocalDate.now().minusDays(2))
         );
     }
 
@@ -64,7 +76,7 @@ class StockControllerHistoricalTest {
         LocalDate fromDate = LocalDate.now().minusDays(5);
         LocalDate toDate = LocalDate.now();
 
-        when(stockHistoryService.getHistoricalData(symbol, fromDate, toDate))
+        when(stockHistoryService.getDailyBars(symbol, fromDate, toDate))
             .thenReturn(testHistoricalData);
 
         // When
@@ -80,7 +92,7 @@ class StockControllerHistoricalTest {
         assertThat(firstDto.getOpenPrice()).isEqualTo(new BigDecimal("145.00"));
         assertThat(firstDto.getClosePrice()).isEqualTo(new BigDecimal("149.00"));
         
-        verify(stockHistoryService).getHistoricalData(symbol, fromDate, toDate);
+        verify(stockHistoryService).getDailyBars(symbol, fromDate, toDate);
     }
 
     @Test
@@ -89,7 +101,7 @@ class StockControllerHistoricalTest {
         String symbol = "AAPL";
         int days = 5;
         
-        when(stockHistoryService.getHistoricalData(eq(symbol), any(LocalDate.class), any(LocalDate.class)))
+        when(stockHistoryService.getDailyBars(eq(symbol), any(LocalDate.class), any(LocalDate.class)))
             .thenReturn(testHistoricalData);
 
         // When
@@ -100,7 +112,7 @@ class StockControllerHistoricalTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).hasSize(2);
         
-        verify(stockHistoryService).getHistoricalData(eq(symbol), any(LocalDate.class), any(LocalDate.class));
+        verify(stockHistoryService).getDailyBars(eq(symbol), any(LocalDate.class), any(LocalDate.class));
     }
 
     @Test
@@ -175,9 +187,79 @@ class StockControllerHistoricalTest {
         verify(stockService).findBySymbol(symbol);
     }
 
-    private StockHistory createStockHistory(Stock stock, LocalDate date) {
-        StockHistory history = new StockHistory(
-            stock,
+    @Test
+    void testExportHistoricalData_Csv_StreamsFromExportService() throws Exception {
+        // Given
+        LocalDate fromDate = LocalDate.now().minusYears(3);
+        LocalDate toDate = LocalDate.now();
+
+        // When
+        ResponseEntity<StreamingResponseBody> response =
+            stockController.exportHistoricalData("aapl", fromDate, toDate, "CSV");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("text/csv"));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+            .contains("attachment").contains("AAPL-history.csv");
+        verify(exportService).exportDailyBars("AAPL", fromDate, toDate, ExportFormat.CSV, out);
+        verifyNoInteractions(stockHistoryService);
+    }
+
+    @Test
+    void testExportHistoricalData_UnknownFormat_ReturnsBadRequest() {
+        // When
+        ResponseEntity<StreamingResponseBody> response =
+            stockController.exportHistoricalData("AAPL", LocalDate.now().minusDays(5), LocalDate.now(), "xml");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(exportService);
+    }
+
+    @Test
+    void testGetBars_WithResolution_ReturnsBarsAtThatResolution() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2026, 10, 16, 9, 30);
+        LocalDateTime to = from.plusHours(1);
+        StockBar bar = new StockBar();
+        bar.setResolution(BarResolution.MINUTE_5);
+        bar.setBucketStart(from);
+        bar.setOpenPrice(new BigDecimal("150.00"));
+        bar.setClosePrice(new BigDecimal("151.00"));
+        when(stockHistoryService.getHistoricalData("AAPL", from, to, BarResolution.MINUTE_5)).thenReturn(List.of(bar));
+
+        // When
+        ResponseEntity<List<StockBarDto>> response = stockController.getBars("aapl", from, to, "5m");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).singleElement().satisfies(dto -> {
+            assertThat(dto.getSymbol()).isEqualTo("AAPL");
+            assertThat(dto.getResolution()).isEqualTo("5m");
+            assertThat(dto.getStart()).isEqualTo(from);
+            assertThat(dto.getClosePrice()).isEqualByComparingTo("151.00");
+        });
+    }
+
+    @Test
+    void testGetBars_UnknownResolutionOrEmptyRange_ReturnsBadRequest() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2026, 10, 16, 9, 30);
+
+        // When / Then
+        assertThat(stockController.getBars("AAPL", from, from.plusHours(1), "2m").getStatusCode())
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(stockController.getBars("AAPL", from, from, null).getStatusCode())
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(stockHistoryService);
+    }
+
+    private HistoricalStockDataDto createDailyBar(LocalDate date) {
+        return new HistoricalStockDataDto(
+            "AAPL",
             date,
             new BigDecimal("145.00"),
             new BigDecimal("150.00"),
@@ -185,6 +267,5 @@ class StockControllerHistoricalTest {
             new BigDecimal("149.00"),
             1000000L
         );
-        return history;
     }
-}
\ No newline at end of file
+}
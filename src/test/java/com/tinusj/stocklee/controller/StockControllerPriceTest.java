@@ -2,6 +2,7 @@ package com.tinusj.stocklee.controller;
 
 import com.tinusj.stocklee.config.TestSecurityConfig;
 import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.service.ExportService;
 import com.tinusj.stocklee.service.StockService;
 import com.tinusj.stocklee.service.StockHistoryService;
 import org.junit.jupiter.api.Test;
@@ -36,6 +37,9 @@ class StockControllerPriceTest {
     @MockBean
     private StockHistoryService stockHistoryService;
 
+    @MockBean
+    private ExportService exportService;
+
     @Test
     void testGetCurrentPrice_Success() throws Exception {
         // Arrange - Mock existing stock in database
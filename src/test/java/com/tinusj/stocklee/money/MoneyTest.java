@@ -0,0 +1,139 @@
+package com.tinusj.stocklee.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for Money and Quantity: every operation must give exactly the {@link BigDecimal} result,
+ * scale included, over randomly drawn operands.
+ */
+class MoneyTest {
+
+    private static final int SAMPLES = 100_000;
+
+    private final Random random = new Random(20261018L);
+
+    @Test
+    void testOf_RoundsHalfUpLikeSetScale() {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong() / 100_000, random.nextInt(9));
+
+            assertThat(Money.of(amount).toBigDecimal()).isEqualTo(amount.setScale(Money.SCALE, RoundingMode.HALF_UP));
+            assertThat(Quantity.of(amount).toBigDecimal())
+                    .isEqualTo(amount.setScale(Quantity.SCALE, RoundingMode.HALF_UP));
+        }
+        assertThat(Money.of(null)).isNull();
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e30"))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void testTimes_MatchesBigDecimalMultiplyRoundedToCents() {
+        for (int i = 0; i < SAMPLES; i++) {
+            Money price = Money.ofCents(operand());
+            Quantity quantity = Quantity.ofUnits(operand());
+            BigDecimal expected = price.toBigDecimal().multiply(quantity.toBigDecimal())
+                    .setScale(Money.SCALE, RoundingMode.HALF_UP);
+            if (fitsInCents(expected)) {
+                assertThat(price.times(quantity).toBigDecimal()).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void testDividedByAndSharesAt_MatchBigDecimalDivide() {
+        for (int i = 0; i < SAMPLES; i++) {
+            Money amount = Money.ofCents(operand());
+            Quantity quantity = Quantity.ofUnits(nonZero());
+            Money price = Money.ofCents(nonZero());
+
+            BigDecimal averagePrice = amount.toBigDecimal()
+                    .divide(quantity.toBigDecimal(), Money.SCALE, RoundingMode.HALF_UP);
+            if (fitsInCents(averagePrice)) {
+                assertThat(amount.dividedBy(quantity).toBigDecimal()).isEqualTo(averagePrice);
+            }
+            BigDecimal shares = amount.toBigDecimal().divide(price.toBigDecimal(), Quantity.SCALE, RoundingMode.DOWN);
+            if (shares.unscaledValue().bitLength() < Long.SIZE) {
+                assertThat(amount.sharesAt(price).toBigDecimal()).isEqualTo(shares);
+            }
+        }
+        assertThatThrownBy(() -> Money.ofCents(100).sharesAt(Money.ZERO)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void testDivide_EveryRoundingModeMatchesBigDecimal() {
+        for (int i = 0; i < SAMPLES; i++) {
+            long dividend = random.nextBoolean() ? random.nextLong() : random.nextInt(2_001) - 1_000;
+            long divisor = random.nextBoolean() ? nonZero() : random.nextInt(20) + 1;
+            for (RoundingMode mode : RoundingMode.values()) {
+                BigDecimal expected;
+                try {
+                    expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, mode);
+                } catch (ArithmeticException e) {
+                    assertThatThrownBy(() -> FixedPoint.divide(dividend, divisor, mode))
+                            .isInstanceOf(ArithmeticException.class);
+                    continue;
+                }
+                assertThat(FixedPoint.divide(dividend, divisor, mode)).isEqualTo(expected.longValueExact());
+            }
+        }
+    }
+
+    @Test
+    void testPlusAndMinus_AreExact() {
+        for (int i = 0; i < SAMPLES; i++) {
+            Money a = Money.ofCents(operand());
+            Money b = Money.ofCents(operand());
+
+            assertThat(a.plus(b).toBigDecimal()).isEqualTo(a.toBigDecimal().add(b.toBigDecimal()));
+            assertThat(a.minus(b).toBigDecimal()).isEqualTo(a.toBigDecimal().subtract(b.toBigDecimal()));
+            assertThat(a.compareTo(b)).isEqualTo(a.toBigDecimal().compareTo(b.toBigDecimal()));
+        }
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void testJsonMapping_RoundTripsAsDecimals() throws Exception {
+        // Given
+        ObjectMapper mapper = new ObjectMapper();
+        Money price = Money.of(new BigDecimal("150.25"));
+        Quantity quantity = Quantity.of(new BigDecimal("2.5"));
+
+        // When
+        String json = mapper.writeValueAsString(Map.of("price", price, "quantity", quantity));
+
+        // Then
+        assertThat(json).contains("\"price\":150.25").contains("\"quantity\":2.5000");
+        assertThat(mapper.readValue("150.25", Money.class)).isEqualTo(price);
+        assertThat(mapper.readValue("2.5", Quantity.class)).isEqualTo(quantity);
+    }
+
+    /**
+     * Mostly realistic amounts, with a share of operands large enough to overflow a {@code long} product.
+     */
+    private long operand() {
+        return switch (random.nextInt(4)) {
+            case 0 -> random.nextInt(2_000_001) - 1_000_000;
+            case 1 -> random.nextLong() % 100_000_000_000L;
+            case 2 -> random.nextLong() % 10_000_000_000_000_000L;
+            default -> random.nextInt(201) - 100;
+        };
+    }
+
+    private long nonZero() {
+        long operand = operand();
+        return operand == 0 ? 1 : operand;
+    }
+
+    private static boolean fitsInCents(BigDecimal amount) {
+        return amount.unscaledValue().bitLength() < Long.SIZE;
+    }
+}
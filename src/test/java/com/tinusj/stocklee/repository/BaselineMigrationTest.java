@@ -0,0 +1,29 @@
+package com.tinusj.stocklee.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the migrations match the JPA entities: the context only starts if
+ * Hibernate validates every mapped table and column against the migrated schema.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/migration/V1__baseline_schema.sql,"
+                + "classpath:db/vendor/h2/V2__stock_tick.sql,classpath:db/migration/V3__stock_bar.sql,"
+                + "classpath:db/migration/V4__quantity_scale.sql,classpath:db/migration/V5__user_profile_account.sql"
+})
+class BaselineMigrationTest {
+
+    @Autowired
+    private StockHistoryRepository stockHistoryRepository;
+
+    @Test
+    void testEntitiesValidateAgainstMigratedSchema() {
+        assertThat(stockHistoryRepository.count()).isZero();
+    }
+}
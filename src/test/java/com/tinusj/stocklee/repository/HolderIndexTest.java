@@ -0,0 +1,163 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.entity.OwnedStock;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.UserProfile;
+import com.tinusj.stocklee.money.Quantity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for HolderIndex against the embedded database.
+ */
+@DataJpaTest
+@Import(HolderIndex.class)
+class HolderIndexTest {
+
+    @Autowired
+    private HolderIndex holderIndex;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testRebuild_IndexesStoredPositionsBySymbol() {
+        // Given
+        Stock apple = persistStock("AAPL");
+        Stock microsoft = persistStock("MSFT");
+        List<UserProfile> users = IntStream.range(0, 3).mapToObj(i -> persistUser("user" + i)).toList();
+        persistHolding(users.get(0), apple, "10.5");
+        persistHolding(users.get(1), apple, "0.0001");
+        persistHolding(users.get(2), microsoft, "3");
+        entityManager.flush();
+
+        // When
+        int indexed = holderIndex.rebuild();
+
+        // Then
+        assertThat(indexed).isEqualTo(3);
+        Map<UUID, Long> appleHolders = new HashMap<>();
+        assertThat(holderIndex.forEachHolder("AAPL", appleHolders::put)).isEqualTo(2);
+        assertThat(appleHolders).containsOnly(Map.entry(users.get(0).getId(), 105_000L),
+                Map.entry(users.get(1).getId(), 1L));
+        assertThat(holderIndex.holders("MSFT")).isEqualTo(1);
+        assertThat(holderIndex.holders("TSLA")).isZero();
+    }
+
+    @Test
+    void testRecordPosition_AppliesOnCommitAndRemovesOnZero() {
+        // Given
+        UUID userId = UUID.randomUUID();
+
+        // When
+        holderIndex.recordPosition("NVDA", userId, Quantity.of(new BigDecimal("2")));
+        holderIndex.recordPosition("NVDA", userId, Quantity.of(new BigDecimal("5")));
+
+        // Then
+        assertThat(holderIndex.holders("NVDA")).isZero();
+        commit();
+        assertThat(holderIndex.quantity("NVDA", userId)).isEqualTo(50_000L);
+        holderIndex.recordPosition("NVDA", userId, Quantity.ZERO);
+        commit();
+        assertThat(holderIndex.holders("NVDA")).isZero();
+    }
+
+    @Test
+    void testRenameSymbol_MovesHoldersOnCommit() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        holderIndex.recordPosition("FB", userId, Quantity.of(new BigDecimal("4")));
+        commit();
+
+        // When
+        holderIndex.renameSymbol("FB", "META");
+
+        // Then
+        assertThat(holderIndex.holders("META")).isZero();
+        commit();
+        assertThat(holderIndex.holders("FB")).isZero();
+        assertThat(holderIndex.quantity("META", userId)).isEqualTo(40_000L);
+        holderIndex.recordPosition("META", userId, Quantity.ZERO);
+        commit();
+        assertThat(holderIndex.holders("META")).isZero();
+    }
+
+    @Test
+    void testPositionTable_MatchesHashMapUnderRandomUpdates() {
+        // Given
+        Random random = new Random(23L);
+        List<UUID> users = IntStream.range(0, 2_000).mapToObj(i -> UUID.randomUUID()).toList();
+        PositionTable table = new PositionTable(0);
+        Map<UUID, Long> expected = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            UUID userId = users.get(random.nextInt(users.size()));
+            long units = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1_000_000);
+            table.put(userId, units);
+            if (units == 0) {
+                expected.remove(userId);
+            } else {
+                expected.put(userId, units);
+            }
+        }
+
+        // Then
+        Map<UUID, Long> actual = new HashMap<>();
+        table.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(table.size()).isEqualTo(expected.size());
+        users.forEach(userId -> assertThat(table.get(userId)).isEqualTo(expected.getOrDefault(userId, 0L)));
+    }
+
+    /**
+     * Run the callbacks the test transaction registered, as its commit would.
+     */
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private Stock persistStock(String symbol) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setName(symbol + " Inc.");
+        stock.setCurrentPrice(new BigDecimal("100.00"));
+        stock.setMarket(Stock.MarketType.NASDAQ);
+        return entityManager.persist(stock);
+    }
+
+    private UserProfile persistUser(String username) {
+        UserProfile user = new UserProfile();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return entityManager.persist(user);
+    }
+
+    private void persistHolding(UserProfile user, Stock stock, String quantity) {
+        OwnedStock ownedStock = new OwnedStock();
+        ownedStock.setUser(user);
+        ownedStock.setStock(stock);
+        ownedStock.setQuantity(new BigDecimal(quantity));
+        ownedStock.setAveragePrice(new BigDecimal("100.00"));
+        ownedStock.setTotalValue(new BigDecimal("100.00"));
+        entityManager.persist(ownedStock);
+    }
+}
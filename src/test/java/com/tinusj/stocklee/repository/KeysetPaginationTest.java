@@ -0,0 +1,168 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.dto.CursorPage;
+import com.tinusj.stocklee.entity.HistoryLog;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.UserProfile;
+import com.tinusj.stocklee.service.KeysetCursor;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the keyset-paginated repository queries and their cursor tokens.
+ */
+@DataJpaTest
+class KeysetPaginationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 16, 9, 30);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StockHistoryRepository stockHistoryRepository;
+
+    @Autowired
+    private HistoryLogRepository historyLogRepository;
+
+    private Stock apple;
+    private Stock microsoft;
+    private UserProfile user;
+
+    @BeforeEach
+    void setUp() {
+        apple = entityManager.persist(stock("AAPL"));
+        microsoft = entityManager.persist(stock("MSFT"));
+        user = new UserProfile();
+        user.setUsername("trader");
+        user.setEmail("trader@example.com");
+        user = entityManager.persist(user);
+        UserProfile other = new UserProfile();
+        other.setUsername("other");
+        other.setEmail("other@example.com");
+        other = entityManager.persist(other);
+
+        // Rows three and four share a timestamp, so the id has to break the tie
+        for (int i = 0; i < 7; i++) {
+            LocalDateTime timestamp = START.plusMinutes(i == 4 ? 3 : i);
+            history(apple, timestamp);
+            history(microsoft, timestamp);
+            log(i % 2 == 0 ? user : other, timestamp);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindByStockId_PagesThroughEveryRowOnceInOrder() {
+        // When
+        List<StockHistory> seen = new ArrayList<>();
+        List<CursorPage<StockHistory>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<StockHistory> page = KeysetCursor.page(
+                    stockHistoryRepository.findByStockId(apple.getId(), KeysetCursor.decode(cursor),
+                            KeysetCursor.limit(3), KeysetCursor.sort(Sort.Direction.DESC)),
+                    StockHistory::getTimestamp, StockHistory::getId);
+            pages.add(page);
+            seen.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertThat(pages).extracting(page -> page.getContent().size()).containsExactly(3, 3, 1);
+        assertThat(seen).extracting(row -> row.getStock().getId()).containsOnly(apple.getId());
+        assertThat(seen).extracting(StockHistory::getTimestamp).hasSize(7)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(seen).extracting(StockHistory::getId).doesNotHaveDuplicates();
+        assertThat(Hibernate.isInitialized(seen.get(0).getStock())).isTrue();
+    }
+
+    @Test
+    void testFindAllBy_AscendingStartsWithOldestRows() {
+        // When
+        CursorPage<StockHistory> page = KeysetCursor.page(
+                stockHistoryRepository.findAllBy(KeysetCursor.decode(null), KeysetCursor.limit(4),
+                        KeysetCursor.sort(Sort.Direction.ASC)),
+                StockHistory::getTimestamp, StockHistory::getId);
+
+        // Then
+        assertThat(page.getContent()).hasSize(4)
+                .extracting(StockHistory::getTimestamp)
+                .containsExactly(START, START, START.plusMinutes(1), START.plusMinutes(1));
+        assertThat(page.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void testFindByUserId_PagesOnlyThatUsersLogs() {
+        // When
+        CursorPage<HistoryLog> first = KeysetCursor.page(
+                historyLogRepository.findByUserId(user.getId(), KeysetCursor.decode(null), KeysetCursor.limit(3),
+                        KeysetCursor.sort(Sort.Direction.DESC)),
+                HistoryLog::getTimestamp, HistoryLog::getId);
+        CursorPage<HistoryLog> second = KeysetCursor.page(
+                historyLogRepository.findByUserId(user.getId(), KeysetCursor.decode(first.getNextCursor()),
+                        KeysetCursor.limit(3), KeysetCursor.sort(Sort.Direction.DESC)),
+                HistoryLog::getTimestamp, HistoryLog::getId);
+
+        // Then
+        assertThat(first.getContent()).extracting(HistoryLog::getTimestamp)
+                .containsExactly(START.plusMinutes(6), START.plusMinutes(3), START.plusMinutes(2));
+        assertThat(second.getContent()).extracting(HistoryLog::getTimestamp)
+                .containsExactly(START);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testDecode_RejectsTokensNotIssuedByEncode() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(KeysetCursor.decode(KeysetCursor.encode(START, UUID.randomUUID()))).isNotNull();
+    }
+
+    private Stock stock(String symbol) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setName(symbol);
+        stock.setCurrentPrice(new BigDecimal("100.00"));
+        stock.setMarket(Stock.MarketType.NASDAQ);
+        return stock;
+    }
+
+    private void history(Stock stock, LocalDateTime timestamp) {
+        StockHistory row = entityManager.persistAndFlush(new StockHistory(stock, new BigDecimal("100.00")));
+        entityManager.getEntityManager()
+                .createQuery("UPDATE StockHistory sh SET sh.timestamp = :timestamp WHERE sh.id = :id")
+                .setParameter("timestamp", timestamp)
+                .setParameter("id", row.getId())
+                .executeUpdate();
+    }
+
+    private void log(UserProfile owner, LocalDateTime timestamp) {
+        HistoryLog log = new HistoryLog();
+        log.setUser(owner);
+        log.setAction("Logged in");
+        log = entityManager.persistAndFlush(log);
+        entityManager.getEntityManager()
+                .createQuery("UPDATE HistoryLog hl SET hl.timestamp = :timestamp WHERE hl.id = :id")
+                .setParameter("timestamp", timestamp)
+                .setParameter("id", log.getId())
+                .executeUpdate();
+    }
+}
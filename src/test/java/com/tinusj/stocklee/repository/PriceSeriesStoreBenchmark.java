@@ -0,0 +1,138 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.dto.HistoricalStockDataDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares a historical data request answered through JPA, as {@code StockController.getHistoricalData}
+ * did, with the same request answered by the {@link PriceSeriesStore}.
+ * <p>
+ * The JPA path runs in a read-only transaction, materialises each bar as a {@code StockHistory} with
+ * its stock, and maps it to a DTO; the store path searches the in-memory series. Both run against
+ * in-process H2, so the JPA figures leave out the network round-trip a real database adds.
+ * <p>
+ * Not part of the test suite. Run {@link #main} from the test classpath after {@code mvn test-compile};
+ * the GC profiler reports allocation per operation alongside the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceSeriesStoreBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 16);
+
+    /**
+     * Days of history requested, ending today.
+     */
+    @Param({"30", "365"})
+    public int days;
+
+    private SingleConnectionDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private StockHistoryRepository stockHistoryRepository;
+    private TransactionTemplate readOnly;
+    private PriceSeriesStore priceSeriesStore;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:bench-series", "sa", "", true);
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.tinusj.stocklee.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create",
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName()));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        stockHistoryRepository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory))
+                .getRepository(StockHistoryRepository.class);
+        readOnly = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        readOnly.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        UUID stockId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO stock (id, symbol, name, current_price, market) VALUES (?, 'AAPL', 'Apple Inc.', 100.00, 'NASDAQ')",
+                stockId);
+        ApplicationConfig config = new ApplicationConfig();
+        int bars = config.getHistoryStore().getCapacity();
+        jdbcTemplate.batchUpdate("INSERT INTO stock_history (id, stock_id, price, open_price, high_price, low_price, close_price, "
+                        + "volume, date, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)",
+                IntStream.range(0, bars).boxed().toList(), 500, (ps, i) -> {
+                    BigDecimal close = BigDecimal.valueOf(10000 + i, 2);
+                    ps.setObject(1, UUID.randomUUID());
+                    ps.setObject(2, stockId);
+                    ps.setBigDecimal(3, close);
+                    ps.setBigDecimal(4, close.subtract(BigDecimal.ONE));
+                    ps.setBigDecimal(5, close.add(BigDecimal.ONE));
+                    ps.setBigDecimal(6, close.subtract(BigDecimal.TEN));
+                    ps.setBigDecimal(7, close);
+                    ps.setLong(8, 1_000_000L + i);
+                    ps.setObject(9, TODAY.minusDays(i));
+                });
+        priceSeriesStore = new PriceSeriesStore(jdbcTemplate, config);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<HistoricalStockDataDto> jpa() {
+        return readOnly.execute(status -> stockHistoryRepository
+                .findByStockSymbolAndDateBetween("AAPL", TODAY.minusDays(days), TODAY).stream()
+                .map(row -> new HistoricalStockDataDto(row.getStock().getSymbol(), row.getDate(), row.getOpenPrice(),
+                        row.getHighPrice(), row.getLowPrice(), row.getClosePrice(), row.getVolume()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<HistoricalStockDataDto> store() {
+        return priceSeriesStore.findDailyBars("AAPL", TODAY.minusDays(days), TODAY).orElseThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PriceSeriesStoreBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
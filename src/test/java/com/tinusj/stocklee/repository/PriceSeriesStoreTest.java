@@ -0,0 +1,154 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.dto.HistoricalStockDataDto;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for PriceSeriesStore against the embedded database.
+ */
+@DataJpaTest
+@Import({PriceSeriesStore.class, StockPriceWriter.class, StockBarWriter.class, ApplicationConfig.class})
+class PriceSeriesStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 16);
+
+    @Autowired
+    private PriceSeriesStore priceSeriesStore;
+
+    @Autowired
+    private StockPriceWriter stockPriceWriter;
+
+    @Autowired
+    private StockHistoryRepository stockHistoryRepository;
+
+    @Autowired
+    private ApplicationConfig applicationConfig;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        applicationConfig.getHistoryStore().setCapacity(3);
+        priceSeriesStore.clear();
+        stock = new Stock();
+        stock.setSymbol("AAPL");
+        stock.setName("Apple Inc.");
+        stock.setCurrentPrice(new BigDecimal("100.00"));
+        stock.setMarket(Stock.MarketType.NASDAQ);
+        stock = entityManager.persist(stock);
+        for (int days = 4; days >= 0; days--) {
+            entityManager.persist(bar(TODAY.minusDays(days), "10" + days + ".25"));
+        }
+        entityManager.persist(new StockHistory(stock, new BigDecimal("99.00")));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindDailyBars_MatchesDatabaseWithinCapacity() {
+        // When
+        Optional<List<HistoricalStockDataDto>> bars = priceSeriesStore.findDailyBars("AAPL", TODAY.minusDays(2), TODAY);
+
+        // Then
+        List<HistoricalStockDataDto> expected = stockHistoryRepository
+                .findByStockSymbolAndDateBetween("AAPL", TODAY.minusDays(2), TODAY).stream()
+                .map(row -> new HistoricalStockDataDto("AAPL", row.getDate(), row.getOpenPrice(), row.getHighPrice(),
+                        row.getLowPrice(), row.getClosePrice(), row.getVolume()))
+                .toList();
+        assertThat(bars).contains(expected);
+        assertThat(expected).extracting(HistoricalStockDataDto::getDate)
+                .containsExactly(TODAY, TODAY.minusDays(1), TODAY.minusDays(2));
+    }
+
+    @Test
+    void testFindDailyBars_RangeOlderThanCapacity_LeftToDatabase() {
+        assertThat(priceSeriesStore.findDailyBars("AAPL", TODAY.minusDays(3), TODAY)).isEmpty();
+        assertThat(priceSeriesStore.findDailyBars("MSFT", TODAY.minusDays(3), TODAY)).contains(List.of());
+    }
+
+    @Test
+    void testFindDailyBars_SymbolWithoutBars_KeepsEmptySeries() {
+        // Given
+        Stock msft = new Stock();
+        msft.setSymbol("MSFT");
+        assertThat(priceSeriesStore.findDailyBars("MSFT", TODAY, TODAY)).contains(List.of());
+
+        // When - recorded without being stored, so only a kept series can hold it
+        priceSeriesStore.record(List.of(new StockHistory(msft, TODAY, null, null, null, new BigDecimal("300.00"), null)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertThat(priceSeriesStore.findDailyBars("MSFT", TODAY, TODAY).orElseThrow())
+                .extracting(HistoricalStockDataDto::getClosePrice).containsExactly(new BigDecimal("300.00"));
+    }
+
+    @Test
+    void testRecord_AppliesWrittenBarsOnceCommitted() {
+        // Given
+        priceSeriesStore.findDailyBars("AAPL", TODAY, TODAY);
+        StockHistory close = new StockHistory(stock, TODAY.plusDays(1), null, null, null, new BigDecimal("106.00"), null);
+
+        // When
+        stockPriceWriter.write(List.of(), List.of(), List.of(close));
+
+        // Then
+        assertThat(priceSeriesStore.findDailyBars("AAPL", TODAY, TODAY.plusDays(1)).orElseThrow()).hasSize(1);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        List<HistoricalStockDataDto> bars = priceSeriesStore.findDailyBars("AAPL", TODAY, TODAY.plusDays(1)).orElseThrow();
+        assertThat(bars).extracting(HistoricalStockDataDto::getDate).containsExactly(TODAY.plusDays(1), TODAY);
+        assertThat(bars.get(0).getClosePrice()).isEqualByComparingTo("106.00");
+        assertThat(bars.get(0).getOpenPrice()).isNull();
+        // The oldest bar made way for the new one
+        assertThat(priceSeriesStore.findDailyBars("AAPL", TODAY.minusDays(2), TODAY)).isEmpty();
+    }
+
+    @Test
+    void testRecord_HistoryBarAfterCloseSnapshot_CompletesBar() {
+        // Given
+        priceSeriesStore.findDailyBars("AAPL", TODAY, TODAY);
+        LocalDate tomorrow = TODAY.plusDays(1);
+        stockPriceWriter.write(List.of(), List.of(),
+                List.of(new StockHistory(stock, tomorrow, null, null, null, new BigDecimal("106.00"), null)));
+
+        // When
+        stockPriceWriter.upsertDailyBars(List.of(bar(tomorrow, "106.00")));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertThat(stockHistoryRepository.findByStockAndDate(stock, tomorrow)).singleElement().satisfies(row -> {
+            assertThat(row.getOpenPrice()).isEqualByComparingTo("99.50");
+            assertThat(row.getHighPrice()).isEqualByComparingTo("107.00");
+            assertThat(row.getLowPrice()).isEqualByComparingTo("99.00");
+            assertThat(row.getClosePrice()).isEqualByComparingTo("106.00");
+            assertThat(row.getVolume()).isEqualTo(1000L);
+        });
+        assertThat(priceSeriesStore.findDailyBars("AAPL", tomorrow, tomorrow).orElseThrow())
+                .containsExactly(new HistoricalStockDataDto("AAPL", tomorrow, new BigDecimal("99.50"),
+                        new BigDecimal("107.00"), new BigDecimal("99.00"), new BigDecimal("106.00"), 1000L));
+    }
+
+    private StockHistory bar(LocalDate date, String close) {
+        return new StockHistory(stock, date, new BigDecimal("99.50"), new BigDecimal(close).add(BigDecimal.ONE),
+                new BigDecimal("99.00"), new BigDecimal(close), 1000L);
+    }
+}
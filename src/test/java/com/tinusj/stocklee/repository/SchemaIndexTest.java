@@ -0,0 +1,64 @@
+package com.tinusj.stocklee.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the hot repository queries are served by an index of the migrated schema.
+ * The migrations are applied to H2 in PostgreSQL mode and each query's plan is read with {@code EXPLAIN};
+ * a plan that falls back to scanning the filtered table fails the test.
+ */
+class SchemaIndexTest {
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:schema-index;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql"),
+                new ClassPathResource("db/vendor/h2/V2__stock_tick.sql"),
+                new ClassPathResource("db/migration/V3__stock_bar.sql"),
+                new ClassPathResource("db/migration/V4__quantity_scale.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.destroy();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            StockHistoryRepository.findByStockAndDateBetween       | stock_history     | SELECT * FROM stock_history sh WHERE sh.stock_id = ? AND sh.date BETWEEN ? AND ? ORDER BY sh.date DESC
+            StockHistoryRepository.findByStockSymbolAndDateBetween | stock_history     | SELECT * FROM stock_history sh JOIN stock s ON s.id = sh.stock_id WHERE s.symbol = ? AND sh.date BETWEEN ? AND ? ORDER BY sh.date DESC
+            StockHistoryRepository.findByStockSymbolAndDateBetween | stock             | SELECT * FROM stock_history sh JOIN stock s ON s.id = sh.stock_id WHERE s.symbol = ? AND sh.date BETWEEN ? AND ? ORDER BY sh.date DESC
+            StockHistoryRepository.findLatestByStock               | stock_history     | SELECT * FROM stock_history sh WHERE sh.stock_id = ? ORDER BY sh.date DESC, sh.timestamp DESC
+            StockHistoryRepository.findByStockAndDate              | stock_history     | SELECT * FROM stock_history sh WHERE sh.stock_id = ? AND sh.date = ?
+            OwnedStockRepository.findByUserAndStock                | owned_stock       | SELECT * FROM owned_stock os WHERE os.user_id = ? AND os.stock_id = ?
+            OwnedStockRepository.findByUserWithStockDetails        | owned_stock       | SELECT * FROM owned_stock os JOIN stock s ON s.id = os.stock_id WHERE os.user_id = ?
+            StockTransactionRepository.findByUserWithStockDetails  | stock_transaction | SELECT * FROM stock_transaction st JOIN stock s ON s.id = st.stock_id WHERE st.user_id = ? ORDER BY st.timestamp DESC
+            StockTransactionRepository.findByUserWithStockDetails  | stock             | SELECT * FROM stock_transaction st JOIN stock s ON s.id = st.stock_id WHERE st.user_id = ? ORDER BY st.timestamp DESC
+            HistoryLog by user                                     | history_log       | SELECT * FROM history_log hl WHERE hl.user_id = ? ORDER BY hl.timestamp DESC
+            TransactionHistory by transaction                      | transaction_history | SELECT * FROM transaction_history th WHERE th.transaction_id = ?
+            StockTickRepository.findByStockIdInRange               | stock_tick        | SELECT * FROM stock_tick t WHERE t.stock_id = ? AND t.timestamp >= ? AND t.timestamp < ? ORDER BY t.timestamp
+            StockTickPartitions.expire                             | stock_tick        | SELECT id FROM stock_tick t WHERE t.timestamp < ?
+            StockBarRepository.findBySymbolInRange                 | stock_bar         | SELECT * FROM stock_bar b JOIN stock s ON s.id = b.stock_id WHERE s.symbol = ? AND b.resolution = ? AND b.bucket_start >= ? AND b.bucket_start < ? ORDER BY b.bucket_start
+            """)
+    void testHotQuery_UsesIndex(String query, String table, String sql) {
+        // When
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        // Then
+        assertThat(plan).as(plan).doesNotContainIgnoringCase(table + ".tableScan");
+    }
+}
@@ -0,0 +1,110 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockBar;
+import com.tinusj.stocklee.entity.StockTick;
+import com.tinusj.stocklee.enums.BarResolution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for StockBarWriter against the embedded database.
+ */
+@DataJpaTest
+@Import({StockBarWriter.class, ApplicationConfig.class})
+class StockBarWriterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 16, 9, 30);
+
+    @Autowired
+    private StockBarWriter stockBarWriter;
+
+    @Autowired
+    private StockBarRepository stockBarRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        stock = new Stock();
+        stock.setSymbol("AAPL");
+        stock.setName("Apple Inc.");
+        stock.setCurrentPrice(new BigDecimal("100.00"));
+        stock.setMarket(Stock.MarketType.NASDAQ);
+        stock = entityManager.persistAndFlush(stock);
+    }
+
+    @Test
+    void testRollup_FoldsTicksIntoEveryResolution() {
+        // When
+        int bars = stockBarWriter.rollup(List.of(
+                tick("100.00", START.plusSeconds(10)),
+                tick("101.50", START.plusSeconds(20)),
+                tick("99.00", START.plusSeconds(30)),
+                tick("100.50", START.plusSeconds(40))));
+
+        // Then
+        assertThat(bars).isEqualTo(BarResolution.values().length);
+        for (BarResolution resolution : BarResolution.values()) {
+            StockBar bar = onlyBar(resolution);
+            assertThat(bar.getBucketStart()).isEqualTo(resolution.start(START));
+            assertThat(bar.getOpenPrice()).isEqualByComparingTo("100.00");
+            assertThat(bar.getHighPrice()).isEqualByComparingTo("101.50");
+            assertThat(bar.getLowPrice()).isEqualByComparingTo("99.00");
+            assertThat(bar.getClosePrice()).isEqualByComparingTo("100.50");
+            assertThat(bar.getTickCount()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void testRollup_LaterBatchesMergeIntoStoredBars() {
+        // Given
+        stockBarWriter.rollup(List.of(tick("100.00", START.plusSeconds(10))));
+
+        // When - the next minute, still within the same five minutes
+        stockBarWriter.rollup(List.of(tick("102.00", START.plusSeconds(70))));
+        stockBarWriter.rollup(List.of(tick("98.00", START.plusSeconds(80))));
+
+        // Then
+        List<StockBar> minutes = stockBarRepository.findBySymbolInRange("AAPL", BarResolution.MINUTE_1,
+                START, START.plusHours(1));
+        assertThat(minutes).extracting(StockBar::getBucketStart).containsExactly(START, START.plusMinutes(1));
+        assertThat(minutes.get(1).getOpenPrice()).isEqualByComparingTo("102.00");
+        assertThat(minutes.get(1).getClosePrice()).isEqualByComparingTo("98.00");
+
+        StockBar fiveMinutes = onlyBar(BarResolution.MINUTE_5);
+        assertThat(fiveMinutes.getOpenPrice()).isEqualByComparingTo("100.00");
+        assertThat(fiveMinutes.getHighPrice()).isEqualByComparingTo("102.00");
+        assertThat(fiveMinutes.getLowPrice()).isEqualByComparingTo("98.00");
+        assertThat(fiveMinutes.getClosePrice()).isEqualByComparingTo("98.00");
+        assertThat(fiveMinutes.getTickCount()).isEqualTo(3);
+    }
+
+    private StockTick tick(String price, LocalDateTime timestamp) {
+        StockTick tick = new StockTick(stock, new BigDecimal(price));
+        tick.setTimestamp(timestamp);
+        return tick;
+    }
+
+    private StockBar onlyBar(BarResolution resolution) {
+        entityManager.clear();
+        List<StockBar> bars = stockBarRepository.findBySymbolInRange("AAPL", resolution,
+                START.minusDays(1), START.plusDays(1));
+        assertThat(bars).hasSize(1);
+        return bars.get(0);
+    }
+}
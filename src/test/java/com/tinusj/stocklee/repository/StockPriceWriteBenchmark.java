@@ -0,0 +1,159 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockTick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one refresh cycle written row by row, as {@code save} per stock and tick row did,
+ * with the batched {@link StockPriceWriter}.
+ * <p>
+ * Runs against in-memory H2 and against H2 in PostgreSQL compatibility mode as a stand-in for an
+ * embedded PostgreSQL. Both are in-process, so the figures show the per-statement overhead saved;
+ * against a networked database each saved statement is also a saved round-trip.
+ * <p>
+ * Not part of the test suite. Run {@link #main} from the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockPriceWriteBenchmark {
+
+    @Param({"h2", "postgresql"})
+    public String database;
+
+    /**
+     * Stocks updated in the cycle, each with one intraday tick.
+     */
+    @Param({"100", "1000"})
+    public int stocks;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private StockPriceWriter stockPriceWriter;
+    private List<Stock> portfolio;
+    private BigDecimal price = new BigDecimal("100.00");
+
+    @Setup
+    public void setUp() {
+        String url = "postgresql".equals(database)
+                ? "jdbc:h2:mem:bench-pg;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+                : "jdbc:h2:mem:bench-h2";
+        dataSource = new SingleConnectionDataSource(url, "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        ApplicationConfig config = new ApplicationConfig();
+        // The row-by-row baseline keeps no bars, so the rollup is left out to compare like for like
+        StockBarWriter noRollup = new StockBarWriter(jdbcTemplate, config) {
+            @Override
+            public int rollup(Collection<StockTick> ticks) {
+                return 0;
+            }
+        };
+        stockPriceWriter = new StockPriceWriter(jdbcTemplate, noRollup, new PriceSeriesStore(jdbcTemplate, config), config);
+
+        jdbcTemplate.execute("""
+                CREATE TABLE stock (id UUID PRIMARY KEY, symbol VARCHAR(255) NOT NULL UNIQUE, name VARCHAR(255) NOT NULL,
+                current_price NUMERIC(38,2) NOT NULL, previous_price NUMERIC(38,2), description VARCHAR(500),
+                market VARCHAR(255) NOT NULL, created_at TIMESTAMP(6), updated_at TIMESTAMP(6))""");
+        jdbcTemplate.execute("""
+                CREATE TABLE stock_tick (id UUID PRIMARY KEY, stock_id UUID NOT NULL REFERENCES stock(id),
+                price NUMERIC(38,2) NOT NULL, timestamp TIMESTAMP(6) NOT NULL)""");
+
+        portfolio = new ArrayList<>();
+        for (int i = 0; i < stocks; i++) {
+            Stock stock = new Stock();
+            stock.setId(UUID.randomUUID());
+            stock.setSymbol("S%04d".formatted(i));
+            stock.setName("Stock " + i);
+            stock.setCurrentPrice(price);
+            stock.setMarket(Stock.MarketType.NASDAQ);
+            jdbcTemplate.update("INSERT INTO stock (id, symbol, name, current_price, market) VALUES (?, ?, ?, ?, ?)",
+                    stock.getId(), stock.getSymbol(), stock.getName(), stock.getCurrentPrice(), stock.getMarket().name());
+            portfolio.add(stock);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearTicks() {
+        jdbcTemplate.execute("DELETE FROM stock_tick");
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void rowByRow() {
+        List<StockTick> ticks = nextCycle();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < portfolio.size(); i++) {
+                Stock stock = portfolio.get(i);
+                StockTick tick = ticks.get(i);
+                jdbcTemplate.update("UPDATE stock SET previous_price = ?, current_price = ?, updated_at = ? WHERE id = ?",
+                        stock.getPreviousPrice(), stock.getCurrentPrice(), now, stock.getId());
+                jdbcTemplate.update("INSERT INTO stock_tick (id, stock_id, price, timestamp) VALUES (?, ?, ?, ?)",
+                        UUID.randomUUID(), stock.getId(), tick.getPrice(), now);
+            }
+        });
+    }
+
+    @Benchmark
+    public void batched() {
+        List<StockTick> ticks = nextCycle();
+        transactionTemplate.executeWithoutResult(status -> stockPriceWriter.write(portfolio, ticks, List.of()));
+    }
+
+    private List<StockTick> nextCycle() {
+        BigDecimal previous = price;
+        price = price.add(new BigDecimal("0.01"));
+        List<StockTick> ticks = new ArrayList<>(portfolio.size());
+        for (Stock stock : portfolio) {
+            stock.setPreviousPrice(previous);
+            stock.setCurrentPrice(price);
+            ticks.add(new StockTick(stock, price));
+        }
+        return ticks;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockPriceWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,163 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.StockTick;
+import com.tinusj.stocklee.enums.BarResolution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for StockPriceWriter against the embedded database.
+ */
+@DataJpaTest
+@Import({StockPriceWriter.class, StockBarWriter.class, PriceSeriesStore.class, ApplicationConfig.class})
+class StockPriceWriterTest {
+
+    @Autowired
+    private StockPriceWriter stockPriceWriter;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StockHistoryRepository stockHistoryRepository;
+
+    @Autowired
+    private StockTickRepository stockTickRepository;
+
+    @Autowired
+    private StockBarRepository stockBarRepository;
+
+    private final List<Stock> stocks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Stock stock = new Stock();
+            stock.setSymbol("S" + i);
+            stock.setName("Stock " + i);
+            stock.setCurrentPrice(new BigDecimal("100.00"));
+            stock.setMarket(Stock.MarketType.NASDAQ);
+            stocks.add(entityManager.persist(stock));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testWrite_UpdatesPricesAndInsertsTicksAndBarsInBatches() {
+        // Given
+        List<StockTick> ticks = new ArrayList<>();
+        for (Stock stock : stocks) {
+            stock.setPreviousPrice(stock.getCurrentPrice());
+            stock.setCurrentPrice(new BigDecimal("101.50"));
+            ticks.add(new StockTick(stock, stock.getCurrentPrice()));
+        }
+        List<StockHistory> bars = List.of(new StockHistory(stocks.get(0), LocalDate.of(2026, 10, 16),
+                new BigDecimal("99.00"), new BigDecimal("102.00"), new BigDecimal("98.50"), new BigDecimal("101.00"), 1200L));
+
+        // When
+        stockPriceWriter.write(stocks, ticks, bars);
+
+        // Then
+        for (Stock written : stocks) {
+            Stock stored = entityManager.find(Stock.class, written.getId());
+            assertThat(stored.getCurrentPrice()).isEqualByComparingTo("101.50");
+            assertThat(stored.getPreviousPrice()).isEqualByComparingTo("100.00");
+            assertThat(stored.getUpdatedAt()).isNotNull();
+        }
+        assertThat(ticks).allSatisfy(tick -> {
+            assertThat(tick.getId()).isNotNull();
+            assertThat(tick.getTimestamp()).isNotNull();
+        });
+        assertThat(stockTickRepository.findAll()).hasSize(3)
+                .allSatisfy(tick -> assertThat(tick.getPrice()).isEqualByComparingTo("101.50"));
+        List<StockHistory> stored = stockHistoryRepository.findByStockAndDate(stocks.get(0), LocalDate.of(2026, 10, 16));
+        assertThat(stored).singleElement().satisfies(row -> {
+            assertThat(row.getHighPrice()).isEqualByComparingTo("102.00");
+            assertThat(row.getVolume()).isEqualTo(1200L);
+        });
+        assertThat(stockHistoryRepository.count()).isEqualTo(1);
+        assertThat(stockBarRepository.count()).isEqualTo(3L * BarResolution.values().length);
+    }
+
+    @Test
+    void testUpsertDailyBars_SkipsBarsAlreadyStored() {
+        // Given
+        LocalDate monday = LocalDate.of(2026, 10, 19);
+        stockPriceWriter.upsertDailyBars(List.of(dailyBar(stocks.get(0), monday), dailyBar(stocks.get(1), monday)));
+
+        // When
+        int inserted = stockPriceWriter.upsertDailyBars(List.of(
+                dailyBar(stocks.get(0), monday), dailyBar(stocks.get(1), monday),
+                dailyBar(stocks.get(0), monday.plusDays(1)), dailyBar(stocks.get(2), monday)));
+
+        // Then
+        assertThat(inserted).isEqualTo(2);
+        assertThat(stockHistoryRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void testWrite_CloseRowForStoredDailyBar_IsSkipped() {
+        // Given
+        LocalDate monday = LocalDate.of(2026, 10, 19);
+        stockPriceWriter.upsertDailyBars(List.of(dailyBar(stocks.get(0), monday)));
+        StockHistory close = new StockHistory(stocks.get(0), monday, null, null, null, new BigDecimal("101.00"), null);
+
+        // When
+        stockPriceWriter.write(List.of(), List.of(), List.of(close));
+
+        // Then
+        assertThat(stockHistoryRepository.findByStockAndDate(stocks.get(0), monday))
+                .singleElement()
+                .satisfies(row -> assertThat(row.getOpenPrice()).isEqualByComparingTo("99.00"));
+    }
+
+    @Test
+    void testUpsertDailyBars_FillsInCloseOnlyRow() {
+        // Given
+        LocalDate monday = LocalDate.of(2026, 10, 19);
+        stockPriceWriter.write(List.of(), List.of(),
+                List.of(new StockHistory(stocks.get(0), monday, null, null, null, new BigDecimal("101.50"), null)));
+
+        // When
+        int written = stockPriceWriter.upsertDailyBars(List.of(dailyBar(stocks.get(0), monday)));
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        assertThat(stockHistoryRepository.findByStockAndDate(stocks.get(0), monday)).singleElement().satisfies(row -> {
+            assertThat(row.getOpenPrice()).isEqualByComparingTo("99.00");
+            assertThat(row.getHighPrice()).isEqualByComparingTo("102.00");
+            assertThat(row.getClosePrice()).isEqualByComparingTo("101.50");
+            assertThat(row.getVolume()).isNotNull();
+        });
+    }
+
+    @Test
+    void testWrite_NothingToWrite_DoesNothing() {
+        // When
+        stockPriceWriter.write(List.of(), List.of(), List.of());
+
+        // Then
+        assertThat(stockHistoryRepository.count()).isZero();
+        assertThat(stockTickRepository.count()).isZero();
+    }
+
+    private static StockHistory dailyBar(Stock stock, LocalDate date) {
+        return new StockHistory(stock, date, new BigDecimal("99.00"), new BigDecimal("102.00"),
+                new BigDecimal("98.50"), new BigDecimal("101.00"), 1200L);
+    }
+}
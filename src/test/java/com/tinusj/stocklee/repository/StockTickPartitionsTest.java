@@ -0,0 +1,70 @@
+package com.tinusj.stocklee.repository;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockTick;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for StockTickPartitions against the embedded database.
+ */
+@DataJpaTest
+@Import({StockTickPartitions.class, ApplicationConfig.class})
+class StockTickPartitionsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 16, 12, 0);
+
+    @Autowired
+    private StockTickPartitions stockTickPartitions;
+
+    @Autowired
+    private StockTickRepository stockTickRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testExpire_UnpartitionedTable_DeletesTicksBeforeCutoff() {
+        // Given
+        Stock stock = new Stock();
+        stock.setSymbol("AAPL");
+        stock.setName("Apple Inc.");
+        stock.setCurrentPrice(new BigDecimal("100.00"));
+        stock.setMarket(Stock.MarketType.NASDAQ);
+        stock = entityManager.persist(stock);
+        for (int days = 0; days < 10; days++) {
+            StockTick tick = new StockTick(stock, new BigDecimal("100.00"));
+            tick.setTimestamp(NOW.minusDays(days));
+            entityManager.persist(tick);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        int expired = stockTickPartitions.expire(NOW.minusDays(7));
+
+        // Then
+        assertThat(expired).isEqualTo(2);
+        assertThat(stockTickRepository.findByStockIdInRange(stock.getId(), NOW.minusDays(30), NOW.plusDays(1)))
+                .hasSize(8);
+        assertThat(stockTickPartitions.ensurePartitions(NOW.toLocalDate())).isZero();
+    }
+
+    @Test
+    void testPartitionEnd_ReadsDailyAndMonthlySuffixes() {
+        assertThat(StockTickPartitions.partitionEnd("stock_tick_p20261016")).isEqualTo(LocalDate.of(2026, 10, 17));
+        assertThat(StockTickPartitions.partitionEnd("stock_tick_p202610")).isEqualTo(LocalDate.of(2026, 11, 1));
+        assertThat(StockTickPartitions.partitionEnd("stock_tick_default")).isNull();
+        assertThat(StockTickPartitions.partitionEnd("stock_tick_p2026xx16")).isNull();
+    }
+}
@@ -0,0 +1,90 @@
+package com.tinusj.stocklee.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for AlphaVantageService.
+ */
+@ExtendWith(MockitoExtension.class)
+class AlphaVantageServiceTest {
+
+    @Mock
+    private QuoteHttpClient quoteHttpClient;
+
+    private AlphaVantageService alphaVantageService;
+
+    @BeforeEach
+    void setUp() {
+        alphaVantageService = new AlphaVantageService(new ObjectMapper(), quoteHttpClient);
+    }
+
+    @Test
+    void testParseBatchPrices_ReadsCloseForEachSymbol() {
+        // Given
+        String response = """
+                {"endpoint":"Realtime Bulk Quotes","message":"","data":[
+                  {"symbol":"MSFT","timestamp":"2024-05-01 16:00:00","open":"410.0000","close":"415.1000"},
+                  {"symbol":"IBM","close":"170.5000","previous_close":"169.0000"}
+                ]}
+                """;
+
+        // When
+        Map<String, BigDecimal> prices = alphaVantageService.parseBatchPrices(body(response));
+
+        // Then
+        assertThat(prices).containsEntry("MSFT", new BigDecimal("415.1000"))
+                .containsEntry("IBM", new BigDecimal("170.5000"));
+    }
+
+    @Test
+    void testParseBatchPrices_RateLimitNote_ReturnsEmpty() {
+        // When
+        Map<String, BigDecimal> prices = alphaVantageService.parseBatchPrices(
+                body("{\"Note\":\"Thank you for using Alpha Vantage! Our standard API call frequency is 5 calls per minute.\"}"));
+
+        // Then
+        assertThat(prices).isEmpty();
+    }
+
+    @Test
+    void testParsePrice_ReadsGlobalQuotePrice() {
+        // Given
+        String response = """
+                {"Global Quote":{"01. symbol":"IBM","02. open":"169.0000","05. price":"170.5000","06. volume":"3012345"}}
+                """;
+
+        // When
+        Optional<BigDecimal> price = alphaVantageService.parsePrice(body(response));
+
+        // Then
+        assertThat(price).contains(new BigDecimal("170.5000"));
+    }
+
+    @Test
+    void testParsePrice_ErrorMessage_ReturnsEmpty() {
+        // When
+        Optional<BigDecimal> price = alphaVantageService.parsePrice(
+                body("{\"Error Message\":\"Invalid API call.\"}"));
+
+        // Then
+        assertThat(price).isEmpty();
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,44 @@
+package com.tinusj.stocklee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for AsyncPermits.
+ */
+class AsyncPermitsTest {
+
+    @Test
+    void testAcquireAsync_SeveralPermitsGrantedTogetherInArrivalOrder() {
+        // Given
+        AsyncPermits permits = new AsyncPermits(3);
+        CompletableFuture<Void> one = permits.acquireAsync();
+
+        // When
+        CompletableFuture<Void> three = permits.acquireAsync(3);
+        CompletableFuture<Void> another = permits.acquireAsync();
+
+        // Then - the later single permit waits behind the earlier request for three
+        assertThat(one).isDone();
+        assertThat(three).isNotDone();
+        assertThat(another).isNotDone();
+        permits.release();
+        assertThat(three).isDone();
+        assertThat(another).isNotDone();
+        permits.release(3);
+        assertThat(another).isDone();
+        assertThat(permits.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void testAcquireAsync_MorePermitsThanCapacity_Rejected() {
+        AsyncPermits permits = new AsyncPermits(2);
+
+        assertThatThrownBy(() -> permits.acquireAsync(3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,384 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.enums.ProviderType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CompositeStockPriceProvider.
+ */
+@ExtendWith(MockitoExtension.class)
+class CompositeStockPriceProviderTest {
+
+    @Mock
+    private YahooFinanceService yahooFinanceService;
+
+    @Mock
+    private AlphaVantageService alphaVantageService;
+
+    @Mock
+    private NasdaqApiService nasdaqApiService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompositeStockPriceProvider compositeStockPriceProvider;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        compositeStockPriceProvider = createProvider(unlimitedConfig());
+        when(yahooFinanceService.isValidSymbol(anyString())).thenAnswer(
+                invocation -> ((String) invocation.getArgument(0)).toUpperCase().matches("^[A-Z]{1,5}$"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        compositeStockPriceProvider.shutdown();
+    }
+
+    private CompositeStockPriceProvider createProvider(ApplicationConfig config) {
+        return new CompositeStockPriceProvider(yahooFinanceService, alphaVantageService, nasdaqApiService,
+                new ProviderRouter(config, meterRegistry), new ProviderRateLimiter(config, meterRegistry),
+                config, meterRegistry);
+    }
+
+    private static ApplicationConfig unlimitedConfig() {
+        ApplicationConfig config = new ApplicationConfig();
+        config.getRateLimit().getProviders().clear();
+        return config;
+    }
+
+    @Test
+    void testRefreshPrices_OnlyMissesGoToNextProvider() {
+        // Given
+        when(yahooFinanceService.getPrices(List.of("AAPL", "MSFT", "TSLA")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+        when(alphaVantageService.getPrices(List.of("MSFT", "TSLA")))
+                .thenReturn(Map.of("MSFT", new BigDecimal("300.00")));
+        when(nasdaqApiService.getPrices(List.of("TSLA")))
+                .thenReturn(Map.of("TSLA", new BigDecimal("200.00")));
+
+        // When
+        Map<String, BigDecimal> prices = compositeStockPriceProvider.refreshPrices(List.of("AAPL", "MSFT", "TSLA"));
+
+        // Then
+        assertThat(prices).containsEntry("AAPL", new BigDecimal("150.00"))
+                .containsEntry("MSFT", new BigDecimal("300.00"))
+                .containsEntry("TSLA", new BigDecimal("200.00"));
+    }
+
+    @Test
+    void testRefreshPrices_StopsOnceEverySymbolIsPriced() {
+        // Given
+        when(yahooFinanceService.getPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+
+        // When
+        Map<String, BigDecimal> prices = compositeStockPriceProvider.refreshPrices(List.of("AAPL", "AAPL", "bad!"));
+
+        // Then
+        assertThat(prices).containsOnlyKeys("AAPL");
+        verify(alphaVantageService, never()).getPrices(anyCollection());
+        verify(nasdaqApiService, never()).getPrices(anyCollection());
+    }
+
+    @Test
+    void testRefreshPrices_FailingProviderFallsThrough() {
+        // Given
+        when(yahooFinanceService.getPrices(List.of("AAPL"))).thenThrow(new RuntimeException("API Error"));
+        when(alphaVantageService.getPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("151.00")));
+
+        // When
+        Map<String, BigDecimal> prices = compositeStockPriceProvider.refreshPrices(List.of("AAPL"));
+
+        // Then
+        assertThat(prices).containsEntry("AAPL", new BigDecimal("151.00"));
+    }
+
+    @Test
+    void testGetPrice_SecondReadServedFromCache() {
+        // Given
+        when(yahooFinanceService.getPriceAsync("AAPL")).thenReturn(price("150.00"));
+
+        // When
+        Optional<BigDecimal> first = compositeStockPriceProvider.getPrice("AAPL");
+        Optional<BigDecimal> second = compositeStockPriceProvider.getPrice("aapl");
+
+        // Then
+        assertThat(first).contains(new BigDecimal("150.00"));
+        assertThat(second).contains(new BigDecimal("150.00"));
+        verify(yahooFinanceService, times(1)).getPriceAsync("AAPL");
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testGetPrices_OnlyUncachedSymbolsGoUpstream() {
+        // Given
+        when(yahooFinanceService.getPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+        compositeStockPriceProvider.refreshPrices(List.of("AAPL"));
+        when(yahooFinanceService.getPrices(List.of("MSFT")))
+                .thenReturn(Map.of("MSFT", new BigDecimal("300.00")));
+
+        // When
+        Map<String, BigDecimal> prices = compositeStockPriceProvider.getPrices(List.of("AAPL", "msft"));
+
+        // Then
+        assertThat(prices).containsEntry("AAPL", new BigDecimal("150.00"))
+                .containsEntry("msft", new BigDecimal("300.00"));
+        verify(yahooFinanceService, times(1)).getPrices(List.of("AAPL"));
+    }
+
+    @Test
+    void testGetPrice_ConcurrentMissesShareOneUpstreamCall() {
+        // Given
+        CompletableFuture<Optional<BigDecimal>> upstream = new CompletableFuture<>();
+        when(yahooFinanceService.getPriceAsync("AAPL")).thenReturn(upstream);
+
+        // When
+        CompletableFuture<Optional<BigDecimal>> first = compositeStockPriceProvider.getPriceAsync("AAPL");
+        CompletableFuture<Optional<BigDecimal>> second = compositeStockPriceProvider.getPriceAsync("AAPL");
+        upstream.complete(Optional.of(new BigDecimal("150.00")));
+
+        // Then
+        assertThat(first.join()).contains(new BigDecimal("150.00"));
+        assertThat(second.join()).contains(new BigDecimal("150.00"));
+        verify(yahooFinanceService, times(1)).getPriceAsync("AAPL");
+        assertThat(meterRegistry.get("stocklee.quote.cache.coalesced").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testGetPriceAsync_ChainsFallbackWithoutBlocking() {
+        // Given
+        CompletableFuture<Optional<BigDecimal>> yahoo = new CompletableFuture<>();
+        when(yahooFinanceService.getPriceAsync("AAPL")).thenReturn(yahoo);
+        when(alphaVantageService.getPriceAsync("AAPL")).thenReturn(price("151.00"));
+
+        // When
+        CompletableFuture<Optional<BigDecimal>> result = compositeStockPriceProvider.getPriceAsync("AAPL");
+
+        // Then - nothing moves on until Yahoo Finance answers
+        assertThat(result).isNotDone();
+        verifyNoInteractions(alphaVantageService);
+
+        yahoo.complete(Optional.empty());
+        assertThat(result).isCompletedWithValue(Optional.of(new BigDecimal("151.00")));
+    }
+
+    @Test
+    void testGetPriceAsync_QueuesForProviderPermit() {
+        // Given - Yahoo Finance allows a single call at a time
+        compositeStockPriceProvider.shutdown();
+        ApplicationConfig config = unlimitedConfig();
+        config.getPriceFetch().getProviderConcurrency().put(ProviderType.YAHOO_FINANCE, 1);
+        compositeStockPriceProvider = createProvider(config);
+        CompletableFuture<Optional<BigDecimal>> aapl = new CompletableFuture<>();
+        when(yahooFinanceService.getPriceAsync("AAPL")).thenReturn(aapl);
+        when(yahooFinanceService.getPriceAsync("MSFT")).thenReturn(price("300.00"));
+
+        // When
+        CompletableFuture<Optional<BigDecimal>> first = compositeStockPriceProvider.getPriceAsync("AAPL");
+        CompletableFuture<Optional<BigDecimal>> second = compositeStockPriceProvider.getPriceAsync("MSFT");
+
+        // Then
+        assertThat(second).isNotDone();
+        verify(yahooFinanceService, never()).getPriceAsync("MSFT");
+
+        aapl.complete(Optional.of(new BigDecimal("150.00")));
+        assertThat(first).isCompletedWithValue(Optional.of(new BigDecimal("150.00")));
+        assertThat(second).isCompletedWithValue(Optional.of(new BigDecimal("300.00")));
+    }
+
+    @Test
+    void testGetQuote_CarriesProvenanceOfAnsweringProvider() {
+        // Given
+        when(yahooFinanceService.getPriceAsync("AAPL")).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(alphaVantageService.getPriceAsync("AAPL")).thenReturn(price("151.00"));
+
+        // When
+        Optional<Quote> quote = compositeStockPriceProvider.getQuote("AAPL");
+
+        // Then
+        assertThat(quote).isPresent();
+        assertThat(quote.get().getProvider()).isEqualTo(ProviderType.ALPHA_VANTAGE);
+        assertThat(quote.get().getPrice()).isEqualByComparingTo("151.00");
+        assertThat(quote.get().getAsOf()).isNotNull();
+        assertThat(quote.get().getLatency().isNegative()).isFalse();
+    }
+
+    @Test
+    void testGetActiveProvider_ReadsCacheWithoutCallingProviders() {
+        // Given
+        when(yahooFinanceService.getPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+        compositeStockPriceProvider.refreshPrices(List.of("AAPL"));
+
+        // When
+        ProviderType active = compositeStockPriceProvider.getActiveProvider("AAPL");
+        ProviderType unknown = compositeStockPriceProvider.getActiveProvider("MSFT");
+
+        // Then
+        assertThat(active).isEqualTo(ProviderType.YAHOO_FINANCE);
+        assertThat(unknown).isNull();
+        verify(yahooFinanceService, never()).getPriceAsync(anyString());
+        verifyNoInteractions(alphaVantageService, nasdaqApiService);
+    }
+
+    @Test
+    void testGetProviderStatistics_RecordsSuccessRatePerProvider() {
+        // Given
+        when(yahooFinanceService.getPrices(List.of("AAPL", "MSFT")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+        when(alphaVantageService.getPrices(List.of("MSFT"))).thenThrow(new RuntimeException("API Error"));
+
+        // When
+        compositeStockPriceProvider.refreshPrices(List.of("AAPL", "MSFT"));
+
+        // Then
+        Map<ProviderType, ProviderStatistics.Snapshot> stats = new EnumMap<>(ProviderType.class);
+        compositeStockPriceProvider.getProviderStatistics().forEach(s -> stats.put(s.getProviderType(), s));
+        assertThat(stats.get(ProviderType.YAHOO_FINANCE).getCalls()).isEqualTo(1);
+        assertThat(stats.get(ProviderType.YAHOO_FINANCE).getSuccessRate()).isEqualTo(0.5);
+        assertThat(stats.get(ProviderType.ALPHA_VANTAGE).getFailures()).isEqualTo(1);
+        assertThat(stats.get(ProviderType.NASDAQ_API).getCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void testRefreshPrices_SkipsProviderWithOpenBreaker() {
+        // Given
+        when(yahooFinanceService.getPrices(anyCollection()))
+                .thenThrow(new UncheckedIOException(new IOException("Yahoo Finance API returned status: 503")));
+        when(alphaVantageService.getPrices(anyCollection()))
+                .thenAnswer(invocation -> Map.of("AAPL", new BigDecimal("151.00")));
+        for (int i = 0; i < 5; i++) {
+            compositeStockPriceProvider.refreshPrices(List.of("AAPL"));
+        }
+
+        // When
+        Map<String, BigDecimal> prices = compositeStockPriceProvider.refreshPrices(List.of("AAPL"));
+
+        // Then
+        assertThat(prices).containsEntry("AAPL", new BigDecimal("151.00"));
+        verify(yahooFinanceService, times(5)).getPrices(anyCollection());
+        verify(alphaVantageService, times(6)).getPrices(anyCollection());
+    }
+
+    @Test
+    void testRefreshPrices_EmptyAnswersKeepBreakerClosed() {
+        // Given
+        when(yahooFinanceService.getPrices(anyCollection())).thenReturn(Map.of());
+        when(alphaVantageService.getPrices(anyCollection()))
+                .thenAnswer(invocation -> Map.of("AAPL", new BigDecimal("151.00")));
+        for (int i = 0; i < 5; i++) {
+            compositeStockPriceProvider.refreshPrices(List.of("AAPL"));
+        }
+
+        // When
+        compositeStockPriceProvider.refreshPrices(List.of("AAPL"));
+
+        // Then
+        verify(yahooFinanceService, times(6)).getPrices(anyCollection());
+    }
+
+    @Test
+    void testGetQuote_HedgesToNextProviderWhenFirstIsSlow() {
+        // Given
+        compositeStockPriceProvider.shutdown();
+        ApplicationConfig config = unlimitedConfig();
+        config.getProviderRouting().setHedgeAfter(Duration.ofMillis(50));
+        compositeStockPriceProvider = createProvider(config);
+        when(yahooFinanceService.getPriceAsync("AAPL")).thenReturn(new CompletableFuture<>());
+        when(alphaVantageService.getPriceAsync("AAPL")).thenReturn(price("151.00"));
+
+        // When
+        long start = System.nanoTime();
+        Optional<Quote> quote = compositeStockPriceProvider.getQuote("AAPL");
+
+        // Then
+        assertThat(quote).isPresent();
+        assertThat(quote.get().getProvider()).isEqualTo(ProviderType.ALPHA_VANTAGE);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(meterRegistry.get("stocklee.provider.hedged").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testRefreshPrices_SymbolsBeyondBudgetGoToNextProvider() {
+        // Given - AlphaVantage allows one request, Yahoo Finance none
+        compositeStockPriceProvider.shutdown();
+        ApplicationConfig config = unlimitedConfig();
+        config.getRateLimit().getProviders().put(ProviderType.YAHOO_FINANCE,
+                new ApplicationConfig.RateLimit.Bucket(1, 1, Duration.ofHours(1)));
+        config.getRateLimit().getProviders().put(ProviderType.ALPHA_VANTAGE,
+                new ApplicationConfig.RateLimit.Bucket(1, 1, Duration.ofHours(1)));
+        compositeStockPriceProvider = createProvider(config);
+        when(yahooFinanceService.getPrices(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+        compositeStockPriceProvider.refreshPrices(List.of("AAPL"));
+        when(alphaVantageService.getPrices(List.of("MSFT"))).thenReturn(Map.of("MSFT", new BigDecimal("300.00")));
+        when(nasdaqApiService.getPrices(List.of("TSLA"))).thenReturn(Map.of("TSLA", new BigDecimal("200.00")));
+
+        // When
+        Map<String, BigDecimal> prices = compositeStockPriceProvider.refreshPrices(List.of("MSFT", "TSLA"));
+
+        // Then - AlphaVantage answers one symbol per request; the other falls through to Nasdaq
+        assertThat(prices).containsOnlyKeys("MSFT", "TSLA");
+        verify(yahooFinanceService, times(1)).getPrices(anyCollection());
+        assertThat(compositeStockPriceProvider.getRefreshBudget()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testRefreshPrices_BatchBeyondConcurrency_AskedInRoundsOfPermittedRequests() {
+        // Given - Yahoo Finance allows two calls at a time, of two symbols each
+        compositeStockPriceProvider.shutdown();
+        ApplicationConfig config = unlimitedConfig();
+        config.getPriceFetch().getProviderConcurrency().put(ProviderType.YAHOO_FINANCE, 2);
+        compositeStockPriceProvider = createProvider(config);
+        when(yahooFinanceService.getMaxBatchSize()).thenReturn(2);
+        when(yahooFinanceService.getPrices(anyCollection())).thenAnswer(invocation -> {
+            Map<String, BigDecimal> prices = new LinkedHashMap<>();
+            for (String symbol : invocation.<Collection<String>>getArgument(0)) {
+                prices.put(symbol, new BigDecimal("100.00"));
+            }
+            return prices;
+        });
+
+        // When
+        Map<String, BigDecimal> prices = compositeStockPriceProvider.refreshPrices(
+                List.of("AAA", "BBB", "CCC", "DDD", "EEE", "FFF", "GGG"));
+
+        // Then - at most four symbols, two requests, per call
+        assertThat(prices).hasSize(7);
+        verify(yahooFinanceService).getPrices(List.of("AAA", "BBB", "CCC", "DDD"));
+        verify(yahooFinanceService).getPrices(List.of("EEE", "FFF", "GGG"));
+    }
+
+    private static CompletableFuture<Optional<BigDecimal>> price(String value) {
+        return CompletableFuture.completedFuture(Optional.of(new BigDecimal(value)));
+    }
+}
@@ -0,0 +1,129 @@
+package com.tinusj.stocklee.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tinusj.stocklee.config.JacksonConfig;
+import com.tinusj.stocklee.dto.HistoricalStockDataDto;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.StockTransaction;
+import com.tinusj.stocklee.entity.UserProfile;
+import com.tinusj.stocklee.enums.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ExportService against the embedded database.
+ */
+@DataJpaTest
+@Import({ExportService.class, JacksonConfig.class})
+class ExportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2026, 10, 12);
+    private static final LocalDate TO = LocalDate.of(2026, 10, 16);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        Stock apple = entityManager.persist(stock("AAPL", "Apple Inc."));
+        Stock microsoft = entityManager.persist(stock("MSFT", "Microsoft, Corp."));
+        entityManager.persist(bar(apple, TO, "101.00"));
+        entityManager.persist(bar(apple, FROM, "100.00"));
+        entityManager.persist(bar(apple, FROM.minusDays(1), "99.00"));
+        entityManager.persist(bar(microsoft, FROM, "300.00"));
+        entityManager.persist(new StockHistory(apple, new BigDecimal("102.00")));
+
+        UserProfile user = new UserProfile();
+        user.setUsername("trader");
+        user.setEmail("trader@example.com");
+        user = entityManager.persist(user);
+        StockTransaction transaction = new StockTransaction();
+        transaction.setUser(user);
+        transaction.setStock(microsoft);
+        transaction.setTransactionType(StockTransaction.TransactionType.BUY);
+        transaction.setQuantity(new BigDecimal("2"));
+        transaction.setPrice(new BigDecimal("300.00"));
+        transaction.setTotalValue(new BigDecimal("600.00"));
+        entityManager.persist(transaction);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testExportDailyBars_Csv_WritesHeaderAndBarsInRangeOldestFirst() throws Exception {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportDailyBars("AAPL", FROM, TO, ExportFormat.CSV, out);
+
+        // Then
+        assertThat(lines(out)).containsExactly(
+                "symbol,date,openPrice,highPrice,lowPrice,closePrice,volume",
+                "AAPL,2026-10-12,99.50,101.00,99.00,100.00,1000",
+                "AAPL,2026-10-16,99.50,102.00,99.00,101.00,1000");
+    }
+
+    @Test
+    void testExportDailyBars_Ndjson_MatchesHistoricalDataDto() throws Exception {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportDailyBars(null, FROM, TO, ExportFormat.NDJSON, out);
+
+        // Then
+        List<String> lines = lines(out);
+        assertThat(lines).hasSize(3);
+        HistoricalStockDataDto first = objectMapper.readValue(lines.get(0), HistoricalStockDataDto.class);
+        assertThat(first).isEqualTo(new HistoricalStockDataDto("AAPL", FROM, new BigDecimal("99.50"),
+                new BigDecimal("101.00"), new BigDecimal("99.00"), new BigDecimal("100.00"), 1000L));
+        assertThat(lines.get(0)).contains("\"date\":\"2026-10-12\"");
+        assertThat(objectMapper.readValue(lines.get(2), HistoricalStockDataDto.class).getSymbol()).isEqualTo("MSFT");
+    }
+
+    @Test
+    void testExportTransactions_Csv_QuotesFieldsWithSeparators() throws Exception {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportTransactions(null, ExportFormat.CSV, out);
+
+        // Then
+        List<String> lines = lines(out);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(1)).contains(",BUY,").contains(",300.00,600.00,").endsWith(",MSFT,\"Microsoft, Corp.\",trader");
+    }
+
+    private static List<String> lines(ByteArrayOutputStream out) {
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static Stock stock(String symbol, String name) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setName(name);
+        stock.setCurrentPrice(new BigDecimal("100.00"));
+        stock.setMarket(Stock.MarketType.NASDAQ);
+        return stock;
+    }
+
+    private static StockHistory bar(Stock stock, LocalDate date, String close) {
+        return new StockHistory(stock, date, new BigDecimal("99.50"), new BigDecimal(close).add(BigDecimal.ONE),
+                new BigDecimal("99.00"), new BigDecimal(close), 1000L);
+    }
+}
@@ -0,0 +1,74 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for JobTransactions.
+ */
+@ExtendWith(MockitoExtension.class)
+class JobTransactionsTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private JobTransactions jobTransactions;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationConfig config = new ApplicationConfig();
+        config.getPersistence().setChunkSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        jobTransactions = new JobTransactions(transactionManager, config, meterRegistry);
+    }
+
+    @Test
+    void testExecuteInChunks_OneTransactionPerChunk() {
+        // Given
+        List<List<Integer>> chunks = new ArrayList<>();
+
+        // When
+        int stored = jobTransactions.executeInChunks("historical-daily", List.of(1, 2, 3, 4, 5), chunk -> {
+            chunks.add(List.copyOf(chunk));
+            return chunk.size();
+        });
+
+        // Then
+        assertThat(stored).isEqualTo(5);
+        assertThat(chunks).containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+        verify(transactionManager, times(3)).commit(any());
+        assertThat(meterRegistry.get("stocklee.job.transaction").tag("job", "historical-daily")
+                .timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testExecuteInChunks_FailedChunkIsRolledBackAndLaterChunksStillApply() {
+        // When
+        int stored = jobTransactions.executeInChunks("historical-weekly", List.of(1, 2, 3, 4), chunk -> {
+            if (chunk.contains(1)) {
+                throw new IllegalStateException("Duplicate key");
+            }
+            return chunk.size();
+        });
+
+        // Then
+        assertThat(stored).isEqualTo(2);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+}
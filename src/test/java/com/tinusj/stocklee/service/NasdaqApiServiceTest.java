@@ -9,7 +9,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -155,4 +157,21 @@ class NasdaqApiServiceTest {
             assertThat(dayOfWeek).isLessThanOrEqualTo(5); // Monday=1, Friday=5
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParsePrice_ReadsDollarPrefixedLastSalePrice() {
+        // Given
+        NasdaqApiService service = new NasdaqApiService(new ObjectMapper(), null);
+        String response = """
+                {"data":{"symbol":"AAPL","primaryData":{"lastSaleTime":"May 1, 2024","lastSalePrice":"$1,189.25"}},
+                 "message":null,"status":{"rCode":200}}
+                """;
+
+        // When
+        Optional<BigDecimal> result = service.parsePrice(
+                new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)), "AAPL");
+
+        // Then
+        assertThat(result).contains(new BigDecimal("1189.25"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.entity.UserProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for PortfolioStreamSubscriptions.
+ */
+@ExtendWith(MockitoExtension.class)
+class PortfolioStreamSubscriptionsTest {
+
+    private static final String LOGIN_EMAIL = "user@stocklee.com";
+
+    @Mock
+    private UserProfileService userProfileService;
+
+    @Mock
+    private PortfolioValuationEngine portfolioValuationEngine;
+
+    @InjectMocks
+    private PortfolioStreamSubscriptions portfolioStreamSubscriptions;
+
+    private final Principal principal = () -> LOGIN_EMAIL;
+    private UserProfile user;
+
+    @BeforeEach
+    void setUp() {
+        user = new UserProfile();
+        // Edited since signing up, so it no longer matches the login
+        user.setEmail("renamed@example.com");
+    }
+
+    @Test
+    void testOnSubscribe_PortfolioQueue_SubscribesProfileOfLogin() {
+        // Given
+        when(userProfileService.findByAccountEmail(LOGIN_EMAIL)).thenReturn(Optional.of(user));
+
+        // When
+        portfolioStreamSubscriptions.onSubscribe(new SessionSubscribeEvent(this,
+                message(SimpMessageType.SUBSCRIBE, "session-1", "sub-0", PortfolioStreamSubscriptions.PORTFOLIO_DESTINATION),
+                principal));
+
+        // Then
+        verify(portfolioValuationEngine).subscribe("session-1", LOGIN_EMAIL, user);
+    }
+
+    @Test
+    void testOnSubscribe_OtherDestination_Ignored() {
+        // When
+        portfolioStreamSubscriptions.onSubscribe(new SessionSubscribeEvent(this,
+                message(SimpMessageType.SUBSCRIBE, "session-1", "sub-0", "/topic/stock-prices"), principal));
+
+        // Then
+        verifyNoInteractions(userProfileService, portfolioValuationEngine);
+    }
+
+    @Test
+    void testOnUnsubscribe_OtherSubscriptionOfSession_KeepsPortfolioSubscription() {
+        // Given
+        when(userProfileService.findByAccountEmail(LOGIN_EMAIL)).thenReturn(Optional.of(user));
+        portfolioStreamSubscriptions.onSubscribe(new SessionSubscribeEvent(this,
+                message(SimpMessageType.SUBSCRIBE, "session-1", "sub-0", PortfolioStreamSubscriptions.PORTFOLIO_DESTINATION),
+                principal));
+
+        // When
+        portfolioStreamSubscriptions.onUnsubscribe(new SessionUnsubscribeEvent(this,
+                message(SimpMessageType.UNSUBSCRIBE, "session-1", "sub-1", null), principal));
+
+        // Then
+        verify(portfolioValuationEngine, never()).unsubscribe("session-1");
+
+        // When
+        portfolioStreamSubscriptions.onUnsubscribe(new SessionUnsubscribeEvent(this,
+                message(SimpMessageType.UNSUBSCRIBE, "session-1", "sub-0", null), principal));
+
+        // Then
+        verify(portfolioValuationEngine).unsubscribe("session-1");
+    }
+
+    @Test
+    void testOnDisconnect_UnsubscribesSession() {
+        // Given
+        when(userProfileService.findByAccountEmail(LOGIN_EMAIL)).thenReturn(Optional.of(user));
+        portfolioStreamSubscriptions.onSubscribe(new SessionSubscribeEvent(this,
+                message(SimpMessageType.SUBSCRIBE, "session-1", "sub-0", PortfolioStreamSubscriptions.PORTFOLIO_DESTINATION),
+                principal));
+
+        // When
+        portfolioStreamSubscriptions.onDisconnect(new SessionDisconnectEvent(this,
+                message(SimpMessageType.DISCONNECT, "session-1", null, null), "session-1", CloseStatus.NORMAL, principal));
+
+        // Then
+        verify(portfolioValuationEngine).unsubscribe("session-1");
+    }
+
+    private static Message<byte[]> message(SimpMessageType type, String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId(subscriptionId);
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+}
@@ -1,19 +1,35 @@
 package com.tinusj.stocklee.service;
 
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.controller.StockPriceWebSocketController;
 import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.entity.StockTick;
+import com.tinusj.stocklee.repository.StockPriceWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,13 +41,37 @@ class PortfolioUpdateSchedulerTest {
     @Mock
     private CompositeStockPriceProvider compositeStockPriceProvider;
 
-    @InjectMocks
+    @Mock
+    private StockHistoryService stockHistoryService;
+
+    @Mock
+    private StockPriceWebSocketController webSocketController;
+
+    @Mock
+    private StockPriceWriter stockPriceWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PortfolioValuationEngine portfolioValuationEngine;
+
+    private ApplicationConfig config;
+
+    private PriceFetchEngine priceFetchEngine;
+
     private PortfolioUpdateScheduler portfolioUpdateScheduler;
 
     private Stock testStock;
 
     @BeforeEach
     void setUp() {
+        lenient().when(compositeStockPriceProvider.getRefreshBudget()).thenReturn(Integer.MAX_VALUE);
+        config = new ApplicationConfig();
+        priceFetchEngine = new PriceFetchEngine(compositeStockPriceProvider, config, new SimpleMeterRegistry());
+        // Tuesday 10:00 in New York, during the NASDAQ session
+        portfolioUpdateScheduler = createScheduler(Instant.parse("2026-10-20T14:00:00Z"));
+
         testStock = new Stock();
         testStock.setSymbol("AAPL");
         testStock.setName("Apple Inc.");
@@ -39,6 +79,18 @@ class PortfolioUpdateSchedulerTest {
         testStock.setMarket(Stock.MarketType.NASDAQ);
     }
 
+    @AfterEach
+    void tearDown() {
+        priceFetchEngine.shutdown();
+    }
+
+    private PortfolioUpdateScheduler createScheduler(Instant now) {
+        TradingCalendar tradingCalendar = new TradingCalendar(config, Clock.fixed(now, ZoneOffset.UTC));
+        return new PortfolioUpdateScheduler(stockService, priceFetchEngine, stockHistoryService,
+                webSocketController, tradingCalendar, new PriceTickFilter(config, new SimpleMeterRegistry()), stockPriceWriter,
+                new JobTransactions(transactionManager, config, new SimpleMeterRegistry()), portfolioValuationEngine, config);
+    }
+
     @Test
     void testUpdatePortfolio_Success() {
         // Arrange
@@ -46,16 +98,16 @@ class PortfolioUpdateSchedulerTest {
         BigDecimal newPrice = new BigDecimal("155.00");
         
         when(stockService.findAll()).thenReturn(stocks);
-        when(compositeStockPriceProvider.getPrice("AAPL")).thenReturn(Optional.of(newPrice));
-        when(stockService.save(any(Stock.class))).thenReturn(testStock);
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL"))).thenReturn(Map.of("AAPL", newPrice));
 
         // Act
         portfolioUpdateScheduler.updatePortfolio();
 
         // Assert
         verify(stockService).findAll();
-        verify(compositeStockPriceProvider).getPrice("AAPL");
-        verify(stockService).save(testStock);
+        verify(compositeStockPriceProvider).refreshPrices(List.of("AAPL"));
+        verify(stockPriceWriter).write(eq(List.of(testStock)), anyList(), eq(List.of()));
+        verify(portfolioValuationEngine).pricesChanged(List.of(testStock));
         
         // Verify price updates
         assert testStock.getPreviousPrice().equals(new BigDecimal("150.00"));
@@ -68,15 +120,15 @@ class PortfolioUpdateSchedulerTest {
         List<Stock> stocks = Arrays.asList(testStock);
         
         when(stockService.findAll()).thenReturn(stocks);
-        when(compositeStockPriceProvider.getPrice("AAPL")).thenReturn(Optional.empty());
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL"))).thenReturn(Map.of());
 
         // Act
         portfolioUpdateScheduler.updatePortfolio();
 
         // Assert
         verify(stockService).findAll();
-        verify(compositeStockPriceProvider).getPrice("AAPL");
-        verify(stockService, never()).save(any(Stock.class));
+        verify(compositeStockPriceProvider).refreshPrices(List.of("AAPL"));
+        verifyNoInteractions(stockPriceWriter);
         
         // Verify price remains unchanged
         assert testStock.getCurrentPrice().equals(new BigDecimal("150.00"));
@@ -89,14 +141,187 @@ class PortfolioUpdateSchedulerTest {
         List<Stock> stocks = Arrays.asList(testStock);
         
         when(stockService.findAll()).thenReturn(stocks);
-        when(compositeStockPriceProvider.getPrice("AAPL")).thenThrow(new RuntimeException("API Error"));
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL"))).thenThrow(new RuntimeException("API Error"));
 
         // Act
         portfolioUpdateScheduler.updatePortfolio();
 
         // Assert
         verify(stockService).findAll();
-        verify(compositeStockPriceProvider).getPrice("AAPL");
-        verify(stockService, never()).save(any(Stock.class));
+        verify(compositeStockPriceProvider).refreshPrices(List.of("AAPL"));
+        verifyNoInteractions(stockPriceWriter);
+    }
+
+    @Test
+    void testUpdatePortfolio_InSession_WritesIntradayTicks() {
+        // Arrange
+        when(stockService.findAll()).thenReturn(List.of(testStock));
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("155.00")));
+
+        // Act
+        portfolioUpdateScheduler.updatePortfolio();
+
+        // Assert
+        assertThat(writtenTicks()).singleElement()
+                .satisfies(tick -> assertThat(tick.getPrice()).isEqualByComparingTo("155.00"));
+        verify(webSocketController).broadcastStockPriceUpdates(any());
+    }
+
+    @Test
+    void testUpdatePortfolio_UnchangedPrice_SkipsSaveHistoryAndBroadcast() {
+        // Arrange
+        when(stockService.findAll()).thenReturn(List.of(testStock));
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.0")));
+
+        // Act
+        portfolioUpdateScheduler.updatePortfolio();
+
+        // Assert
+        verifyNoInteractions(stockPriceWriter, webSocketController, portfolioValuationEngine);
+        assertThat(testStock.getPreviousPrice()).isNull();
+    }
+
+    @Test
+    void testUpdatePortfolio_MarketsClosedAndClosedRefreshDisabled_DoesNothing() {
+        // Arrange - Saturday
+        config.getTradingCalendar().setClosedInterval(Duration.ZERO);
+        portfolioUpdateScheduler = createScheduler(Instant.parse("2026-10-17T15:00:00Z"));
+
+        // Act
+        portfolioUpdateScheduler.updatePortfolio();
+
+        // Assert
+        verifyNoInteractions(stockService, stockPriceWriter);
+        verify(compositeStockPriceProvider, never()).refreshPrices(anyCollection());
+    }
+
+    @Test
+    void testUpdatePortfolio_MarketClosed_RefreshesWithoutHistory() {
+        // Arrange - Tuesday 18:00 in New York, after the close
+        portfolioUpdateScheduler = createScheduler(Instant.parse("2026-10-20T22:00:00Z"));
+        when(stockService.findAll()).thenReturn(List.of(testStock));
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("155.00")));
+
+        // Act
+        portfolioUpdateScheduler.updatePortfolio();
+        portfolioUpdateScheduler.updatePortfolio();
+
+        // Assert - the second run is within the closed interval
+        verify(compositeStockPriceProvider, times(1)).refreshPrices(anyCollection());
+        verify(stockPriceWriter).write(List.of(testStock), List.of(), List.of());
+    }
+
+    @Test
+    void testNextRefresh_InSession_UsesOpenInterval() {
+        // Arrange
+        Instant lastCompletion = Instant.parse("2026-10-20T14:00:00Z");
+
+        // Act
+        Instant next = portfolioUpdateScheduler.nextRefresh(lastCompletion);
+
+        // Assert
+        assertThat(next).isEqualTo(lastCompletion.plusSeconds(10));
+    }
+
+    @Test
+    void testNextRefresh_WeekendWithClosedRefreshDisabled_WaitsForFirstOpen() {
+        // Arrange - Friday 17:00 in New York
+        config.getTradingCalendar().setClosedInterval(Duration.ZERO);
+        portfolioUpdateScheduler = createScheduler(Instant.parse("2026-10-16T21:00:00Z"));
+
+        // Act
+        Instant next = portfolioUpdateScheduler.nextRefresh(Instant.parse("2026-10-16T21:00:00Z"));
+
+        // Assert - London opens first on Monday
+        assertThat(next).isEqualTo(Instant.parse("2026-10-19T07:00:00Z"));
+    }
+
+    @Test
+    void testSnapshotClose_RecordsOneDatedCloseRowPerSession() {
+        // Arrange - Tuesday 16:01 in New York
+        portfolioUpdateScheduler = createScheduler(Instant.parse("2026-10-20T20:01:00Z"));
+        when(stockService.findAll()).thenReturn(List.of(testStock));
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("156.00")));
+
+        // Act
+        portfolioUpdateScheduler.snapshotClose();
+        portfolioUpdateScheduler.snapshotClose();
+
+        // Assert
+        StockHistory close = assertThat(writtenBars()).singleElement().actual();
+        assertThat(close.getDate()).isEqualTo(LocalDate.of(2026, 10, 20));
+        assertThat(close.getClosePrice()).isEqualByComparingTo("156.00");
+        assertThat(portfolioUpdateScheduler.nextCloseSnapshot()).isEqualTo(Instant.parse("2026-10-21T15:31:00Z"));
+    }
+
+    @Test
+    void testSnapshotClose_UnchangedPrice_RecordsCloseRowOnly() {
+        // Arrange - Tuesday 16:01 in New York
+        portfolioUpdateScheduler = createScheduler(Instant.parse("2026-10-20T20:01:00Z"));
+        when(stockService.findAll()).thenReturn(List.of(testStock));
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+
+        // Act
+        portfolioUpdateScheduler.snapshotClose();
+
+        // Assert
+        verify(stockPriceWriter).write(eq(List.of()), eq(List.of()), argThat(bars -> bars.size() == 1));
+        verifyNoInteractions(webSocketController);
+    }
+
+    @Test
+    void testUpdatePortfolio_WriteFails_DoesNotBroadcast() {
+        // Arrange
+        when(stockService.findAll()).thenReturn(List.of(testStock));
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("155.00")));
+        doThrow(new RuntimeException("Connection refused")).when(stockPriceWriter).write(anyCollection(), anyCollection(), anyCollection());
+
+        // Act
+        portfolioUpdateScheduler.updatePortfolio();
+
+        // Assert
+        verifyNoInteractions(webSocketController);
+    }
+
+    @Test
+    void testUpdateHistoricalData_FetchesAllStocksBeforeStoringInOneTransaction() {
+        // Arrange
+        Stock other = new Stock();
+        other.setSymbol("MSFT");
+        List<StockHistory> appleBars = List.of(new StockHistory(testStock, new BigDecimal("150.00")));
+        when(stockService.findAll()).thenReturn(List.of(testStock, other));
+        when(stockHistoryService.fetchHistoricalData(eq(testStock), any(), any())).thenReturn(appleBars);
+        when(stockHistoryService.fetchHistoricalData(eq(other), any(), any())).thenThrow(new RuntimeException("API Error"));
+        when(stockHistoryService.storeHistoricalData(appleBars)).thenReturn(1);
+
+        // Act
+        portfolioUpdateScheduler.updateHistoricalData();
+
+        // Assert
+        var inOrder = inOrder(stockHistoryService, transactionManager);
+        inOrder.verify(stockHistoryService, times(2)).fetchHistoricalData(any(), any(), any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(stockHistoryService).storeHistoricalData(appleBars);
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<StockTick> writtenTicks() {
+        ArgumentCaptor<Collection<StockTick>> ticks = ArgumentCaptor.forClass(Collection.class);
+        verify(stockPriceWriter, times(1)).write(anyCollection(), ticks.capture(), anyCollection());
+        return ticks.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<StockHistory> writtenBars() {
+        ArgumentCaptor<Collection<StockHistory>> bars = ArgumentCaptor.forClass(Collection.class);
+        verify(stockPriceWriter, times(1)).write(anyCollection(), anyCollection(), bars.capture());
+        return bars.getValue();
     }
-}
\ No newline at end of file
+}
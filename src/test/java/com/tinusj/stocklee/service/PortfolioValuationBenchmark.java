@@ -0,0 +1,116 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.entity.OwnedStock;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.money.Money;
+import com.tinusj.stocklee.money.Quantity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares portfolio valuation and the buy math on {@link Money} and {@link Quantity} with the
+ * previous {@link BigDecimal} arithmetic, over holdings read from entities as the services read them.
+ * <p>
+ * Not part of the test suite. Run {@link #main} from the test classpath after {@code mvn test-compile};
+ * the GC profiler reports allocation per operation alongside throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortfolioValuationBenchmark {
+
+    /**
+     * Holdings in the portfolio.
+     */
+    @Param({"10", "100"})
+    public int holdings;
+
+    private List<OwnedStock> ownedStocks;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ownedStocks = new ArrayList<>(holdings);
+        for (int i = 0; i < holdings; i++) {
+            Stock stock = new Stock();
+            stock.setSymbol("S" + i);
+            stock.setCurrentPrice(BigDecimal.valueOf(1_000 + random.nextInt(50_000), 2));
+            OwnedStock owned = new OwnedStock();
+            owned.setStock(stock);
+            owned.setQuantity(BigDecimal.valueOf(1 + random.nextInt(1_000_000), 4));
+            owned.setAveragePrice(BigDecimal.valueOf(1_000 + random.nextInt(50_000), 2));
+            owned.setTotalValue(owned.getAveragePrice().multiply(owned.getQuantity()).setScale(2, RoundingMode.HALF_UP));
+            ownedStocks.add(owned);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal profitLossBigDecimal() {
+        BigDecimal currentValue = ownedStocks.stream()
+                .map(owned -> owned.getStock().getCurrentPrice().multiply(owned.getQuantity()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal investment = ownedStocks.stream()
+                .map(OwnedStock::getTotalValue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return currentValue.subtract(investment);
+    }
+
+    @Benchmark
+    public long profitLossMoney() {
+        return OwnedStockService.marketValue(ownedStocks).minus(OwnedStockService.costBasis(ownedStocks)).cents();
+    }
+
+    @Benchmark
+    public BigDecimal buyBigDecimal() {
+        BigDecimal balance = new BigDecimal("1000000.00");
+        BigDecimal investment = new BigDecimal("1234.56");
+        for (OwnedStock owned : ownedStocks) {
+            BigDecimal price = owned.getStock().getCurrentPrice();
+            BigDecimal shares = investment.divide(price, 4, RoundingMode.DOWN);
+            balance = balance.subtract(price.multiply(shares));
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public long buyMoney() {
+        Money balance = Money.ofCents(100_000_000);
+        Money investment = Money.ofCents(123_456);
+        for (OwnedStock owned : ownedStocks) {
+            Money price = Money.of(owned.getStock().getCurrentPrice());
+            Quantity shares = investment.sharesAt(price);
+            balance = balance.minus(price.times(shares));
+        }
+        return balance.cents();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PortfolioValuationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
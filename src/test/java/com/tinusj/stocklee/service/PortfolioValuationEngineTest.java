@@ -0,0 +1,250 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.controller.StockPriceWebSocketController;
+import com.tinusj.stocklee.dto.OwnedStockDto;
+import com.tinusj.stocklee.dto.PortfolioUpdateDto;
+import com.tinusj.stocklee.entity.OwnedStock;
+import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.UserProfile;
+import com.tinusj.stocklee.money.Money;
+import com.tinusj.stocklee.money.Quantity;
+import com.tinusj.stocklee.repository.HolderIndex;
+import com.tinusj.stocklee.repository.OwnedStockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for PortfolioValuationEngine.
+ */
+@ExtendWith(MockitoExtension.class)
+class PortfolioValuationEngineTest {
+
+    @Mock
+    private OwnedStockRepository ownedStockRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StockPriceWebSocketController webSocketController;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private HolderIndex holderIndex;
+    private PortfolioValuationEngine portfolioValuationEngine;
+    private UserProfile user;
+    private Stock apple;
+    private Stock microsoft;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationConfig config = new ApplicationConfig();
+        config.getPortfolioValuation().setMaxAge(Duration.ofMinutes(15));
+        holderIndex = new HolderIndex(jdbcTemplate, transactionManager);
+        portfolioValuationEngine = new PortfolioValuationEngine(ownedStockRepository, holderIndex, webSocketController,
+                transactionManager, config, meterRegistry, nanoTime::get);
+
+        user = new UserProfile();
+        user.setId(UUID.randomUUID());
+        user.setUsername("testuser");
+        user.setEmail("testuser@example.com");
+        apple = stock("AAPL", "150.00");
+        microsoft = stock("MSFT", "300.00");
+    }
+
+    @Test
+    void testValuation_SecondRead_ServedWithoutQuery() {
+        // Given
+        when(ownedStockRepository.findByUserWithStockDetails(user))
+                .thenReturn(List.of(holding(apple, "2", "140.00"), holding(microsoft, "1.5", "310.00")));
+
+        // When
+        PortfolioValuation first = portfolioValuationEngine.valuation(user);
+        nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+        PortfolioValuation second = portfolioValuationEngine.valuation(user);
+
+        // Then
+        verify(ownedStockRepository, times(1)).findByUserWithStockDetails(user);
+        assertThat(second).isSameAs(first);
+        assertThat(second.costBasis()).isEqualTo(Money.of(new BigDecimal("745.00")));
+        assertThat(second.marketValue()).isEqualTo(Money.of(new BigDecimal("750.00")));
+        assertThat(second.profitLoss()).isEqualTo(Money.of(new BigDecimal("5.00")));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "portfolios").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("stocklee.portfolio.valuation.age").timer().max(TimeUnit.SECONDS))
+                .isEqualTo(30.0);
+    }
+
+    @Test
+    void testPricesChanged_RepricesHeldSymbolsInPlace() {
+        // Given
+        when(ownedStockRepository.findByUserWithStockDetails(user))
+                .thenReturn(List.of(holding(apple, "2", "140.00"), holding(microsoft, "1.5", "310.00")));
+        portfolioValuationEngine.valuation(user);
+        Stock other = stock("TSLA", "200.00");
+        apple.setCurrentPrice(new BigDecimal("155.25"));
+
+        // When
+        portfolioValuationEngine.pricesChanged(List.of(apple, other));
+        PortfolioValuation valuation = portfolioValuationEngine.valuation(user);
+
+        // Then
+        verify(ownedStockRepository, times(1)).findByUserWithStockDetails(user);
+        assertThat(valuation.marketValue()).isEqualTo(Money.of(new BigDecimal("760.50")));
+        assertThat(valuation.costBasis()).isEqualTo(Money.of(new BigDecimal("745.00")));
+        assertThat(valuation.holdings().get(0).currentPrice()).isEqualTo(Money.of(new BigDecimal("155.25")));
+        assertThat(meterRegistry.get("stocklee.portfolio.valuation.updates").tag("event", "price").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void testHoldingChangedAndRemoved_AdjustTotals() {
+        // Given
+        OwnedStock appleHolding = holding(apple, "2", "140.00");
+        OwnedStock microsoftHolding = holding(microsoft, "1.5", "310.00");
+        when(ownedStockRepository.findByUserWithStockDetails(user)).thenReturn(List.of(appleHolding, microsoftHolding));
+        portfolioValuationEngine.valuation(user);
+
+        // When
+        OwnedStock bought = holding(apple, "3", "143.33");
+        bought.setId(appleHolding.getId());
+        bought.setTotalValue(new BigDecimal("430.00"));
+        portfolioValuationEngine.holdingChanged(bought);
+        portfolioValuationEngine.holdingRemoved(user, microsoftHolding.getId());
+        PortfolioValuation valuation = portfolioValuationEngine.valuation(user);
+
+        // Then
+        verify(ownedStockRepository, times(1)).findByUserWithStockDetails(user);
+        assertThat(valuation.holdings()).extracting(PortfolioValuation.Holding::symbol).containsExactly("AAPL");
+        assertThat(valuation.costBasis()).isEqualTo(Money.of(new BigDecimal("430.00")));
+        assertThat(valuation.marketValue()).isEqualTo(Money.of(new BigDecimal("450.00")));
+    }
+
+    @Test
+    void testValuation_PastMaxAgeOrInvalidated_ReadsAgain() {
+        // Given
+        when(ownedStockRepository.findByUserWithStockDetails(user)).thenReturn(List.of(holding(apple, "2", "140.00")));
+        portfolioValuationEngine.valuation(user);
+
+        // When
+        apple.setCurrentPrice(new BigDecimal("151.00"));
+        portfolioValuationEngine.pricesChanged(List.of(apple));
+        nanoTime.addAndGet(Duration.ofMinutes(16).toNanos());
+        portfolioValuationEngine.valuation(user);
+        portfolioValuationEngine.invalidate(user.getId());
+        portfolioValuationEngine.valuation(user);
+
+        // Then
+        verify(ownedStockRepository, times(3)).findByUserWithStockDetails(user);
+    }
+
+    @Test
+    void testPricesChanged_SubscribedHolder_SentOneUpdatePerBatch() {
+        // Given
+        when(ownedStockRepository.findByUserWithStockDetails(user))
+                .thenReturn(List.of(holding(apple, "2", "140.00"), holding(microsoft, "1.5", "310.00")));
+        portfolioValuationEngine.valuation(user);
+        portfolioValuationEngine.subscribe("session-1", "testuser@example.com", user);
+        apple.setCurrentPrice(new BigDecimal("155.25"));
+        microsoft.setCurrentPrice(new BigDecimal("290.00"));
+
+        // When
+        portfolioValuationEngine.pricesChanged(List.of(apple, microsoft));
+
+        // Then
+        ArgumentCaptor<PortfolioUpdateDto> update = ArgumentCaptor.forClass(PortfolioUpdateDto.class);
+        verify(webSocketController, times(1)).sendPortfolioUpdate(eq("testuser@example.com"), update.capture());
+        assertThat(update.getValue().getCurrentValue()).isEqualByComparingTo("745.50");
+        assertThat(update.getValue().getTotalInvestment()).isEqualByComparingTo("745.00");
+        assertThat(update.getValue().getProfitLoss()).isEqualByComparingTo("0.50");
+        assertThat(update.getValue().getChangedStocks())
+                .extracting(OwnedStockDto::getStockSymbol, OwnedStockDto::getCurrentValue)
+                .containsExactlyInAnyOrder(tuple("AAPL", new BigDecimal("310.50")), tuple("MSFT", new BigDecimal("435.00")));
+    }
+
+    @Test
+    void testPricesChanged_SubscriberNotHeldOrUnsubscribed_ReadAgainOrNotSent() {
+        // Given
+        when(ownedStockRepository.findByUserWithStockDetails(user))
+                .thenReturn(List.of(holding(apple, "2", "140.00"), holding(microsoft, "1.5", "310.00")));
+        portfolioValuationEngine.subscribe("session-1", "testuser@example.com", user);
+        apple.setCurrentPrice(new BigDecimal("155.25"));
+
+        // When
+        portfolioValuationEngine.pricesChanged(List.of(apple));
+        portfolioValuationEngine.unsubscribe("session-1");
+        portfolioValuationEngine.pricesChanged(List.of(microsoft));
+
+        // Then
+        verify(ownedStockRepository, times(1)).findByUserWithStockDetails(user);
+        ArgumentCaptor<PortfolioUpdateDto> update = ArgumentCaptor.forClass(PortfolioUpdateDto.class);
+        verify(webSocketController, times(1)).sendPortfolioUpdate(anyString(), update.capture());
+        assertThat(update.getValue().getChangedStocks()).extracting(OwnedStockDto::getStockSymbol)
+                .containsExactly("AAPL");
+        assertThat(update.getValue().getCurrentValue()).isEqualByComparingTo("760.50");
+    }
+
+    @Test
+    void testPricesChanged_PriceUnchanged_NotSent() {
+        // Given
+        when(ownedStockRepository.findByUserWithStockDetails(user)).thenReturn(List.of(holding(apple, "2", "140.00")));
+        portfolioValuationEngine.valuation(user);
+        portfolioValuationEngine.subscribe("session-1", "testuser@example.com", user);
+
+        // When
+        portfolioValuationEngine.pricesChanged(List.of(apple));
+
+        // Then
+        verify(webSocketController, never()).sendPortfolioUpdate(anyString(), any());
+    }
+
+    private static Stock stock(String symbol, String price) {
+        Stock stock = new Stock();
+        stock.setId(UUID.randomUUID());
+        stock.setSymbol(symbol);
+        stock.setName(symbol + " Inc.");
+        stock.setCurrentPrice(new BigDecimal(price));
+        stock.setMarket(Stock.MarketType.NASDAQ);
+        return stock;
+    }
+
+    private OwnedStock holding(Stock stock, String quantity, String averagePrice) {
+        OwnedStock ownedStock = new OwnedStock();
+        ownedStock.setId(UUID.randomUUID());
+        ownedStock.setUser(user);
+        ownedStock.setStock(stock);
+        ownedStock.setQuantity(new BigDecimal(quantity));
+        ownedStock.setAveragePrice(new BigDecimal(averagePrice));
+        ownedStock.setTotalValue(new BigDecimal(averagePrice).multiply(new BigDecimal(quantity)));
+        holderIndex.recordPosition(stock.getSymbol(), user.getId(), Quantity.of(ownedStock.getQuantity()));
+        return ownedStock;
+    }
+}
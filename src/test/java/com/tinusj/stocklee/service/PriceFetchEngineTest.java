@@ -0,0 +1,172 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for PriceFetchEngine.
+ */
+@ExtendWith(MockitoExtension.class)
+class PriceFetchEngineTest {
+
+    @Mock
+    private CompositeStockPriceProvider compositeStockPriceProvider;
+
+    private ApplicationConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private PriceFetchEngine priceFetchEngine;
+
+    @BeforeEach
+    void setUp() {
+        when(compositeStockPriceProvider.getRefreshBudget()).thenReturn(Integer.MAX_VALUE);
+        config = new ApplicationConfig();
+        config.getPriceFetch().setMaxConcurrency(4);
+        config.getPriceFetch().setCycleTimeout(Duration.ofMillis(500));
+        meterRegistry = new SimpleMeterRegistry();
+        priceFetchEngine = new PriceFetchEngine(compositeStockPriceProvider, config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceFetchEngine.shutdown();
+    }
+
+    private void useBatchSize(int batchSize) {
+        priceFetchEngine.shutdown();
+        config.getPriceFetch().setBatchSize(batchSize);
+        meterRegistry = new SimpleMeterRegistry();
+        priceFetchEngine = new PriceFetchEngine(compositeStockPriceProvider, config, meterRegistry);
+    }
+
+    @Test
+    void testFetchPrices_AllSymbolsAnswer() {
+        // Given
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL", "MSFT")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00"), "MSFT", new BigDecimal("300.00")));
+
+        // When
+        PriceFetchEngine.FetchResult result = priceFetchEngine.fetchPrices(List.of("AAPL", "MSFT"));
+
+        // Then
+        assertThat(result.getPrices()).containsEntry("AAPL", new BigDecimal("150.00"))
+                .containsEntry("MSFT", new BigDecimal("300.00"));
+        assertThat(result.getMissedSymbols()).isEmpty();
+        assertThat(meterRegistry.get("stocklee.price.fetch.cycle").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFetchPrices_EmptyAndFailingBatchesCountAsMissed() {
+        // Given
+        useBatchSize(1);
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL"))).thenReturn(Map.of());
+        when(compositeStockPriceProvider.refreshPrices(List.of("MSFT"))).thenThrow(new RuntimeException("API Error"));
+
+        // When
+        PriceFetchEngine.FetchResult result = priceFetchEngine.fetchPrices(List.of("AAPL", "MSFT"));
+
+        // Then
+        assertThat(result.getPrices()).isEmpty();
+        assertThat(result.getMissedSymbols()).containsExactly("AAPL", "MSFT");
+        assertThat(meterRegistry.get("stocklee.price.fetch.missed").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("stocklee.price.fetch.last.missed").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void testFetchPrices_SymbolsMissingFromBatchCountAsMissed() {
+        // Given
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL", "MSFT")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+
+        // When
+        PriceFetchEngine.FetchResult result = priceFetchEngine.fetchPrices(List.of("AAPL", "MSFT"));
+
+        // Then
+        assertThat(result.getPrices()).containsOnlyKeys("AAPL");
+        assertThat(result.getMissedSymbols()).containsExactly("MSFT");
+    }
+
+    @Test
+    void testFetchPrices_SlowBatchMissesDeadline() {
+        // Given
+        useBatchSize(1);
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+        when(compositeStockPriceProvider.refreshPrices(List.of("SLOW"))).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return Map.of("SLOW", new BigDecimal("1.00"));
+        });
+
+        // When
+        PriceFetchEngine.FetchResult result = priceFetchEngine.fetchPrices(List.of("AAPL", "SLOW"));
+
+        // Then
+        assertThat(result.getPrices()).containsOnlyKeys("AAPL");
+        assertThat(result.getMissedSymbols()).containsExactly("SLOW");
+        assertThat(result.getElapsed()).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testFetchPrices_SplitsSymbolsIntoBatches() {
+        // Given
+        useBatchSize(2);
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL", "MSFT")))
+                .thenReturn(Map.of("AAPL", new BigDecimal("150.00"), "MSFT", new BigDecimal("300.00")));
+        when(compositeStockPriceProvider.refreshPrices(List.of("TSLA"))).thenReturn(Map.of("TSLA", new BigDecimal("200.00")));
+
+        // When
+        PriceFetchEngine.FetchResult result = priceFetchEngine.fetchPrices(List.of("AAPL", "MSFT", "TSLA"));
+
+        // Then
+        assertThat(result.getPrices()).containsOnlyKeys("AAPL", "MSFT", "TSLA");
+        verify(compositeStockPriceProvider, times(2)).refreshPrices(anyList());
+    }
+
+    @Test
+    void testFetchPrices_DuplicateSymbolsFetchedOnce() {
+        // Given
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+
+        // When
+        PriceFetchEngine.FetchResult result = priceFetchEngine.fetchPrices(List.of("AAPL", "AAPL"));
+
+        // Then
+        assertThat(result.getPrices()).hasSize(1);
+        verify(compositeStockPriceProvider).refreshPrices(List.of("AAPL"));
+    }
+
+    @Test
+    void testFetchPrices_BudgetDefersAndRotatesSymbols() {
+        // Given
+        when(compositeStockPriceProvider.getRefreshBudget()).thenReturn(1);
+        when(compositeStockPriceProvider.refreshPrices(List.of("AAPL"))).thenReturn(Map.of("AAPL", new BigDecimal("150.00")));
+        when(compositeStockPriceProvider.refreshPrices(List.of("MSFT"))).thenReturn(Map.of("MSFT", new BigDecimal("300.00")));
+
+        // When
+        PriceFetchEngine.FetchResult first = priceFetchEngine.fetchPrices(List.of("AAPL", "MSFT"));
+        PriceFetchEngine.FetchResult second = priceFetchEngine.fetchPrices(List.of("AAPL", "MSFT"));
+
+        // Then
+        assertThat(first.getPrices()).containsOnlyKeys("AAPL");
+        assertThat(first.getDeferredSymbols()).containsExactly("MSFT");
+        assertThat(first.getMissedSymbols()).isEmpty();
+        assertThat(second.getPrices()).containsOnlyKeys("MSFT");
+        assertThat(second.getDeferredSymbols()).containsExactly("AAPL");
+        assertThat(meterRegistry.get("stocklee.price.fetch.deferred").counter().count()).isEqualTo(2.0);
+    }
+}
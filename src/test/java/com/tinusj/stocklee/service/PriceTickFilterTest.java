@@ -0,0 +1,133 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for PriceTickFilter.
+ */
+class PriceTickFilterTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-20T14:00:00Z");
+
+    private ApplicationConfig config;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        config = new ApplicationConfig();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testAccept_DefaultsApplyEveryChange() {
+        // Given
+        PriceTickFilter filter = new PriceTickFilter(config, meterRegistry);
+
+        // When
+        boolean unchanged = filter.accept(stock("AAPL", "150.00"), new BigDecimal("150.0"), NOW);
+        boolean changed = filter.accept(stock("AAPL", "150.00"), new BigDecimal("150.01"), NOW);
+        boolean firstPrice = filter.accept(stock("MSFT", null), new BigDecimal("410.00"), NOW);
+        filter.applied("AAPL", NOW);
+        filter.applied("MSFT", NOW);
+
+        // Then
+        assertThat(unchanged).isFalse();
+        assertThat(changed).isTrue();
+        assertThat(firstPrice).isTrue();
+        assertThat(meterRegistry.get("stocklee.price.ticks.applied").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("stocklee.price.ticks.suppressed").tag("reason", "unchanged")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testAccept_MovesWithinEpsilonAreSuppressedUntilTheyAddUp() {
+        // Given
+        config.getPriceTicks().setEpsilon(new BigDecimal("0.05"));
+        PriceTickFilter filter = new PriceTickFilter(config, meterRegistry);
+        Stock stock = stock("AAPL", "150.00");
+
+        // When - compared with the stored price, not the previous tick
+        boolean small = filter.accept(stock, new BigDecimal("150.04"), NOW);
+        boolean atEpsilon = filter.accept(stock, new BigDecimal("149.95"), NOW);
+        boolean beyond = filter.accept(stock, new BigDecimal("150.06"), NOW);
+
+        // Then
+        assertThat(small).isFalse();
+        assertThat(atEpsilon).isFalse();
+        assertThat(beyond).isTrue();
+        assertThat(meterRegistry.get("stocklee.price.ticks.suppressed").tag("reason", "epsilon")
+                .counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void testAccept_MinIntervalLimitsAppliedChangesPerSymbol() {
+        // Given
+        config.getPriceTicks().setMinInterval(Duration.ofSeconds(30));
+        PriceTickFilter filter = new PriceTickFilter(config, meterRegistry);
+
+        // When
+        boolean first = filter.accept(stock("AAPL", "150.00"), new BigDecimal("151.00"), NOW);
+        filter.applied("AAPL", NOW);
+        boolean tooSoon = filter.accept(stock("AAPL", "151.00"), new BigDecimal("152.00"), NOW.plusSeconds(10));
+        boolean otherSymbol = filter.accept(stock("MSFT", "410.00"), new BigDecimal("411.00"), NOW.plusSeconds(10));
+        boolean later = filter.accept(stock("AAPL", "151.00"), new BigDecimal("152.00"), NOW.plusSeconds(30));
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(tooSoon).isFalse();
+        assertThat(otherSymbol).isTrue();
+        assertThat(later).isTrue();
+        assertThat(meterRegistry.get("stocklee.price.ticks.suppressed").tag("reason", "interval")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testAccept_TickNotApplied_DoesNotStartMinInterval() {
+        // Given
+        config.getPriceTicks().setMinInterval(Duration.ofSeconds(30));
+        PriceTickFilter filter = new PriceTickFilter(config, meterRegistry);
+
+        // When - the first tick's write failed, so it was never reported applied
+        boolean first = filter.accept(stock("AAPL", "150.00"), new BigDecimal("151.00"), NOW);
+        boolean retried = filter.accept(stock("AAPL", "150.00"), new BigDecimal("151.00"), NOW.plusSeconds(10));
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(retried).isTrue();
+        assertThat(meterRegistry.get("stocklee.price.ticks.applied").counter().count()).isZero();
+    }
+
+    @Test
+    void testAccept_SymbolRuleOverridesDefaults() {
+        // Given
+        ApplicationConfig.PriceTicks.Rule rule = new ApplicationConfig.PriceTicks.Rule();
+        rule.setEpsilon(new BigDecimal("1.00"));
+        config.getPriceTicks().getSymbols().put("brk.a", rule);
+        PriceTickFilter filter = new PriceTickFilter(config, meterRegistry);
+
+        // When
+        boolean overridden = filter.accept(stock("BRK.A", "700000.00"), new BigDecimal("700000.50"), NOW);
+        boolean defaults = filter.accept(stock("AAPL", "150.00"), new BigDecimal("150.50"), NOW);
+
+        // Then
+        assertThat(overridden).isFalse();
+        assertThat(defaults).isTrue();
+    }
+
+    private static Stock stock(String symbol, String currentPrice) {
+        Stock stock = new Stock();
+        stock.setSymbol(symbol);
+        stock.setCurrentPrice(currentPrice == null ? null : new BigDecimal(currentPrice));
+        return stock;
+    }
+}
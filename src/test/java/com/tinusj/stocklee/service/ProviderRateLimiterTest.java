@@ -0,0 +1,82 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.enums.ProviderType;
+import com.tinusj.stocklee.enums.RateLimitMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ProviderRateLimiter.
+ */
+class ProviderRateLimiterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private ProviderRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationConfig config = new ApplicationConfig();
+        config.getRateLimit().setMaxWait(Duration.ofMillis(200));
+        config.getRateLimit().getProviders().put(ProviderType.ALPHA_VANTAGE,
+                new ApplicationConfig.RateLimit.Bucket(5, 5, Duration.ofMinutes(1)));
+        config.getRateLimit().getProviders().remove(ProviderType.YAHOO_FINANCE);
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new ProviderRateLimiter(config, meterRegistry, nanoTime::get);
+    }
+
+    @Test
+    void testAcquire_SkipModeGrantsOnlyAvailableBudget() {
+        // When
+        int first = rateLimiter.acquire(ProviderType.ALPHA_VANTAGE, 3, RateLimitMode.SKIP);
+        int second = rateLimiter.acquire(ProviderType.ALPHA_VANTAGE, 3, RateLimitMode.SKIP);
+        int third = rateLimiter.acquire(ProviderType.ALPHA_VANTAGE, 1, RateLimitMode.SKIP);
+
+        // Then
+        assertThat(first).isEqualTo(3);
+        assertThat(second).isEqualTo(2);
+        assertThat(third).isZero();
+        assertThat(meterRegistry.get("stocklee.ratelimit.rejected").tag("provider", "ALPHA_VANTAGE")
+                .counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void testAcquire_BudgetRefillsOverTime() {
+        // Given
+        rateLimiter.acquire(ProviderType.ALPHA_VANTAGE, 5, RateLimitMode.SKIP);
+
+        // When - five requests per minute: 24 seconds refill two, and the bucket never exceeds five
+        nanoTime.addAndGet(Duration.ofSeconds(24).toNanos());
+        int afterTwentyFourSeconds = rateLimiter.availableRequests(ProviderType.ALPHA_VANTAGE);
+        nanoTime.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        // Then
+        assertThat(afterTwentyFourSeconds).isEqualTo(2);
+        assertThat(rateLimiter.availableRequests(ProviderType.ALPHA_VANTAGE)).isEqualTo(5);
+    }
+
+    @Test
+    void testAcquire_WaitModeGivesUpWhenRefillIsBeyondMaxWait() {
+        // Given
+        rateLimiter.acquire(ProviderType.ALPHA_VANTAGE, 5, RateLimitMode.SKIP);
+
+        // When - the next token is 12 seconds away, longer than the 200 ms maximum wait
+        int granted = rateLimiter.acquire(ProviderType.ALPHA_VANTAGE, 1, RateLimitMode.WAIT);
+
+        // Then
+        assertThat(granted).isZero();
+    }
+
+    @Test
+    void testAcquire_UnlimitedProviderAlwaysGranted() {
+        assertThat(rateLimiter.acquire(ProviderType.YAHOO_FINANCE, 1000, RateLimitMode.SKIP)).isEqualTo(1000);
+        assertThat(rateLimiter.availableRequests(ProviderType.NASDAQ_API)).isEqualTo(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,166 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.enums.ProviderType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ProviderRouter.
+ */
+class ProviderRouterTest {
+
+    private static final Duration FAST = Duration.ofMillis(100);
+
+    private MutableClock clock;
+    private ProviderRouter providerRouter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-05-01T14:00:00Z"));
+        providerRouter = new ProviderRouter(new ApplicationConfig(), new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    void testRoute_DefaultsToDeclaredOrder() {
+        assertThat(providerRouter.route()).containsExactly(
+                ProviderType.YAHOO_FINANCE, ProviderType.ALPHA_VANTAGE, ProviderType.NASDAQ_API);
+    }
+
+    @Test
+    void testRoute_SlowProviderMovesBehindHealthyOnes() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            providerRouter.onResult(ProviderType.YAHOO_FINANCE, true, Duration.ofSeconds(3));
+        }
+
+        // When / Then
+        assertThat(providerRouter.route()).containsExactly(
+                ProviderType.ALPHA_VANTAGE, ProviderType.NASDAQ_API, ProviderType.YAHOO_FINANCE);
+        assertThat(providerRouter.getLastRouteChange()).isEqualTo(clock.instant());
+    }
+
+    @Test
+    void testPeekRoute_DoesNotRecordRouteChange() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            providerRouter.onResult(ProviderType.YAHOO_FINANCE, true, Duration.ofSeconds(3));
+        }
+
+        // When / Then
+        assertThat(providerRouter.peekRoute()).containsExactly(
+                ProviderType.ALPHA_VANTAGE, ProviderType.NASDAQ_API, ProviderType.YAHOO_FINANCE);
+        assertThat(providerRouter.getLastRouteChange()).isNull();
+    }
+
+    @Test
+    void testRoute_OldCallsDropOutOfWindow() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            providerRouter.onResult(ProviderType.YAHOO_FINANCE, true, Duration.ofSeconds(3));
+        }
+
+        // When
+        clock.advance(Duration.ofMinutes(2));
+
+        // Then
+        assertThat(providerRouter.route()).startsWith(ProviderType.YAHOO_FINANCE);
+    }
+
+    @Test
+    void testBreaker_OpensOnFailuresThenAdmitsSingleProbe() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            providerRouter.onResult(ProviderType.YAHOO_FINANCE, false, FAST);
+        }
+
+        // Then - open: skipped and refused
+        assertThat(providerRouter.route()).doesNotContain(ProviderType.YAHOO_FINANCE);
+        assertThat(providerRouter.tryAcquire(ProviderType.YAHOO_FINANCE)).isFalse();
+
+        // When - wait elapses
+        clock.advance(Duration.ofSeconds(31));
+
+        // Then - one probe allowed
+        assertThat(providerRouter.route()).endsWith(ProviderType.YAHOO_FINANCE);
+        assertThat(providerRouter.tryAcquire(ProviderType.YAHOO_FINANCE)).isTrue();
+        assertThat(providerRouter.tryAcquire(ProviderType.YAHOO_FINANCE)).isFalse();
+
+        // When - probe succeeds
+        providerRouter.onResult(ProviderType.YAHOO_FINANCE, true, FAST);
+
+        // Then
+        assertThat(providerRouter.route()).startsWith(ProviderType.YAHOO_FINANCE);
+        assertThat(providerRouter.getStatus().get(0).getState()).isEqualTo(ProviderRouter.CircuitState.CLOSED);
+    }
+
+    @Test
+    void testBreaker_FailedProbeReopens() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            providerRouter.onResult(ProviderType.ALPHA_VANTAGE, false, FAST);
+        }
+        clock.advance(Duration.ofSeconds(31));
+        assertThat(providerRouter.tryAcquire(ProviderType.ALPHA_VANTAGE)).isTrue();
+
+        // When
+        providerRouter.onResult(ProviderType.ALPHA_VANTAGE, false, FAST);
+
+        // Then
+        ProviderRouter.ProviderStatus status = providerRouter.getStatus().get(1);
+        assertThat(status.getState()).isEqualTo(ProviderRouter.CircuitState.OPEN);
+        assertThat(status.getRetryAt()).isEqualTo(clock.instant().plusSeconds(30));
+    }
+
+    @Test
+    void testBreaker_AbandonedProbeReleasesPermit() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            providerRouter.onResult(ProviderType.NASDAQ_API, false, FAST);
+        }
+        clock.advance(Duration.ofSeconds(31));
+        assertThat(providerRouter.tryAcquire(ProviderType.NASDAQ_API)).isTrue();
+
+        // When
+        providerRouter.onAbandoned(ProviderType.NASDAQ_API);
+
+        // Then
+        assertThat(providerRouter.tryAcquire(ProviderType.NASDAQ_API)).isTrue();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
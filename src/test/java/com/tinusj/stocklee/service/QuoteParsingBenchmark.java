@@ -0,0 +1,128 @@
+package com.tinusj.stocklee.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming provider parsers with the previous approach of decoding the body
+ * into a string and reading it into a tree.
+ * <p>
+ * Not part of the test suite. Run {@link #main} from the test classpath after {@code mvn test-compile};
+ * the GC profiler reports allocation per operation alongside throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteParsingBenchmark {
+
+    /**
+     * One-minute bars in the chart response, i.e. how far into the trading day it was requested.
+     */
+    @Param({"30", "390"})
+    public int bars;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private YahooFinanceService yahooFinanceService;
+    private byte[] chartResponse;
+    private byte[] quoteResponse;
+
+    @Setup
+    public void setUp() {
+        yahooFinanceService = new YahooFinanceService(objectMapper, null);
+        chartResponse = chartResponse(bars).getBytes(StandardCharsets.UTF_8);
+        quoteResponse = quoteResponse(YahooFinanceService.MAX_BATCH_SIZE).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Optional<BigDecimal> chartTree() throws Exception {
+        JsonNode root = objectMapper.readTree(new String(chartResponse, StandardCharsets.UTF_8));
+        JsonNode meta = root.get("chart").get("result").get(0).get("meta");
+        return Optional.of(BigDecimal.valueOf(meta.get("regularMarketPrice").asDouble())
+                .setScale(2, RoundingMode.HALF_UP));
+    }
+
+    @Benchmark
+    public Optional<BigDecimal> chartStreaming() {
+        return yahooFinanceService.parsePrice(new ByteArrayInputStream(chartResponse));
+    }
+
+    @Benchmark
+    public int quoteTree() throws Exception {
+        JsonNode root = objectMapper.readTree(new String(quoteResponse, StandardCharsets.UTF_8));
+        int priced = 0;
+        for (JsonNode quote : root.get("quoteResponse").get("result")) {
+            if (quote.has("symbol") && quote.has("regularMarketPrice")) {
+                priced++;
+            }
+        }
+        return priced;
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> quoteStreaming() {
+        return yahooFinanceService.parseBatchPrices(new ByteArrayInputStream(quoteResponse));
+    }
+
+    private static String chartResponse(int bars) {
+        StringBuilder timestamps = new StringBuilder();
+        StringBuilder closes = new StringBuilder();
+        for (int i = 0; i < bars; i++) {
+            String separator = i == 0 ? "" : ",";
+            timestamps.append(separator).append(1714570200L + i * 60L);
+            closes.append(separator).append(189 + (i % 100) / 100.0);
+        }
+        return """
+                {"chart":{"result":[{"meta":{"currency":"USD","symbol":"AAPL","exchangeName":"NMS",
+                "regularMarketPrice":189.987,"previousClose":188.2,"dataGranularity":"1m",
+                "tradingPeriods":[[{"timezone":"EDT","start":1714570200,"end":1714593600,"gmtoffset":-14400}]]},
+                "timestamp":[%s],
+                "indicators":{"quote":[{"open":[%s],"high":[%s],"low":[%s],"close":[%s],"volume":[%s]}]}}],
+                "error":null}}
+                """.formatted(timestamps, closes, closes, closes, closes, timestamps);
+    }
+
+    private static String quoteResponse(int symbols) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < symbols; i++) {
+            result.append(i == 0 ? "" : ",").append("""
+                    {"language":"en-US","region":"US","quoteType":"EQUITY","currency":"USD",
+                    "regularMarketChangePercent":0.53,"regularMarketPreviousClose":188.2,
+                    "fiftyTwoWeekRange":"164.08 - 199.62","longName":"Example Corporation %d",
+                    "regularMarketPrice":%d.25,"symbol":"S%03d"}""".formatted(i, 100 + i, i));
+        }
+        return "{\"quoteResponse\":{\"result\":[" + result + "],\"error\":null}}";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QuoteParsingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
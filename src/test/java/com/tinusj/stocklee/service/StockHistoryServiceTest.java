@@ -1,20 +1,30 @@
 package com.tinusj.stocklee.service;
 
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.dto.HistoricalStockDataDto;
 import com.tinusj.stocklee.entity.Stock;
+import com.tinusj.stocklee.entity.StockBar;
 import com.tinusj.stocklee.entity.StockHistory;
+import com.tinusj.stocklee.enums.BarResolution;
+import com.tinusj.stocklee.repository.StockBarRepository;
+import com.tinusj.stocklee.repository.PriceSeriesStore;
 import com.tinusj.stocklee.repository.StockHistoryRepository;
+import com.tinusj.stocklee.repository.StockPriceWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,6 +40,18 @@ class StockHistoryServiceTest {
     @Mock
     private StockHistoryRepository stockHistoryRepository;
 
+    @Mock
+    private StockBarRepository stockBarRepository;
+
+    @Mock
+    private StockPriceWriter stockPriceWriter;
+
+    @Mock
+    private PriceSeriesStore priceSeriesStore;
+
+    @Spy
+    private ApplicationConfig applicationConfig = new ApplicationConfig();
+
     @Mock
     private NasdaqApiService nasdaqApiService;
 
@@ -120,17 +142,16 @@ class StockHistoryServiceTest {
 
         when(nasdaqApiService.getHistoricalData("AAPL", fromDate, toDate))
             .thenReturn(apiData);
-        when(stockHistoryRepository.findByStockAndDate(eq(testStock), any(LocalDate.class)))
-            .thenReturn(Arrays.asList()); // No existing data
-        when(stockHistoryRepository.save(any(StockHistory.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(stockPriceWriter.upsertDailyBars(anyCollection())).thenReturn(2); // No existing data
 
         // When
         stockHistoryService.fetchAndStoreHistoricalData(testStock, fromDate, toDate);
 
         // Then
         verify(nasdaqApiService).getHistoricalData("AAPL", fromDate, toDate);
-        verify(stockHistoryRepository, times(2)).save(any(StockHistory.class));
+        verify(stockPriceWriter).upsertDailyBars(argThat(bars -> bars.size() == 2
+                && bars.stream().allMatch(bar -> bar.getStock() == testStock && bar.getDate() != null)));
+        verify(stockHistoryRepository, never()).save(any(StockHistory.class));
     }
 
     @Test
@@ -148,19 +169,18 @@ class StockHistoryServiceTest {
             )
         );
 
-        StockHistory existingHistory = createStockHistory(testStock, LocalDate.now().minusDays(1));
-
         when(nasdaqApiService.getHistoricalData("AAPL", fromDate, toDate))
             .thenReturn(apiData);
-        when(stockHistoryRepository.findByStockAndDate(eq(testStock), any(LocalDate.class)))
-            .thenReturn(Arrays.asList(existingHistory)); // Existing data found
+        when(stockPriceWriter.upsertDailyBars(anyCollection())).thenReturn(0); // Existing data found
 
         // When
-        stockHistoryService.fetchAndStoreHistoricalData(testStock, fromDate, toDate);
+        int inserted = stockHistoryService.storeHistoricalData(
+            stockHistoryService.fetchHistoricalData(testStock, fromDate, toDate));
 
         // Then
         verify(nasdaqApiService).getHistoricalData("AAPL", fromDate, toDate);
-        verify(stockHistoryRepository, never()).save(any(StockHistory.class)); // Should not save if data exists
+        assertThat(inserted).isZero(); // Existing bars are skipped by the upsert
+        verify(stockHistoryRepository, never()).save(any(StockHistory.class));
     }
 
     @Test
@@ -174,7 +194,7 @@ class StockHistoryServiceTest {
 
         // Then
         verify(nasdaqApiService).getHistoricalData("AAPL", fromDate, toDate);
-        verify(stockHistoryRepository, never()).save(any(StockHistory.class));
+        verifyNoInteractions(stockPriceWriter);
         // Should not throw exception, just log the error
     }
 
@@ -187,10 +207,122 @@ class StockHistoryServiceTest {
         stockHistoryService.fetchAndStoreHistoricalData(testStock, fromDate, toDate);
 
         // Then
-        verify(stockHistoryRepository, never()).save(any(StockHistory.class));
+        verify(stockPriceWriter).upsertDailyBars(List.of());
         // Should handle gracefully when service is not available
     }
 
+    @Test
+    void testGetDailyBars_ServedFromStoreWhenItHoldsTheRange() {
+        // Given
+        List<HistoricalStockDataDto> bars = List.of(new HistoricalStockDataDto());
+        when(priceSeriesStore.findDailyBars("AAPL", fromDate, toDate)).thenReturn(Optional.of(bars));
+
+        // When
+        List<HistoricalStockDataDto> result = stockHistoryService.getDailyBars("AAPL", fromDate, toDate);
+
+        // Then
+        assertThat(result).isSameAs(bars);
+        verifyNoInteractions(stockHistoryRepository);
+    }
+
+    @Test
+    void testGetDailyBars_RangeNotInStore_ReadsDatabase() {
+        // Given
+        when(priceSeriesStore.findDailyBars("AAPL", fromDate, toDate)).thenReturn(Optional.empty());
+        when(stockHistoryRepository.findByStockSymbolAndDateBetween("AAPL", fromDate, toDate))
+            .thenReturn(List.of(createStockHistory(testStock, toDate)));
+
+        // When
+        List<HistoricalStockDataDto> result = stockHistoryService.getDailyBars("AAPL", fromDate, toDate);
+
+        // Then
+        assertThat(result).containsExactly(new HistoricalStockDataDto("AAPL", toDate, new BigDecimal("145.00"),
+            new BigDecimal("150.00"), new BigDecimal("144.00"), new BigDecimal("149.00"), 1000000L));
+    }
+
+    @Test
+    void testGetBars_NoResolution_PicksFinestThatFitsMaxBars() {
+        // Given - a day holds 1440 one-minute bars, too many for the default 500, but only 288 five-minute bars
+        LocalDateTime from = LocalDateTime.of(2026, 10, 15, 9, 30);
+        LocalDateTime to = from.plusDays(1);
+        List<StockBar> bars = List.of(new StockBar());
+        when(stockBarRepository.findBySymbolInRange("AAPL", BarResolution.MINUTE_5, from, to)).thenReturn(bars);
+
+        // When
+        List<StockBar> result = stockHistoryService.getHistoricalData("AAPL", from, to, null);
+
+        // Then
+        assertThat(result).isSameAs(bars);
+        assertThat(stockHistoryService.getHistoricalData("AAPL", from, from.plusHours(6), null)).isEmpty();
+        verify(stockBarRepository).findBySymbolInRange("AAPL", BarResolution.MINUTE_1, from, from.plusHours(6));
+        verifyNoInteractions(stockHistoryRepository);
+    }
+
+    @Test
+    void testGetBars_NoResolution_RangeOfExactlyMaxBarsKeepsFinest() {
+        // Given - 500 minutes is exactly the default 500 one-minute bars
+        LocalDateTime from = LocalDateTime.of(2026, 10, 15, 9, 30);
+        LocalDateTime to = from.plusMinutes(500);
+
+        // When
+        stockHistoryService.getHistoricalData("AAPL", from, to, null);
+
+        // Then
+        verify(stockBarRepository).findBySymbolInRange("AAPL", BarResolution.MINUTE_1, from, to);
+    }
+
+    @Test
+    void testGetBars_Daily_PrefersStoredDailyHistoryOverRollups() {
+        // Given
+        LocalDate today = LocalDate.of(2026, 10, 16);
+        LocalDateTime from = today.minusDays(1).atStartOfDay();
+        LocalDateTime to = today.plusDays(1).atStartOfDay();
+        StockBar rolledYesterday = rolledDailyBar(today.minusDays(1), "1.00");
+        StockBar rolledToday = rolledDailyBar(today, "151.00");
+        when(stockBarRepository.findBySymbolInRange("AAPL", BarResolution.DAY_1, from, to))
+            .thenReturn(List.of(rolledYesterday, rolledToday));
+        when(stockHistoryRepository.findByStockSymbolAndDateBetween("AAPL", from.toLocalDate(), to.toLocalDate()))
+            .thenReturn(List.of(createStockHistory(testStock, today.minusDays(1))));
+
+        // When
+        List<StockBar> result = stockHistoryService.getHistoricalData("AAPL", from, to, BarResolution.DAY_1);
+
+        // Then
+        assertThat(result).extracting(StockBar::getBucketStart).containsExactly(from, today.atStartOfDay());
+        assertThat(result.get(0).getClosePrice()).isEqualByComparingTo("149.00");
+        assertThat(result.get(0).getVolume()).isEqualTo(1000000L);
+        assertThat(result.get(1)).isSameAs(rolledToday);
+    }
+
+    @Test
+    void testGetBars_Daily_CloseOnlyHistoryRowKeepsRollup() {
+        // Given
+        LocalDate today = LocalDate.of(2026, 10, 16);
+        LocalDateTime from = today.minusDays(1).atStartOfDay();
+        LocalDateTime to = today.plusDays(1).atStartOfDay();
+        StockBar rolledToday = rolledDailyBar(today, "151.00");
+        when(stockBarRepository.findBySymbolInRange("AAPL", BarResolution.DAY_1, from, to))
+            .thenReturn(List.of(rolledToday));
+        when(stockHistoryRepository.findByStockSymbolAndDateBetween("AAPL", from.toLocalDate(), to.toLocalDate()))
+            .thenReturn(List.of(
+                new StockHistory(testStock, today.minusDays(1), null, null, null, new BigDecimal("148.00"), null),
+                new StockHistory(testStock, today, null, null, null, new BigDecimal("151.00"), null)));
+
+        // When
+        List<StockBar> result = stockHistoryService.getHistoricalData("AAPL", from, to, BarResolution.DAY_1);
+
+        // Then
+        assertThat(result).containsExactly(rolledToday);
+    }
+
+    private StockBar rolledDailyBar(LocalDate date, String close) {
+        StockBar bar = new StockBar();
+        bar.setResolution(BarResolution.DAY_1);
+        bar.setBucketStart(date.atStartOfDay());
+        bar.setClosePrice(new BigDecimal(close));
+        return bar;
+    }
+
     private StockHistory createStockHistory(Stock stock, LocalDate date) {
         return new StockHistory(
             stock,
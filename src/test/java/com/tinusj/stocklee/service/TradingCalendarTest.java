@@ -0,0 +1,68 @@
+package com.tinusj.stocklee.service;
+
+import com.tinusj.stocklee.config.ApplicationConfig;
+import com.tinusj.stocklee.entity.Stock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TradingCalendar.
+ */
+class TradingCalendarTest {
+
+    private ApplicationConfig config;
+    private TradingCalendar tradingCalendar;
+
+    @BeforeEach
+    void setUp() {
+        config = new ApplicationConfig();
+        tradingCalendar = new TradingCalendar(config, Clock.fixed(Instant.parse("2026-10-20T14:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    void testIsOpen_FollowsSessionInExchangeTimeZone() {
+        // Tuesday 09:29 and 09:30 in New York
+        assertThat(tradingCalendar.isOpen(Stock.MarketType.NASDAQ, Instant.parse("2026-10-20T13:29:00Z"))).isFalse();
+        assertThat(tradingCalendar.isOpen(Stock.MarketType.NASDAQ, Instant.parse("2026-10-20T13:30:00Z"))).isTrue();
+        // 16:00 in New York is the close; 16:30 in London is the LSE close
+        assertThat(tradingCalendar.isOpen(Stock.MarketType.NYSE, Instant.parse("2026-10-20T20:00:00Z"))).isFalse();
+        assertThat(tradingCalendar.isOpen(Stock.MarketType.LSE, Instant.parse("2026-10-20T15:29:00Z"))).isTrue();
+        assertThat(tradingCalendar.isOpen(Stock.MarketType.LSE, Instant.parse("2026-10-20T15:30:00Z"))).isFalse();
+    }
+
+    @Test
+    void testIsTradingDay_WeekendsAndHolidaysClosed() {
+        // Given
+        config.getTradingCalendar().getSessions().get(Stock.MarketType.NYSE).getHolidays().add(LocalDate.of(2026, 11, 26));
+        tradingCalendar = new TradingCalendar(config);
+
+        // Then
+        assertThat(tradingCalendar.isTradingDay(Stock.MarketType.NYSE, LocalDate.of(2026, 11, 25))).isTrue();
+        assertThat(tradingCalendar.isTradingDay(Stock.MarketType.NYSE, LocalDate.of(2026, 11, 26))).isFalse();
+        assertThat(tradingCalendar.isTradingDay(Stock.MarketType.LSE, LocalDate.of(2026, 11, 26))).isTrue();
+        assertThat(tradingCalendar.isTradingDay(Stock.MarketType.NASDAQ, LocalDate.of(2026, 11, 28))).isFalse();
+    }
+
+    @Test
+    void testNextOpen_SkipsWeekend() {
+        // Friday 17:00 in New York
+        Instant next = tradingCalendar.nextOpen(Stock.MarketType.NASDAQ, Instant.parse("2026-10-16T21:00:00Z"));
+
+        // Monday 09:30 in New York
+        assertThat(next).isEqualTo(Instant.parse("2026-10-19T13:30:00Z"));
+    }
+
+    @Test
+    void testResolve_MarketWithoutSessionUsesDefault() {
+        assertThat(tradingCalendar.resolve(Stock.MarketType.OTHER)).isEqualTo(Stock.MarketType.NYSE);
+        assertThat(tradingCalendar.resolve(null)).isEqualTo(Stock.MarketType.NYSE);
+        assertThat(tradingCalendar.resolve(Stock.MarketType.LSE)).isEqualTo(Stock.MarketType.LSE);
+    }
+}
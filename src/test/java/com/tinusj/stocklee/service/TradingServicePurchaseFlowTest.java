@@ -99,6 +99,34 @@ class TradingServicePurchaseFlowTest {
         verify(ownedStockService).addShares(eq(testUser), eq(testStock), any(BigDecimal.class), eq(overridePrice));
     }
 
+    @Test
+    void testBuyStock_InvestmentBelowOneTenThousandthShare_ReportsUnroundedMinimum() {
+        // Arrange
+        buyStockDto.setInvestmentAmount(new BigDecimal("0.01"));
+        when(stockService.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+
+        // Act
+        String result = tradingService.buyStock(testUser, buyStockDto);
+
+        // Assert
+        assertEquals("Investment amount too small. Minimum required: $0.015000", result);
+        verify(ownedStockService, never()).addShares(any(), any(), any(), any());
+    }
+
+    @Test
+    void testBuyStock_PriceRoundingToZero_Rejected() {
+        // Arrange
+        buyStockDto.setPurchasePrice(new BigDecimal("0.004"));
+        when(stockService.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+
+        // Act
+        String result = tradingService.buyStock(testUser, buyStockDto);
+
+        // Assert
+        assertEquals("Invalid price for AAPL: $0.00", result);
+        verify(ownedStockService, never()).addShares(any(), any(), any(), any());
+    }
+
     @Test
     void testBuyStock_InsufficientBalance() {
         // Arrange
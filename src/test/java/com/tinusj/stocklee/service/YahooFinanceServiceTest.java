@@ -0,0 +1,161 @@
+package com.tinusj.stocklee.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for YahooFinanceService.
+ */
+@ExtendWith(MockitoExtension.class)
+class YahooFinanceServiceTest {
+
+    private static final String QUOTE_RESPONSE = """
+            {"quoteResponse":{"result":[
+              {"language":"en-US","regularMarketPrice":150.123,"quoteType":"EQUITY","symbol":"AAPL"},
+              {"symbol":"MSFT","corporateActions":[{"header":"Dividend"}],"regularMarketPrice":300}
+            ],"error":null}}
+            """;
+
+    @Mock
+    private QuoteHttpClient quoteHttpClient;
+
+    private YahooFinanceService yahooFinanceService;
+
+    @BeforeEach
+    void setUp() {
+        yahooFinanceService = new YahooFinanceService(new ObjectMapper(), quoteHttpClient);
+    }
+
+    @Test
+    void testParseBatchPrices_ReadsSymbolAndPriceInAnyOrder() {
+        // When
+        Map<String, BigDecimal> prices = yahooFinanceService.parseBatchPrices(body(QUOTE_RESPONSE));
+
+        // Then
+        assertThat(prices).containsEntry("AAPL", new BigDecimal("150.12"))
+                .containsEntry("MSFT", new BigDecimal("300.00"));
+    }
+
+    @Test
+    void testParseBatchPrices_MalformedResponse_ReturnsEmpty() {
+        // When
+        Map<String, BigDecimal> prices = yahooFinanceService.parseBatchPrices(body("{\"quoteResponse\":{\"result\":[{\"symbol\""));
+
+        // Then
+        assertThat(prices).isEmpty();
+    }
+
+    @Test
+    void testParsePrice_ReadsMetaPriceFromChart() {
+        // Given
+        String response = """
+                {"chart":{"result":[{"meta":{"currency":"USD","symbol":"AAPL","regularMarketPrice":189.987,
+                  "tradingPeriods":[[{"start":1714570200,"end":1714593600}]]},
+                  "timestamp":[1714570200,1714570260],
+                  "indicators":{"quote":[{"close":[189.1,189.9]}]}}],"error":null}}
+                """;
+
+        // When
+        Optional<BigDecimal> price = yahooFinanceService.parsePrice(body(response));
+
+        // Then
+        assertThat(price).contains(new BigDecimal("189.99"));
+    }
+
+    @Test
+    void testParsePrice_NoResult_ReturnsEmpty() {
+        // When
+        Optional<BigDecimal> price = yahooFinanceService.parsePrice(
+                body("{\"chart\":{\"result\":null,\"error\":{\"code\":\"Not Found\"}}}"));
+
+        // Then
+        assertThat(price).isEmpty();
+    }
+
+    @Test
+    void testGetPriceAsync_RequestFailure_CompletesExceptionally() {
+        // Given
+        when(quoteHttpClient.getAsync(
+                eq("https://query1.finance.yahoo.com/v8/finance/chart/AAPL"), anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Connection reset")));
+
+        // When
+        CompletableFuture<Optional<BigDecimal>> price = yahooFinanceService.getPriceAsync("aapl");
+
+        // Then
+        assertThat(price).isCompletedExceptionally();
+    }
+
+    @Test
+    void testGetPrices_EveryChunkFailed_Throws() {
+        // Given
+        when(quoteHttpClient.getAsync(anyString(), anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Connection reset")));
+
+        // When / Then
+        assertThatThrownBy(() -> yahooFinanceService.getPrices(List.of("AAPL", "MSFT")))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void testGetPrices_MapsResultsBackToRequestedSymbols() {
+        // Given
+        when(quoteHttpClient.getAsync(
+                eq("https://query1.finance.yahoo.com/v7/finance/quote?symbols=AAPL,MSFT"), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        invocation.<QuoteHttpClient.BodyReader<?>>getArgument(3).read(body(QUOTE_RESPONSE))));
+
+        // When
+        Map<String, BigDecimal> prices = yahooFinanceService.getPrices(List.of("aapl", "MSFT", "INVALID123"));
+
+        // Then
+        assertThat(prices).containsOnlyKeys("aapl", "MSFT");
+    }
+
+    @Test
+    void testGetPrices_ChunksToMaxBatchSize() {
+        // Given
+        List<String> symbols = new ArrayList<>();
+        for (int i = 0; i < YahooFinanceService.MAX_BATCH_SIZE * 2 + 1; i++) {
+            symbols.add("S" + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26));
+        }
+        when(quoteHttpClient.getAsync(anyString(), anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // When
+        Map<String, BigDecimal> prices = yahooFinanceService.getPrices(symbols);
+
+        // Then
+        assertThat(prices).isEmpty();
+        verify(quoteHttpClient, times(3)).getAsync(anyString(), anyString(), anyString(), any());
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
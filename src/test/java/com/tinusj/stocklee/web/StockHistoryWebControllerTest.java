@@ -1,5 +1,6 @@
 package com.tinusj.stocklee.web;
 
+import com.tinusj.stocklee.dto.CursorPage;
 import com.tinusj.stocklee.entity.Stock;
 import com.tinusj.stocklee.entity.StockHistory;
 import com.tinusj.stocklee.service.StockHistoryService;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 import org.springframework.ui.Model;
 
 import java.math.BigDecimal;
@@ -21,6 +23,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -66,63 +69,84 @@ class StockHistoryWebControllerTest {
     }
 
     @Test
-    void listStockHistory_ShouldSortSuccessfully() {
+    void listStockHistory_ShouldPassCursorAndDirection() {
         // Given
-        when(stockHistoryService.findAll()).thenReturn(testHistories);
+        when(stockHistoryService.findPage(null, "cursor", 50, Sort.Direction.ASC))
+                .thenReturn(new CursorPage<>(testHistories, "next"));
         when(stockService.findAll()).thenReturn(List.of(testStock));
 
         // When
-        String result = controller.listStockHistory(0, 50, "price", "desc", null, null, model);
+        String result = controller.listStockHistory("cursor", 50, "asc", null, null, model);
 
         // Then
         assertEquals("stock-history/list", result);
-        verify(model, times(9)).addAttribute(anyString(), any());
-        // The test passes if no exception is thrown during sorting
+        verify(model).addAttribute("stockHistories", testHistories);
+        verify(model).addAttribute("nextCursor", "next");
+        verify(model, times(8)).addAttribute(anyString(), any());
     }
 
     @Test
     void listStockHistory_ShouldFilterByStockId() {
         // Given
-        when(stockHistoryService.findAll()).thenReturn(testHistories);
+        when(stockHistoryService.findPage(testStock.getId(), null, 50, Sort.Direction.DESC))
+                .thenReturn(new CursorPage<>(testHistories, null));
         when(stockService.findAll()).thenReturn(List.of(testStock));
 
         // When
-        String result = controller.listStockHistory(0, 50, "timestamp", "desc", testStock.getId(), null, model);
+        String result = controller.listStockHistory(null, 50, "desc", testStock.getId(), null, model);
 
         // Then
         assertEquals("stock-history/list", result);
-        verify(model, times(9)).addAttribute(anyString(), any());
+        verify(model, times(8)).addAttribute(anyString(), any());
     }
 
     @Test
     void listStockHistory_ShouldFilterBySymbol() {
         // Given
-        when(stockHistoryService.findAll()).thenReturn(testHistories);
+        when(stockService.findBySymbol("AAPL")).thenReturn(Optional.of(testStock));
+        when(stockHistoryService.findPage(testStock.getId(), null, 50, Sort.Direction.DESC))
+                .thenReturn(new CursorPage<>(testHistories, null));
         when(stockService.findAll()).thenReturn(List.of(testStock));
 
         // When
-        String result = controller.listStockHistory(0, 50, "timestamp", "desc", null, "AAPL", model);
+        String result = controller.listStockHistory(null, 50, "desc", null, " aapl ", model);
 
         // Then
         assertEquals("stock-history/list", result);
-        verify(model, times(9)).addAttribute(anyString(), any());
+        verify(model).addAttribute("stockHistories", testHistories);
+    }
+
+    @Test
+    void listStockHistory_ShouldReturnNothingForUnknownSymbol() {
+        // Given
+        when(stockService.findBySymbol("NOPE")).thenReturn(Optional.empty());
+        when(stockService.findAll()).thenReturn(List.of(testStock));
+
+        // When
+        String result = controller.listStockHistory(null, 50, "desc", null, "NOPE", model);
+
+        // Then
+        assertEquals("stock-history/list", result);
+        verify(model).addAttribute("stockHistories", List.of());
+        verify(stockHistoryService, never()).findPage(any(), any(), anyInt(), any());
     }
 
     @Test
     void showStockHistory_ShouldReturnDetailsView() {
         // Given
         when(stockService.findById(testStock.getId())).thenReturn(Optional.of(testStock));
-        when(stockHistoryService.findAll()).thenReturn(testHistories);
+        when(stockHistoryService.findPage(testStock.getId(), null, 100, Sort.Direction.DESC))
+                .thenReturn(new CursorPage<>(testHistories, null));
         when(stockPriceProvider.getPrice("AAPL")).thenReturn(Optional.of(new BigDecimal("160.00")));
 
         // When
-        String result = controller.showStockHistory(testStock.getId(), model);
+        String result = controller.showStockHistory(testStock.getId(), null, 100, model);
 
         // Then
         assertEquals("stock-history/details", result);
         verify(model).addAttribute("stock", testStock);
-        verify(model).addAttribute(eq("stockHistories"), any());
+        verify(model).addAttribute("stockHistories", testHistories);
         verify(model).addAttribute(eq("currentPrice"), any());
         verify(model).addAttribute(eq("pageTitle"), anyString());
     }
-}
\ No newline at end of file
+}